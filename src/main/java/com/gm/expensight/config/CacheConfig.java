@@ -0,0 +1,12 @@
+package com.gm.expensight.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String RECEIPTS_CACHE = "receipts";
+    public static final String RECEIPT_LISTS_CACHE = "receiptLists";
+}
@@ -0,0 +1,46 @@
+package com.gm.expensight.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * An append-only segment file of packed blobs. {@code sizeBytes} is the committed length: anything
+ * past it is an interrupted append and is overwritten by the next one. {@code deadBytes} counts
+ * entries whose blob has since been deleted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "archive_segments")
+public class ArchiveSegment {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "dead_bytes", nullable = false)
+    private Long deadBytes;
+
+    @Column(name = "entry_count", nullable = false)
+    private Integer entryCount;
+
+    @Column(nullable = false)
+    private boolean sealed;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
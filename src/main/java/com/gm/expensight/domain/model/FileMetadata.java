@@ -28,7 +28,15 @@ public class FileMetadata {
     @Column(name = "storage_path", nullable = false)
     private String storagePath;
 
+    // Untouched upload, when the stored file is a normalized copy and the original was kept
+    @Column(name = "original_storage_path")
+    private String originalStoragePath;
+
     @Column(name = "uploaded_at", nullable = false)
     private LocalDateTime uploadedAt;
+
+    // Hex SHA-256 of the uploaded bytes, unique per user
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
 }
 
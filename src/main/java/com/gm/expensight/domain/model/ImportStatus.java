@@ -0,0 +1,6 @@
+package com.gm.expensight.domain.model;
+
+public enum ImportStatus {
+    IMPORTED,
+    REJECTED
+}
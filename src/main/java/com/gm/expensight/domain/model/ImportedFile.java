@@ -0,0 +1,60 @@
+package com.gm.expensight.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * A file the directory import has handled, with the size and modification time it had then.
+ * Rejected files are recorded too, so they are not retried until they change.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "imported_files")
+public class ImportedFile {
+
+    @Id
+    @Column(name = "source_path", length = 1024)
+    @EqualsAndHashCode.Include
+    private String sourcePath;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "last_modified", nullable = false)
+    private LocalDateTime lastModified;
+
+    @Column(name = "user_email")
+    private String userEmail;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportStatus status;
+
+    @Column(name = "receipt_id")
+    private UUID receiptId;
+
+    @Column
+    private String error;
+
+    @Column(name = "imported_at", nullable = false)
+    private LocalDateTime importedAt;
+
+    public boolean matches(long size, LocalDateTime modified) {
+        return sizeBytes == size && lastModified.equals(modified);
+    }
+}
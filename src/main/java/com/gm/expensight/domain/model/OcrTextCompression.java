@@ -0,0 +1,8 @@
+package com.gm.expensight.domain.model;
+
+public enum OcrTextCompression {
+    NONE,
+    DEFLATE,
+    // Deflate primed with the bundled receipt dictionary (ocr/receipt-ocr-dictionary-v1.txt); never edit that file
+    DEFLATE_DICTIONARY_V1
+}
@@ -24,6 +24,8 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
@@ -35,6 +37,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @ToString(exclude = { "items" })
 @Entity
 @Table(name = "receipts")
+@DynamicUpdate
 @EntityListeners(AuditingEntityListener.class)
 public class Receipt {
 
@@ -63,9 +66,6 @@ public class Receipt {
     @Column(length = 3, nullable = false)
     private String currency = "INR";
 
-    @Column(name = "raw_ocr_text", columnDefinition = "TEXT")
-    private String rawOcrText;
-
     @Embedded
     private FileMetadata fileMetadata;
 
@@ -77,7 +77,17 @@ public class Receipt {
     @Column(name = "failure_reason")
     private String failureReason;
 
+    // When the current PROCESSING claim was taken; identifies the claim, null in every other status
+    @Column(name = "processing_started_at")
+    private LocalDateTime processingStartedAt;
+
+    // Client-supplied Idempotency-Key of the upload that created this receipt, unique per user
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    // Initialises the items of up to a full page of receipts in one query when mapping lists
     @Builder.Default
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "receipt", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ReceiptItem> items = new ArrayList<>();
 
@@ -0,0 +1,44 @@
+package com.gm.expensight.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Latest change of a receipt in the per-user change feed. The row outlives the receipt as a
+ * tombstone so clients that synced it learn about the deletion.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "receipt_changes")
+public class ReceiptChange {
+
+    @Id
+    @Column(name = "receipt_id")
+    @EqualsAndHashCode.Include
+    private UUID receiptId;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
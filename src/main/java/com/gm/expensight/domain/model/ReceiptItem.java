@@ -29,6 +29,7 @@ import lombok.ToString;
 @Table(name = "receipt_items")
 public class ReceiptItem {
 
+    // Generated in the application (not IDENTITY) so Hibernate can batch item inserts
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     @EqualsAndHashCode.Include
@@ -0,0 +1,47 @@
+package com.gm.expensight.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Compressed raw OCR output of a receipt, kept out of the hot {@code receipts} row.
+ * Shares the receipt's id; the row is removed by the database when the receipt is deleted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(exclude = "content")
+@Entity
+@Table(name = "receipt_ocr_texts")
+public class ReceiptOcrText {
+
+    public static final int MAX_CONTENT_LENGTH = 1_048_576;
+
+    @Id
+    @Column(name = "receipt_id")
+    @EqualsAndHashCode.Include
+    private UUID receiptId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OcrTextCompression compression;
+
+    @Column(name = "original_size", nullable = false)
+    private Integer originalSize;
+
+    @Column(nullable = false, length = MAX_CONTENT_LENGTH)
+    private byte[] content;
+}
@@ -0,0 +1,49 @@
+package com.gm.expensight.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * One posting of the per-user full-text index: a normalised term occurring in a completed receipt.
+ * Rows are rebuilt whenever the receipt changes and removed by the database with the receipt.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "receipt_search_terms")
+public class ReceiptSearchTerm {
+
+    public static final int MAX_TERM_LENGTH = 64;
+
+    // Assigned before insert, so indexReceipt's saveAll sends a receipt's postings (up to
+    // MAX_TERMS_PER_RECEIPT of them) as JDBC batches rather than one round trip per term
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @EqualsAndHashCode.Include
+    private UUID id;
+
+    @Column(name = "receipt_id", nullable = false)
+    private UUID receiptId;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(nullable = false, length = MAX_TERM_LENGTH)
+    private String term;
+
+    @Column(nullable = false)
+    private Integer weight;
+}
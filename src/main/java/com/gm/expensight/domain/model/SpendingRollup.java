@@ -0,0 +1,39 @@
+package com.gm.expensight.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Spending bucket of one user for one month, currency and merchant, aggregated over COMPLETED receipts.
+ * Written only through {@link com.gm.expensight.repository.SpendingRollupRepository#applyDelta}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "spending_rollups")
+public class SpendingRollup {
+
+    @EmbeddedId
+    @EqualsAndHashCode.Include
+    private SpendingRollupId id;
+
+    @Column(name = "receipt_count", nullable = false)
+    private Long receiptCount;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "tax_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal taxAmount;
+}
@@ -0,0 +1,31 @@
+package com.gm.expensight.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class SpendingRollupId implements Serializable {
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    // First day of the receipt month
+    @Column(name = "period_month", nullable = false)
+    private LocalDate periodMonth;
+
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "merchant_name", nullable = false)
+    private String merchantName;
+}
@@ -0,0 +1,57 @@
+package com.gm.expensight.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * A file in the content-addressable store, keyed by the SHA-256 of its bytes, with the number of
+ * receipts that reference it. Once packed into an {@link ArchiveSegment}, {@code segmentId},
+ * {@code segmentOffset} and {@code storedLength} locate its bytes and the loose file is gone.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "stored_blobs")
+public class StoredBlob {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    @EqualsAndHashCode.Include
+    private String contentHash;
+
+    @Column(name = "ref_count", nullable = false)
+    private Long refCount;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "segment_id")
+    private Long segmentId;
+
+    @Column(name = "segment_offset")
+    private Long segmentOffset;
+
+    @Column(name = "stored_length")
+    private Long storedLength;
+
+    @Column(nullable = false)
+    private boolean compressed;
+
+    public boolean isPacked() {
+        return segmentId != null;
+    }
+}
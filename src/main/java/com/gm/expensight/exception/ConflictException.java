@@ -0,0 +1,15 @@
+package com.gm.expensight.exception;
+
+public class ConflictException extends BaseException {
+    
+    private static final String ERROR_CODE = "CONFLICT";
+    
+    public ConflictException(String message) {
+        super(message);
+    }
+    
+    @Override
+    public String getErrorCode() {
+        return ERROR_CODE;
+    }
+}
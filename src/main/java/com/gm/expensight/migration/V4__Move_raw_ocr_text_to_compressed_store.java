@@ -0,0 +1,53 @@
+package com.gm.expensight.migration;
+
+import com.gm.expensight.service.util.OcrTextCompressor;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Compresses existing {@code receipts.raw_ocr_text} values into {@code receipt_ocr_texts}
+ * and drops the inline column.
+ */
+public class V4__Move_raw_ocr_text_to_compressed_store extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        OcrTextCompressor compressor = new OcrTextCompressor(true);
+
+        try (Statement select = connection.createStatement();
+             ResultSet rows = select.executeQuery(
+                     "SELECT id, raw_ocr_text FROM receipts WHERE raw_ocr_text IS NOT NULL");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO receipt_ocr_texts (receipt_id, compression, original_size, content) "
+                             + "VALUES (?, ?, ?, ?)")) {
+            int pending = 0;
+            while (rows.next()) {
+                OcrTextCompressor.CompressedText compressed = compressor.compress(rows.getString(2));
+                insert.setObject(1, rows.getObject(1));
+                insert.setString(2, compressed.compression().name());
+                insert.setInt(3, compressed.originalSize());
+                insert.setBytes(4, compressed.content());
+                insert.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    insert.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+
+        try (Statement alter = connection.createStatement()) {
+            alter.execute("ALTER TABLE receipts DROP COLUMN raw_ocr_text");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.gm.expensight.repository;
+
+import com.gm.expensight.domain.model.ArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ArchiveSegmentRepository extends JpaRepository<ArchiveSegment, Long> {
+
+    Optional<ArchiveSegment> findTopByOrderByIdDesc();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ArchiveSegment s set s.deadBytes = s.deadBytes + :bytes where s.id = :id")
+    int addDeadBytes(@Param("id") Long id, @Param("bytes") long bytes);
+}
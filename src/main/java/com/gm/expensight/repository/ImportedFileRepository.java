@@ -0,0 +1,9 @@
+package com.gm.expensight.repository;
+
+import com.gm.expensight.domain.model.ImportedFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportedFileRepository extends JpaRepository<ImportedFile, String> {
+}
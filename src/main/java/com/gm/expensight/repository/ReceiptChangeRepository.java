@@ -0,0 +1,60 @@
+package com.gm.expensight.repository;
+
+import com.gm.expensight.domain.model.ReceiptChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReceiptChangeRepository extends JpaRepository<ReceiptChange, UUID> {
+
+    /**
+     * Locks the user's feed until the caller commits, registering the user on first use. Taken before
+     * a sequence number is drawn, so the user's entries commit in sequence order.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            MERGE INTO receipt_change_locks l
+            USING (SELECT CAST(:userEmail AS VARCHAR(255)) AS user_email) k
+            ON l.user_email = k.user_email
+            WHEN MATCHED THEN UPDATE SET locked_at = :lockedAt
+            WHEN NOT MATCHED THEN INSERT (user_email, locked_at) VALUES (k.user_email, :lockedAt)
+            """)
+    int lockUserFeed(@Param("userEmail") String userEmail, @Param("lockedAt") LocalDateTime lockedAt);
+
+    /**
+     * Moves the receipt's feed entry to the next sequence number, creating it on the first change.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            MERGE INTO receipt_changes c
+            USING (SELECT CAST(:receiptId AS UUID) AS receipt_id) k
+            ON c.receipt_id = k.receipt_id
+            WHEN MATCHED THEN UPDATE SET
+                change_seq = NEXT VALUE FOR receipt_change_seq,
+                deleted = :deleted,
+                changed_at = :changedAt
+            WHEN NOT MATCHED THEN INSERT (receipt_id, user_email, change_seq, deleted, changed_at)
+                VALUES (k.receipt_id, :userEmail, NEXT VALUE FOR receipt_change_seq, :deleted, :changedAt)
+            """)
+    int recordChange(@Param("receiptId") UUID receiptId,
+                     @Param("userEmail") String userEmail,
+                     @Param("deleted") boolean deleted,
+                     @Param("changedAt") LocalDateTime changedAt);
+
+    @Query("""
+            select c from ReceiptChange c
+            where c.userEmail = :userEmail and c.changeSeq > :since
+            order by c.changeSeq
+            """)
+    List<ReceiptChange> findChangesSince(@Param("userEmail") String userEmail,
+                                         @Param("since") long since,
+                                         Pageable pageable);
+}
@@ -1,11 +1,40 @@
 package com.gm.expensight.repository;
 
 import com.gm.expensight.domain.model.ReceiptItem;
+import com.gm.expensight.repository.projection.ReceiptItemSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ReceiptItemRepository extends JpaRepository<ReceiptItem, UUID> {
+
+    @Query("""
+            select new com.gm.expensight.repository.projection.ReceiptItemSummary(
+                i.receipt.id, i.itemName, i.quantity)
+            from ReceiptItem i
+            where i.receipt.userEmail = :userEmail
+            """)
+    List<ReceiptItemSummary> findSummariesByUserEmail(@Param("userEmail") String userEmail);
+
+    @Query("""
+            select new com.gm.expensight.repository.projection.ReceiptItemSummary(
+                i.receipt.id, i.itemName, i.quantity)
+            from ReceiptItem i
+            where i.receipt.id = :receiptId
+            """)
+    List<ReceiptItemSummary> findSummariesByReceiptId(@Param("receiptId") UUID receiptId);
+
+    @Query("""
+            select new com.gm.expensight.repository.projection.ReceiptItemSummary(
+                i.receipt.id, i.itemName, i.quantity)
+            from ReceiptItem i
+            where i.receipt.id in :receiptIds
+            """)
+    List<ReceiptItemSummary> findSummariesByReceiptIds(@Param("receiptIds") Collection<UUID> receiptIds);
 }
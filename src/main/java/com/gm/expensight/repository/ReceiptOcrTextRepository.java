@@ -0,0 +1,11 @@
+package com.gm.expensight.repository;
+
+import com.gm.expensight.domain.model.ReceiptOcrText;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ReceiptOcrTextRepository extends JpaRepository<ReceiptOcrText, UUID> {
+}
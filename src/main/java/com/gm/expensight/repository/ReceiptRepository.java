@@ -1,13 +1,203 @@
 package com.gm.expensight.repository;
 
+import com.gm.expensight.domain.model.ProcessingStatus;
 import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.repository.projection.ReceiptExportRow;
+import com.gm.expensight.repository.projection.ReceiptSummary;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface ReceiptRepository extends JpaRepository<Receipt, UUID> {
+public interface ReceiptRepository extends JpaRepository<Receipt, UUID>, ReceiptSearchRepository {
+
+    @EntityGraph(attributePaths = "items")
     List<Receipt> findByUserEmailOrderByCreatedAtDesc(String userEmail);
+
+    // Paged variant cannot fetch-join a collection; items are batch-loaded via @BatchSize on Receipt.items
+    Page<Receipt> findByUserEmail(String userEmail, Pageable pageable);
+
+    @Query("""
+            select new com.gm.expensight.repository.projection.ReceiptSummary(
+                r.id, r.userEmail, r.merchantName, r.totalAmount, r.receiptDate,
+                r.taxAmount, r.currency, r.status, r.createdAt)
+            from Receipt r
+            where r.userEmail = :userEmail
+            order by r.createdAt desc
+            """)
+    List<ReceiptSummary> findSummariesByUserEmail(@Param("userEmail") String userEmail);
+
+    @Query("""
+            select new com.gm.expensight.repository.projection.ReceiptSummary(
+                r.id, r.userEmail, r.merchantName, r.totalAmount, r.receiptDate,
+                r.taxAmount, r.currency, r.status, r.createdAt)
+            from Receipt r
+            where r.id = :id
+            """)
+    Optional<ReceiptSummary> findSummaryById(@Param("id") UUID id);
+
+    @Query("""
+            select new com.gm.expensight.repository.projection.ReceiptSummary(
+                r.id, r.userEmail, r.merchantName, r.totalAmount, r.receiptDate,
+                r.taxAmount, r.currency, r.status, r.createdAt)
+            from Receipt r
+            where r.id in :ids
+            """)
+    List<ReceiptSummary> findSummariesByIds(@Param("ids") Collection<UUID> ids);
+
+    Optional<Receipt> findByUserEmailAndIdempotencyKey(String userEmail, String idempotencyKey);
+
+    Optional<Receipt> findByUserEmailAndFileMetadataContentHash(String userEmail, String contentHash);
+
+    long countByUserEmailAndStatus(String userEmail, ProcessingStatus status);
+
+    @Query("select r.fileMetadata.storagePath from Receipt r where r.fileMetadata.storagePath in :paths")
+    List<String> findReferencedStoragePaths(@Param("paths") Collection<String> paths);
+
+    @Query("""
+            select r.fileMetadata.originalStoragePath from Receipt r
+            where r.fileMetadata.originalStoragePath in :paths
+            """)
+    List<String> findReferencedOriginalStoragePaths(@Param("paths") Collection<String> paths);
+
+    @Query("""
+            select count(r) from Receipt r
+            where r.fileMetadata.storagePath = :path or r.fileMetadata.originalStoragePath = :path
+            """)
+    long countFileReferences(@Param("path") String path);
+
+    /**
+     * Streams a user's receipts flattened to one row per item, oldest receipt first.
+     * Must be consumed inside a transaction and closed; rows are fetched from the driver in chunks.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new com.gm.expensight.repository.projection.ReceiptExportRow(
+                r.id, r.receiptDate, r.merchantName, r.currency, r.totalAmount, r.taxAmount,
+                r.status, r.createdAt, i.itemName, i.quantity, i.price)
+            from Receipt r left join r.items i
+            where r.userEmail = :userEmail
+              and r.receiptDate >= :fromDate and r.receiptDate <= :toDate
+            order by r.receiptDate, r.createdAt, r.id, i.itemName
+            """)
+    Stream<ReceiptExportRow> streamExportRows(@Param("userEmail") String userEmail,
+                                              @Param("fromDate") LocalDate fromDate,
+                                              @Param("toDate") LocalDate toDate);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Receipt r where r.id = :id")
+    Optional<Receipt> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Moves a receipt to {@code newStatus} only if it is still in {@code expectedStatus}.
+     * Clears any previous failure reason and processing claim.
+     *
+     * @return number of rows updated; 0 means another worker changed the status first
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Receipt r
+            set r.status = :newStatus, r.failureReason = null, r.processingStartedAt = null
+            where r.id = :id and r.status = :expectedStatus
+            """)
+    int compareAndSetStatus(@Param("id") UUID id,
+                            @Param("expectedStatus") ProcessingStatus expectedStatus,
+                            @Param("newStatus") ProcessingStatus newStatus);
+
+    /**
+     * Claims a receipt for processing: moves it to PROCESSING, stamped with {@code claimedAt}, only if it is
+     * still in {@code expectedStatus}. A receipt that is already PROCESSING can only be claimed once its
+     * current claim was taken before {@code staleBefore}.
+     *
+     * @return number of rows updated; 0 means another worker holds or took the claim
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Receipt r
+            set r.status = com.gm.expensight.domain.model.ProcessingStatus.PROCESSING,
+                r.processingStartedAt = :claimedAt, r.failureReason = null
+            where r.id = :id and r.status = :expectedStatus
+              and (r.status <> com.gm.expensight.domain.model.ProcessingStatus.PROCESSING
+                   or r.processingStartedAt is null or r.processingStartedAt < :staleBefore)
+            """)
+    int claimForProcessing(@Param("id") UUID id,
+                           @Param("expectedStatus") ProcessingStatus expectedStatus,
+                           @Param("claimedAt") LocalDateTime claimedAt,
+                           @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Marks a receipt as FAILED with the given reason only if it is still PROCESSING under the claim
+     * taken at {@code claimedAt}.
+     *
+     * @return number of rows updated; 0 means the receipt was deleted or its claim was taken over
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Receipt r
+            set r.status = com.gm.expensight.domain.model.ProcessingStatus.FAILED,
+                r.failureReason = :failureReason, r.processingStartedAt = null
+            where r.id = :id and r.status = com.gm.expensight.domain.model.ProcessingStatus.PROCESSING
+              and r.processingStartedAt = :claimedAt
+            """)
+    int markClaimFailed(@Param("id") UUID id,
+                        @Param("claimedAt") LocalDateTime claimedAt,
+                        @Param("failureReason") String failureReason);
+
+    /**
+     * Ids of receipts stuck in PROCESSING under a claim taken before {@code staleBefore}, oldest claim first.
+     */
+    @Query("""
+            select r.id from Receipt r
+            where r.status = com.gm.expensight.domain.model.ProcessingStatus.PROCESSING
+              and (r.processingStartedAt is null or r.processingStartedAt < :staleBefore)
+            order by r.processingStartedAt
+            """)
+    List<UUID> findStaleProcessingIds(@Param("staleBefore") LocalDateTime staleBefore, Pageable pageable);
+
+    /**
+     * Ids of COMPLETED receipts without search index entries, in id order starting after {@code after}
+     * ({@code null} to start from the beginning).
+     */
+    @Query("""
+            select r.id from Receipt r
+            where r.status = com.gm.expensight.domain.model.ProcessingStatus.COMPLETED
+              and (:after is null or r.id > :after)
+              and not exists (select 1 from ReceiptSearchTerm t where t.receiptId = r.id)
+            order by r.id
+            """)
+    List<UUID> findUnindexedCompletedIds(@Param("after") UUID after, Pageable pageable);
+
+    /**
+     * Marks a receipt as FAILED with the given reason only if it is still in {@code expectedStatus}.
+     *
+     * @return number of rows updated; 0 means another worker changed the status first
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Receipt r
+            set r.status = com.gm.expensight.domain.model.ProcessingStatus.FAILED,
+                r.failureReason = :failureReason, r.processingStartedAt = null
+            where r.id = :id and r.status = :expectedStatus
+            """)
+    int markFailed(@Param("id") UUID id,
+                   @Param("expectedStatus") ProcessingStatus expectedStatus,
+                   @Param("failureReason") String failureReason);
 }
@@ -0,0 +1,16 @@
+package com.gm.expensight.repository;
+
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.repository.projection.ReceiptSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specification-based search that selects straight into {@link ReceiptSummary}, so
+ * filtered pages stay on the same projection path as the plain receipt list.
+ */
+public interface ReceiptSearchRepository {
+
+    Page<ReceiptSummary> searchSummaries(Specification<Receipt> specification, Pageable pageable);
+}
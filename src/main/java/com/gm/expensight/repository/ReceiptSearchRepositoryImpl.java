@@ -0,0 +1,64 @@
+package com.gm.expensight.repository;
+
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.repository.projection.ReceiptSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+class ReceiptSearchRepositoryImpl implements ReceiptSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ReceiptSummary> searchSummaries(Specification<Receipt> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<ReceiptSummary> query = cb.createQuery(ReceiptSummary.class);
+        Root<Receipt> root = query.from(Receipt.class);
+        query.select(cb.construct(ReceiptSummary.class,
+                root.get("id"), root.get("userEmail"), root.get("merchantName"), root.get("totalAmount"),
+                root.get("receiptDate"), root.get("taxAmount"), root.get("currency"), root.get("status"),
+                root.get("createdAt")));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        TypedQuery<ReceiptSummary> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<ReceiptSummary> content = typedQuery.getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(specification));
+    }
+
+    private long count(Specification<Receipt> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Receipt> root = query.from(Receipt.class);
+        query.select(cb.count(root));
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
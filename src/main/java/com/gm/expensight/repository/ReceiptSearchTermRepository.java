@@ -0,0 +1,56 @@
+package com.gm.expensight.repository;
+
+import com.gm.expensight.domain.model.ReceiptSearchTerm;
+import com.gm.expensight.repository.projection.ReceiptSearchPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReceiptSearchTermRepository extends JpaRepository<ReceiptSearchTerm, UUID> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ReceiptSearchTerm t where t.receiptId = :receiptId")
+    int deleteByReceiptId(@Param("receiptId") UUID receiptId);
+
+    /**
+     * Postings whose term starts with {@code prefix}; an exact match is the special case term = prefix.
+     * Terms are stored as plain letters and digits, so the prefix never contains LIKE wildcards.
+     */
+    @Query("""
+            select new com.gm.expensight.repository.projection.ReceiptSearchPosting(t.receiptId, t.term, t.weight)
+            from ReceiptSearchTerm t
+            where t.userEmail = :userEmail and t.term like concat(:prefix, '%')
+            """)
+    List<ReceiptSearchPosting> findPostingsByTermPrefix(@Param("userEmail") String userEmail,
+                                                        @Param("prefix") String prefix);
+
+    @Query("""
+            select new com.gm.expensight.repository.projection.ReceiptSearchPosting(t.receiptId, t.term, t.weight)
+            from ReceiptSearchTerm t
+            where t.userEmail = :userEmail and t.term in :terms
+            """)
+    List<ReceiptSearchPosting> findPostingsByTerms(@Param("userEmail") String userEmail,
+                                                   @Param("terms") Collection<String> terms);
+
+    /**
+     * Candidate vocabulary for fuzzy matching: distinct terms sharing the first character of the
+     * query term and within the allowed edit distance in length.
+     */
+    @Query("""
+            select distinct t.term
+            from ReceiptSearchTerm t
+            where t.userEmail = :userEmail and t.term like concat(:firstCharacter, '%')
+              and length(t.term) between :minLength and :maxLength
+            """)
+    List<String> findFuzzyCandidateTerms(@Param("userEmail") String userEmail,
+                                         @Param("firstCharacter") String firstCharacter,
+                                         @Param("minLength") int minLength,
+                                         @Param("maxLength") int maxLength);
+}
@@ -0,0 +1,87 @@
+package com.gm.expensight.repository;
+
+import com.gm.expensight.domain.model.ProcessingStatus;
+import com.gm.expensight.domain.model.Receipt;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Building blocks for receipt search. Each factory returns {@code null} for a missing
+ * argument so callers can chain them with {@link Specification#and} unconditionally.
+ */
+public final class ReceiptSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ReceiptSpecifications() {
+    }
+
+    public static Specification<Receipt> belongsTo(String userEmail) {
+        return (root, query, cb) -> cb.equal(root.get("userEmail"), userEmail);
+    }
+
+    public static Specification<Receipt> receiptDateFrom(LocalDate fromDate) {
+        if (fromDate == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("receiptDate"), fromDate);
+    }
+
+    public static Specification<Receipt> receiptDateTo(LocalDate toDate) {
+        if (toDate == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("receiptDate"), toDate);
+    }
+
+    public static Specification<Receipt> merchantContains(String merchant) {
+        if (merchant == null || merchant.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + escapeLike(merchant.trim().toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("merchantName")), pattern, LIKE_ESCAPE);
+    }
+
+    public static Specification<Receipt> totalAmountAtLeast(BigDecimal minAmount) {
+        if (minAmount == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("totalAmount"), minAmount);
+    }
+
+    public static Specification<Receipt> totalAmountAtMost(BigDecimal maxAmount) {
+        if (maxAmount == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("totalAmount"), maxAmount);
+    }
+
+    public static Specification<Receipt> currencyIs(String currency) {
+        if (currency == null || currency.isBlank()) {
+            return null;
+        }
+        String normalized = currency.trim().toUpperCase(Locale.ROOT);
+        return (root, query, cb) -> cb.equal(root.get("currency"), normalized);
+    }
+
+    public static Specification<Receipt> statusIs(ProcessingStatus status) {
+        if (status == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.gm.expensight.repository;
+
+import com.gm.expensight.domain.model.SpendingRollup;
+import com.gm.expensight.domain.model.SpendingRollupId;
+import com.gm.expensight.repository.projection.MerchantSpending;
+import com.gm.expensight.repository.projection.MonthlySpending;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SpendingRollupRepository extends JpaRepository<SpendingRollup, SpendingRollupId> {
+
+    /**
+     * Adds the deltas to a bucket, creating it if needed, in one atomic statement so concurrent
+     * receipts of the same bucket cannot lose updates.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            MERGE INTO spending_rollups r
+            USING (SELECT CAST(:userEmail AS VARCHAR(255)) AS user_email,
+                          CAST(:periodMonth AS DATE) AS period_month,
+                          CAST(:currency AS VARCHAR(3)) AS currency,
+                          CAST(:merchantName AS VARCHAR(255)) AS merchant_name) k
+            ON r.user_email = k.user_email AND r.period_month = k.period_month
+               AND r.currency = k.currency AND r.merchant_name = k.merchant_name
+            WHEN MATCHED THEN UPDATE SET
+                receipt_count = r.receipt_count + :countDelta,
+                total_amount = r.total_amount + :amountDelta,
+                tax_amount = r.tax_amount + :taxDelta
+            WHEN NOT MATCHED THEN INSERT
+                (user_email, period_month, currency, merchant_name, receipt_count, total_amount, tax_amount)
+                VALUES (k.user_email, k.period_month, k.currency, k.merchant_name, :countDelta, :amountDelta, :taxDelta)
+            """)
+    int applyDelta(@Param("userEmail") String userEmail,
+                   @Param("periodMonth") LocalDate periodMonth,
+                   @Param("currency") String currency,
+                   @Param("merchantName") String merchantName,
+                   @Param("countDelta") long countDelta,
+                   @Param("amountDelta") BigDecimal amountDelta,
+                   @Param("taxDelta") BigDecimal taxDelta);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            delete from SpendingRollup r
+            where r.id.userEmail = :userEmail and r.id.periodMonth = :periodMonth
+              and r.id.currency = :currency and r.id.merchantName = :merchantName
+              and r.receiptCount <= 0
+            """)
+    int deleteIfEmpty(@Param("userEmail") String userEmail,
+                      @Param("periodMonth") LocalDate periodMonth,
+                      @Param("currency") String currency,
+                      @Param("merchantName") String merchantName);
+
+    @Query("""
+            select new com.gm.expensight.repository.projection.MonthlySpending(
+                r.id.periodMonth, r.id.currency, sum(r.totalAmount), sum(r.taxAmount), sum(r.receiptCount))
+            from SpendingRollup r
+            where r.id.userEmail = :userEmail and r.id.periodMonth between :fromMonth and :toMonth
+            group by r.id.periodMonth, r.id.currency
+            order by r.id.periodMonth, r.id.currency
+            """)
+    List<MonthlySpending> findMonthlySpending(@Param("userEmail") String userEmail,
+                                              @Param("fromMonth") LocalDate fromMonth,
+                                              @Param("toMonth") LocalDate toMonth);
+
+    @Query("""
+            select new com.gm.expensight.repository.projection.MerchantSpending(
+                r.id.merchantName, r.id.currency, sum(r.totalAmount), sum(r.receiptCount))
+            from SpendingRollup r
+            where r.id.userEmail = :userEmail and r.id.periodMonth between :fromMonth and :toMonth
+            group by r.id.merchantName, r.id.currency
+            order by sum(r.totalAmount) desc, r.id.merchantName
+            """)
+    List<MerchantSpending> findTopMerchants(@Param("userEmail") String userEmail,
+                                            @Param("fromMonth") LocalDate fromMonth,
+                                            @Param("toMonth") LocalDate toMonth,
+                                            Pageable pageable);
+}
@@ -0,0 +1,48 @@
+package com.gm.expensight.repository;
+
+import com.gm.expensight.domain.model.StoredBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    /**
+     * Adds one reference to the blob, registering it on first use. The row stays locked until the
+     * caller commits, so a concurrent release cannot remove the file in between.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            MERGE INTO stored_blobs b
+            USING (SELECT CAST(:contentHash AS VARCHAR(64)) AS content_hash) k
+            ON b.content_hash = k.content_hash
+            WHEN MATCHED THEN UPDATE SET ref_count = b.ref_count + 1
+            WHEN NOT MATCHED THEN INSERT (content_hash, ref_count, size_bytes, created_at)
+                VALUES (k.content_hash, 1, :sizeBytes, :createdAt)
+            """)
+    int addReference(@Param("contentHash") String contentHash,
+                     @Param("sizeBytes") long sizeBytes,
+                     @Param("createdAt") LocalDateTime createdAt);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from StoredBlob b where b.contentHash = :contentHash")
+    Optional<StoredBlob> findByIdForUpdate(@Param("contentHash") String contentHash);
+
+    boolean existsByContentHashAndSegmentIdIsNotNull(String contentHash);
+
+    @Query("""
+            select b from StoredBlob b where b.segmentId is null and b.createdAt < :cutoff
+            order by b.createdAt, b.contentHash
+            """)
+    List<StoredBlob> findLooseCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+}
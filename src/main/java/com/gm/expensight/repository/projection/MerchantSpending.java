@@ -0,0 +1,10 @@
+package com.gm.expensight.repository.projection;
+
+import java.math.BigDecimal;
+
+public record MerchantSpending(
+        String merchantName,
+        String currency,
+        BigDecimal totalAmount,
+        Long receiptCount) {
+}
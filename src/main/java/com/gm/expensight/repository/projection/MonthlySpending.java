@@ -0,0 +1,12 @@
+package com.gm.expensight.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record MonthlySpending(
+        LocalDate periodMonth,
+        String currency,
+        BigDecimal totalAmount,
+        BigDecimal taxAmount,
+        Long receiptCount) {
+}
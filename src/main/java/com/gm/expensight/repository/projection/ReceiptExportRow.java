@@ -0,0 +1,26 @@
+package com.gm.expensight.repository.projection;
+
+import com.gm.expensight.domain.model.ProcessingStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One flattened export line: a receipt joined with one of its items (item columns are {@code null}
+ * for receipts without items). Streamed as a DTO so nothing is kept in the persistence context.
+ */
+public record ReceiptExportRow(
+        UUID receiptId,
+        LocalDate receiptDate,
+        String merchantName,
+        String currency,
+        BigDecimal totalAmount,
+        BigDecimal taxAmount,
+        ProcessingStatus status,
+        LocalDateTime createdAt,
+        String itemName,
+        Integer quantity,
+        BigDecimal price) {
+}
@@ -0,0 +1,6 @@
+package com.gm.expensight.repository.projection;
+
+import java.util.UUID;
+
+public record ReceiptItemSummary(UUID receiptId, String itemName, Integer quantity) {
+}
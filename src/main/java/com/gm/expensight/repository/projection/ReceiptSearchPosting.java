@@ -0,0 +1,9 @@
+package com.gm.expensight.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Index entry as read by the full-text search: which receipt contains a term, and how strongly.
+ */
+public record ReceiptSearchPosting(UUID receiptId, String term, Integer weight) {
+}
@@ -0,0 +1,38 @@
+package com.gm.expensight.repository.projection;
+
+import com.gm.expensight.domain.model.ProcessingStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read-only view of a receipt for list screens.
+ * Selected via a JPQL or criteria constructor expression so list and search
+ * paths never load the embedded file metadata.
+ */
+public record ReceiptSummary(
+        UUID id,
+        String userEmail,
+        String merchantName,
+        BigDecimal totalAmount,
+        LocalDate receiptDate,
+        BigDecimal taxAmount,
+        String currency,
+        ProcessingStatus status,
+        LocalDateTime createdAt,
+        List<ReceiptItemSummary> items) {
+
+    public ReceiptSummary(UUID id, String userEmail, String merchantName, BigDecimal totalAmount,
+                          LocalDate receiptDate, BigDecimal taxAmount, String currency,
+                          ProcessingStatus status, LocalDateTime createdAt) {
+        this(id, userEmail, merchantName, totalAmount, receiptDate, taxAmount, currency, status, createdAt, List.of());
+    }
+
+    public ReceiptSummary withItems(List<ReceiptItemSummary> items) {
+        return new ReceiptSummary(id, userEmail, merchantName, totalAmount, receiptDate, taxAmount,
+                currency, status, createdAt, List.copyOf(items));
+    }
+}
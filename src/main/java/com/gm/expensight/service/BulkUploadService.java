@@ -0,0 +1,28 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.service.dto.BulkUploadResult;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface BulkUploadService {
+
+    /**
+     * Uploads every file as its own receipt; ZIP archives among them are read entry by entry.
+     * Files are ingested concurrently and {@code listener} receives each result as soon as it is
+     * known, possibly from several threads at once. Returns when every file has a result.
+     *
+     * @throws IOException if reading the request fails; files already accepted stay uploaded
+     */
+    void uploadFiles(List<MultipartFile> files, String userEmail, Consumer<BulkUploadResult> listener) throws IOException;
+
+    /**
+     * Uploads every entry of a ZIP archive read from {@code zip}, without extracting it first.
+     *
+     * @see #uploadFiles(List, String, Consumer)
+     */
+    void uploadArchive(InputStream zip, String userEmail, Consumer<BulkUploadResult> listener) throws IOException;
+}
@@ -0,0 +1,237 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.domain.model.ArchiveSegment;
+import com.gm.expensight.domain.model.StoredBlob;
+import com.gm.expensight.repository.ArchiveSegmentRepository;
+import com.gm.expensight.repository.StoredBlobRepository;
+import com.gm.expensight.service.impl.ContentAddressableFileStorageService;
+import com.gm.expensight.service.util.PackSegments;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Packs content-addressable blobs older than {@code storage.archive.min-age} into append-only
+ * segment files, trading one file per receipt for a few large sequentially-written ones.
+ * <p>
+ * Each batch is appended and forced to disk before the index rows are committed, and loose files are
+ * removed only after that commit, so a crash at any point leaves every blob readable: an append that
+ * never reached the index lies past the segment's committed size and is overwritten by the next run.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${storage.backend:}' == 'content-addressable' and ${storage.archive.enabled:false}")
+public class ColdStorageCompactor {
+
+    public enum Compression { NONE, DEFLATE }
+
+    public record CompactionResult(int packedBlobs, long reclaimedBytes) {
+    }
+
+    private record PackedBlob(String contentHash, PackSegments.Entry entry) {
+    }
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final ArchiveSegmentRepository archiveSegmentRepository;
+    private final TransactionOperations transactionOperations;
+    private final Path storageLocation;
+    private final Path archiveDirectory;
+    private final Duration minAge;
+    private final Compression compression;
+    private final long segmentSize;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public ColdStorageCompactor(StoredBlobRepository storedBlobRepository,
+                                ArchiveSegmentRepository archiveSegmentRepository,
+                                TransactionOperations transactionOperations,
+                                @Value("${storage.location:upload-dir}") String storageLocationPath,
+                                @Value("${storage.archive.min-age:90d}") Duration minAge,
+                                @Value("${storage.archive.compression:none}") String compression,
+                                @Value("${storage.archive.segment-size:1GB}") DataSize segmentSize,
+                                @Value("${storage.archive.batch-size:100}") int batchSize,
+                                @Value("${storage.archive.max-batches-per-run:50}") int maxBatchesPerRun) {
+        this(storedBlobRepository, archiveSegmentRepository, transactionOperations, Paths.get(storageLocationPath),
+                minAge, Compression.valueOf(compression.trim().toUpperCase()), segmentSize.toBytes(), batchSize,
+                maxBatchesPerRun);
+    }
+
+    public ColdStorageCompactor(StoredBlobRepository storedBlobRepository,
+                                ArchiveSegmentRepository archiveSegmentRepository,
+                                TransactionOperations transactionOperations,
+                                Path storageLocation,
+                                Duration minAge,
+                                Compression compression,
+                                long segmentSize,
+                                int batchSize,
+                                int maxBatchesPerRun) {
+        this.storedBlobRepository = storedBlobRepository;
+        this.archiveSegmentRepository = archiveSegmentRepository;
+        this.transactionOperations = transactionOperations;
+        this.storageLocation = storageLocation.toAbsolutePath().normalize();
+        this.archiveDirectory = this.storageLocation.resolve(ContentAddressableFileStorageService.ARCHIVE_DIRECTORY);
+        this.minAge = minAge;
+        this.compression = compression;
+        this.segmentSize = segmentSize;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(initialDelayString = "${storage.archive.initial-delay:10m}",
+            fixedDelayString = "${storage.archive.interval:1h}")
+    public void compactScheduled() {
+        try {
+            CompactionResult result = compact();
+            if (result.packedBlobs() > 0) {
+                log.info("Packed {} cold blobs into the archive, reclaiming {} bytes of loose files",
+                        result.packedBlobs(), result.reclaimedBytes());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Archive compaction failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Packs cold blobs in batches of {@code batch-size}, at most {@code max-batches-per-run} of them.
+     */
+    public CompactionResult compact() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            return new CompactionResult(0, 0);
+        }
+        try {
+            Files.createDirectories(archiveDirectory);
+            LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+            int packed = 0;
+            long reclaimed = 0;
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                List<StoredBlob> candidates = storedBlobRepository.findLooseCreatedBefore(cutoff, PageRequest.of(0, batchSize));
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                CompactionResult result = packBatch(candidates);
+                if (result.packedBlobs() == 0) {
+                    break;
+                }
+                packed += result.packedBlobs();
+                reclaimed += result.reclaimedBytes();
+            }
+            return new CompactionResult(packed, reclaimed);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private CompactionResult packBatch(List<StoredBlob> candidates) throws IOException {
+        ArchiveSegment segment = openSegment();
+        Path segmentPath = PackSegments.segmentPath(archiveDirectory, segment.getId());
+        List<PackedBlob> appended = new ArrayList<>();
+        long end;
+        try (FileChannel channel = FileChannel.open(segmentPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            end = PackSegments.openForAppend(channel, segment.getSizeBytes());
+            for (StoredBlob blob : candidates) {
+                Path loose = loosePath(blob.getContentHash());
+                try {
+                    PackSegments.Entry entry = PackSegments.append(channel, end, blob.getContentHash(), loose,
+                            compression == Compression.DEFLATE);
+                    appended.add(new PackedBlob(blob.getContentHash(), entry));
+                    end = entry.end();
+                } catch (NoSuchFileException e) {
+                    // Released meanwhile, or lost; the orphan sweep reconciles the row
+                    log.warn("Loose file for blob {} is missing; not packing it", blob.getContentHash());
+                }
+                if (end >= segmentSize) {
+                    break;
+                }
+            }
+            channel.force(true);
+        }
+        if (appended.isEmpty()) {
+            return new CompactionResult(0, 0);
+        }
+
+        long committedEnd = end;
+        List<String> indexed = transactionOperations.execute(status -> commitIndex(segment.getId(), appended, committedEnd));
+
+        long reclaimed = 0;
+        for (String contentHash : indexed) {
+            Path loose = loosePath(contentHash);
+            try {
+                long size = Files.size(loose);
+                Files.delete(loose);
+                reclaimed += size;
+            } catch (NoSuchFileException e) {
+                log.debug("Loose file for blob {} was already removed", contentHash);
+            }
+        }
+        return new CompactionResult(indexed.size(), reclaimed);
+    }
+
+    /**
+     * Points each still-referenced blob at its entry and advances the segment's committed size.
+     * Blobs released while their entry was written leave dead bytes behind.
+     */
+    private List<String> commitIndex(Long segmentId, List<PackedBlob> appended, long end) {
+        ArchiveSegment segment = archiveSegmentRepository.findById(segmentId).orElseThrow();
+        List<String> indexed = new ArrayList<>();
+        long deadBytes = 0;
+        for (PackedBlob packed : appended) {
+            PackSegments.Entry entry = packed.entry();
+            Optional<StoredBlob> locked = storedBlobRepository.findByIdForUpdate(packed.contentHash());
+            if (locked.isEmpty() || locked.get().isPacked()) {
+                deadBytes += PackSegments.ENTRY_HEADER_LENGTH + entry.storedLength();
+                continue;
+            }
+            StoredBlob blob = locked.get();
+            blob.setSegmentId(segmentId);
+            blob.setSegmentOffset(entry.dataOffset());
+            blob.setStoredLength(entry.storedLength());
+            blob.setCompressed(entry.compressed());
+            indexed.add(packed.contentHash());
+        }
+        segment.setSizeBytes(end);
+        segment.setDeadBytes(segment.getDeadBytes() + deadBytes);
+        segment.setEntryCount(segment.getEntryCount() + appended.size());
+        segment.setSealed(end >= segmentSize);
+        return indexed;
+    }
+
+    private ArchiveSegment openSegment() {
+        return transactionOperations.execute(status -> archiveSegmentRepository.findTopByOrderByIdDesc()
+                .filter(segment -> !segment.isSealed())
+                .orElseGet(() -> archiveSegmentRepository.save(ArchiveSegment.builder()
+                        .id(archiveSegmentRepository.findTopByOrderByIdDesc().map(s -> s.getId() + 1).orElse(1L))
+                        .sizeBytes(0L)
+                        .deadBytes(0L)
+                        .entryCount(0)
+                        .sealed(false)
+                        .createdAt(LocalDateTime.now())
+                        .build())));
+    }
+
+    private Path loosePath(String contentHash) {
+        return storageLocation.resolve(ContentAddressableFileStorageService.storagePath(contentHash));
+    }
+}
@@ -25,6 +25,20 @@ public interface FileStorageService {
      */
     String storeFile(MultipartFile file, String userEmail);
     
+    /**
+     * Stores a file whose SHA-256 the caller has already computed.
+     * Backends that address files by content use the hash to skip writing bytes they already hold;
+     * others ignore it.
+     * 
+     * @param file the file to store
+     * @param userEmail the email of the user uploading the file
+     * @param contentHash lowercase hex SHA-256 of the file content
+     * @return the storage path (relative to storage root)
+     */
+    default String storeFile(MultipartFile file, String userEmail, String contentHash) {
+        return storeFile(file, userEmail);
+    }
+    
     /**
      * Loads a file from storage.
      * 
@@ -35,7 +49,56 @@ public interface FileStorageService {
     byte[] loadFile(String storagePath) throws java.io.IOException;
     
     /**
-     * Deletes a file from storage.
+     * Returns the file's location on the local filesystem, for backends that keep files there.
+     * Lets callers hand the file to the OS directly (e.g. sendfile) instead of copying it.
+     * 
+     * @param storagePath the storage path returned by storeFile
+     * @return the absolute path, or empty if the backend does not store files locally
+     * @throws java.io.IOException if file does not exist
+     */
+    default java.util.Optional<java.nio.file.Path> localFile(String storagePath) throws java.io.IOException {
+        return java.util.Optional.empty();
+    }
+    
+    /**
+     * Opens a file for sequential reading without loading it onto the heap.
+     * The caller closes the stream.
+     * 
+     * @param storagePath the storage path returned by storeFile
+     * @return a stream over the file content
+     * @throws java.io.IOException if file cannot be read
+     */
+    default java.io.InputStream openInputStream(String storagePath) throws java.io.IOException {
+        return new java.io.ByteArrayInputStream(loadFile(storagePath));
+    }
+    
+    /**
+     * Opens a file as a channel. Filesystem backends return a {@link java.nio.channels.FileChannel},
+     * which supports positioned reads and zero-copy transfers. The caller closes the channel.
+     * 
+     * @param storagePath the storage path returned by storeFile
+     * @return a channel over the file content
+     * @throws java.io.IOException if file cannot be read
+     */
+    default java.nio.channels.ReadableByteChannel openChannel(String storagePath) throws java.io.IOException {
+        return java.nio.channels.Channels.newChannel(openInputStream(storagePath));
+    }
+    
+    /**
+     * Maps a file read-only into memory for random access. Filesystem backends return a
+     * memory-mapped buffer backed by the page cache rather than the heap.
+     * 
+     * @param storagePath the storage path returned by storeFile
+     * @return a read-only buffer positioned at the start of the file
+     * @throws java.io.IOException if file cannot be read
+     */
+    default java.nio.ByteBuffer mapFile(String storagePath) throws java.io.IOException {
+        return java.nio.ByteBuffer.wrap(loadFile(storagePath)).asReadOnlyBuffer();
+    }
+    
+    /**
+     * Deletes a file from storage. Called once for every storage path handed out by storeFile;
+     * backends that share one file between several paths only remove it with the last reference.
      * 
      * @param storagePath the storage path to delete
      * @throws java.io.IOException if file cannot be deleted
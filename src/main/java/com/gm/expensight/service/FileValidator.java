@@ -1,12 +1,32 @@
 package com.gm.expensight.service;
 
 import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.service.util.FileTypeSniffer;
+import com.gm.expensight.service.util.PdfToImageConverter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @Component
@@ -20,6 +40,8 @@ public class FileValidator {
     );
 
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    private static final long MAX_IMAGE_PIXELS = 50_000_000L; // ~200MB once decoded
+    private static final int MAX_PDF_PAGES = 50;
 
     public void validate(MultipartFile file) {
         if (file == null || file.isEmpty()) {
@@ -38,12 +60,126 @@ public class FileValidator {
                     String.format("Invalid file type: %s. Allowed types: %s",
                             contentType, String.join(", ", ALLOWED_CONTENT_TYPES)));
         }
+
+        try {
+            String detectedType = detectType(file);
+            if (!detectedType.equals(normalize(contentType))) {
+                throw new ValidationException(
+                        String.format("File content is %s but was declared as %s", detectedType, contentType));
+            }
+            if (MediaType.APPLICATION_PDF_VALUE.equals(detectedType)) {
+                validatePdfStructure(file);
+            } else {
+                validateImageDimensions(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not inspect uploaded file {}: {}", file.getOriginalFilename(), e.getMessage());
+            throw new ValidationException("File could not be read: " + e.getMessage());
+        }
+    }
+
+    // Magic bytes, not the client-supplied Content-Type
+    private String detectType(MultipartFile file) throws IOException {
+        byte[] header;
+        try (InputStream in = file.getInputStream()) {
+            header = in.readNBytes(FileTypeSniffer.HEADER_LENGTH);
+        }
+        return FileTypeSniffer.detect(header, header.length)
+                .orElseThrow(() -> new ValidationException("File content is not a JPEG, PNG or PDF"));
+    }
+
+    // Reads only the image header (PNG IHDR, JPEG SOF), so a pixel bomb is rejected before any decoding
+    private void validateImageDimensions(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream();
+             ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                throw new ValidationException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                long width = reader.getWidth(0);
+                long height = reader.getHeight(0);
+                if (width * height > MAX_IMAGE_PIXELS) {
+                    throw new ValidationException(String.format(
+                            "Image dimensions %dx%d exceed the maximum of %d pixels", width, height, MAX_IMAGE_PIXELS));
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Parses only the document structure; no page content is rendered
+    private void validatePdfStructure(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream();
+             PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(in))) {
+            int pageCount = document.getNumberOfPages();
+            if (pageCount > MAX_PDF_PAGES) {
+                throw new ValidationException(String.format(
+                        "PDF has %d pages; at most %d are allowed", pageCount, MAX_PDF_PAGES));
+            }
+            // Pages usually share their images and forms; each is checked once
+            Set<COSBase> checkedXObjects = new HashSet<>();
+            for (PDPage page : document.getPages()) {
+                PDRectangle box = page.getCropBox();
+                double scale = PdfToImageConverter.DEFAULT_DPI / 72.0;
+                double pixels = box.getWidth() * scale * box.getHeight() * scale;
+                if (pixels > MAX_IMAGE_PIXELS) {
+                    throw new ValidationException(String.format(
+                            "PDF page size %.0fx%.0fpt is too large to render", box.getWidth(), box.getHeight()));
+                }
+                PDResources resources = page.getResources();
+                if (resources != null) {
+                    validatePdfImages(resources.getCOSObject(), checkedXObjects);
+                }
+            }
+        }
+    }
+
+    // Reads /Width and /Height from the image XObject dictionaries, including those drawn by form XObjects;
+    // the image streams themselves are never decoded
+    private void validatePdfImages(COSDictionary resources, Set<COSBase> visited) {
+        COSDictionary xObjects = resources.getCOSDictionary(COSName.XOBJECT);
+        if (xObjects == null) {
+            return;
+        }
+        for (COSName name : xObjects.keySet()) {
+            if (!(xObjects.getDictionaryObject(name) instanceof COSStream xObject) || !visited.add(xObject)) {
+                continue;
+            }
+            if (COSName.IMAGE.equals(xObject.getCOSName(COSName.SUBTYPE))) {
+                long width = xObject.getInt(COSName.WIDTH);
+                long height = xObject.getInt(COSName.HEIGHT);
+                if (width * height > MAX_IMAGE_PIXELS) {
+                    throw new ValidationException(String.format(
+                            "PDF image dimensions %dx%d exceed the maximum of %d pixels", width, height, MAX_IMAGE_PIXELS));
+                }
+            } else if (COSName.FORM.equals(xObject.getCOSName(COSName.SUBTYPE))
+                    && xObject.getCOSDictionary(COSName.RESOURCES) != null) {
+                validatePdfImages(xObject.getCOSDictionary(COSName.RESOURCES), visited);
+            }
+        }
+    }
+
+    private static String normalize(String contentType) {
+        String lower = contentType.toLowerCase();
+        return "image/jpg".equals(lower) ? MediaType.IMAGE_JPEG_VALUE : lower;
     }
 
     public long getMaxFileSize() {
         return MAX_FILE_SIZE;
     }
 
+    public long getMaxImagePixels() {
+        return MAX_IMAGE_PIXELS;
+    }
+
+    public int getMaxPdfPages() {
+        return MAX_PDF_PAGES;
+    }
+
     public List<String> getAllowedContentTypes() {
         return List.copyOf(ALLOWED_CONTENT_TYPES);
     }
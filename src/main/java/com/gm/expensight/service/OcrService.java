@@ -1,7 +1,11 @@
 package com.gm.expensight.service;
 
 import com.gm.expensight.exception.OcrException;
+import com.gm.expensight.exception.ValidationException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 
 public interface OcrService {
@@ -10,6 +14,35 @@ public interface OcrService {
     
     String extractTextFromPdf(byte[] pdfData) throws OcrException;
     
+    /**
+     * Extracts text from an image read from a stream, e.g. straight from file storage.
+     * Implementations that can decode incrementally should override this; the default buffers
+     * the stream. The caller closes the stream.
+     */
+    default String extractTextFromStream(InputStream imageStream) throws OcrException {
+        if (imageStream == null) {
+            throw new ValidationException("Image data cannot be null");
+        }
+        try {
+            return extractText(imageStream.readAllBytes());
+        } catch (IOException e) {
+            throw new OcrException("Failed to read image: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Extracts text from a PDF held in a buffer, typically a memory-mapped file.
+     * Implementations that can read PDFs in place should override this; the default copies the buffer.
+     */
+    default String extractTextFromPdfBuffer(ByteBuffer pdfData) throws OcrException {
+        if (pdfData == null) {
+            throw new ValidationException("PDF data cannot be null");
+        }
+        byte[] bytes = new byte[pdfData.remaining()];
+        pdfData.duplicate().get(bytes);
+        return extractTextFromPdf(bytes);
+    }
+    
     default CompletableFuture<String> extractTextAsync(byte[] imageData) {
         return CompletableFuture.supplyAsync(() -> {
             try {
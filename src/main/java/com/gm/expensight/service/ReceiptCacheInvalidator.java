@@ -0,0 +1,32 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.config.CacheConfig;
+import com.gm.expensight.service.event.ReceiptChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReceiptCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReceiptChanged(ReceiptChangedEvent event) {
+        log.debug("Evicting cached entries for receipt {} of user {}", event.receiptId(), event.userEmail());
+        evict(CacheConfig.RECEIPTS_CACHE, event.receiptId());
+        evict(CacheConfig.RECEIPT_LISTS_CACHE, event.userEmail());
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
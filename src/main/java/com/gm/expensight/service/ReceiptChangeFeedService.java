@@ -0,0 +1,22 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.service.dto.ReceiptChangeFeed;
+
+import java.util.UUID;
+
+/**
+ * Per-user feed of receipts created, updated, reprocessed or deleted since a client cursor.
+ * <p>
+ * Each receipt appears once with its latest state, so a client that polls rarely still only
+ * downloads what it is missing.
+ */
+public interface ReceiptChangeFeedService {
+
+    /**
+     * Records the current state of the receipt in the feed. Must run in the transaction that made
+     * the change, so the feed commits or rolls back together with it.
+     */
+    void recordChange(UUID receiptId, String userEmail);
+
+    ReceiptChangeFeed getChanges(String userEmail, long since, int limit);
+}
@@ -0,0 +1,64 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.service.event.ReceiptChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class ReceiptChangeRecorder {
+
+    private final ReceiptChangeFeedService receiptChangeFeedService;
+
+    // Unlike caches and the search index, the feed is written before commit: a missed entry would
+    // never be re-sent to clients, so a failure here rolls the change back instead. A transaction
+    // often changes a receipt several times; each receipt it touched is recorded once.
+    @EventListener
+    public void onReceiptChanged(ReceiptChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            receiptChangeFeedService.recordChange(event.receiptId(), event.userEmail());
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(event);
+    }
+
+    private class PendingChanges implements TransactionSynchronization {
+
+        private final Map<UUID, String> receipts = new LinkedHashMap<>();
+        private boolean committing;
+
+        void add(ReceiptChangedEvent event) {
+            if (committing) {
+                // Published by another before-commit callback, after this one has run
+                receiptChangeFeedService.recordChange(event.receiptId(), event.userEmail());
+            } else {
+                receipts.put(event.receiptId(), event.userEmail());
+            }
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            committing = true;
+            receipts.forEach(receiptChangeFeedService::recordChange);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ReceiptChangeRecorder.this);
+        }
+    }
+}
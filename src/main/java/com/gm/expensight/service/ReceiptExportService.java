@@ -0,0 +1,29 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.service.dto.ReceiptExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface ReceiptExportService {
+
+    /**
+     * Rejects a date range {@link #exportReceipts} would refuse. Callers that stream the export call it
+     * first, while an error can still be sent as a status code.
+     *
+     * @throws com.gm.expensight.exception.ValidationException if {@code fromDate} is after {@code toDate}
+     */
+    void validateDateRange(LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Writes the user's receipts, one line per item, straight to {@code out} while reading them from
+     * the database, so memory use does not depend on how many receipts are exported.
+     *
+     * @param fromDate first receipt date to include, or {@code null} for no lower bound
+     * @param toDate last receipt date to include, or {@code null} for no upper bound
+     * @return number of lines written, excluding the CSV header
+     */
+    long exportReceipts(String userEmail, LocalDate fromDate, LocalDate toDate,
+                        ReceiptExportFormat format, OutputStream out) throws IOException;
+}
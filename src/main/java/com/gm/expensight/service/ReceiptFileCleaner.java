@@ -0,0 +1,40 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.service.event.ReceiptDeletedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReceiptFileCleaner {
+
+    private final FileStorageService fileStorageService;
+    private final ThumbnailService thumbnailService;
+
+    // After commit only: a rolled-back delete must keep its file
+    @TransactionalEventListener
+    public void onReceiptDeleted(ReceiptDeletedEvent event) {
+        if (event.storagePath() != null) {
+            deleteFile(event.storagePath(), event);
+        }
+        if (event.originalStoragePath() != null) {
+            deleteFile(event.originalStoragePath(), event);
+        }
+    }
+
+    private void deleteFile(String storagePath, ReceiptDeletedEvent event) {
+        try {
+            fileStorageService.deleteFile(storagePath);
+            log.debug("Deleted file {} of receipt {}", storagePath, event.receiptId());
+            thumbnailService.evictThumbnails(storagePath);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not delete file {} of deleted receipt {}: {}",
+                    storagePath, event.receiptId(), e.getMessage());
+        }
+    }
+}
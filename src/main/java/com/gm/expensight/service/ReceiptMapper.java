@@ -2,9 +2,16 @@ package com.gm.expensight.service;
 
 import com.gm.expensight.domain.model.Receipt;
 import com.gm.expensight.domain.model.ReceiptItem;
+import com.gm.expensight.repository.projection.ReceiptItemSummary;
+import com.gm.expensight.repository.projection.ReceiptSummary;
+import com.gm.expensight.service.dto.ReceiptChangeFeed;
+import com.gm.expensight.service.dto.SpendingInsights;
+import com.gm.expensight.web.dto.ReceiptChangesResponse;
 import com.gm.expensight.web.dto.ReceiptResponse;
+import com.gm.expensight.web.dto.SpendingInsightsResponse;
 import org.springframework.stereotype.Component;
 
+import java.time.YearMonth;
 import java.util.stream.Collectors;
 
 @Component
@@ -16,6 +23,7 @@ public class ReceiptMapper {
         }
         
         return ReceiptResponse.builder()
+                .id(receipt.getId())
                 .merchantName(receipt.getMerchantName())
                 .totalAmount(receipt.getTotalAmount())
                 .receiptDate(receipt.getReceiptDate())
@@ -29,11 +37,75 @@ public class ReceiptMapper {
                 .build();
     }
     
+    public ReceiptResponse toResponse(ReceiptSummary summary) {
+        if (summary == null) {
+            return null;
+        }
+        
+        return ReceiptResponse.builder()
+                .id(summary.id())
+                .merchantName(summary.merchantName())
+                .totalAmount(summary.totalAmount())
+                .receiptDate(summary.receiptDate())
+                .taxAmount(summary.taxAmount())
+                .currency(summary.currency() != null ? summary.currency() : "INR")
+                .items(summary.items().stream()
+                        .map(this::toItemResponse)
+                        .collect(Collectors.toList()))
+                .build();
+    }
+    
+    public SpendingInsightsResponse toInsightsResponse(SpendingInsights insights) {
+        return SpendingInsightsResponse.builder()
+                .fromMonth(insights.fromMonth().toString())
+                .toMonth(insights.toMonth().toString())
+                .months(insights.months().stream()
+                        .map(month -> SpendingInsightsResponse.MonthlySpendingResponse.builder()
+                                .month(YearMonth.from(month.periodMonth()).toString())
+                                .currency(month.currency())
+                                .totalAmount(month.totalAmount())
+                                .taxAmount(month.taxAmount())
+                                .receiptCount(month.receiptCount())
+                                .build())
+                        .collect(Collectors.toList()))
+                .topMerchants(insights.topMerchants().stream()
+                        .map(merchant -> SpendingInsightsResponse.MerchantSpendingResponse.builder()
+                                .merchantName(merchant.merchantName())
+                                .currency(merchant.currency())
+                                .totalAmount(merchant.totalAmount())
+                                .receiptCount(merchant.receiptCount())
+                                .build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+    
+    public ReceiptChangesResponse toChangesResponse(ReceiptChangeFeed feed) {
+        return ReceiptChangesResponse.builder()
+                .changes(feed.changes().stream()
+                        .map(change -> ReceiptChangesResponse.ReceiptChangeResponse.builder()
+                                .receiptId(change.receiptId())
+                                .changeSeq(change.changeSeq())
+                                .deleted(change.deleted())
+                                .status(change.receipt() != null ? change.receipt().status().name() : null)
+                                .receipt(toResponse(change.receipt()))
+                                .build())
+                        .collect(Collectors.toList()))
+                .cursor(feed.cursor())
+                .hasMore(feed.hasMore())
+                .build();
+    }
+    
     private ReceiptResponse.ReceiptItemResponse toItemResponse(ReceiptItem item) {
         return ReceiptResponse.ReceiptItemResponse.builder()
                 .itemName(item.getItemName())
                 .quantity(item.getQuantity() != null ? item.getQuantity() : 1)
                 .build();
     }
+    
+    private ReceiptResponse.ReceiptItemResponse toItemResponse(ReceiptItemSummary item) {
+        return ReceiptResponse.ReceiptItemResponse.builder()
+                .itemName(item.itemName())
+                .quantity(item.quantity() != null ? item.quantity() : 1)
+                .build();
+    }
 }
-
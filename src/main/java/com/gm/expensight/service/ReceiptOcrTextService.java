@@ -0,0 +1,15 @@
+package com.gm.expensight.service;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stores raw OCR output outside the receipt row.
+ * Text is compressed on write and only loaded when explicitly requested.
+ */
+public interface ReceiptOcrTextService {
+
+    void saveOcrText(UUID receiptId, String ocrText);
+
+    Optional<String> findOcrText(UUID receiptId);
+}
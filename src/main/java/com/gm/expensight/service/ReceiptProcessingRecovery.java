@@ -0,0 +1,72 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.repository.ReceiptRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Finishes receipts left in PROCESSING by a worker that died mid-run (crash, restart, killed pod).
+ * <p>
+ * A processing claim is only honoured for {@code receipts.processing.timeout}; every interval, up to
+ * {@code batch-size} receipts whose claim is older than that are processed again. Taking over the claim
+ * goes through the same compare-and-set as any other run, so several instances sweeping at once
+ * process each receipt only once.
+ */
+@Slf4j
+@Component
+public class ReceiptProcessingRecovery {
+
+    private final ReceiptRepository receiptRepository;
+    private final ReceiptService receiptService;
+    private final Duration processingTimeout;
+    private final int batchSize;
+
+    public ReceiptProcessingRecovery(ReceiptRepository receiptRepository,
+                                     ReceiptService receiptService,
+                                     @Value("${receipts.processing.timeout:15m}") Duration processingTimeout,
+                                     @Value("${receipts.processing.recovery-batch-size:20}") int batchSize) {
+        this.receiptRepository = receiptRepository;
+        this.receiptService = receiptService;
+        this.processingTimeout = processingTimeout;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${receipts.processing.recovery-interval:5m}",
+            fixedDelayString = "${receipts.processing.recovery-interval:5m}")
+    public void recoverScheduled() {
+        try {
+            int recovered = recoverStaleClaims();
+            if (recovered > 0) {
+                log.info("Reprocessed {} receipts abandoned in PROCESSING", recovered);
+            }
+        } catch (RuntimeException e) {
+            log.error("Processing recovery failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Processes the next batch of receipts whose processing claim has timed out.
+     *
+     * @return number of receipts picked up
+     */
+    public int recoverStaleClaims() {
+        LocalDateTime staleBefore = LocalDateTime.now().minus(processingTimeout);
+        List<UUID> stale = receiptRepository.findStaleProcessingIds(staleBefore, PageRequest.of(0, batchSize));
+        for (UUID receiptId : stale) {
+            try {
+                receiptService.processReceipt(receiptId);
+            } catch (RuntimeException e) {
+                log.warn("Could not reprocess receipt {}: {}", receiptId, e.getMessage());
+            }
+        }
+        return stale.size();
+    }
+}
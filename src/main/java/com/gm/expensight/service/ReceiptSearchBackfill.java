@@ -0,0 +1,83 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.repository.ReceiptRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Indexes COMPLETED receipts that have no search index entries, such as receipts completed before the
+ * index existed. Search counts every COMPLETED receipt as a document, so unindexed ones are both
+ * unfindable and skew term rarity.
+ * <p>
+ * Every interval, up to {@code batch-size} such receipts are indexed, walking them in id order. Once a
+ * pass finds none left it stops until the next restart; receipts completed since are indexed as they
+ * change.
+ */
+@Slf4j
+@Component
+public class ReceiptSearchBackfill {
+
+    private final ReceiptRepository receiptRepository;
+    private final ReceiptTextSearchService receiptTextSearchService;
+    private final int batchSize;
+
+    private UUID cursor;
+    private volatile boolean finished;
+
+    public ReceiptSearchBackfill(ReceiptRepository receiptRepository,
+                                 ReceiptTextSearchService receiptTextSearchService,
+                                 @Value("${receipts.search.backfill-batch-size:100}") int batchSize) {
+        this.receiptRepository = receiptRepository;
+        this.receiptTextSearchService = receiptTextSearchService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${receipts.search.backfill-initial-delay:1m}",
+            fixedDelayString = "${receipts.search.backfill-interval:10s}")
+    public void backfillScheduled() {
+        if (finished) {
+            return;
+        }
+        try {
+            int indexed = indexNextBatch();
+            if (indexed > 0) {
+                log.info("Indexed {} completed receipts missing from the search index", indexed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Search index backfill failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Indexes the next batch of COMPLETED receipts without index entries.
+     *
+     * @return number of receipts picked up; 0 once the backfill is finished
+     */
+    public synchronized int indexNextBatch() {
+        if (finished) {
+            return 0;
+        }
+        List<UUID> unindexed = receiptRepository.findUnindexedCompletedIds(cursor, PageRequest.of(0, batchSize));
+        if (unindexed.isEmpty()) {
+            finished = true;
+            log.info("Search index backfill finished");
+            return 0;
+        }
+        for (UUID receiptId : unindexed) {
+            try {
+                receiptTextSearchService.indexReceipt(receiptId);
+            } catch (RuntimeException e) {
+                log.warn("Could not index receipt {}: {}", receiptId, e.getMessage());
+            }
+        }
+        // A receipt that yields no terms stays unindexed; the cursor keeps it from being picked up again
+        cursor = unindexed.get(unindexed.size() - 1);
+        return unindexed.size();
+    }
+}
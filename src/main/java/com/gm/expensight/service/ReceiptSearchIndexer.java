@@ -0,0 +1,25 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.service.event.ReceiptChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReceiptSearchIndexer {
+
+    private final ReceiptTextSearchService receiptTextSearchService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReceiptChanged(ReceiptChangedEvent event) {
+        try {
+            receiptTextSearchService.indexReceipt(event.receiptId());
+        } catch (Exception e) {
+            // The index is derived data; the next change to the receipt rebuilds its entries
+            log.error("Failed to update search index for receipt {}: {}", event.receiptId(), e.getMessage(), e);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.gm.expensight.service;
 
 import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.repository.projection.ReceiptSummary;
+import com.gm.expensight.service.dto.ReceiptSearchCriteria;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -8,12 +12,27 @@ import java.util.UUID;
 
 public interface ReceiptService {
     
-    Receipt uploadReceipt(MultipartFile file, String userEmail);
+    /**
+     * Stores and processes an uploaded receipt, or returns the existing receipt when the same
+     * {@code idempotencyKey} or the same file content was already uploaded by this user.
+     * Concurrent identical uploads are processed once.
+     *
+     * @param idempotencyKey client-supplied retry key, may be {@code null}
+     */
+    Receipt uploadReceipt(MultipartFile file, String userEmail, String idempotencyKey);
     
     List<Receipt> getUserReceipts(String userEmail);
     
+    List<ReceiptSummary> getUserReceiptSummaries(String userEmail);
+    
+    Page<ReceiptSummary> searchReceipts(String userEmail, ReceiptSearchCriteria criteria, Pageable pageable);
+    
     Receipt getReceiptById(UUID receiptId);
     
+    ReceiptSummary getReceiptSummary(UUID receiptId);
+    
     Receipt processReceipt(UUID receiptId);
+    
+    void deleteReceipt(UUID receiptId);
 }
 
@@ -0,0 +1,17 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.service.dto.ReceiptSearchHit;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ReceiptTextSearchService {
+
+    /**
+     * Rebuilds the index entries of a receipt. Receipts that are not COMPLETED (or no longer exist)
+     * are removed from the index.
+     */
+    void indexReceipt(UUID receiptId);
+
+    List<ReceiptSearchHit> search(String userEmail, String query, int limit);
+}
@@ -0,0 +1,22 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.service.dto.SpendingInsights;
+
+import java.time.YearMonth;
+
+/**
+ * Maintains and reads the per-user spending rollups.
+ * <p>
+ * The rollups cover exactly the COMPLETED receipts: callers add a receipt when it becomes COMPLETED
+ * and remove it (with the values it was added with) when it leaves COMPLETED or is deleted, inside
+ * the same transaction as the status change.
+ */
+public interface SpendingInsightsService {
+
+    void addCompletedReceipt(Receipt receipt);
+
+    void removeCompletedReceipt(Receipt receipt);
+
+    SpendingInsights getInsights(String userEmail, YearMonth fromMonth, YearMonth toMonth, int merchantLimit);
+}
@@ -0,0 +1,317 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.domain.model.StoredBlob;
+import com.gm.expensight.repository.ReceiptRepository;
+import com.gm.expensight.repository.StoredBlobRepository;
+import com.gm.expensight.service.impl.ContentAddressableFileStorageService;
+import com.gm.expensight.service.impl.ThumbnailServiceImpl;
+import com.gm.expensight.service.util.UploadSpooler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reclaims files under {@code storage.location} that no receipt references: files stored by uploads
+ * whose transaction rolled back, leftovers of failed deletes, thumbnails of deleted receipts and stale
+ * temp files.
+ * <p>
+ * Each run examines at most {@code batch-size} files, continuing a sorted walk of the storage tree
+ * from where the previous run stopped, and looks their paths up in one indexed query; the walk starts
+ * over once it reaches the end. Files younger than {@code min-age} are never touched, so uploads still
+ * in flight are safe. Content-addressable files are reconciled and deleted under their
+ * {@code stored_blobs} row lock, which a concurrent upload of the same content holds until it commits.
+ * Archive segments are left alone.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${storage.gc.enabled:false} and '${storage.backend:local}' != 's3'")
+public class StorageGarbageCollector {
+
+    public record CollectionResult(int examinedFiles, int deletedFiles, long reclaimedBytes) {
+    }
+
+    private static final Pattern THUMBNAIL = Pattern.compile(
+            "(.+)" + Pattern.quote(ThumbnailServiceImpl.THUMBNAIL_SUFFIX) + "\\d+\\.jpg");
+
+    private static final Path ARCHIVE = Paths.get(ContentAddressableFileStorageService.ARCHIVE_DIRECTORY);
+    private static final Set<Path> TEMP_DIRECTORIES = Set.of(
+            Paths.get(UploadSpooler.SPOOL_DIRECTORY),
+            Paths.get(ContentAddressableFileStorageService.CAS_DIRECTORY, ContentAddressableFileStorageService.TEMP_DIRECTORY));
+
+    private final ReceiptRepository receiptRepository;
+    private final StoredBlobRepository storedBlobRepository;
+    private final TransactionOperations transactionOperations;
+    private final Path storageLocation;
+    private final Duration minAge;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Relative path of the last file examined; null at the start of a pass
+    private Path cursor;
+    private long passReclaimedBytes;
+
+    @Autowired
+    public StorageGarbageCollector(ReceiptRepository receiptRepository,
+                                   StoredBlobRepository storedBlobRepository,
+                                   TransactionOperations transactionOperations,
+                                   @Value("${storage.location:upload-dir}") String storageLocationPath,
+                                   @Value("${storage.gc.min-age:1h}") Duration minAge,
+                                   @Value("${storage.gc.batch-size:200}") int batchSize) {
+        this(receiptRepository, storedBlobRepository, transactionOperations,
+                Paths.get(storageLocationPath), minAge, batchSize);
+    }
+
+    public StorageGarbageCollector(ReceiptRepository receiptRepository,
+                                   StoredBlobRepository storedBlobRepository,
+                                   TransactionOperations transactionOperations,
+                                   Path storageLocation,
+                                   Duration minAge,
+                                   int batchSize) {
+        this.receiptRepository = receiptRepository;
+        this.storedBlobRepository = storedBlobRepository;
+        this.transactionOperations = transactionOperations;
+        this.storageLocation = storageLocation.toAbsolutePath().normalize();
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${storage.gc.initial-delay:5m}", fixedDelayString = "${storage.gc.interval:1m}")
+    public void collectScheduled() {
+        try {
+            CollectionResult result = collect();
+            if (result.deletedFiles() > 0) {
+                log.info("Storage GC removed {} unreferenced files ({} bytes) out of {} examined",
+                        result.deletedFiles(), result.reclaimedBytes(), result.examinedFiles());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Storage GC failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Examines the next batch of files.
+     */
+    public CollectionResult collect() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            return new CollectionResult(0, 0, 0);
+        }
+        try {
+            List<Path> batch = new ArrayList<>(batchSize);
+            if (Files.isDirectory(storageLocation)) {
+                walk(storageLocation, batch);
+            }
+            CollectionResult result = reclaim(batch);
+
+            passReclaimedBytes += result.reclaimedBytes();
+            if (batch.size() < batchSize) {
+                log.debug("Storage GC pass complete; {} bytes reclaimed", passReclaimedBytes);
+                cursor = null;
+                passReclaimedBytes = 0;
+            } else {
+                cursor = batch.get(batch.size() - 1);
+            }
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private CollectionResult reclaim(List<Path> batch) throws IOException {
+        Instant cutoff = Instant.now().minus(minAge);
+        List<String> temps = new ArrayList<>();
+        List<String> blobs = new ArrayList<>();
+        List<String> files = new ArrayList<>();
+        List<String> thumbnails = new ArrayList<>();
+        Set<String> lookups = new HashSet<>();
+        for (Path relative : batch) {
+            if (!olderThan(relative, cutoff)) {
+                continue;
+            }
+            String path = toStoragePath(relative);
+            Matcher thumbnail = THUMBNAIL.matcher(path);
+            if (TEMP_DIRECTORIES.contains(relative.getParent())) {
+                temps.add(path);
+            } else if (thumbnail.matches()) {
+                thumbnails.add(path);
+                lookups.add(thumbnail.group(1));
+            } else {
+                (ContentAddressableFileStorageService.contentHashOf(path) != null ? blobs : files).add(path);
+                lookups.add(path);
+            }
+        }
+
+        Set<String> referenced = new HashSet<>();
+        if (!lookups.isEmpty()) {
+            referenced.addAll(receiptRepository.findReferencedStoragePaths(lookups));
+            referenced.addAll(receiptRepository.findReferencedOriginalStoragePaths(lookups));
+        }
+
+        List<String> garbage = new ArrayList<>(temps);
+        files.stream().filter(path -> !referenced.contains(path)).forEach(garbage::add);
+        thumbnails.stream()
+                .filter(path -> {
+                    Matcher thumbnail = THUMBNAIL.matcher(path);
+                    return thumbnail.matches() && !referenced.contains(thumbnail.group(1));
+                })
+                .forEach(garbage::add);
+
+        int deleted = 0;
+        long reclaimed = 0;
+        for (String path : blobs) {
+            long size = referenced.contains(path) ? -1 : releaseUnreferencedBlob(path);
+            if (size >= 0) {
+                deleted++;
+                reclaimed += size;
+            }
+        }
+        for (String path : garbage) {
+            long size = delete(path);
+            if (size >= 0) {
+                deleted++;
+                reclaimed += size;
+            }
+        }
+        return new CollectionResult(batch.size(), deleted, reclaimed);
+    }
+
+    /**
+     * Decides under the blob's row lock whether its loose file can go, and deletes it before the lock
+     * is released. Registering a reference takes the lock even when no row exists yet, and waits for an
+     * upload of the same content to commit; an upload arriving later finds the file gone and writes it again.
+     *
+     * @return bytes reclaimed, or -1 if the file was kept
+     */
+    private long releaseUnreferencedBlob(String storagePath) {
+        String contentHash = ContentAddressableFileStorageService.contentHashOf(storagePath);
+        Long reclaimed = transactionOperations.execute(status -> {
+            storedBlobRepository.addReference(contentHash, 0, LocalDateTime.now());
+            StoredBlob blob = storedBlobRepository.findByIdForUpdate(contentHash).orElseThrow();
+            boolean existed = blob.getRefCount() > 1;
+            if (blob.isPacked()) {
+                // Loose copy left behind by an interrupted compaction; the segment has the bytes
+                blob.setRefCount(blob.getRefCount() - 1);
+                return delete(storagePath);
+            }
+            long references = receiptRepository.countFileReferences(storagePath);
+            if (references == 0) {
+                long size = delete(storagePath);
+                if (size < 0 && Files.exists(storageLocation.resolve(storagePath))) {
+                    // Could not delete it: keep the row that accounts for the file
+                    status.setRollbackOnly();
+                    return -1L;
+                }
+                storedBlobRepository.delete(blob);
+                return size;
+            }
+            // Referenced after all (committed since the batch lookup); only repair a missing row
+            blob.setRefCount(existed ? blob.getRefCount() - 1 : references);
+            if (!existed) {
+                setSize(blob, storagePath);
+            }
+            return -1L;
+        });
+        return reclaimed != null ? reclaimed : -1;
+    }
+
+    private void setSize(StoredBlob blob, String storagePath) {
+        try {
+            blob.setSizeBytes(Files.size(storageLocation.resolve(storagePath)));
+        } catch (IOException e) {
+            log.debug("Could not size {}: {}", storagePath, e.getMessage());
+        }
+    }
+
+    private long delete(String storagePath) {
+        Path file = storageLocation.resolve(storagePath);
+        try {
+            long size = Files.size(file);
+            Files.delete(file);
+            log.debug("Removed unreferenced file {}", storagePath);
+            return size;
+        } catch (NoSuchFileException e) {
+            return -1;
+        } catch (IOException e) {
+            log.warn("Could not remove unreferenced file {}: {}", storagePath, e.getMessage());
+            return -1;
+        }
+    }
+
+    private boolean olderThan(Path relative, Instant cutoff) throws IOException {
+        try {
+            return Files.getLastModifiedTime(storageLocation.resolve(relative)).toInstant().isBefore(cutoff);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Depth-first walk in name order, skipping everything up to and including the cursor.
+     */
+    private void walk(Path directory, List<Path> batch) throws IOException {
+        List<Path> children = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            entries.forEach(children::add);
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        children.sort(StorageGarbageCollector::compareNames);
+
+        for (Path child : children) {
+            if (batch.size() >= batchSize) {
+                return;
+            }
+            Path relative = storageLocation.relativize(child);
+            if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                boolean cursorInside = cursor != null && cursor.startsWith(relative);
+                if (relative.equals(ARCHIVE) || (!cursorInside && isAtOrBeforeCursor(relative))) {
+                    continue;
+                }
+                walk(child, batch);
+            } else if (Files.isRegularFile(child, LinkOption.NOFOLLOW_LINKS) && !isAtOrBeforeCursor(relative)) {
+                batch.add(relative);
+            }
+        }
+    }
+
+    private boolean isAtOrBeforeCursor(Path relative) {
+        return cursor != null && compareNames(relative, cursor) <= 0;
+    }
+
+    // Compares name by name, matching the walk order: "a/z" sorts before "a-b"
+    private static int compareNames(Path left, Path right) {
+        int common = Math.min(left.getNameCount(), right.getNameCount());
+        for (int i = 0; i < common; i++) {
+            int order = left.getName(i).toString().compareTo(right.getName(i).toString());
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(left.getNameCount(), right.getNameCount());
+    }
+
+    private static String toStoragePath(Path relative) {
+        return relative.toString().replace('\\', '/');
+    }
+}
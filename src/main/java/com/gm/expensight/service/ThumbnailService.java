@@ -0,0 +1,34 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.domain.model.FileMetadata;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Small JPEG previews of stored receipt files, generated once and cached on disk next to the
+ * original so list views never decode a full-size photo or render a PDF.
+ */
+public interface ThumbnailService {
+
+    /**
+     * Returns the cached thumbnail of the file, generating it on first use. Concurrent requests for
+     * the same file share one generation.
+     *
+     * @param file the stored file; images and PDFs (first page) are supported
+     * @return the thumbnail on the local filesystem
+     * @throws IOException if the stored file cannot be read or decoded
+     */
+    Path getThumbnail(FileMetadata file) throws IOException;
+
+    /**
+     * Longest side of generated thumbnails in pixels; part of the cache key.
+     */
+    int getMaxSize();
+
+    /**
+     * Removes the cached thumbnails of a stored file once the file itself is gone.
+     * A file still shared with another receipt keeps its thumbnail.
+     */
+    void evictThumbnails(String storagePath) throws IOException;
+}
@@ -0,0 +1,464 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.domain.model.ImportStatus;
+import com.gm.expensight.domain.model.ImportedFile;
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.exception.BaseException;
+import com.gm.expensight.exception.FileStorageException;
+import com.gm.expensight.repository.ImportedFileRepository;
+import com.gm.expensight.service.util.SpooledUpload;
+import com.gm.expensight.service.util.UploadSpooler;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Back-office import: receipts dropped into {@code receipts.import.directories} are uploaded for the
+ * user named by the first directory below the import root, e.g. {@code <root>/jane@example.com/2024/scan-001.pdf}.
+ * <p>
+ * A {@link WatchService} reports new files as they appear; a periodic rescan also catches those it
+ * misses (network shares often deliver no events, and files dropped while the application was down).
+ * A file is imported once its modification time is {@code settle-time} old, so scanners still writing
+ * are left alone, by up to {@code parallelism} workers through the regular upload path (validation,
+ * storage, processing). Every handled file is checkpointed in {@code imported_files} with its size and
+ * modification time, then moved to {@code <root>/processed/} (or {@code <root>/rejected/}) under the same
+ * relative path, so rescans only walk files still waiting. Where a file cannot be moved (read-only share),
+ * its checkpoint keeps it from being imported again; content deduplication covers a crash between upload
+ * and checkpoint.
+ * <p>
+ * Polling and rescans run on the importer's own scheduler thread, so a rescan of a large share never
+ * delays the application's other scheduled jobs.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "receipts.import.enabled", havingValue = "true")
+public class WatchedDirectoryImporter {
+
+    static final String PROCESSED_DIRECTORY = "processed";
+    static final String REJECTED_DIRECTORY = "rejected";
+
+    private static final int MAX_ERROR_LENGTH = 255;
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ReceiptService receiptService;
+    private final UploadSpooler uploadSpooler;
+    private final ImportedFileRepository importedFileRepository;
+    private final List<Path> roots;
+    private final Duration settleTime;
+    private final Duration pollInterval;
+    private final Duration rescanInterval;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executor;
+    private final Semaphore workers;
+
+    // Files seen but not yet handed to a worker, and those a worker holds
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+    private final Set<Path> inProgress = ConcurrentHashMap.newKeySet();
+
+    private volatile WatchService watchService;
+
+    @Autowired
+    public WatchedDirectoryImporter(ReceiptService receiptService,
+                                    UploadSpooler uploadSpooler,
+                                    ImportedFileRepository importedFileRepository,
+                                    @Value("${receipts.import.directories:}") String directories,
+                                    @Value("${receipts.import.settle-time:30s}") Duration settleTime,
+                                    @Value("${receipts.import.parallelism:4}") int parallelism,
+                                    @Value("${receipts.import.poll-interval:5s}") Duration pollInterval,
+                                    @Value("${receipts.import.rescan-interval:10m}") Duration rescanInterval) {
+        this(receiptService, uploadSpooler, importedFileRepository,
+                Arrays.stream(directories.split(",")).map(String::trim).filter(s -> !s.isEmpty()).map(Paths::get).toList(),
+                settleTime, parallelism, pollInterval, rescanInterval, Clock.systemDefaultZone());
+    }
+
+    public WatchedDirectoryImporter(ReceiptService receiptService,
+                                    UploadSpooler uploadSpooler,
+                                    ImportedFileRepository importedFileRepository,
+                                    List<Path> roots,
+                                    Duration settleTime,
+                                    int parallelism,
+                                    Duration pollInterval,
+                                    Duration rescanInterval,
+                                    Clock clock) {
+        this.receiptService = receiptService;
+        this.uploadSpooler = uploadSpooler;
+        this.importedFileRepository = importedFileRepository;
+        this.roots = roots.stream().map(root -> root.toAbsolutePath().normalize()).toList();
+        this.settleTime = settleTime;
+        this.pollInterval = pollInterval;
+        this.rescanInterval = rescanInterval;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("directory-import-scheduler-"));
+        this.executor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("directory-import-"));
+        this.workers = new Semaphore(parallelism);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        for (Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                log.warn("Import directory {} does not exist; only rescans will pick it up", root);
+                continue;
+            }
+            registerTree(root);
+        }
+        Thread watcher = new Thread(this::watch, "directory-import-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        scheduler.scheduleWithFixedDelay(this::rescan, 0, rescanInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::importSettledScheduled,
+                pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Watching {} for receipts to import", roots);
+    }
+
+    // Running imports get SHUTDOWN_TIMEOUT to finish; one cut off later is imported again on the next
+    // start, as its file has not been checkpointed or moved yet
+    @PreDestroy
+    void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        scheduler.shutdownNow();
+        executor.shutdown();
+        try {
+            long deadline = System.nanoTime() + SHUTDOWN_TIMEOUT.toNanos();
+            if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS)
+                    || !executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                log.warn("Imports still running after {}; interrupting them", SHUTDOWN_TIMEOUT);
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues every waiting file under the import roots that has no matching checkpoint.
+     */
+    public void rescan() {
+        for (Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try {
+                queueUncheckpointed(candidatesUnder(root));
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not scan import directory {}: {}", root, e.getMessage());
+            }
+        }
+    }
+
+    private void importSettledScheduled() {
+        try {
+            importSettled();
+        } catch (RuntimeException e) {
+            log.error("Directory import failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Hands settled files to free workers. Returns how many were submitted.
+     */
+    public int importSettled() {
+        int submitted = 0;
+        LocalDateTime settledBefore = LocalDateTime.now(clock).minus(settleTime);
+        for (Path file : List.copyOf(pending)) {
+            Optional<BasicFileAttributes> attributes = attributes(file);
+            if (attributes.isEmpty()) {
+                pending.remove(file);
+                continue;
+            }
+            if (!lastModified(attributes.get()).isBefore(settledBefore)) {
+                continue;
+            }
+            if (!workers.tryAcquire()) {
+                break;
+            }
+            pending.remove(file);
+            inProgress.add(file);
+            executor.execute(() -> {
+                try {
+                    importFile(file);
+                } finally {
+                    inProgress.remove(file);
+                    workers.release();
+                }
+            });
+            submitted++;
+        }
+        return submitted;
+    }
+
+    private void importFile(Path file) {
+        BasicFileAttributes attributes = attributes(file).orElse(null);
+        if (attributes == null) {
+            return;
+        }
+        String userEmail = userEmailOf(file);
+        if (userEmail == null) {
+            log.warn("Not importing {}: files must be placed in a directory named after the user's email", file);
+            checkpoint(file, attributes, null, ImportStatus.REJECTED, null, "No user directory");
+            moveAside(file, ImportStatus.REJECTED, true);
+            return;
+        }
+
+        ImportStatus status;
+        try (InputStream in = Files.newInputStream(file);
+             SpooledUpload upload = uploadSpooler.spool(in, file.getFileName().toString())) {
+            Receipt receipt = receiptService.uploadReceipt(upload, userEmail, null);
+            checkpoint(file, attributes, userEmail, ImportStatus.IMPORTED, receipt.getId(), null);
+            log.info("Imported {} for {} as receipt {}", file, userEmail, receipt.getId());
+            status = ImportStatus.IMPORTED;
+        } catch (FileStorageException e) {
+            // Our side failed; not checkpointed, so the next rescan retries it
+            log.warn("Could not import {}: {}", file, e.getMessage());
+            return;
+        } catch (BaseException e) {
+            log.warn("Rejected {} for {}: {}", file, userEmail, e.getMessage());
+            checkpoint(file, attributes, userEmail, ImportStatus.REJECTED, null, e.getMessage());
+            status = ImportStatus.REJECTED;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not import {}: {}", file, e.getMessage());
+            return;
+        }
+        // After the stream is closed: some file systems refuse to move open files
+        moveAside(file, status, true);
+    }
+
+    /**
+     * Moves a handled file out of the waiting tree, to the same relative path under {@code processed/}
+     * or {@code rejected/}. A name already taken there gets a timestamp prefix.
+     */
+    private void moveAside(Path file, ImportStatus status, boolean warnOnFailure) {
+        Path root = rootOf(file);
+        if (root == null) {
+            return;
+        }
+        String directory = status == ImportStatus.IMPORTED ? PROCESSED_DIRECTORY : REJECTED_DIRECTORY;
+        Path target = root.resolve(directory).resolve(root.relativize(file));
+        try {
+            Files.createDirectories(target.getParent());
+            if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+                target = target.resolveSibling(clock.millis() + "-" + target.getFileName());
+            }
+            Files.move(file, target);
+        } catch (IOException e) {
+            if (warnOnFailure) {
+                log.warn("Could not move {} to {}; its checkpoint keeps it from being imported again: {}",
+                        file, target, e.getMessage());
+            } else {
+                log.debug("Could not move {} to {}: {}", file, target, e.getMessage());
+            }
+        }
+    }
+
+    private void checkpoint(Path file, BasicFileAttributes attributes, String userEmail, ImportStatus status,
+                            UUID receiptId, String error) {
+        importedFileRepository.save(ImportedFile.builder()
+                .sourcePath(file.toString())
+                .sizeBytes(attributes.size())
+                .lastModified(lastModified(attributes))
+                .userEmail(userEmail)
+                .status(status)
+                .receiptId(receiptId)
+                .error(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error)
+                .importedAt(LocalDateTime.now(clock))
+                .build());
+    }
+
+    private void queueUncheckpointed(List<Path> candidates) {
+        // One lookup per chunk of paths rather than per file
+        for (int from = 0; from < candidates.size(); from += 500) {
+            List<Path> chunk = candidates.subList(from, Math.min(from + 500, candidates.size()));
+            Map<String, ImportedFile> checkpoints = importedFileRepository
+                    .findAllById(chunk.stream().map(Path::toString).toList())
+                    .stream()
+                    .collect(Collectors.toMap(ImportedFile::getSourcePath, Function.identity()));
+            for (Path file : chunk) {
+                ImportedFile checkpoint = checkpoints.get(file.toString());
+                Optional<BasicFileAttributes> attributes = attributes(file);
+                if (attributes.isEmpty() || inProgress.contains(file)) {
+                    continue;
+                }
+                if (checkpoint == null || !checkpoint.matches(attributes.get().size(), lastModified(attributes.get()))) {
+                    pending.add(file);
+                } else {
+                    // Handled but never moved (crash after the checkpoint, or imported before files were moved)
+                    moveAside(file, checkpoint.getStatus(), false);
+                }
+            }
+        }
+    }
+
+    private void watch() {
+        WatchService watcher = watchService;
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                Path directory = (Path) key.watchable();
+                List<Path> created = new ArrayList<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        rescan();
+                        continue;
+                    }
+                    Path path = directory.resolve((Path) event.context());
+                    if (isMovedAside(path)) {
+                        continue;
+                    }
+                    if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                        registerTree(path);
+                        created.addAll(candidatesUnder(path));
+                    } else if (isCandidate(path)) {
+                        created.add(path);
+                    }
+                }
+                queueUncheckpointed(created);
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Directory import watcher stopped");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            log.error("Directory import watcher failed; relying on periodic rescans: {}", e.getMessage(), e);
+        }
+    }
+
+    private void registerTree(Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) throws IOException {
+                if (isMovedAside(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    // Files waiting below the directory; processed/ and rejected/ are not descended into
+    private List<Path> candidatesUnder(Path directory) throws IOException {
+        List<Path> candidates = new ArrayList<>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                return isMovedAside(dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && isCandidate(file)) {
+                    candidates.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                log.debug("Could not read {}: {}", file, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return candidates;
+    }
+
+    private boolean isMovedAside(Path path) {
+        Path root = rootOf(path);
+        return root != null && (path.startsWith(root.resolve(PROCESSED_DIRECTORY))
+                || path.startsWith(root.resolve(REJECTED_DIRECTORY)));
+    }
+
+    private Path rootOf(Path file) {
+        for (Path root : roots) {
+            if (file.startsWith(root)) {
+                return root;
+            }
+        }
+        return null;
+    }
+
+    private boolean isCandidate(Path file) {
+        // Hidden files and the temp names scanners and copy tools write to before renaming
+        String name = file.getFileName().toString();
+        String lower = name.toLowerCase(Locale.ROOT);
+        return !name.startsWith(".") && !name.startsWith("~")
+                && !lower.endsWith(".tmp") && !lower.endsWith(".part") && !lower.endsWith(".crdownload");
+    }
+
+    private String userEmailOf(Path file) {
+        for (Path root : roots) {
+            if (file.startsWith(root) && root.relativize(file).getNameCount() > 1) {
+                String user = root.relativize(file).getName(0).toString();
+                return user.contains("@") ? user : null;
+            }
+        }
+        return null;
+    }
+
+    private static Optional<BasicFileAttributes> attributes(Path file) {
+        try {
+            return Optional.of(Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.debug("Could not read attributes of {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Truncated to the precision of the checkpoint column
+    private static LocalDateTime lastModified(BasicFileAttributes attributes) {
+        return LocalDateTime.ofInstant(attributes.lastModifiedTime().toInstant(), ZoneId.systemDefault())
+                .truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,23 @@
+package com.gm.expensight.service.dto;
+
+import java.util.UUID;
+
+/**
+ * Outcome of one file of a bulk upload. {@code index} is the file's position in the request (ZIP
+ * entries count individually); {@code receiptId} is set when the file was accepted.
+ */
+public record BulkUploadResult(int index, String fileName, UUID receiptId, String status,
+                               String errorCode, String error) {
+
+    public static BulkUploadResult accepted(int index, String fileName, UUID receiptId, String status) {
+        return new BulkUploadResult(index, fileName, receiptId, status, null, null);
+    }
+
+    public static BulkUploadResult rejected(int index, String fileName, String errorCode, String error) {
+        return new BulkUploadResult(index, fileName, null, null, errorCode, error);
+    }
+
+    public boolean isAccepted() {
+        return receiptId != null;
+    }
+}
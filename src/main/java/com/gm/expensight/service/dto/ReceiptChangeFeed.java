@@ -0,0 +1,19 @@
+package com.gm.expensight.service.dto;
+
+import com.gm.expensight.repository.projection.ReceiptSummary;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of a user's change feed. {@code cursor} is the sequence number to send on the next poll;
+ * {@code hasMore} means the next poll can be made right away.
+ */
+public record ReceiptChangeFeed(List<Change> changes, long cursor, boolean hasMore) {
+
+    /**
+     * Latest state of a changed receipt: its summary, or {@code null} when it was deleted.
+     */
+    public record Change(UUID receiptId, long changeSeq, boolean deleted, ReceiptSummary receipt) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.gm.expensight.service.dto;
+
+import com.gm.expensight.exception.ValidationException;
+
+import java.util.Locale;
+
+public enum ReceiptExportFormat {
+
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ReceiptExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static ReceiptExportFormat fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unsupported export format: " + value + " (expected csv or ndjson)");
+        }
+    }
+}
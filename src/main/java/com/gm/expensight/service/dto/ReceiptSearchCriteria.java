@@ -0,0 +1,29 @@
+package com.gm.expensight.service.dto;
+
+import com.gm.expensight.domain.model.ProcessingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Optional filters for receipt search. A {@code null} field means "no restriction";
+ * date and amount bounds are inclusive.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiptSearchCriteria {
+
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private String merchant;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private String currency;
+    private ProcessingStatus status;
+}
@@ -0,0 +1,11 @@
+package com.gm.expensight.service.dto;
+
+import com.gm.expensight.repository.projection.ReceiptSummary;
+
+import java.util.List;
+
+/**
+ * A full-text search result: the matching receipt, its relevance score and the indexed terms that matched.
+ */
+public record ReceiptSearchHit(ReceiptSummary receipt, double score, List<String> matchedTerms) {
+}
@@ -0,0 +1,18 @@
+package com.gm.expensight.service.dto;
+
+import com.gm.expensight.repository.projection.MerchantSpending;
+import com.gm.expensight.repository.projection.MonthlySpending;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Spending of one user over an inclusive month range, read from the materialised rollups.
+ * Amounts are never summed across currencies.
+ */
+public record SpendingInsights(
+        YearMonth fromMonth,
+        YearMonth toMonth,
+        List<MonthlySpending> months,
+        List<MerchantSpending> topMerchants) {
+}
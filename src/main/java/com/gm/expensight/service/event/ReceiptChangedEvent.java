@@ -0,0 +1,10 @@
+package com.gm.expensight.service.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a receipt row or its items are written.
+ * Listeners that keep derived state (caches, indexes) should react after commit.
+ */
+public record ReceiptChangedEvent(UUID receiptId, String userEmail) {
+}
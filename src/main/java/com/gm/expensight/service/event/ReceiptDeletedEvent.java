@@ -0,0 +1,10 @@
+package com.gm.expensight.service.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a receipt row is deleted. Carries what is needed to clean up resources
+ * outside the database once the deletion has committed.
+ */
+public record ReceiptDeletedEvent(UUID receiptId, String userEmail, String storagePath, String originalStoragePath) {
+}
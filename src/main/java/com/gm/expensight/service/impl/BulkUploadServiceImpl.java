@@ -0,0 +1,208 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.exception.BaseException;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.service.BulkUploadService;
+import com.gm.expensight.service.ReceiptService;
+import com.gm.expensight.service.dto.BulkUploadResult;
+import com.gm.expensight.service.util.SpooledUpload;
+import com.gm.expensight.service.util.UploadSpooler;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads the request sequentially and ingests files in parallel: each file or ZIP entry is spooled to
+ * disk (hashed, type-sniffed, size-checked) on the request thread, then handed to a shared pool of
+ * {@code receipts.bulk.parallelism} workers that store and process it. At most that many files per
+ * request, and {@code receipts.bulk.max-pending} across all requests, are spooled or being ingested at
+ * once; a request that would exceed either limit stops reading until a file is done, so neither temp
+ * disk nor the pool's queue grows with the number of concurrent bulk uploads.
+ */
+@Slf4j
+@Service
+public class BulkUploadServiceImpl implements BulkUploadService {
+
+    private static final String UPLOAD_FAILED = "UPLOAD_FAILED";
+
+    private final ReceiptService receiptService;
+    private final UploadSpooler uploadSpooler;
+    private final ExecutorService executor;
+    private final Semaphore pending;
+    private final int parallelism;
+    private final int maxFiles;
+
+    @Autowired
+    public BulkUploadServiceImpl(ReceiptService receiptService,
+                                 UploadSpooler uploadSpooler,
+                                 @Value("${receipts.bulk.parallelism:4}") int parallelism,
+                                 @Value("${receipts.bulk.max-files:200}") int maxFiles,
+                                 @Value("${receipts.bulk.max-pending:16}") int maxPending) {
+        if (maxPending < parallelism) {
+            throw new IllegalArgumentException("receipts.bulk.max-pending must be at least receipts.bulk.parallelism");
+        }
+        this.receiptService = receiptService;
+        this.uploadSpooler = uploadSpooler;
+        this.pending = new Semaphore(maxPending, true);
+        this.parallelism = parallelism;
+        this.maxFiles = maxFiles;
+        this.executor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("bulk-upload-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void uploadFiles(List<MultipartFile> files, String userEmail, Consumer<BulkUploadResult> listener)
+            throws IOException {
+        if (files == null || files.isEmpty()) {
+            throw new ValidationException("No files uploaded");
+        }
+        Ingestion ingestion = new Ingestion(userEmail, listener);
+        try {
+            for (MultipartFile file : files) {
+                try (InputStream in = file.getInputStream()) {
+                    if (isZip(file)) {
+                        ingestion.submitEntries(in);
+                    } else {
+                        ingestion.submit(file.getOriginalFilename(), in);
+                    }
+                }
+            }
+        } finally {
+            ingestion.await();
+        }
+    }
+
+    @Override
+    public void uploadArchive(InputStream zip, String userEmail, Consumer<BulkUploadResult> listener)
+            throws IOException {
+        Ingestion ingestion = new Ingestion(userEmail, listener);
+        try {
+            ingestion.submitEntries(zip);
+        } finally {
+            ingestion.await();
+        }
+        if (ingestion.count == 0) {
+            throw new ValidationException("Archive contains no files");
+        }
+    }
+
+    private static boolean isZip(MultipartFile file) {
+        String contentType = file.getContentType();
+        String fileName = file.getOriginalFilename();
+        return "application/zip".equals(contentType) || "application/x-zip-compressed".equals(contentType)
+                || (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".zip"));
+    }
+
+    // Directories, macOS resource forks and hidden files are not receipts
+    private static boolean isReceiptEntry(ZipEntry entry) {
+        String name = entry.getName();
+        return !entry.isDirectory() && !name.startsWith("__MACOSX/") && !baseName(name).startsWith(".");
+    }
+
+    private static String baseName(String entryName) {
+        return entryName.substring(Math.max(entryName.lastIndexOf('/'), entryName.lastIndexOf('\\')) + 1);
+    }
+
+    /**
+     * One request's files: spooled in order on the calling thread, ingested on the pool.
+     */
+    private final class Ingestion {
+
+        private final String userEmail;
+        private final Consumer<BulkUploadResult> listener;
+        private final Semaphore spooled = new Semaphore(parallelism);
+        private final List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+        private int count;
+
+        private Ingestion(String userEmail, Consumer<BulkUploadResult> listener) {
+            this.userEmail = userEmail;
+            this.listener = listener;
+        }
+
+        void submitEntries(InputStream archive) throws IOException {
+            // Entries are inflated as they are read; each one is bounded by the spooler's size limit
+            ZipInputStream zip = new ZipInputStream(archive);
+            try {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    if (isReceiptEntry(entry)) {
+                        submit(baseName(entry.getName()), zip);
+                    }
+                }
+            } catch (ZipException e) {
+                throw new ValidationException("Invalid ZIP archive: " + e.getMessage());
+            }
+        }
+
+        void submit(String fileName, InputStream in) throws IOException {
+            if (count >= maxFiles) {
+                throw new ValidationException("A bulk upload is limited to " + maxFiles + " files");
+            }
+            int index = count++;
+            // Per-request slot first, then a global one; always in this order, and both released together
+            spooled.acquireUninterruptibly();
+            pending.acquireUninterruptibly();
+            SpooledUpload upload;
+            try {
+                upload = uploadSpooler.spool(in, fileName);
+            } catch (ValidationException e) {
+                release();
+                listener.accept(BulkUploadResult.rejected(index, fileName, e.getErrorCode(), e.getMessage()));
+                return;
+            } catch (IOException | RuntimeException e) {
+                release();
+                throw e;
+            }
+            inFlight.add(CompletableFuture.runAsync(() -> ingest(index, upload), executor));
+        }
+
+        private void ingest(int index, SpooledUpload upload) {
+            String fileName = upload.getOriginalFilename();
+            BulkUploadResult result;
+            try (upload) {
+                Receipt receipt = receiptService.uploadReceipt(upload, userEmail, null);
+                result = BulkUploadResult.accepted(index, fileName, receipt.getId(), receipt.getStatus().name());
+            } catch (BaseException e) {
+                result = BulkUploadResult.rejected(index, fileName, e.getErrorCode(), e.getMessage());
+            } catch (IOException | RuntimeException e) {
+                log.error("Bulk upload of {} for user {} failed: {}", fileName, userEmail, e.getMessage(), e);
+                result = BulkUploadResult.rejected(index, fileName, UPLOAD_FAILED, "Upload failed");
+            } finally {
+                release();
+            }
+            listener.accept(result);
+        }
+
+        private void release() {
+            pending.release();
+            spooled.release();
+        }
+
+        void await() {
+            CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+        }
+    }
+}
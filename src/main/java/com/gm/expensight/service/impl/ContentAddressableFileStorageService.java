@@ -0,0 +1,296 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.domain.model.StoredBlob;
+import com.gm.expensight.exception.FileStorageException;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.repository.ArchiveSegmentRepository;
+import com.gm.expensight.repository.StoredBlobRepository;
+import com.gm.expensight.service.FileStorageService;
+import com.gm.expensight.service.util.ContentHash;
+import com.gm.expensight.service.util.PackSegments;
+import com.gm.expensight.service.util.SpooledUpload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Stores each distinct file content once, under its SHA-256:
+ * {@code cas/ab/cd/abcd...}. The two fan-out levels keep directories small (65,536 leaves).
+ * <p>
+ * Every storeFile adds a reference in {@code stored_blobs} and every deleteFile releases one, so a
+ * duplicate upload costs neither disk space nor a write, and the file goes with its last reference.
+ * Paths outside {@code cas/} (written by {@link LocalFileStorageService}) are still served and deleted.
+ * <p>
+ * Cold blobs may be packed into archive segments by {@link com.gm.expensight.service.ColdStorageCompactor};
+ * their storage paths stay the same and reads fall back to the segment once the loose file is gone.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "storage.backend", havingValue = "content-addressable")
+public class ContentAddressableFileStorageService implements FileStorageService {
+
+    public static final String CAS_DIRECTORY = "cas";
+    public static final String ARCHIVE_DIRECTORY = "archive";
+    public static final String TEMP_DIRECTORY = "tmp";
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final ArchiveSegmentRepository archiveSegmentRepository;
+    private final Path storageLocation;
+    // Reads of loose files, in cas/ or written by LocalFileStorageService, go through the same code as that backend
+    private final LocalFileStorageService looseFiles;
+
+    @Autowired
+    public ContentAddressableFileStorageService(StoredBlobRepository storedBlobRepository,
+                                                ArchiveSegmentRepository archiveSegmentRepository,
+                                                @Value("${storage.location:upload-dir}") String storageLocationPath) {
+        this(storedBlobRepository, archiveSegmentRepository, Paths.get(storageLocationPath));
+    }
+
+    public ContentAddressableFileStorageService(StoredBlobRepository storedBlobRepository,
+                                                ArchiveSegmentRepository archiveSegmentRepository,
+                                                Path storageLocation) {
+        this.storedBlobRepository = storedBlobRepository;
+        this.archiveSegmentRepository = archiveSegmentRepository;
+        this.storageLocation = storageLocation.toAbsolutePath().normalize();
+        this.looseFiles = new LocalFileStorageService(this.storageLocation);
+        try {
+            Files.createDirectories(this.storageLocation.resolve(CAS_DIRECTORY).resolve(TEMP_DIRECTORY));
+        } catch (IOException e) {
+            throw new FileStorageException("Could not create storage directory", e);
+        }
+    }
+
+    @Override
+    @Transactional
+    public String storeFile(MultipartFile file, String userEmail) {
+        validate(file, userEmail);
+        try (InputStream in = file.getInputStream()) {
+            return storeFile(file, userEmail, ContentHash.sha256(in));
+        } catch (IOException e) {
+            log.error("Failed to hash file: {}", e.getMessage(), e);
+            throw new FileStorageException("Failed to store file", e);
+        }
+    }
+
+    @Override
+    @Transactional
+    public String storeFile(MultipartFile file, String userEmail, String contentHash) {
+        validate(file, userEmail);
+        if (!ContentHash.isSha256Hex(contentHash)) {
+            throw new ValidationException("Content hash must be a lowercase hex SHA-256");
+        }
+
+        // Reference first: the row lock keeps a concurrent release of the same content from
+        // deleting the file between the existence check and our commit
+        storedBlobRepository.addReference(contentHash, file.getSize(), LocalDateTime.now());
+        String storagePath = storagePath(contentHash);
+        Path target = storageLocation.resolve(storagePath);
+        if (Files.exists(target) || storedBlobRepository.existsByContentHashAndSegmentIdIsNotNull(contentHash)) {
+            log.debug("Content {} already stored; added a reference", contentHash);
+            return storagePath;
+        }
+
+        try {
+            writeBlob(file, contentHash, target);
+        } catch (IOException e) {
+            log.error("Failed to store file: {}", e.getMessage(), e);
+            throw new FileStorageException("Failed to store file", e);
+        }
+        return storagePath;
+    }
+
+    // Each read tries the loose file first and falls back to the archive when it is missing, so a
+    // blob packed (and its loose file removed) between the two steps is still found
+
+    @Override
+    public byte[] loadFile(String storagePath) throws IOException {
+        try {
+            return looseFiles.loadFile(storagePath);
+        } catch (NoSuchFileException e) {
+            try (InputStream in = openPacked(packedBlob(storagePath))) {
+                return in.readAllBytes();
+            }
+        }
+    }
+
+    /**
+     * Empty for packed blobs: their bytes sit inside a segment file.
+     */
+    @Override
+    public Optional<Path> localFile(String storagePath) throws IOException {
+        try {
+            return looseFiles.localFile(storagePath);
+        } catch (NoSuchFileException e) {
+            packedBlob(storagePath);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public InputStream openInputStream(String storagePath) throws IOException {
+        try {
+            return looseFiles.openInputStream(storagePath);
+        } catch (NoSuchFileException e) {
+            return openPacked(packedBlob(storagePath));
+        }
+    }
+
+    /**
+     * A {@link FileChannel} for loose files and a seekable slice of the segment for packed ones;
+     * compressed entries can only be read sequentially.
+     */
+    @Override
+    public ReadableByteChannel openChannel(String storagePath) throws IOException {
+        try {
+            return looseFiles.openChannel(storagePath);
+        } catch (NoSuchFileException e) {
+            StoredBlob blob = packedBlob(storagePath);
+            if (blob.isCompressed()) {
+                return Channels.newChannel(openPacked(blob));
+            }
+            return PackSegments.openSlice(segmentPath(blob), blob.getSegmentOffset(), blob.getStoredLength());
+        }
+    }
+
+    @Override
+    public ByteBuffer mapFile(String storagePath) throws IOException {
+        try {
+            return looseFiles.mapFile(storagePath);
+        } catch (NoSuchFileException e) {
+            StoredBlob blob = packedBlob(storagePath);
+            return PackSegments.map(segmentPath(blob), blob.getSegmentOffset(), blob.getStoredLength(), blob.isCompressed());
+        }
+    }
+
+    /**
+     * Releases one reference. Runs in its own transaction because it is called after the receipt
+     * delete has committed.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void deleteFile(String storagePath) throws IOException {
+        Path filePath = resolve(storagePath);
+        String contentHash = contentHashOf(storagePath);
+        if (contentHash == null) {
+            Files.deleteIfExists(filePath);
+            return;
+        }
+
+        Optional<StoredBlob> locked = storedBlobRepository.findByIdForUpdate(contentHash);
+        if (locked.isEmpty()) {
+            log.warn("No references recorded for {}; leaving the file in place", storagePath);
+            return;
+        }
+        StoredBlob blob = locked.get();
+        if (blob.getRefCount() > 1) {
+            blob.setRefCount(blob.getRefCount() - 1);
+            return;
+        }
+        // Deleted while the row lock is held: a concurrent store of the same content waits on the
+        // lock and then writes the file again
+        storedBlobRepository.delete(blob);
+        if (blob.isPacked()) {
+            // Segments are append-only; the entry stays behind as dead bytes
+            archiveSegmentRepository.addDeadBytes(blob.getSegmentId(),
+                    PackSegments.ENTRY_HEADER_LENGTH + blob.getStoredLength());
+        }
+        Files.deleteIfExists(filePath);
+        log.debug("Removed content {} with its last reference", contentHash);
+    }
+
+    private void writeBlob(MultipartFile file, String contentHash, Path target) throws IOException {
+        Path temp = Files.createTempFile(storageLocation.resolve(CAS_DIRECTORY).resolve(TEMP_DIRECTORY), "upload-", ".tmp");
+        try {
+            if (file instanceof SpooledUpload spooled && contentHash.equals(spooled.getContentHash())) {
+                // Hashed while it was spooled onto this volume: a rename, no second write or read
+                spooled.transferTo(temp);
+            } else {
+                file.transferTo(temp.toFile());
+                String writtenHash;
+                try (InputStream in = Files.newInputStream(temp)) {
+                    writtenHash = ContentHash.sha256(in);
+                }
+                if (!writtenHash.equals(contentHash)) {
+                    throw new FileStorageException("Stored content does not match hash " + contentHash);
+                }
+            }
+
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Same bytes already placed by a writer that is not holding our row lock (e.g. an
+                // orphan from a rolled-back upload); either copy is fine
+                log.debug("Content {} appeared while writing; keeping the existing file", contentHash);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void validate(MultipartFile file, String userEmail) {
+        if (file == null || file.isEmpty()) {
+            throw new ValidationException("File cannot be null or empty");
+        }
+        if (userEmail == null || userEmail.isBlank()) {
+            throw new ValidationException("User email cannot be null or empty");
+        }
+    }
+
+    private StoredBlob packedBlob(String storagePath) throws NoSuchFileException {
+        String contentHash = contentHashOf(storagePath);
+        return Optional.ofNullable(contentHash)
+                .flatMap(storedBlobRepository::findById)
+                .filter(StoredBlob::isPacked)
+                .orElseThrow(() -> new NoSuchFileException("File not found: " + storagePath));
+    }
+
+    private InputStream openPacked(StoredBlob blob) throws IOException {
+        return PackSegments.openStream(segmentPath(blob), blob.getSegmentOffset(), blob.getStoredLength(),
+                blob.isCompressed());
+    }
+
+    private Path segmentPath(StoredBlob blob) {
+        return PackSegments.segmentPath(storageLocation.resolve(ARCHIVE_DIRECTORY), blob.getSegmentId());
+    }
+
+    private Path resolve(String storagePath) throws IOException {
+        Path filePath = storageLocation.resolve(storagePath).normalize();
+        if (!filePath.startsWith(storageLocation)) {
+            throw new IOException("Storage path escapes storage root: " + storagePath);
+        }
+        return filePath;
+    }
+
+    public static String storagePath(String contentHash) {
+        return CAS_DIRECTORY + "/" + contentHash.substring(0, 2) + "/" + contentHash.substring(2, 4) + "/" + contentHash;
+    }
+
+    public static String contentHashOf(String storagePath) {
+        if (!storagePath.startsWith(CAS_DIRECTORY + "/")) {
+            return null;
+        }
+        String fileName = storagePath.substring(storagePath.lastIndexOf('/') + 1);
+        return ContentHash.isSha256Hex(fileName) && storagePath.equals(storagePath(fileName)) ? fileName : null;
+    }
+}
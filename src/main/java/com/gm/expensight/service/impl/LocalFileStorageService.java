@@ -5,20 +5,28 @@ import com.gm.expensight.exception.ValidationException;
 import com.gm.expensight.service.FileStorageService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
 @Service
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local", matchIfMissing = true)
 public class LocalFileStorageService implements FileStorageService {
 
     private Path storageLocation;
@@ -63,7 +71,8 @@ public class LocalFileStorageService implements FileStorageService {
             String uniqueFilename = generateUniqueFilename(fileExtension);
             
             Path targetLocation = userDir.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            // A spooled upload or a disk-backed multipart part is moved rather than copied
+            file.transferTo(targetLocation.toFile());
 
             return sanitizeEmail(userEmail) + "/" + uniqueFilename;
         } catch (IOException e) {
@@ -74,21 +83,56 @@ public class LocalFileStorageService implements FileStorageService {
 
     @Override
     public byte[] loadFile(String storagePath) throws IOException {
-        Path filePath = this.storageLocation.resolve(storagePath).normalize();
-        if (!Files.exists(filePath)) {
-            throw new IOException("File not found: " + storagePath);
+        return Files.readAllBytes(existingFile(storagePath));
+    }
+
+    @Override
+    public Optional<Path> localFile(String storagePath) throws IOException {
+        return Optional.of(existingFile(storagePath));
+    }
+
+    @Override
+    public InputStream openInputStream(String storagePath) throws IOException {
+        return Files.newInputStream(existingFile(storagePath));
+    }
+
+    @Override
+    public ReadableByteChannel openChannel(String storagePath) throws IOException {
+        return FileChannel.open(existingFile(storagePath), StandardOpenOption.READ);
+    }
+
+    @Override
+    public ByteBuffer mapFile(String storagePath) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(existingFile(storagePath), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
         }
-        return Files.readAllBytes(filePath);
     }
 
     @Override
     public void deleteFile(String storagePath) throws IOException {
-        Path filePath = this.storageLocation.resolve(storagePath).normalize();
+        Path filePath = resolve(storagePath);
         if (Files.exists(filePath)) {
             Files.delete(filePath);
         }
     }
 
+    private Path existingFile(String storagePath) throws IOException {
+        Path filePath = resolve(storagePath);
+        if (!Files.exists(filePath)) {
+            throw new NoSuchFileException("File not found: " + storagePath);
+        }
+        return filePath;
+    }
+
+    private Path resolve(String storagePath) throws IOException {
+        Path filePath = this.storageLocation.resolve(storagePath).normalize();
+        if (!filePath.startsWith(this.storageLocation)) {
+            throw new IOException("Storage path escapes storage root: " + storagePath);
+        }
+        return filePath;
+    }
+
     private String sanitizeEmail(String email) {
         return email.replace("@", "_at_").replace(".", "_");
     }
@@ -0,0 +1,97 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.domain.model.ReceiptChange;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.repository.ReceiptChangeRepository;
+import com.gm.expensight.repository.ReceiptItemRepository;
+import com.gm.expensight.repository.ReceiptRepository;
+import com.gm.expensight.repository.projection.ReceiptItemSummary;
+import com.gm.expensight.repository.projection.ReceiptSummary;
+import com.gm.expensight.service.ReceiptChangeFeedService;
+import com.gm.expensight.service.dto.ReceiptChangeFeed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReceiptChangeFeedServiceImpl implements ReceiptChangeFeedService {
+
+    static final int MAX_LIMIT = 500;
+
+    private final ReceiptChangeRepository receiptChangeRepository;
+    private final ReceiptRepository receiptRepository;
+    private final ReceiptItemRepository receiptItemRepository;
+
+    @Override
+    @Transactional
+    public void recordChange(UUID receiptId, String userEmail) {
+        // Sequence numbers are drawn under the user's feed lock, held until commit: a concurrent change
+        // of the same user waits, so it can neither commit a lower number later nor be skipped by a cursor
+        LocalDateTime now = LocalDateTime.now();
+        receiptChangeRepository.lockUserFeed(userEmail, now);
+        boolean deleted = !receiptRepository.existsById(receiptId);
+        receiptChangeRepository.recordChange(receiptId, userEmail, deleted, now);
+        log.debug("Recorded {} of receipt {} in change feed", deleted ? "deletion" : "change", receiptId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReceiptChangeFeed getChanges(String userEmail, long since, int limit) {
+        if (since < 0) {
+            throw new ValidationException("since must not be negative");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException("limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        List<ReceiptChange> changes = receiptChangeRepository.findChangesSince(
+                userEmail, since, PageRequest.of(0, limit + 1));
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        if (changes.isEmpty()) {
+            return new ReceiptChangeFeed(List.of(), since, false);
+        }
+
+        List<UUID> liveIds = changes.stream()
+                .filter(change -> !change.isDeleted())
+                .map(ReceiptChange::getReceiptId)
+                .toList();
+        Map<UUID, ReceiptSummary> summaries = loadSummaries(liveIds);
+
+        // A receipt deleted after its entry was read has no summary; its tombstone follows on a later poll
+        List<ReceiptChangeFeed.Change> entries = changes.stream()
+                .map(change -> {
+                    ReceiptSummary summary = summaries.get(change.getReceiptId());
+                    return new ReceiptChangeFeed.Change(change.getReceiptId(), change.getChangeSeq(),
+                            summary == null, summary);
+                })
+                .toList();
+        long cursor = changes.get(changes.size() - 1).getChangeSeq();
+        return new ReceiptChangeFeed(entries, cursor, hasMore);
+    }
+
+    private Map<UUID, ReceiptSummary> loadSummaries(List<UUID> receiptIds) {
+        if (receiptIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, List<ReceiptItemSummary>> itemsByReceipt = receiptItemRepository.findSummariesByReceiptIds(receiptIds)
+                .stream()
+                .collect(Collectors.groupingBy(ReceiptItemSummary::receiptId));
+        return receiptRepository.findSummariesByIds(receiptIds).stream()
+                .map(summary -> summary.withItems(itemsByReceipt.getOrDefault(summary.id(), List.of())))
+                .collect(Collectors.toMap(ReceiptSummary::id, Function.identity()));
+    }
+}
@@ -0,0 +1,195 @@
+package com.gm.expensight.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.repository.ReceiptRepository;
+import com.gm.expensight.repository.projection.ReceiptExportRow;
+import com.gm.expensight.service.ReceiptExportService;
+import com.gm.expensight.service.dto.ReceiptExportFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReceiptExportServiceImpl implements ReceiptExportService {
+
+    private static final LocalDate OPEN_FROM_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate OPEN_TO_DATE = LocalDate.of(9999, 12, 31);
+    private static final String[] CSV_HEADER = {
+            "receipt_id", "receipt_date", "merchant_name", "currency", "total_amount", "tax_amount",
+            "status", "created_at", "item_name", "quantity", "price"
+    };
+    private static final int FLUSH_EVERY_ROWS = 1_000;
+
+    private final ReceiptRepository receiptRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void validateDateRange(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new ValidationException("fromDate must not be after toDate");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportReceipts(String userEmail, LocalDate fromDate, LocalDate toDate,
+                               ReceiptExportFormat format, OutputStream out) throws IOException {
+        validateDateRange(fromDate, toDate);
+        log.info("Exporting receipts for user {} as {} ({} to {})", userEmail, format, fromDate, toDate);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long rows = 0;
+        try (Stream<ReceiptExportRow> stream = receiptRepository.streamExportRows(userEmail,
+                fromDate != null ? fromDate : OPEN_FROM_DATE, toDate != null ? toDate : OPEN_TO_DATE)) {
+            RowWriter rowWriter = format == ReceiptExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+            rowWriter.writeHeader();
+            for (Iterator<ReceiptExportRow> it = stream.iterator(); it.hasNext(); ) {
+                rowWriter.write(it.next());
+                if (++rows % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+
+        log.info("Exported {} rows for user {}", rows, userEmail);
+        return rows;
+    }
+
+    private interface RowWriter {
+
+        void writeHeader() throws IOException;
+
+        void write(ReceiptExportRow row) throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            writer.write(String.join(",", CSV_HEADER));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ReceiptExportRow row) throws IOException {
+            writer.write(row.receiptId().toString());
+            writer.write(',');
+            writer.write(row.receiptDate().toString());
+            writer.write(',');
+            writeText(row.merchantName());
+            writer.write(',');
+            writeText(row.currency());
+            writer.write(',');
+            writeNumber(row.totalAmount());
+            writer.write(',');
+            writeNumber(row.taxAmount());
+            writer.write(',');
+            writer.write(row.status().name());
+            writer.write(',');
+            writer.write(row.createdAt().toString());
+            writer.write(',');
+            writeText(row.itemName());
+            writer.write(',');
+            writer.write(row.quantity() != null ? row.quantity().toString() : "");
+            writer.write(',');
+            writeNumber(row.price());
+            writer.write("\r\n");
+        }
+
+        private void writeNumber(BigDecimal value) throws IOException {
+            if (value != null) {
+                writer.write(value.toPlainString());
+            }
+        }
+
+        /**
+         * RFC 4180 quoting. Text starting with a formula character is prefixed with a quote so
+         * spreadsheet apps do not evaluate merchant or item names taken from OCR output.
+         */
+        private void writeText(String value) throws IOException {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            String text = "=+-@\t\r".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+            boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                    || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private NdjsonRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeHeader() {
+            // NDJSON has no header; every line is self-describing
+        }
+
+        @Override
+        public void write(ReceiptExportRow row) throws IOException {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(writer)) {
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                json.writeStartObject();
+                json.writeStringField("receiptId", row.receiptId().toString());
+                json.writeStringField("receiptDate", row.receiptDate().toString());
+                json.writeStringField("merchantName", row.merchantName());
+                json.writeStringField("currency", row.currency());
+                writeNumberField(json, "totalAmount", row.totalAmount());
+                writeNumberField(json, "taxAmount", row.taxAmount());
+                json.writeStringField("status", row.status().name());
+                json.writeStringField("createdAt", row.createdAt().toString());
+                json.writeStringField("itemName", row.itemName());
+                if (row.quantity() != null) {
+                    json.writeNumberField("quantity", row.quantity());
+                } else {
+                    json.writeNullField("quantity");
+                }
+                writeNumberField(json, "price", row.price());
+                json.writeEndObject();
+            }
+            writer.write('\n');
+        }
+
+        private void writeNumberField(JsonGenerator json, String name, BigDecimal value) throws IOException {
+            if (value != null) {
+                json.writeNumberField(name, value);
+            } else {
+                json.writeNullField(name);
+            }
+        }
+    }
+}
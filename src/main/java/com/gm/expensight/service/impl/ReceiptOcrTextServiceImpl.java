@@ -0,0 +1,56 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.domain.model.ReceiptOcrText;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.repository.ReceiptOcrTextRepository;
+import com.gm.expensight.service.ReceiptOcrTextService;
+import com.gm.expensight.service.util.OcrTextCompressor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReceiptOcrTextServiceImpl implements ReceiptOcrTextService {
+
+    private final ReceiptOcrTextRepository receiptOcrTextRepository;
+    private final OcrTextCompressor ocrTextCompressor;
+
+    @Override
+    @Transactional
+    public void saveOcrText(UUID receiptId, String ocrText) {
+        if (ocrText == null) {
+            receiptOcrTextRepository.deleteById(receiptId);
+            return;
+        }
+
+        OcrTextCompressor.CompressedText compressed = ocrTextCompressor.compress(ocrText);
+        if (compressed.content().length > ReceiptOcrText.MAX_CONTENT_LENGTH) {
+            throw new ValidationException(String.format("OCR text for receipt %s is too large to store (%d bytes)",
+                    receiptId, compressed.content().length));
+        }
+
+        ReceiptOcrText entity = receiptOcrTextRepository.findById(receiptId)
+                .orElseGet(() -> ReceiptOcrText.builder().receiptId(receiptId).build());
+        entity.setCompression(compressed.compression());
+        entity.setOriginalSize(compressed.originalSize());
+        entity.setContent(compressed.content());
+        receiptOcrTextRepository.save(entity);
+
+        log.debug("Stored OCR text for receipt {}: {} bytes -> {} bytes ({})", receiptId,
+                compressed.originalSize(), compressed.content().length, compressed.compression());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findOcrText(UUID receiptId) {
+        return receiptOcrTextRepository.findById(receiptId)
+                .map(text -> ocrTextCompressor.decompress(
+                        text.getCompression(), text.getOriginalSize(), text.getContent()));
+    }
+}
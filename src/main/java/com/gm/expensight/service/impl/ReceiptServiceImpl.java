@@ -1,55 +1,204 @@
 package com.gm.expensight.service.impl;
 
+import com.gm.expensight.config.CacheConfig;
 import com.gm.expensight.domain.model.FileMetadata;
 import com.gm.expensight.domain.model.ProcessingStatus;
 import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.repository.ReceiptItemRepository;
 import com.gm.expensight.repository.ReceiptRepository;
+import com.gm.expensight.repository.ReceiptSpecifications;
+import com.gm.expensight.repository.projection.ReceiptItemSummary;
+import com.gm.expensight.repository.projection.ReceiptSummary;
 import com.gm.expensight.service.FileStorageService;
 import com.gm.expensight.service.FileValidator;
+import com.gm.expensight.exception.ConflictException;
+import com.gm.expensight.exception.FileStorageException;
 import com.gm.expensight.exception.LlmException;
 import com.gm.expensight.exception.OcrException;
 import com.gm.expensight.exception.ResourceNotFoundException;
+import com.gm.expensight.exception.ValidationException;
 import com.gm.expensight.service.OcrService;
 import com.gm.expensight.service.OcrServiceFactory;
+import com.gm.expensight.service.ReceiptOcrTextService;
 import com.gm.expensight.service.ReceiptParserService;
 import com.gm.expensight.service.ReceiptService;
+import com.gm.expensight.service.SpendingInsightsService;
+import com.gm.expensight.service.dto.ReceiptParsingResult;
+import com.gm.expensight.service.dto.ReceiptSearchCriteria;
+import com.gm.expensight.service.event.ReceiptChangedEvent;
+import com.gm.expensight.service.event.ReceiptDeletedEvent;
+import com.gm.expensight.service.util.ContentHash;
+import com.gm.expensight.service.util.ImageNormalizer;
+import com.gm.expensight.service.util.SingleFlight;
+import com.gm.expensight.service.util.SpooledUpload;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ReceiptServiceImpl implements ReceiptService {
 
+    private static final int MAX_FAILURE_REASON_LENGTH = 255;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final Duration DEFAULT_PROCESSING_TIMEOUT = Duration.ofMinutes(15);
+    private static final Set<String> SEARCH_SORT_PROPERTIES =
+            Set.of("receiptDate", "totalAmount", "merchantName", "createdAt");
+
     private final FileValidator fileValidator;
     private final FileStorageService fileStorageService;
     private final ReceiptRepository receiptRepository;
+    private final ReceiptItemRepository receiptItemRepository;
     private final OcrServiceFactory ocrServiceFactory;
     private final ReceiptParserService receiptParserService;
+    private final ReceiptOcrTextService receiptOcrTextService;
+    private final SpendingInsightsService spendingInsightsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionOperations transactionOperations;
+    private final ImageNormalizer imageNormalizer;
+    private final SingleFlight<String, Receipt> uploadsInFlight = new SingleFlight<>();
+    private Duration processingTimeout = DEFAULT_PROCESSING_TIMEOUT;
+
+    /**
+     * How long a PROCESSING claim is honoured before another worker may take the receipt over; must exceed
+     * the longest OCR and LLM run.
+     */
+    @Value("${receipts.processing.timeout:15m}")
+    public void setProcessingTimeout(Duration processingTimeout) {
+        this.processingTimeout = processingTimeout;
+    }
 
+    // Not @Transactional: waiting on a concurrent identical upload must happen outside any transaction,
+    // so that the leader's committed receipt is visible afterwards. Processing starts only once the
+    // upload has committed, so OCR and LLM parsing never run inside the upload transaction
     @Override
-    @Transactional
-    public Receipt uploadReceipt(MultipartFile file, String userEmail) {
+    public Receipt uploadReceipt(MultipartFile file, String userEmail, String idempotencyKey) {
         log.info("Uploading receipt for user: {}", userEmail);
         
         fileValidator.validate(file);
-        String storagePath = fileStorageService.storeFile(file, userEmail);
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw new ValidationException("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        String contentHash = sha256(file);
+        
+        try {
+            return uploadsInFlight.execute(userEmail + ":" + contentHash, () -> {
+                Upload upload = transactionOperations.execute(
+                        status -> uploadOrReuse(file, userEmail, contentHash, idempotencyKey));
+                return upload.needsProcessing() ? processAfterUpload(upload.receipt()) : upload.receipt();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race against a concurrent upload on another instance; its receipt wins
+            log.info("Concurrent duplicate upload for user {} ({}); returning existing receipt", userEmail, contentHash);
+            return resolveLostRace(userEmail, contentHash, idempotencyKey, e);
+        }
+    }
+
+    private Receipt resolveLostRace(String userEmail, String contentHash, String idempotencyKey,
+                                    DataIntegrityViolationException e) {
+        if (idempotencyKey != null) {
+            Optional<Receipt> winner = receiptRepository.findByUserEmailAndIdempotencyKey(userEmail, idempotencyKey);
+            if (winner.isPresent()) {
+                if (!contentHash.equals(winner.get().getFileMetadata().getContentHash())) {
+                    throw new ConflictException("Idempotency-Key was already used for a different file");
+                }
+                return winner.get();
+            }
+        }
+        Optional<Receipt> duplicate = receiptRepository.findByUserEmailAndFileMetadataContentHash(userEmail, contentHash);
+        if (duplicate.isPresent()) {
+            return duplicate.get();
+        }
+        if (idempotencyKey != null) {
+            // The key's receipt is not visible to us yet; all we know is that the key is taken
+            throw new ConflictException("Idempotency-Key is already in use by a concurrent upload");
+        }
+        throw e;
+    }
+    
+    /**
+     * Receipt stored or found by an upload, and whether it still has to be processed.
+     */
+    private record Upload(Receipt receipt, boolean needsProcessing) {
+    }
+
+    private Receipt processAfterUpload(Receipt receipt) {
+        try {
+            Receipt processedReceipt = processReceipt(receipt.getId());
+            log.info("Receipt {} processed after upload", receipt.getId());
+            return processedReceipt;
+        } catch (Exception e) {
+            log.warn("Auto-processing failed for receipt {}: {}. Receipt saved but not processed. " +
+                    "Status: {}. Can be retried manually.", receipt.getId(), e.getMessage(), receipt.getStatus());
+            return receipt;
+        }
+    }
+
+    private Upload uploadOrReuse(MultipartFile file, String userEmail, String contentHash, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            Optional<Receipt> replay = receiptRepository.findByUserEmailAndIdempotencyKey(userEmail, idempotencyKey);
+            if (replay.isPresent()) {
+                Receipt previous = replay.get();
+                if (!contentHash.equals(previous.getFileMetadata().getContentHash())) {
+                    throw new ConflictException("Idempotency-Key was already used for a different file");
+                }
+                log.info("Replaying upload {} for user {}: receipt {}", idempotencyKey, userEmail, previous.getId());
+                return new Upload(previous, false);
+            }
+        }
+        
+        Optional<Receipt> duplicate = receiptRepository.findByUserEmailAndFileMetadataContentHash(userEmail, contentHash);
+        if (duplicate.isPresent()) {
+            Receipt existing = duplicate.get();
+            log.info("File already uploaded by user {} as receipt {} ({})", userEmail, existing.getId(), existing.getStatus());
+            // A failed run is retried instead of being returned as-is; no new file is stored
+            return new Upload(existing, existing.getStatus() == ProcessingStatus.FAILED);
+        }
+        
+        // contentHash stays the hash of the upload, so re-uploads are still recognised after normalization
+        Optional<MultipartFile> normalized = imageNormalizer.normalize(file);
+        String storagePath = normalized.isPresent()
+                ? fileStorageService.storeFile(normalized.get(), userEmail)
+                : fileStorageService.storeFile(file, userEmail, contentHash);
+        String originalStoragePath = normalized.isPresent() && imageNormalizer.keepsOriginal()
+                ? fileStorageService.storeFile(file, userEmail, contentHash)
+                : null;
         
         FileMetadata fileMetadata = FileMetadata.builder()
                 .id(UUID.randomUUID())
                 .fileName(file.getOriginalFilename())
                 .contentType(file.getContentType())
                 .storagePath(storagePath)
+                .originalStoragePath(originalStoragePath)
                 .uploadedAt(LocalDateTime.now())
+                .contentHash(contentHash)
                 .build();
         
         Receipt receipt = Receipt.builder()
@@ -61,20 +210,15 @@ public class ReceiptServiceImpl implements ReceiptService {
                 .currency("INR")
                 .status(ProcessingStatus.PENDING)
                 .fileMetadata(fileMetadata)
+                .idempotencyKey(idempotencyKey)
                 .build();
         
         Receipt savedReceipt = receiptRepository.save(receipt);
+        // Surface a unique-key clash with a concurrent identical upload now, before any OCR work
+        receiptRepository.flush();
         log.info("Receipt created with ID: {}", savedReceipt.getId());
-        
-        try {
-            processReceipt(savedReceipt.getId());
-            log.info("Receipt {} processed successfully after upload", savedReceipt.getId());
-        } catch (Exception e) {
-            log.warn("Auto-processing failed for receipt {}: {}. Receipt saved but not processed. " +
-                    "Status: PENDING. Can be retried manually.", savedReceipt.getId(), e.getMessage());
-        }
-        
-        return savedReceipt;
+        eventPublisher.publishEvent(new ReceiptChangedEvent(savedReceipt.getId(), userEmail));
+        return new Upload(savedReceipt, true);
     }
 
     @Override
@@ -84,6 +228,87 @@ public class ReceiptServiceImpl implements ReceiptService {
         return receiptRepository.findByUserEmailOrderByCreatedAtDesc(userEmail);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.RECEIPT_LISTS_CACHE, key = "#userEmail")
+    public List<ReceiptSummary> getUserReceiptSummaries(String userEmail) {
+        log.debug("Retrieving receipt summaries for user: {}", userEmail);
+        List<ReceiptSummary> summaries = receiptRepository.findSummariesByUserEmail(userEmail);
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+
+        Map<UUID, List<ReceiptItemSummary>> itemsByReceipt = receiptItemRepository.findSummariesByUserEmail(userEmail)
+                .stream()
+                .collect(Collectors.groupingBy(ReceiptItemSummary::receiptId));
+
+        return summaries.stream()
+                .map(summary -> summary.withItems(itemsByReceipt.getOrDefault(summary.id(), List.of())))
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ReceiptSummary> searchReceipts(String userEmail, ReceiptSearchCriteria criteria, Pageable pageable) {
+        log.debug("Searching receipts for user: {} with {}", userEmail, criteria);
+        validateSearchCriteria(criteria);
+
+        Specification<Receipt> specification = Specification.where(ReceiptSpecifications.belongsTo(userEmail))
+                .and(ReceiptSpecifications.receiptDateFrom(criteria.getFromDate()))
+                .and(ReceiptSpecifications.receiptDateTo(criteria.getToDate()))
+                .and(ReceiptSpecifications.merchantContains(criteria.getMerchant()))
+                .and(ReceiptSpecifications.totalAmountAtLeast(criteria.getMinAmount()))
+                .and(ReceiptSpecifications.totalAmountAtMost(criteria.getMaxAmount()))
+                .and(ReceiptSpecifications.currencyIs(criteria.getCurrency()))
+                .and(ReceiptSpecifications.statusIs(criteria.getStatus()));
+
+        Page<ReceiptSummary> page = receiptRepository.searchSummaries(specification, withStableSort(pageable));
+        if (page.isEmpty()) {
+            return page;
+        }
+
+        List<UUID> receiptIds = page.map(ReceiptSummary::id).getContent();
+        Map<UUID, List<ReceiptItemSummary>> itemsByReceipt = receiptItemRepository.findSummariesByReceiptIds(receiptIds)
+                .stream()
+                .collect(Collectors.groupingBy(ReceiptItemSummary::receiptId));
+
+        return page.map(summary -> summary.withItems(itemsByReceipt.getOrDefault(summary.id(), List.of())));
+    }
+
+    private void validateSearchCriteria(ReceiptSearchCriteria criteria) {
+        if (criteria.getFromDate() != null && criteria.getToDate() != null
+                && criteria.getFromDate().isAfter(criteria.getToDate())) {
+            throw new ValidationException("fromDate must not be after toDate");
+        }
+        if (criteria.getMinAmount() != null && criteria.getMaxAmount() != null
+                && criteria.getMinAmount().compareTo(criteria.getMaxAmount()) > 0) {
+            throw new ValidationException("minAmount must not be greater than maxAmount");
+        }
+    }
+
+    // Only indexed/summary columns are sortable; id is appended so pages do not overlap on ties
+    private Pageable withStableSort(Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SEARCH_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new ValidationException("Unsupported sort property: " + order.getProperty());
+            }
+        }
+        Sort sort = pageable.getSort().and(Sort.by("id"));
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.RECEIPTS_CACHE, key = "#receiptId")
+    public ReceiptSummary getReceiptSummary(UUID receiptId) {
+        log.debug("Retrieving receipt summary with ID: {}", receiptId);
+        ReceiptSummary summary = receiptRepository.findSummaryById(receiptId)
+                .orElseThrow(() -> new ResourceNotFoundException("Receipt", receiptId));
+        return summary.withItems(receiptItemRepository.findSummariesByReceiptId(receiptId));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Receipt getReceiptById(UUID receiptId) {
@@ -92,19 +317,20 @@ public class ReceiptServiceImpl implements ReceiptService {
                 .orElseThrow(() -> new ResourceNotFoundException("Receipt", receiptId));
     }
 
+    // Not @Transactional: the claim and the result are committed in two short transactions, and OCR and
+    // LLM parsing run in between without holding any lock on the receipt. Callers must not be inside a
+    // transaction themselves, or both would join it
     @Override
-    @Transactional
     public Receipt processReceipt(UUID receiptId) {
         log.info("Processing receipt with ID: {}", receiptId);
-        
-        Receipt receipt = getReceiptById(receiptId);
-        
-        if (receipt.getFileMetadata() == null || receipt.getFileMetadata().getStoragePath() == null) {
-            log.error("Receipt {} has no file metadata or storage path", receiptId);
-            receipt.setStatus(ProcessingStatus.FAILED);
-            receipt.setFailureReason("Missing file metadata or storage path");
-            return receiptRepository.save(receipt);
+
+        // Truncated to the column's precision, so the stored claim compares equal to this one
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Claim claim = transactionOperations.execute(status -> claim(receiptId, claimedAt));
+        if (!claim.acquired()) {
+            return claim.receipt();
         }
+        Receipt receipt = claim.receipt();
 
         try {
             OcrService ocrService = ocrServiceFactory.getDefaultOcrService();
@@ -112,57 +338,157 @@ public class ReceiptServiceImpl implements ReceiptService {
                 throw new OcrException("OCR service is not available");
             }
 
-            byte[] fileData = fileStorageService.loadFile(receipt.getFileMetadata().getStoragePath());
+            String storagePath = receipt.getFileMetadata().getStoragePath();
             String contentType = receipt.getFileMetadata().getContentType();
 
+            // Read from storage without copying the file onto the heap: PDFs are mapped for
+            // PDFBox's random access, images are decoded straight from the stream
             String extractedText;
             if (contentType != null && contentType.equals("application/pdf")) {
-                extractedText = ocrService.extractTextFromPdf(fileData);
+                extractedText = ocrService.extractTextFromPdfBuffer(fileStorageService.mapFile(storagePath));
             } else {
-                extractedText = ocrService.extractText(fileData);
+                try (InputStream imageStream = fileStorageService.openInputStream(storagePath)) {
+                    extractedText = ocrService.extractTextFromStream(imageStream);
+                }
             }
 
-            receipt.setRawOcrText(extractedText);
-            receipt.setStatus(ProcessingStatus.PROCESSING);
+            receiptOcrTextService.saveOcrText(receiptId, extractedText);
             
             log.info("OCR completed for receipt {}. Extracted {} characters.", 
                     receiptId, extractedText != null ? extractedText.length() : 0);
             
-            receiptRepository.save(receipt);
-            
             try {
                 log.debug("Starting LLM parsing for receipt {}", receiptId);
                 var parsingResult = receiptParserService.parseReceipt(extractedText);
                 
-                Receipt receiptToUpdate = receiptRepository.findById(receiptId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Receipt", receiptId));
-                
-                receiptParserService.applyParsingResult(receiptToUpdate, parsingResult);
-                receiptToUpdate.setStatus(ProcessingStatus.COMPLETED);
+                Receipt processed = transactionOperations.execute(
+                        status -> completeClaim(receiptId, claimedAt, parsingResult));
                 log.info("LLM parsing completed for receipt {}. Extracted merchant: {}, total: {}", 
                         receiptId, parsingResult.getMerchantName(), parsingResult.getTotalAmount());
-                
-                return receiptRepository.save(receiptToUpdate);
+                return processed;
             } catch (LlmException e) {
                 log.error("LLM parsing failed for receipt {}: {}", receiptId, e.getMessage(), e);
-                Receipt failedReceipt = receiptRepository.findById(receiptId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Receipt", receiptId));
-                failedReceipt.setStatus(ProcessingStatus.FAILED);
-                failedReceipt.setFailureReason("LLM parsing failed: " + e.getMessage());
-                return receiptRepository.save(failedReceipt);
+                return failClaim(receiptId, claimedAt, "LLM parsing failed: " + e.getMessage());
             }
 
         } catch (OcrException e) {
             log.error("OCR processing failed for receipt {}: {}", receiptId, e.getMessage(), e);
-            receipt.setStatus(ProcessingStatus.FAILED);
-            receipt.setFailureReason("OCR processing failed: " + e.getMessage());
-            return receiptRepository.save(receipt);
+            return failClaim(receiptId, claimedAt, "OCR processing failed: " + e.getMessage());
         } catch (Exception e) {
             log.error("Unexpected error processing receipt {}: {}", receiptId, e.getMessage(), e);
-            receipt.setStatus(ProcessingStatus.FAILED);
-            receipt.setFailureReason("Processing error: " + e.getMessage());
-            return receiptRepository.save(receipt);
+            return failClaim(receiptId, claimedAt, "Processing error: " + e.getMessage());
         }
     }
-}
 
+    private record Claim(Receipt receipt, boolean acquired) {
+    }
+
+    private Claim claim(UUID receiptId, LocalDateTime claimedAt) {
+        Receipt receipt = getReceiptById(receiptId);
+        ProcessingStatus currentStatus = receipt.getStatus();
+
+        if (receipt.getFileMetadata() == null || receipt.getFileMetadata().getStoragePath() == null) {
+            log.error("Receipt {} has no file metadata or storage path", receiptId);
+            return new Claim(failProcessing(receipt, currentStatus, "Missing file metadata or storage path"), false);
+        }
+
+        // A PROCESSING receipt is only taken over once its claim is older than the timeout
+        if (receiptRepository.claimForProcessing(
+                receiptId, currentStatus, claimedAt, claimedAt.minus(processingTimeout)) == 0) {
+            log.warn("Receipt {} is already being processed by another worker, skipping", receiptId);
+            return new Claim(getReceiptById(receiptId), false);
+        }
+        if (currentStatus == ProcessingStatus.PROCESSING) {
+            log.warn("Receipt {} was claimed at {} and never finished; processing it again",
+                    receiptId, receipt.getProcessingStartedAt());
+        } else if (currentStatus == ProcessingStatus.COMPLETED) {
+            // Re-parse: take the old values out of the rollups; the new ones go in on completion
+            spendingInsightsService.removeCompletedReceipt(receipt);
+        }
+        eventPublisher.publishEvent(new ReceiptChangedEvent(receiptId, receipt.getUserEmail()));
+        return new Claim(receipt, true);
+    }
+
+    private Receipt completeClaim(UUID receiptId, LocalDateTime claimedAt, ReceiptParsingResult parsingResult) {
+        // Row lock: a concurrent delete or takeover cannot slip in between the check and the update
+        Receipt receipt = receiptRepository.findByIdForUpdate(receiptId)
+                .orElseThrow(() -> new ResourceNotFoundException("Receipt", receiptId));
+        if (receipt.getStatus() != ProcessingStatus.PROCESSING || !claimedAt.equals(receipt.getProcessingStartedAt())) {
+            log.warn("Receipt {} was taken over or changed while it was processed; discarding the result", receiptId);
+            return receipt;
+        }
+
+        // Dynamic update: only the parsed columns, the status and the item rows are written here
+        receiptParserService.applyParsingResult(receipt, parsingResult);
+        receipt.setStatus(ProcessingStatus.COMPLETED);
+        receipt.setProcessingStartedAt(null);
+        receiptRepository.save(receipt);
+        spendingInsightsService.addCompletedReceipt(receipt);
+
+        return reloadChanged(receiptId);
+    }
+
+    private Receipt failClaim(UUID receiptId, LocalDateTime claimedAt, String failureReason) {
+        String reason = truncateFailureReason(failureReason);
+        return transactionOperations.execute(status -> {
+            if (receiptRepository.markClaimFailed(receiptId, claimedAt, reason) == 0) {
+                log.warn("Receipt {} was taken over or changed while it was processed; failure not recorded: {}",
+                        receiptId, reason);
+            }
+            return reloadChanged(receiptId);
+        });
+    }
+
+    @Override
+    @Transactional
+    public void deleteReceipt(UUID receiptId) {
+        log.info("Deleting receipt with ID: {}", receiptId);
+
+        // Row lock keeps a concurrent processing run from completing the receipt while it is removed
+        Receipt receipt = receiptRepository.findByIdForUpdate(receiptId)
+                .orElseThrow(() -> new ResourceNotFoundException("Receipt", receiptId));
+        if (receipt.getStatus() == ProcessingStatus.COMPLETED) {
+            spendingInsightsService.removeCompletedReceipt(receipt);
+        }
+        receiptRepository.delete(receipt);
+
+        FileMetadata file = receipt.getFileMetadata();
+        eventPublisher.publishEvent(new ReceiptDeletedEvent(receiptId, receipt.getUserEmail(),
+                file != null ? file.getStoragePath() : null, file != null ? file.getOriginalStoragePath() : null));
+        eventPublisher.publishEvent(new ReceiptChangedEvent(receiptId, receipt.getUserEmail()));
+    }
+
+    private Receipt failProcessing(Receipt receipt, ProcessingStatus expectedStatus, String failureReason) {
+        UUID receiptId = receipt.getId();
+        failureReason = truncateFailureReason(failureReason);
+        if (receiptRepository.markFailed(receiptId, expectedStatus, failureReason) == 0) {
+            log.warn("Receipt {} changed status concurrently; failure not recorded: {}", receiptId, failureReason);
+        } else if (expectedStatus == ProcessingStatus.COMPLETED) {
+            spendingInsightsService.removeCompletedReceipt(receipt);
+        }
+        return reloadChanged(receiptId);
+    }
+
+    private static String truncateFailureReason(String failureReason) {
+        return failureReason.length() > MAX_FAILURE_REASON_LENGTH
+                ? failureReason.substring(0, MAX_FAILURE_REASON_LENGTH)
+                : failureReason;
+    }
+
+    private static String sha256(MultipartFile file) {
+        if (file instanceof SpooledUpload spooled) {
+            return spooled.getContentHash();
+        }
+        try (InputStream in = file.getInputStream()) {
+            return ContentHash.sha256(in);
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to read uploaded file", e);
+        }
+    }
+
+    private Receipt reloadChanged(UUID receiptId) {
+        Receipt receipt = getReceiptById(receiptId);
+        eventPublisher.publishEvent(new ReceiptChangedEvent(receiptId, receipt.getUserEmail()));
+        return receipt;
+    }
+}
@@ -0,0 +1,262 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.domain.model.ProcessingStatus;
+import com.gm.expensight.domain.model.ReceiptSearchTerm;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.repository.ReceiptItemRepository;
+import com.gm.expensight.repository.ReceiptRepository;
+import com.gm.expensight.repository.ReceiptSearchTermRepository;
+import com.gm.expensight.repository.projection.ReceiptItemSummary;
+import com.gm.expensight.repository.projection.ReceiptSearchPosting;
+import com.gm.expensight.repository.projection.ReceiptSummary;
+import com.gm.expensight.service.ReceiptOcrTextService;
+import com.gm.expensight.service.ReceiptTextSearchService;
+import com.gm.expensight.service.dto.ReceiptSearchHit;
+import com.gm.expensight.service.util.SearchTextTokenizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over a per-user inverted index ({@code receipt_search_terms}).
+ * <p>
+ * Each query term is matched exactly, by prefix, and (for longer terms) by edit distance against
+ * the user's vocabulary. Matches are scored BM25-style: rarer terms count more, repeated terms
+ * saturate, and prefix or fuzzy matches are discounted against exact ones.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReceiptTextSearchServiceImpl implements ReceiptTextSearchService {
+
+    static final int MERCHANT_WEIGHT = 3;
+    static final int ITEM_WEIGHT = 3;
+    static final int OCR_TEXT_WEIGHT = 1;
+    static final int MAX_TERMS_PER_RECEIPT = 500;
+    static final int MAX_QUERY_TERMS = 8;
+    static final int MAX_LIMIT = 100;
+
+    private static final int MIN_FUZZY_TERM_LENGTH = 4;
+    private static final int LONG_TERM_LENGTH = 8;
+    private static final double PREFIX_MATCH_FACTOR = 0.6;
+    private static final double FUZZY_MATCH_FACTOR = 0.5;
+    private static final double TERM_FREQUENCY_SATURATION = 1.2;
+
+    private final ReceiptRepository receiptRepository;
+    private final ReceiptItemRepository receiptItemRepository;
+    private final ReceiptSearchTermRepository receiptSearchTermRepository;
+    private final ReceiptOcrTextService receiptOcrTextService;
+
+    // Runs after the receipt's own transaction has committed, so it needs a transaction of its own
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void indexReceipt(UUID receiptId) {
+        receiptSearchTermRepository.deleteByReceiptId(receiptId);
+
+        Optional<ReceiptSummary> receipt = receiptRepository.findSummaryById(receiptId);
+        if (receipt.isEmpty() || receipt.get().status() != ProcessingStatus.COMPLETED) {
+            log.debug("Receipt {} is not completed; removed from search index", receiptId);
+            return;
+        }
+        ReceiptSummary summary = receipt.get();
+
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, summary.merchantName(), MERCHANT_WEIGHT);
+        for (ReceiptItemSummary item : receiptItemRepository.findSummariesByReceiptId(receiptId)) {
+            addTerms(weights, item.itemName(), ITEM_WEIGHT);
+        }
+        receiptOcrTextService.findOcrText(receiptId)
+                .ifPresent(text -> addTerms(weights, text, OCR_TEXT_WEIGHT));
+
+        List<ReceiptSearchTerm> postings = weights.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAX_TERMS_PER_RECEIPT)
+                .map(entry -> ReceiptSearchTerm.builder()
+                        .receiptId(receiptId)
+                        .userEmail(summary.userEmail())
+                        .term(entry.getKey())
+                        .weight(entry.getValue())
+                        .build())
+                .toList();
+        receiptSearchTermRepository.saveAll(postings);
+
+        log.debug("Indexed receipt {} with {} terms", receiptId, postings.size());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ReceiptSearchHit> search(String userEmail, String query, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<String> queryTerms = SearchTextTokenizer.tokenize(query).stream()
+                .distinct()
+                .limit(MAX_QUERY_TERMS)
+                .toList();
+        if (queryTerms.isEmpty()) {
+            throw new ValidationException("Search query must contain at least one word");
+        }
+        log.debug("Full-text search for user {}: {}", userEmail, queryTerms);
+
+        long indexedReceipts = receiptRepository.countByUserEmailAndStatus(userEmail, ProcessingStatus.COMPLETED);
+        Map<UUID, Double> scores = new HashMap<>();
+        Map<UUID, Set<String>> matchedTerms = new HashMap<>();
+
+        for (String queryTerm : queryTerms) {
+            Map<UUID, Double> termScores = new HashMap<>();
+            Map<UUID, String> bestTerms = new HashMap<>();
+
+            List<ReceiptSearchPosting> prefixPostings =
+                    receiptSearchTermRepository.findPostingsByTermPrefix(userEmail, queryTerm);
+            scorePostings(prefixPostings, indexedReceipts, termScores, bestTerms,
+                    term -> term.equals(queryTerm) ? 1.0 : PREFIX_MATCH_FACTOR);
+
+            Map<String, Integer> fuzzyTerms = findFuzzyTerms(userEmail, queryTerm);
+            if (!fuzzyTerms.isEmpty()) {
+                scorePostings(receiptSearchTermRepository.findPostingsByTerms(userEmail, fuzzyTerms.keySet()),
+                        indexedReceipts, termScores, bestTerms,
+                        term -> FUZZY_MATCH_FACTOR / fuzzyTerms.get(term));
+            }
+
+            termScores.forEach((receiptId, score) -> scores.merge(receiptId, score, Double::sum));
+            bestTerms.forEach((receiptId, term) ->
+                    matchedTerms.computeIfAbsent(receiptId, id -> new TreeSet<>()).add(term));
+        }
+
+        List<UUID> rankedIds = scores.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, ReceiptSummary> summaries = receiptRepository.findSummariesByIds(rankedIds).stream()
+                .collect(Collectors.toMap(ReceiptSummary::id, Function.identity()));
+        Map<UUID, List<ReceiptItemSummary>> itemsByReceipt = receiptItemRepository.findSummariesByReceiptIds(rankedIds)
+                .stream()
+                .collect(Collectors.groupingBy(ReceiptItemSummary::receiptId));
+
+        List<ReceiptSearchHit> hits = new ArrayList<>(rankedIds.size());
+        for (UUID receiptId : rankedIds) {
+            ReceiptSummary summary = summaries.get(receiptId);
+            if (summary != null) {
+                hits.add(new ReceiptSearchHit(
+                        summary.withItems(itemsByReceipt.getOrDefault(receiptId, List.of())),
+                        scores.get(receiptId),
+                        List.copyOf(matchedTerms.get(receiptId))));
+            }
+        }
+        return hits;
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int fieldWeight) {
+        for (String term : SearchTextTokenizer.tokenize(text)) {
+            weights.merge(term, fieldWeight, Integer::sum);
+        }
+    }
+
+    /**
+     * Keeps, per receipt, the best-scoring posting for the current query term so a query word
+     * contributes at most once per receipt no matter how many index terms it expanded to.
+     */
+    private static void scorePostings(List<ReceiptSearchPosting> postings, long indexedReceipts,
+                                      Map<UUID, Double> termScores, Map<UUID, String> bestTerms,
+                                      Function<String, Double> matchFactor) {
+        Map<String, Long> documentFrequencies = postings.stream()
+                .collect(Collectors.groupingBy(ReceiptSearchPosting::term, Collectors.counting()));
+
+        for (ReceiptSearchPosting posting : postings) {
+            double score = matchFactor.apply(posting.term())
+                    * inverseDocumentFrequency(indexedReceipts, documentFrequencies.get(posting.term()))
+                    * saturatedTermFrequency(posting.weight());
+            if (score > termScores.getOrDefault(posting.receiptId(), 0.0)) {
+                termScores.put(posting.receiptId(), score);
+                bestTerms.put(posting.receiptId(), posting.term());
+            }
+        }
+    }
+
+    private static double inverseDocumentFrequency(long documents, long documentFrequency) {
+        long total = Math.max(documents, documentFrequency);
+        return Math.log(1.0 + (total - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double saturatedTermFrequency(int weight) {
+        return weight * (TERM_FREQUENCY_SATURATION + 1) / (weight + TERM_FREQUENCY_SATURATION);
+    }
+
+    /**
+     * @return vocabulary terms within the allowed edit distance of {@code queryTerm} (excluding those
+     * already found by prefix), mapped to their distance
+     */
+    private Map<String, Integer> findFuzzyTerms(String userEmail, String queryTerm) {
+        if (queryTerm.length() < MIN_FUZZY_TERM_LENGTH) {
+            return Map.of();
+        }
+        int maxDistance = queryTerm.length() >= LONG_TERM_LENGTH ? 2 : 1;
+        List<String> candidates = receiptSearchTermRepository.findFuzzyCandidateTerms(userEmail,
+                queryTerm.substring(0, 1), queryTerm.length() - maxDistance, queryTerm.length() + maxDistance);
+
+        Map<String, Integer> matches = new LinkedHashMap<>();
+        for (String candidate : candidates) {
+            if (candidate.startsWith(queryTerm)) {
+                continue;
+            }
+            int distance = editDistance(queryTerm, candidate, maxDistance);
+            if (distance <= maxDistance) {
+                matches.put(candidate, distance);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Levenshtein distance, giving up early once every alignment exceeds {@code maxDistance}.
+     *
+     * @return the distance, or {@code maxDistance + 1} if it is larger than {@code maxDistance}
+     */
+    static int editDistance(String source, String target, int maxDistance) {
+        if (Math.abs(source.length() - target.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previous = new int[target.length() + 1];
+        int[] current = new int[target.length() + 1];
+        for (int j = 0; j <= target.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= target.length(); j++) {
+                int substitution = previous[j - 1] + (source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j] + 1, current[j - 1] + 1));
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[target.length()], maxDistance + 1);
+    }
+}
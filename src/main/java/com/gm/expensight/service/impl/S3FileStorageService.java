@@ -0,0 +1,404 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.exception.FileStorageException;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.service.FileStorageService;
+import com.gm.expensight.service.util.AwsSigV4Signer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stores receipt files in an S3-compatible object store (AWS S3, MinIO, Ceph, R2...), so that every
+ * API and worker node sees the same files.
+ * <p>
+ * Requests go through a pooled reactor-netty client and are retried with backoff on 5xx, 429 and I/O
+ * errors. Files larger than {@code storage.s3.part-size} are sent as a multipart upload whose parts
+ * are uploaded concurrently. Reads are ranged: {@link #openChannel} fetches blocks on demand, so
+ * serving a byte range or streaming to OCR never downloads the whole object first.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "storage.backend", havingValue = "s3")
+public class S3FileStorageService implements FileStorageService {
+
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024; // S3 minimum for all but the last part
+    private static final int READ_BLOCK_SIZE = 4 * 1024 * 1024;
+    private static final int MAX_IN_MEMORY_SIZE = 32 * 1024 * 1024;
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+
+    /**
+     * Connection and tuning settings, bound from {@code storage.s3.*}.
+     */
+    public record Settings(String endpoint, String region, String bucket, String accessKey, String secretKey,
+                           boolean pathStyleAccess, long partSize, int uploadConcurrency, int maxConnections,
+                           int maxRetries, Duration timeout) {
+    }
+
+    private final Settings settings;
+    private final AwsSigV4Signer signer;
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+
+    @Autowired
+    public S3FileStorageService(@Value("${storage.s3.endpoint}") String endpoint,
+                                @Value("${storage.s3.region:us-east-1}") String region,
+                                @Value("${storage.s3.bucket}") String bucket,
+                                @Value("${storage.s3.access-key}") String accessKey,
+                                @Value("${storage.s3.secret-key}") String secretKey,
+                                @Value("${storage.s3.path-style-access:true}") boolean pathStyleAccess,
+                                @Value("${storage.s3.part-size:8MB}") DataSize partSize,
+                                @Value("${storage.s3.upload-concurrency:4}") int uploadConcurrency,
+                                @Value("${storage.s3.max-connections:50}") int maxConnections,
+                                @Value("${storage.s3.max-retries:3}") int maxRetries,
+                                @Value("${storage.s3.timeout:30s}") Duration timeout,
+                                WebClient.Builder webClientBuilder) {
+        this(new Settings(endpoint, region, bucket, accessKey, secretKey, pathStyleAccess, partSize.toBytes(),
+                uploadConcurrency, maxConnections, maxRetries, timeout), webClientBuilder);
+    }
+
+    public S3FileStorageService(Settings settings, WebClient.Builder webClientBuilder) {
+        if (settings.bucket() == null || settings.bucket().isBlank()) {
+            throw new IllegalArgumentException("storage.s3.bucket must be set");
+        }
+        if (settings.partSize() < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("storage.s3.part-size must be at least 5MB");
+        }
+        this.settings = settings;
+        this.signer = new AwsSigV4Signer(settings.accessKey(), settings.secretKey(), settings.region(), "s3");
+        this.connectionProvider = ConnectionProvider.builder("s3-storage")
+                .maxConnections(settings.maxConnections())
+                .pendingAcquireTimeout(settings.timeout())
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        // The shared builder is mutable; configure a copy
+        this.webClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(
+                        HttpClient.create(connectionProvider).responseTimeout(settings.timeout())))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_SIZE))
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    @Override
+    public String storeFile(MultipartFile file, String userEmail) {
+        if (file == null || file.isEmpty()) {
+            throw new ValidationException("File cannot be null or empty");
+        }
+        if (userEmail == null || userEmail.isBlank()) {
+            throw new ValidationException("User email cannot be null or empty");
+        }
+
+        String key = sanitizeEmail(userEmail) + "/" + UUID.randomUUID() + getFileExtension(file.getOriginalFilename());
+        String contentType = file.getContentType() != null ? file.getContentType() : "application/octet-stream";
+        long start = System.currentTimeMillis();
+        try (InputStream in = file.getInputStream()) {
+            if (file.getSize() <= settings.partSize()) {
+                execute(HttpMethod.PUT, objectUri(key, null), Map.of(HttpHeaders.CONTENT_TYPE, contentType), in.readAllBytes());
+            } else {
+                multipartUpload(key, contentType, in);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to store file in bucket {}: {}", settings.bucket(), e.getMessage(), e);
+            throw new FileStorageException("Failed to store file", e);
+        }
+        log.debug("Stored {} ({} bytes) in {}ms", key, file.getSize(), System.currentTimeMillis() - start);
+        return key;
+    }
+
+    @Override
+    public byte[] loadFile(String storagePath) throws IOException {
+        byte[] body = execute(HttpMethod.GET, objectUri(storagePath, null), Map.of(), null).getBody();
+        return body != null ? body : new byte[0];
+    }
+
+    @Override
+    public InputStream openInputStream(String storagePath) throws IOException {
+        return Channels.newInputStream(openChannel(storagePath));
+    }
+
+    /**
+     * A seekable channel that fetches the object in ranged blocks as it is read.
+     */
+    @Override
+    public ReadableByteChannel openChannel(String storagePath) throws IOException {
+        ResponseEntity<byte[]> head = execute(HttpMethod.HEAD, objectUri(storagePath, null), Map.of(), null);
+        return new ObjectChannel(storagePath, head.getHeaders().getContentLength());
+    }
+
+    @Override
+    public void deleteFile(String storagePath) throws IOException {
+        try {
+            execute(HttpMethod.DELETE, objectUri(storagePath, null), Map.of(), null);
+        } catch (NoSuchFileException e) {
+            log.debug("Object {} was already gone", storagePath);
+        }
+    }
+
+    private void multipartUpload(String key, String contentType, InputStream in) throws IOException {
+        byte[] created = execute(HttpMethod.POST, objectUri(key, "uploads"),
+                Map.of(HttpHeaders.CONTENT_TYPE, contentType), null).getBody();
+        Matcher uploadIdMatch = UPLOAD_ID.matcher(created != null ? new String(created, StandardCharsets.UTF_8) : "");
+        if (!uploadIdMatch.find()) {
+            throw new IOException("No UploadId in CreateMultipartUpload response for " + key);
+        }
+        String uploadId = uploadIdMatch.group(1);
+
+        try {
+            // Parts are read on a worker thread and uploaded concurrently; flatMapSequential keeps their order
+            List<String> etags = Flux.<byte[]>generate(sink -> {
+                        try {
+                            byte[] part = in.readNBytes((int) settings.partSize());
+                            if (part.length == 0) {
+                                sink.complete();
+                            } else {
+                                sink.next(part);
+                            }
+                        } catch (IOException e) {
+                            sink.error(new UncheckedIOException(e));
+                        }
+                    })
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .index()
+                    .flatMapSequential(part -> uploadPart(key, uploadId, part.getT1().intValue() + 1, part.getT2()),
+                            settings.uploadConcurrency())
+                    .collectList()
+                    .block();
+
+            byte[] completed = execute(HttpMethod.POST, objectUri(key, "uploadId=" + AwsSigV4Signer.uriEncode(uploadId, false)),
+                    Map.of(HttpHeaders.CONTENT_TYPE, "application/xml"), completeRequest(etags)).getBody();
+            // S3 can report a failed completion with 200 and an error document
+            if (completed != null && new String(completed, StandardCharsets.UTF_8).contains("<Error>")) {
+                throw new IOException("CompleteMultipartUpload failed for " + key);
+            }
+        } catch (IOException | RuntimeException e) {
+            abortQuietly(key, uploadId);
+            throw e;
+        }
+    }
+
+    private Mono<String> uploadPart(String key, String uploadId, int partNumber, byte[] content) {
+        URI uri = objectUri(key, "partNumber=" + partNumber + "&uploadId=" + AwsSigV4Signer.uriEncode(uploadId, false));
+        return request(HttpMethod.PUT, uri, Map.of(), content)
+                .map(response -> {
+                    String etag = response.getHeaders().getETag();
+                    if (etag == null) {
+                        throw new IllegalStateException("No ETag for part " + partNumber + " of " + key);
+                    }
+                    return etag;
+                });
+    }
+
+    private void abortQuietly(String key, String uploadId) {
+        try {
+            execute(HttpMethod.DELETE, objectUri(key, "uploadId=" + AwsSigV4Signer.uriEncode(uploadId, false)), Map.of(), null);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not abort multipart upload {} of {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    private static byte[] completeRequest(List<String> etags) {
+        StringBuilder xml = new StringBuilder("<CompleteMultipartUpload>");
+        for (int i = 0; i < etags.size(); i++) {
+            xml.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                    .append(etags.get(i).replace("&", "&amp;").replace("<", "&lt;"))
+                    .append("</ETag></Part>");
+        }
+        return xml.append("</CompleteMultipartUpload>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private ResponseEntity<byte[]> execute(HttpMethod method, URI uri, Map<String, String> headers, byte[] body) throws IOException {
+        try {
+            return request(method, uri, headers, body).block();
+        } catch (WebClientResponseException.NotFound e) {
+            throw new NoSuchFileException("File not found: " + uri.getRawPath());
+        } catch (WebClientResponseException e) {
+            throw new IOException(method + " " + uri.getRawPath() + " failed with " + e.getStatusCode(), e);
+        } catch (WebClientRequestException e) {
+            throw new IOException(method + " " + uri.getRawPath() + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    // Signed per attempt, so a retry never reuses a stale x-amz-date
+    private Mono<ResponseEntity<byte[]>> request(HttpMethod method, URI uri, Map<String, String> headers, byte[] body) {
+        String payloadHash = body != null ? AwsSigV4Signer.sha256Hex(body) : AwsSigV4Signer.EMPTY_PAYLOAD_SHA256;
+        return Mono.defer(() -> {
+                    Map<String, String> signed = signer.sign(method.name(), uri, headers, payloadHash, Instant.now());
+                    WebClient.RequestBodySpec spec = webClient.method(method).uri(uri)
+                            .headers(httpHeaders -> signed.forEach(httpHeaders::set));
+                    return (body != null ? spec.bodyValue(body) : spec).retrieve().toEntity(byte[].class);
+                })
+                .retryWhen(Retry.backoff(settings.maxRetries(), Duration.ofMillis(100))
+                        .maxBackoff(Duration.ofSeconds(2))
+                        .filter(S3FileStorageService::isRetryable)
+                        .doBeforeRetry(signal -> log.debug("Retrying {} {} after {}", method, uri.getRawPath(),
+                                signal.failure().getMessage()))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private static boolean isRetryable(Throwable failure) {
+        if (failure instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return failure instanceof WebClientRequestException;
+    }
+
+    private URI objectUri(String key, String query) {
+        if (key == null || key.isBlank() || key.contains("..")) {
+            throw new ValidationException("Invalid storage path: " + key);
+        }
+        URI endpoint = URI.create(settings.endpoint().replaceAll("/+$", ""));
+        String encodedKey = AwsSigV4Signer.uriEncode(key, true);
+        String authority = settings.pathStyleAccess() ? endpoint.getRawAuthority() : settings.bucket() + "." + endpoint.getRawAuthority();
+        String path = settings.pathStyleAccess()
+                ? "/" + AwsSigV4Signer.uriEncode(settings.bucket(), false) + "/" + encodedKey
+                : "/" + encodedKey;
+        return URI.create(endpoint.getScheme() + "://" + authority + path + (query != null ? "?" + query : ""));
+    }
+
+    private String sanitizeEmail(String email) {
+        return email.replace("@", "_at_").replace(".", "_");
+    }
+
+    private String getFileExtension(String filename) {
+        if (filename == null || !filename.contains(".")) {
+            return "";
+        }
+        String extension = filename.substring(filename.lastIndexOf('.'));
+        return extension.matches("\\.[A-Za-z0-9]{1,10}") ? extension : "";
+    }
+
+    /**
+     * Read-only view of an object that downloads {@value #READ_BLOCK_SIZE}-byte ranges on demand.
+     */
+    private final class ObjectChannel implements SeekableByteChannel {
+
+        private final String key;
+        private final long size;
+        private long position;
+        private byte[] block = new byte[0];
+        private long blockStart;
+        private boolean open = true;
+
+        private ObjectChannel(String key, long size) {
+            this.key = key;
+            this.size = size;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            ensureOpen();
+            if (position >= size) {
+                return -1;
+            }
+            if (position < blockStart || position >= blockStart + block.length) {
+                long end = Math.min(size, position + Math.max(READ_BLOCK_SIZE, dst.remaining())) - 1;
+                Map<String, String> range = new LinkedHashMap<>();
+                range.put(HttpHeaders.RANGE, "bytes=" + position + "-" + end);
+                byte[] body = execute(HttpMethod.GET, objectUri(key, null), range, null).getBody();
+                if (body == null || body.length == 0) {
+                    throw new IOException("Empty range response for " + key);
+                }
+                block = body;
+                blockStart = position;
+            }
+            int offset = (int) (position - blockStart);
+            int count = Math.min(dst.remaining(), block.length - offset);
+            dst.put(block, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            ensureOpen();
+            return position;
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            ensureOpen();
+            if (newPosition < 0) {
+                throw new IllegalArgumentException("Negative position");
+            }
+            position = newPosition;
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            ensureOpen();
+            return size;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+            block = new byte[0];
+        }
+
+        private void ensureOpen() throws ClosedChannelException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+        }
+    }
+}
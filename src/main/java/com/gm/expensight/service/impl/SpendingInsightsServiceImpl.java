@@ -0,0 +1,77 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.repository.SpendingRollupRepository;
+import com.gm.expensight.service.SpendingInsightsService;
+import com.gm.expensight.service.dto.SpendingInsights;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpendingInsightsServiceImpl implements SpendingInsightsService {
+
+    static final int MAX_MERCHANT_LIMIT = 50;
+    static final int MAX_MONTH_RANGE = 120;
+    private static final String DEFAULT_CURRENCY = "INR";
+
+    private final SpendingRollupRepository spendingRollupRepository;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addCompletedReceipt(Receipt receipt) {
+        applyDelta(receipt, 1);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeCompletedReceipt(Receipt receipt) {
+        applyDelta(receipt, -1);
+    }
+
+    private void applyDelta(Receipt receipt, int sign) {
+        LocalDate periodMonth = receipt.getReceiptDate().withDayOfMonth(1);
+        String currency = receipt.getCurrency() != null ? receipt.getCurrency() : DEFAULT_CURRENCY;
+        String merchantName = receipt.getMerchantName();
+        BigDecimal taxAmount = receipt.getTaxAmount() != null ? receipt.getTaxAmount() : BigDecimal.ZERO;
+
+        spendingRollupRepository.applyDelta(receipt.getUserEmail(), periodMonth, currency, merchantName,
+                sign, receipt.getTotalAmount().multiply(BigDecimal.valueOf(sign)),
+                taxAmount.multiply(BigDecimal.valueOf(sign)));
+        if (sign < 0) {
+            spendingRollupRepository.deleteIfEmpty(receipt.getUserEmail(), periodMonth, currency, merchantName);
+        }
+        log.debug("Applied receipt {} ({}) to spending rollup {}/{}/{}/{}", receipt.getId(), sign > 0 ? "+" : "-",
+                receipt.getUserEmail(), periodMonth, currency, merchantName);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SpendingInsights getInsights(String userEmail, YearMonth fromMonth, YearMonth toMonth, int merchantLimit) {
+        if (fromMonth.isAfter(toMonth)) {
+            throw new ValidationException("fromMonth must not be after toMonth");
+        }
+        if (fromMonth.plusMonths(MAX_MONTH_RANGE - 1).isBefore(toMonth)) {
+            throw new ValidationException("Month range must not exceed " + MAX_MONTH_RANGE + " months");
+        }
+        if (merchantLimit < 1 || merchantLimit > MAX_MERCHANT_LIMIT) {
+            throw new ValidationException("merchantLimit must be between 1 and " + MAX_MERCHANT_LIMIT);
+        }
+
+        LocalDate from = fromMonth.atDay(1);
+        LocalDate to = toMonth.atDay(1);
+        return new SpendingInsights(fromMonth, toMonth,
+                spendingRollupRepository.findMonthlySpending(userEmail, from, to),
+                spendingRollupRepository.findTopMerchants(userEmail, from, to, PageRequest.of(0, merchantLimit)));
+    }
+}
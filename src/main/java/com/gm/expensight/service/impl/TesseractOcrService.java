@@ -12,10 +12,12 @@ import net.sourceforge.tess4j.TesseractException;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.List;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 @Slf4j
 @Service
@@ -49,9 +51,19 @@ public class TesseractOcrService implements OcrService {
         if (imageData == null) {
             throw new ValidationException("Image data cannot be null");
         }
+        return extractTextFromStream(new ByteArrayInputStream(imageData));
+    }
+    
+    @Override
+    public String extractTextFromStream(InputStream imageStream) throws OcrException {
+        if (imageStream == null) {
+            throw new ValidationException("Image data cannot be null");
+        }
         
         try {
-            BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageData));
+            // Memory cache instead of ImageIO's default temp-file cache: the reader may seek back, so the
+            // whole encoded image (bounded by the upload size limit) is cached, on the heap rather than on disk
+            BufferedImage image = ImageIO.read(new MemoryCacheImageInputStream(imageStream));
             if (image == null) {
                 throw new OcrException("Failed to read image from provided data");
             }
@@ -76,31 +88,32 @@ public class TesseractOcrService implements OcrService {
         if (pdfData == null) {
             throw new ValidationException("PDF data cannot be null");
         }
+        return extractTextFromPdfBuffer(ByteBuffer.wrap(pdfData));
+    }
+    
+    @Override
+    public String extractTextFromPdfBuffer(ByteBuffer pdfData) throws OcrException {
+        if (pdfData == null) {
+            throw new ValidationException("PDF data cannot be null");
+        }
         
         try {
-            List<java.awt.image.BufferedImage> pages = pdfConverter.convertToImages(pdfData);
-            
-            if (pages.isEmpty()) {
-                return "";
-            }
-            
             StringBuilder fullText = new StringBuilder();
             
-            for (int i = 0; i < pages.size(); i++) {
-                BufferedImage pageImage = pages.get(i);
-                
+            // Pages are rendered and recognised one at a time
+            pdfConverter.renderPages(pdfData, (pageIndex, pageImage) -> {
                 try {
                     String pageText = tesseract.doOCR(pageImage);
                     if (pageText != null && !pageText.trim().isEmpty()) {
-                        if (i > 0) {
-                            fullText.append(String.format(PAGE_SEPARATOR, i + 1));
+                        if (pageIndex > 0) {
+                            fullText.append(String.format(PAGE_SEPARATOR, pageIndex + 1));
                         }
                         fullText.append(textNormalizer.enhanceForIndianReceipts(pageText.trim()));
                     }
                 } catch (TesseractException e) {
-                    log.warn("Failed to extract text from page {}: {}", i + 1, e.getMessage());
+                    log.warn("Failed to extract text from page {}: {}", pageIndex + 1, e.getMessage());
                 }
-            }
+            });
             
             return fullText.toString();
             
@@ -0,0 +1,221 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.domain.model.FileMetadata;
+import com.gm.expensight.exception.FileStorageException;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.service.FileStorageService;
+import com.gm.expensight.service.ThumbnailService;
+import com.gm.expensight.service.util.PdfToImageConverter;
+import com.gm.expensight.service.util.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+
+/**
+ * Writes thumbnails as {@code <storagePath>.thumb-<size>.jpg} beside the original. Content-addressed
+ * originals are shared between receipts, and so are their thumbnails.
+ * <p>
+ * Photos are decoded with source subsampling, so a 12 MP image never lands on the heap at full size;
+ * PDFs render only their first page, directly at thumbnail scale.
+ */
+@Slf4j
+@Service
+public class ThumbnailServiceImpl implements ThumbnailService {
+
+    public static final String THUMBNAIL_SUFFIX = ".thumb-";
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final FileStorageService fileStorageService;
+    private final PdfToImageConverter pdfConverter;
+    private final Path storageLocation;
+    private final int maxSize;
+    private final SingleFlight<Path, Path> generationsInFlight = new SingleFlight<>();
+
+    @Autowired
+    public ThumbnailServiceImpl(FileStorageService fileStorageService,
+                                PdfToImageConverter pdfConverter,
+                                @Value("${storage.location:upload-dir}") String storageLocationPath,
+                                @Value("${thumbnails.max-size:320}") int maxSize) {
+        this(fileStorageService, pdfConverter, Paths.get(storageLocationPath), maxSize);
+    }
+
+    public ThumbnailServiceImpl(FileStorageService fileStorageService, PdfToImageConverter pdfConverter,
+                                Path storageLocation, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Thumbnail size must be positive");
+        }
+        this.fileStorageService = fileStorageService;
+        this.pdfConverter = pdfConverter;
+        this.storageLocation = storageLocation.toAbsolutePath().normalize();
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public Path getThumbnail(FileMetadata file) throws IOException {
+        Path thumbnail = thumbnailPath(file.getStoragePath());
+        if (Files.exists(thumbnail)) {
+            return thumbnail;
+        }
+        try {
+            return generationsInFlight.execute(thumbnail, () -> {
+                try {
+                    return Files.exists(thumbnail) ? thumbnail : generate(file, thumbnail);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public void evictThumbnails(String storagePath) throws IOException {
+        if (originalExists(storagePath)) {
+            return;
+        }
+        Path original = resolve(storagePath);
+        String prefix = original.getFileName() + THUMBNAIL_SUFFIX;
+        Path directory = original.getParent();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (var thumbnails = Files.newDirectoryStream(directory, entry -> entry.getFileName().toString().startsWith(prefix))) {
+            for (Path thumbnail : thumbnails) {
+                Files.deleteIfExists(thumbnail);
+                log.debug("Evicted thumbnail {}", thumbnail);
+            }
+        }
+    }
+
+    private Path generate(FileMetadata file, Path thumbnail) throws IOException {
+        long start = System.currentTimeMillis();
+        BufferedImage preview = isPdf(file)
+                ? pdfConverter.renderFirstPage(fileStorageService.mapFile(file.getStoragePath()), maxSize)
+                : readSubsampled(file.getStoragePath());
+
+        Files.createDirectories(thumbnail.getParent());
+        Path temp = Files.createTempFile(thumbnail.getParent(), thumbnail.getFileName().toString(), ".tmp");
+        try {
+            writeJpeg(scaleToFit(preview), temp);
+            Files.move(temp, thumbnail, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.debug("Generated thumbnail {} in {}ms", thumbnail, System.currentTimeMillis() - start);
+        return thumbnail;
+    }
+
+    // Decodes only every n-th pixel/row so the decoded image is at most ~2x the thumbnail size
+    private BufferedImage readSubsampled(String storagePath) throws IOException {
+        try (InputStream in = fileStorageService.openInputStream(storagePath);
+             ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                throw new ValidationException("Unsupported image format for thumbnail: " + storagePath);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longestSide / (maxSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scaleToFit(BufferedImage image) {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        // JPEG has no alpha: flatten onto white
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // Every backend reports a missing file as NoSuchFileException, whether it keeps files loose, packed or remote
+    private boolean originalExists(String storagePath) throws IOException {
+        try (ReadableByteChannel ignored = fileStorageService.openChannel(storagePath)) {
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private Path thumbnailPath(String storagePath) {
+        Path original = resolve(storagePath);
+        return original.resolveSibling(original.getFileName() + THUMBNAIL_SUFFIX + maxSize + ".jpg");
+    }
+
+    private Path resolve(String storagePath) {
+        if (storagePath == null || storagePath.isBlank()) {
+            throw new ValidationException("Storage path cannot be empty");
+        }
+        Path resolved = storageLocation.resolve(storagePath).normalize();
+        if (!resolved.startsWith(storageLocation) || resolved.equals(storageLocation)) {
+            throw new FileStorageException("Invalid storage path: " + storagePath);
+        }
+        return resolved;
+    }
+
+    private static boolean isPdf(FileMetadata file) {
+        return "application/pdf".equalsIgnoreCase(file.getContentType());
+    }
+}
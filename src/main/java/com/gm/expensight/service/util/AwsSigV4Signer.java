@@ -0,0 +1,138 @@
+package com.gm.expensight.service.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * AWS Signature Version 4 for S3-compatible object stores, signing with header-based authorization.
+ * Only what the storage backend needs: no chunked payload signing and no presigned URLs.
+ */
+public final class AwsSigV4Signer {
+
+    public static final String EMPTY_PAYLOAD_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final DateTimeFormatter AMZ_DATE = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter SCOPE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+    private final String service;
+
+    public AwsSigV4Signer(String accessKey, String secretKey, String region, String service) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+        this.service = service;
+    }
+
+    /**
+     * Signs a request. Adds {@code x-amz-date} and {@code x-amz-content-sha256} to {@code headers} and
+     * returns the headers to send, including {@code Authorization}. Every header passed in is signed;
+     * {@code host} is derived from the URI.
+     *
+     * @param uri the request URI, with its path and query already percent-encoded
+     * @param payloadSha256 lowercase hex SHA-256 of the body ({@link #EMPTY_PAYLOAD_SHA256} for none)
+     */
+    public Map<String, String> sign(String method, URI uri, Map<String, String> headers, String payloadSha256, Instant now) {
+        TreeMap<String, String> canonicalHeaders = new TreeMap<>();
+        headers.forEach((name, value) -> canonicalHeaders.put(name.toLowerCase(Locale.ROOT), value.trim()));
+        canonicalHeaders.put("host", uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+        canonicalHeaders.put("x-amz-content-sha256", payloadSha256);
+        canonicalHeaders.put("x-amz-date", AMZ_DATE.format(now));
+
+        String signedHeaders = String.join(";", canonicalHeaders.keySet());
+        String canonicalRequest = String.join("\n",
+                method,
+                uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath(),
+                canonicalQuery(uri.getRawQuery()),
+                canonicalHeaders.entrySet().stream()
+                        .map(header -> header.getKey() + ":" + header.getValue() + "\n")
+                        .collect(Collectors.joining()),
+                signedHeaders,
+                payloadSha256);
+
+        String scope = SCOPE_DATE.format(now) + "/" + region + "/" + service + "/aws4_request";
+        String stringToSign = String.join("\n", ALGORITHM, AMZ_DATE.format(now), scope, sha256Hex(canonicalRequest));
+
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), SCOPE_DATE.format(now));
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, service);
+        signingKey = hmac(signingKey, "aws4_request");
+        String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+
+        Map<String, String> signed = new TreeMap<>(canonicalHeaders);
+        signed.remove("host");
+        signed.put("Authorization", ALGORITHM + " Credential=" + accessKey + "/" + scope
+                + ", SignedHeaders=" + signedHeaders + ", Signature=" + signature);
+        return signed;
+    }
+
+    /**
+     * Percent-encodes a value the way SigV4 expects: everything but unreserved characters, and
+     * {@code /} too unless it separates path segments.
+     */
+    public static String uriEncode(String value, boolean keepSlashes) {
+        StringBuilder encoded = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && keepSlashes)) {
+                encoded.append(c);
+            } else {
+                encoded.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return encoded.toString();
+    }
+
+    public static String sha256Hex(byte[] content) {
+        MessageDigest digest = ContentHash.newSha256Digest();
+        digest.update(content);
+        return ContentHash.toHex(digest);
+    }
+
+    private static String sha256Hex(String value) {
+        return sha256Hex(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Query parameters are already encoded; sort them and give bare keys ("?uploads") an empty value
+    private static String canonicalQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        TreeMap<String, String> parameters = new TreeMap<>();
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            parameters.put(equals < 0 ? parameter : parameter.substring(0, equals),
+                    equals < 0 ? "" : parameter.substring(equals + 1));
+        }
+        StringJoiner query = new StringJoiner("&");
+        parameters.forEach((key, value) -> query.add(key + "=" + value));
+        return query.toString();
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
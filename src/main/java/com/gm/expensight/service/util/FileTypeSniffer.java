@@ -0,0 +1,52 @@
+package com.gm.expensight.service.util;
+
+import org.springframework.http.MediaType;
+
+import java.util.Optional;
+
+/**
+ * Detects the real type of an upload from its leading bytes instead of trusting the
+ * client-supplied {@code Content-Type}.
+ */
+public final class FileTypeSniffer {
+
+    /** Leading bytes needed to recognise every supported type. */
+    public static final int HEADER_LENGTH = 8;
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] PDF = {'%', 'P', 'D', 'F', '-'};
+
+    private FileTypeSniffer() {
+    }
+
+    /**
+     * @param header the first bytes of the file
+     * @param length how many bytes of {@code header} are valid
+     * @return the media type, or empty if the content is not a supported type
+     */
+    public static Optional<String> detect(byte[] header, int length) {
+        if (startsWith(header, length, JPEG)) {
+            return Optional.of(MediaType.IMAGE_JPEG_VALUE);
+        }
+        if (startsWith(header, length, PNG)) {
+            return Optional.of(MediaType.IMAGE_PNG_VALUE);
+        }
+        if (startsWith(header, length, PDF)) {
+            return Optional.of(MediaType.APPLICATION_PDF_VALUE);
+        }
+        return Optional.empty();
+    }
+
+    private static boolean startsWith(byte[] header, int length, byte[] magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,216 @@
+package com.gm.expensight.service.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Shrinks uploaded photos before they are stored: downsampled to at most
+ * {@code receipts.ingest.max-image-pixels}, converted to grayscale and re-encoded in the upload's own
+ * format (PNG stays lossless, JPEG is written at high quality). OCR reads the smaller file instead of
+ * decoding a 12 MP colour photo on every run.
+ * <p>
+ * PDFs and images the JDK cannot decode are left alone, as is any image that would not get smaller.
+ */
+@Slf4j
+@Component
+public class ImageNormalizer {
+
+    private static final float JPEG_QUALITY = 0.9f;
+
+    private final boolean enabled;
+    private final long maxPixels;
+    private final boolean keepOriginal;
+
+    @Autowired
+    public ImageNormalizer(@Value("${receipts.ingest.normalize-images:false}") boolean enabled,
+                           @Value("${receipts.ingest.max-image-pixels:4000000}") long maxPixels,
+                           @Value("${receipts.ingest.keep-original:false}") boolean keepOriginal) {
+        if (maxPixels <= 0) {
+            throw new IllegalArgumentException("Maximum image pixels must be positive");
+        }
+        this.enabled = enabled;
+        this.maxPixels = maxPixels;
+        this.keepOriginal = keepOriginal;
+    }
+
+    /**
+     * Whether the untouched upload should be stored alongside a normalized copy.
+     */
+    public boolean keepsOriginal() {
+        return keepOriginal;
+    }
+
+    /**
+     * Returns the normalized image, or empty to store the upload as it is.
+     */
+    public Optional<MultipartFile> normalize(MultipartFile upload) {
+        String format = formatOf(upload.getContentType());
+        if (!enabled || format == null) {
+            return Optional.empty();
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            BufferedImage image = read(upload);
+            if (image == null) {
+                return Optional.empty();
+            }
+            byte[] normalized = encode(toScaledGrayscale(image), format);
+            if (normalized.length >= upload.getSize()) {
+                log.debug("Normalizing {} would not shrink it ({} -> {} bytes); storing original",
+                        upload.getOriginalFilename(), upload.getSize(), normalized.length);
+                return Optional.empty();
+            }
+            log.info("Normalized {} from {} to {} bytes in {}ms", upload.getOriginalFilename(), upload.getSize(),
+                    normalized.length, System.currentTimeMillis() - start);
+            return Optional.of(new NormalizedImageFile(upload.getName(), upload.getOriginalFilename(),
+                    upload.getContentType(), normalized));
+        } catch (IOException | RuntimeException e) {
+            // Never fail an upload over an optimisation
+            log.warn("Could not normalize {}; storing original: {}", upload.getOriginalFilename(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Subsamples while decoding when the image is far above the limit, keeping 2x headroom for a smooth scale
+    private BufferedImage read(MultipartFile upload) throws IOException {
+        try (InputStream in = upload.getInputStream();
+             ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int step = (int) Math.max(1, Math.floor(linearScale(reader.getWidth(0), reader.getHeight(0)) / 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage toScaledGrayscale(BufferedImage image) {
+        double scale = Math.min(1.0, 1.0 / linearScale(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage gray = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = gray.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // Transparent areas become paper white rather than black
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return gray;
+    }
+
+    private double linearScale(int width, int height) {
+        return Math.sqrt((double) width * height / maxPixels);
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if ("jpeg".equals(format)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String formatOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        return switch (contentType.toLowerCase()) {
+            case MediaType.IMAGE_JPEG_VALUE, "image/jpg" -> "jpeg";
+            case MediaType.IMAGE_PNG_VALUE -> "png";
+            default -> null;
+        };
+    }
+
+    private record NormalizedImageFile(String name, String originalFilename, String contentType, byte[] content)
+            implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return originalFilename;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return content.length == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return content.length;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return content;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.write(dest.toPath(), content);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.gm.expensight.service.util;
+
+import com.gm.expensight.domain.model.OcrTextCompression;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate codec for raw OCR text, optionally primed with a shared dictionary of receipt vocabulary.
+ * Receipts are short, so the dictionary gives the compressor back-references from the first byte.
+ */
+@Slf4j
+@Component
+public class OcrTextCompressor {
+
+    private static final String DICTIONARY_V1_RESOURCE = "ocr/receipt-ocr-dictionary-v1.txt";
+    private static final byte[] DICTIONARY_V1 = loadDictionary(DICTIONARY_V1_RESOURCE);
+    private static final int BUFFER_SIZE = 4096;
+
+    private final OcrTextCompression compression;
+
+    public OcrTextCompressor(@Value("${ocr.text.compression.use-dictionary:true}") boolean useDictionary) {
+        this.compression = useDictionary ? OcrTextCompression.DEFLATE_DICTIONARY_V1 : OcrTextCompression.DEFLATE;
+    }
+
+    public CompressedText compress(String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            if (compression == OcrTextCompression.DEFLATE_DICTIONARY_V1) {
+                deflater.setDictionary(DICTIONARY_V1);
+            }
+            deflater.setInput(raw);
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+
+            byte[] compressed = out.toByteArray();
+            if (compressed.length >= raw.length) {
+                return new CompressedText(OcrTextCompression.NONE, raw.length, raw);
+            }
+            return new CompressedText(compression, raw.length, compressed);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public String decompress(OcrTextCompression compression, int originalSize, byte[] content) {
+        if (compression == OcrTextCompression.NONE) {
+            return new String(content, StandardCharsets.UTF_8);
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(content);
+            byte[] raw = new byte[originalSize];
+            int offset = 0;
+            while (!inflater.finished()) {
+                int length = inflater.inflate(raw, offset, raw.length - offset);
+                if (length == 0 && inflater.needsDictionary()) {
+                    if (compression != OcrTextCompression.DEFLATE_DICTIONARY_V1) {
+                        throw new IllegalStateException("OCR text requires a dictionary but was stored as " + compression);
+                    }
+                    inflater.setDictionary(DICTIONARY_V1);
+                } else if (length == 0 && (inflater.needsInput() || offset == raw.length)) {
+                    throw new IllegalStateException("OCR text is truncated or larger than its recorded size");
+                }
+                offset += length;
+            }
+            return new String(raw, 0, offset, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed OCR text: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public OcrTextCompression getCompression() {
+        return compression;
+    }
+
+    private static byte[] loadDictionary(String resource) {
+        try (InputStream in = OcrTextCompressor.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("OCR compression dictionary not found on classpath: " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load OCR compression dictionary " + resource, e);
+        }
+    }
+
+    public record CompressedText(OcrTextCompression compression, int originalSize, byte[] content) {
+    }
+}
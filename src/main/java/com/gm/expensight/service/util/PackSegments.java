@@ -0,0 +1,241 @@
+package com.gm.expensight.service.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * On-disk format of archive segments: large append-only files holding many cold blobs.
+ * <pre>
+ * segment = "EXPSEG01" entry*
+ * entry   = "EXPB" sha256[32] flags[1] storedLength[8] originalLength[8] data[storedLength]
+ * </pre>
+ * The database keeps the index (segment, data offset, stored length); entry headers make a segment
+ * verifiable and recoverable on its own. Data is either stored as-is or deflated ({@code flags = 1}).
+ */
+public final class PackSegments {
+
+    public static final int ENTRY_HEADER_LENGTH = 4 + 32 + 1 + 8 + 8;
+
+    private static final byte[] SEGMENT_MAGIC = "EXPSEG01".getBytes(StandardCharsets.US_ASCII);
+    private static final int ENTRY_MAGIC = 0x45585042; // "EXPB"
+    private static final byte FLAG_DEFLATE = 1;
+
+    /**
+     * Where an appended blob landed.
+     *
+     * @param dataOffset offset of the blob's data within the segment
+     * @param storedLength bytes the data occupies in the segment
+     * @param compressed whether the data is deflated
+     * @param end segment length after the entry
+     */
+    public record Entry(long dataOffset, long storedLength, boolean compressed, long end) {
+    }
+
+    private PackSegments() {
+    }
+
+    public static Path segmentPath(Path archiveDirectory, long segmentId) {
+        return archiveDirectory.resolve(String.format("segment-%08d.pack", segmentId));
+    }
+
+    /**
+     * Prepares a segment for appending at {@code end}: writes the header of a new segment, and drops
+     * anything past {@code end} left by an append that never made it into the index.
+     *
+     * @return the position to append at
+     */
+    public static long openForAppend(FileChannel segment, long end) throws IOException {
+        if (end < SEGMENT_MAGIC.length) {
+            segment.truncate(0);
+            writeFully(segment, ByteBuffer.wrap(SEGMENT_MAGIC), 0);
+            return SEGMENT_MAGIC.length;
+        }
+        if (segment.size() > end) {
+            segment.truncate(end);
+        }
+        return end;
+    }
+
+    /**
+     * Appends a file at {@code position}. With {@code compress}, the deflated form is kept only if it is smaller.
+     */
+    public static Entry append(FileChannel segment, long position, String contentHash, Path source, boolean compress)
+            throws IOException {
+        long originalLength = Files.size(source);
+        byte[] deflated = compress ? deflate(source) : null;
+        boolean compressed = deflated != null && deflated.length < originalLength;
+        long storedLength = compressed ? deflated.length : originalLength;
+
+        ByteBuffer header = ByteBuffer.allocate(ENTRY_HEADER_LENGTH)
+                .putInt(ENTRY_MAGIC)
+                .put(HexFormat.of().parseHex(contentHash))
+                .put(compressed ? FLAG_DEFLATE : 0)
+                .putLong(storedLength)
+                .putLong(originalLength)
+                .flip();
+        writeFully(segment, header, position);
+
+        long dataOffset = position + ENTRY_HEADER_LENGTH;
+        if (compressed) {
+            writeFully(segment, ByteBuffer.wrap(deflated), dataOffset);
+        } else {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                long copied = 0;
+                while (copied < storedLength) {
+                    long transferred = segment.transferFrom(in, dataOffset + copied, storedLength - copied);
+                    if (transferred <= 0) {
+                        throw new IOException("Source ended early: " + source);
+                    }
+                    copied += transferred;
+                }
+            }
+        }
+        return new Entry(dataOffset, storedLength, compressed, dataOffset + storedLength);
+    }
+
+    /**
+     * Read-only channel over an uncompressed entry, using positional reads on the segment.
+     * Closing it closes the segment channel.
+     */
+    public static SeekableByteChannel openSlice(Path segment, long dataOffset, long length) throws IOException {
+        return new SliceChannel(FileChannel.open(segment, StandardOpenOption.READ), dataOffset, length);
+    }
+
+    /**
+     * Stream over an entry's original bytes, inflating if needed.
+     */
+    public static InputStream openStream(Path segment, long dataOffset, long storedLength, boolean compressed)
+            throws IOException {
+        InputStream raw = Channels.newInputStream(openSlice(segment, dataOffset, storedLength));
+        return compressed ? new InflaterInputStream(raw) : raw;
+    }
+
+    /**
+     * An entry's original bytes: memory-mapped straight from the segment when stored as-is.
+     */
+    public static ByteBuffer map(Path segment, long dataOffset, long storedLength, boolean compressed) throws IOException {
+        if (compressed) {
+            try (InputStream in = openStream(segment, dataOffset, storedLength, true)) {
+                return ByteBuffer.wrap(in.readAllBytes()).asReadOnlyBuffer();
+            }
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, storedLength);
+        }
+    }
+
+    private static byte[] deflate(Path source) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (InputStream in = Files.newInputStream(source);
+             DeflaterOutputStream deflating = new DeflaterOutputStream(out, deflater)) {
+            in.transferTo(deflating);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private static final class SliceChannel implements SeekableByteChannel {
+
+        private final FileChannel segment;
+        private final long start;
+        private final long length;
+        private long position;
+
+        private SliceChannel(FileChannel segment, long start, long length) {
+            this.segment = segment;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            ensureOpen();
+            if (position >= length) {
+                return -1;
+            }
+            int limit = dst.limit();
+            dst.limit(dst.position() + (int) Math.min(dst.remaining(), length - position));
+            try {
+                int read = segment.read(dst, start + position);
+                if (read > 0) {
+                    position += read;
+                }
+                return read;
+            } finally {
+                dst.limit(limit);
+            }
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            ensureOpen();
+            return position;
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            ensureOpen();
+            if (newPosition < 0) {
+                throw new IllegalArgumentException("Negative position");
+            }
+            position = newPosition;
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            ensureOpen();
+            return length;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return segment.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            segment.close();
+        }
+
+        private void ensureOpen() throws ClosedChannelException {
+            if (!segment.isOpen()) {
+                throw new ClosedChannelException();
+            }
+        }
+    }
+}
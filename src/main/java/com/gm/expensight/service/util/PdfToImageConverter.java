@@ -3,7 +3,10 @@ package com.gm.expensight.service.util;
 import com.gm.expensight.exception.ValidationException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
 import org.springframework.stereotype.Component;
 
@@ -11,6 +14,7 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,25 +22,66 @@ import java.util.List;
 @Component
 public class PdfToImageConverter {
     
-    private static final int DEFAULT_DPI = 300; // High DPI for better OCR accuracy
+    public static final int DEFAULT_DPI = 300; // High DPI for better OCR accuracy
     
-    public List<BufferedImage> convertToImages(byte[] pdfData, int dpi) throws IOException {
-        if (pdfData == null || pdfData.length == 0) {
+    /**
+     * Receives rendered pages one at a time; the image can be discarded once the call returns.
+     */
+    @FunctionalInterface
+    public interface PageHandler {
+        void handle(int pageIndex, BufferedImage image) throws IOException;
+    }
+    
+    /**
+     * Renders each page and hands it to {@code handler} before rendering the next, so only one page
+     * image is held at a time. The PDF is read in place from the buffer (e.g. a memory-mapped file)
+     * instead of being copied onto the heap.
+     */
+    public void renderPages(ByteBuffer pdfData, int dpi, PageHandler handler) throws IOException {
+        if (pdfData == null || !pdfData.hasRemaining()) {
             throw new ValidationException("PDF data cannot be null or empty");
         }
         
-        List<BufferedImage> images = new ArrayList<>();
-        
-        try (PDDocument document = Loader.loadPDF(pdfData)) {
+        try (PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(pdfData.slice()))) {
             PDFRenderer renderer = new PDFRenderer(document);
             int pageCount = document.getNumberOfPages();
             
             for (int pageIndex = 0; pageIndex < pageCount; pageIndex++) {
-                BufferedImage image = renderer.renderImageWithDPI(pageIndex, dpi);
-                images.add(image);
+                handler.handle(pageIndex, renderer.renderImageWithDPI(pageIndex, dpi));
+            }
+        }
+    }
+    
+    public void renderPages(ByteBuffer pdfData, PageHandler handler) throws IOException {
+        renderPages(pdfData, DEFAULT_DPI, handler);
+    }
+    
+    /**
+     * Renders only the first page, scaled so its longer side is {@code maxDimension} pixels.
+     * Cheaper than rendering at OCR resolution and shrinking afterwards.
+     */
+    public BufferedImage renderFirstPage(ByteBuffer pdfData, int maxDimension) throws IOException {
+        if (pdfData == null || !pdfData.hasRemaining()) {
+            throw new ValidationException("PDF data cannot be null or empty");
+        }
+        
+        try (PDDocument document = Loader.loadPDF(new RandomAccessReadBuffer(pdfData.slice()))) {
+            if (document.getNumberOfPages() == 0) {
+                throw new ValidationException("PDF has no pages");
             }
+            PDRectangle pageSize = document.getPage(0).getCropBox();
+            float scale = maxDimension / Math.max(pageSize.getWidth(), pageSize.getHeight());
+            return new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+        }
+    }
+    
+    public List<BufferedImage> convertToImages(byte[] pdfData, int dpi) throws IOException {
+        if (pdfData == null || pdfData.length == 0) {
+            throw new ValidationException("PDF data cannot be null or empty");
         }
         
+        List<BufferedImage> images = new ArrayList<>();
+        renderPages(ByteBuffer.wrap(pdfData), dpi, (pageIndex, image) -> images.add(image));
         return images;
     }
     
@@ -0,0 +1,48 @@
+package com.gm.expensight.service.util;
+
+import com.gm.expensight.domain.model.ReceiptSearchTerm;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits receipt text and search queries into index terms: lower-cased, accents stripped,
+ * broken on anything that is not a letter or digit. Indexing and querying must use the same rules.
+ */
+public final class SearchTextTokenizer {
+
+    public static final int MIN_TERM_LENGTH = 2;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "an", "and", "at", "by", "for", "in", "is", "of", "on", "or", "the", "to", "with", "you", "your");
+
+    private SearchTextTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        String normalized = COMBINING_MARKS
+                .matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> terms = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (token.length() >= MIN_TERM_LENGTH
+                    && token.length() <= ReceiptSearchTerm.MAX_TERM_LENGTH
+                    && !STOP_WORDS.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,93 @@
+package com.gm.expensight.service.util;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * An upload already written to a temp file on the storage volume, with its SHA-256 and sniffed type.
+ * {@link #transferTo(File)} moves the file instead of copying it; closing deletes it if it was never moved.
+ */
+public class SpooledUpload implements MultipartFile, Closeable {
+
+    private final Path file;
+    private final String originalFilename;
+    private final String contentType;
+    private final long size;
+    private final String contentHash;
+
+    SpooledUpload(Path file, String originalFilename, String contentType, long size, String contentHash) {
+        this.file = file;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.size = size;
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Lowercase hex SHA-256, computed while the upload was written.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    /**
+     * The type detected from the content, not the one the client declared.
+     */
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(file);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        transferTo(dest.toPath());
+    }
+
+    // Same volume as the storage root, so this is a rename
+    @Override
+    public void transferTo(Path dest) throws IOException {
+        Files.move(file, dest, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,94 @@
+package com.gm.expensight.service.util;
+
+import com.gm.expensight.exception.FileStorageException;
+import com.gm.expensight.exception.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+
+/**
+ * Streams an upload body straight into a temp file under {@code storage.location}, hashing it and
+ * sniffing its type on the way. The bytes are written once; storing the result is a rename.
+ */
+@Slf4j
+@Component
+public class UploadSpooler {
+
+    public static final String SPOOL_DIRECTORY = "tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path spoolDirectory;
+    private final long maxFileSize;
+
+    @Autowired
+    public UploadSpooler(@Value("${storage.location:upload-dir}") String storageLocationPath,
+                         @Value("${spring.servlet.multipart.max-file-size:10MB}") DataSize maxFileSize) {
+        this(Paths.get(storageLocationPath), maxFileSize.toBytes());
+    }
+
+    public UploadSpooler(Path storageLocation, long maxFileSize) {
+        this.spoolDirectory = storageLocation.toAbsolutePath().normalize().resolve(SPOOL_DIRECTORY);
+        this.maxFileSize = maxFileSize;
+        try {
+            Files.createDirectories(spoolDirectory);
+        } catch (IOException e) {
+            throw new FileStorageException("Could not create upload directory", e);
+        }
+    }
+
+    /**
+     * Writes {@code in} to a temp file. The caller closes the result, which deletes the temp file
+     * unless it was moved into storage.
+     *
+     * @throws ValidationException if the content is empty, too large or not a supported type
+     */
+    public SpooledUpload spool(InputStream in, String originalFilename) throws IOException {
+        Path temp = Files.createTempFile(spoolDirectory, "upload-", ".part");
+        try {
+            MessageDigest digest = ContentHash.newSha256Digest();
+            byte[] header = new byte[FileTypeSniffer.HEADER_LENGTH];
+            int headerLength = 0;
+            long size = 0;
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxFileSize) {
+                        throw new ValidationException("File size exceeds maximum allowed size of "
+                                + (maxFileSize / (1024 * 1024)) + "MB");
+                    }
+                    if (headerLength < header.length) {
+                        int copied = Math.min(read, header.length - headerLength);
+                        System.arraycopy(buffer, 0, header, headerLength, copied);
+                        headerLength += copied;
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+
+            if (size == 0) {
+                throw new ValidationException("File cannot be null or empty");
+            }
+            String contentType = FileTypeSniffer.detect(header, headerLength)
+                    .orElseThrow(() -> new ValidationException("File content is not a JPEG, PNG or PDF"));
+            log.debug("Spooled {} ({} bytes, {})", originalFilename, size, contentType);
+            return new SpooledUpload(temp, originalFilename, contentType, size, ContentHash.toHex(digest));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+}
@@ -1,23 +1,66 @@
 package com.gm.expensight.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gm.expensight.domain.model.FileMetadata;
+import com.gm.expensight.domain.model.ProcessingStatus;
 import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.exception.BaseException;
 import com.gm.expensight.exception.ForbiddenException;
+import com.gm.expensight.exception.ResourceNotFoundException;
 import com.gm.expensight.exception.UnauthorizedException;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.repository.projection.ReceiptSummary;
+import com.gm.expensight.service.BulkUploadService;
+import com.gm.expensight.service.ReceiptChangeFeedService;
+import com.gm.expensight.service.ReceiptExportService;
 import com.gm.expensight.service.ReceiptMapper;
+import com.gm.expensight.service.ReceiptOcrTextService;
 import com.gm.expensight.service.ReceiptService;
+import com.gm.expensight.service.ReceiptTextSearchService;
+import com.gm.expensight.service.SpendingInsightsService;
+import com.gm.expensight.service.ThumbnailService;
+import com.gm.expensight.service.dto.BulkUploadResult;
+import com.gm.expensight.service.dto.ReceiptChangeFeed;
+import com.gm.expensight.service.dto.ReceiptExportFormat;
+import com.gm.expensight.service.dto.ReceiptSearchCriteria;
+import com.gm.expensight.service.dto.SpendingInsights;
+import com.gm.expensight.service.util.SpooledUpload;
+import com.gm.expensight.service.util.UploadSpooler;
+import com.gm.expensight.web.dto.BulkUploadItemResponse;
+import com.gm.expensight.web.dto.ReceiptChangesResponse;
 import com.gm.expensight.web.dto.ReceiptResponse;
+import com.gm.expensight.web.dto.ReceiptSearchHitResponse;
+import com.gm.expensight.web.dto.SpendingInsightsResponse;
 import com.gm.expensight.web.dto.UploadReceiptResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Slf4j
 @RestController
@@ -27,26 +70,149 @@ public class ReceiptController {
 
     private final ReceiptService receiptService;
     private final ReceiptMapper receiptMapper;
+    private final ReceiptOcrTextService receiptOcrTextService;
+    private final ReceiptTextSearchService receiptTextSearchService;
+    private final SpendingInsightsService spendingInsightsService;
+    private final ReceiptExportService receiptExportService;
+    private final ReceiptChangeFeedService receiptChangeFeedService;
+    private final StoredFileWriter storedFileWriter;
+    private final ThumbnailService thumbnailService;
+    private final UploadSpooler uploadSpooler;
+    private final BulkUploadService bulkUploadService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/upload")
     public ResponseEntity<UploadReceiptResponse> uploadReceipt(
             @RequestParam("file") MultipartFile file,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal OAuth2User principal) {
 
         validateAuthentication(principal);
 
         String userEmail = extractUserEmail(principal);
-        Receipt receipt = receiptService.uploadReceipt(file, userEmail);
+        Receipt receipt = receiptService.uploadReceipt(file, userEmail, idempotencyKey);
 
-        UploadReceiptResponse response = UploadReceiptResponse.builder()
+        return ResponseEntity.ok(toUploadResponse(receipt));
+    }
+
+    /**
+     * Raw-body upload: the request body is the file itself and is streamed straight onto the storage
+     * volume, hashed and type-sniffed as it arrives, then moved into place.
+     */
+    @PostMapping(value = "/upload", consumes = {
+            MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE,
+            MediaType.APPLICATION_PDF_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<UploadReceiptResponse> uploadReceiptBody(
+            @RequestHeader(value = HttpHeaders.CONTENT_DISPOSITION, required = false) String contentDisposition,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @AuthenticationPrincipal OAuth2User principal,
+            HttpServletRequest request) throws IOException {
+
+        validateAuthentication(principal);
+
+        String userEmail = extractUserEmail(principal);
+        String fileName = fileNameOf(contentDisposition);
+        try (SpooledUpload upload = uploadSpooler.spool(request.getInputStream(), fileName)) {
+            Receipt receipt = receiptService.uploadReceipt(upload, userEmail, idempotencyKey);
+            return ResponseEntity.ok(toUploadResponse(receipt));
+        }
+    }
+
+    /**
+     * Bulk upload of many files, any of which may be a ZIP archive. Results stream back as NDJSON,
+     * one line per file in the order they complete.
+     */
+    @PostMapping(value = "/upload/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> uploadReceipts(
+            @RequestParam("files") List<MultipartFile> files,
+            @AuthenticationPrincipal OAuth2User principal) {
+
+        validateAuthentication(principal);
+
+        String userEmail = extractUserEmail(principal);
+        if (files.isEmpty()) {
+            throw new ValidationException("No files uploaded");
+        }
+        return bulkUploadResponse(out -> bulkUploadService.uploadFiles(files, userEmail, out));
+    }
+
+    /**
+     * Bulk upload of a ZIP archive sent as the raw request body; entries are read as they arrive.
+     */
+    @PostMapping(value = "/upload/bulk", consumes = {"application/zip", "application/x-zip-compressed"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> uploadReceiptArchive(
+            @AuthenticationPrincipal OAuth2User principal,
+            HttpServletRequest request) {
+
+        validateAuthentication(principal);
+
+        String userEmail = extractUserEmail(principal);
+        return bulkUploadResponse(out -> bulkUploadService.uploadArchive(request.getInputStream(), userEmail, out));
+    }
+
+    private interface BulkUpload {
+        void run(Consumer<BulkUploadResult> listener) throws IOException;
+    }
+
+    private ResponseEntity<StreamingResponseBody> bulkUploadResponse(BulkUpload upload) {
+        StreamingResponseBody body = out -> {
+            try {
+                upload.run(result -> writeLine(out, BulkUploadItemResponse.builder()
+                        .index(result.index())
+                        .fileName(result.fileName())
+                        .receiptId(result.receiptId())
+                        .status(result.status())
+                        .errorCode(result.errorCode())
+                        .error(result.error())
+                        .build()));
+            } catch (BaseException e) {
+                // The status line is already committed; report the failure in-band
+                writeLine(out, BulkUploadItemResponse.builder()
+                        .errorCode(e.getErrorCode())
+                        .error(e.getMessage())
+                        .build());
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Called from ingestion threads; a client that went away does not stop the upload
+    private void writeLine(OutputStream out, BulkUploadItemResponse line) {
+        synchronized (out) {
+            try {
+                out.write(objectMapper.writeValueAsBytes(line));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                log.debug("Could not send bulk upload result: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static UploadReceiptResponse toUploadResponse(Receipt receipt) {
+        return UploadReceiptResponse.builder()
                 .receiptId(receipt.getId())
                 .fileName(receipt.getFileMetadata().getFileName())
                 .status(receipt.getStatus().name())
                 .uploadedAt(receipt.getCreatedAt())
                 .message("Receipt uploaded successfully")
                 .build();
+    }
 
-        return ResponseEntity.ok(response);
+    private static String fileNameOf(String contentDisposition) {
+        if (contentDisposition != null) {
+            try {
+                String fileName = ContentDisposition.parse(contentDisposition).getFilename();
+                if (fileName != null && !fileName.isBlank()) {
+                    return fileName;
+                }
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Invalid Content-Disposition header");
+            }
+        }
+        return "receipt";
     }
 
     @GetMapping
@@ -54,13 +220,115 @@ public class ReceiptController {
         validateAuthentication(principal);
 
         String userEmail = extractUserEmail(principal);
-        List<Receipt> receipts = receiptService.getUserReceipts(userEmail);
+        List<ReceiptSummary> receipts = receiptService.getUserReceiptSummaries(userEmail);
         List<ReceiptResponse> responses = receipts.stream()
                 .map(receiptMapper::toResponse)
                 .collect(java.util.stream.Collectors.toList());
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<PagedModel<ReceiptResponse>> searchReceipts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String merchant,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) ProcessingStatus status,
+            @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            @AuthenticationPrincipal OAuth2User principal) {
+
+        validateAuthentication(principal);
+
+        String userEmail = extractUserEmail(principal);
+        ReceiptSearchCriteria criteria = ReceiptSearchCriteria.builder()
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .merchant(merchant)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .currency(currency)
+                .status(status)
+                .build();
+        Page<ReceiptResponse> page = receiptService.searchReceipts(userEmail, criteria, pageable)
+                .map(receiptMapper::toResponse);
+        return ResponseEntity.ok(new PagedModel<>(page));
+    }
+
+    @GetMapping("/search/text")
+    public ResponseEntity<List<ReceiptSearchHitResponse>> searchReceiptText(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal OAuth2User principal) {
+
+        validateAuthentication(principal);
+
+        String userEmail = extractUserEmail(principal);
+        List<ReceiptSearchHitResponse> responses = receiptTextSearchService.search(userEmail, query, limit).stream()
+                .map(hit -> ReceiptSearchHitResponse.builder()
+                        .receiptId(hit.receipt().id())
+                        .score(hit.score())
+                        .matchedTerms(hit.matchedTerms())
+                        .receipt(receiptMapper.toResponse(hit.receipt()))
+                        .build())
+                .toList();
+        return ResponseEntity.ok(responses);
+    }
+
+    @GetMapping("/insights")
+    public ResponseEntity<SpendingInsightsResponse> getSpendingInsights(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth fromMonth,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth toMonth,
+            @RequestParam(defaultValue = "10") int merchantLimit,
+            @AuthenticationPrincipal OAuth2User principal) {
+
+        validateAuthentication(principal);
+
+        String userEmail = extractUserEmail(principal);
+        YearMonth to = toMonth != null ? toMonth : YearMonth.now();
+        YearMonth from = fromMonth != null ? fromMonth : to.minusMonths(11);
+        SpendingInsights insights = spendingInsightsService.getInsights(userEmail, from, to, merchantLimit);
+        return ResponseEntity.ok(receiptMapper.toInsightsResponse(insights));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<ReceiptChangesResponse> getReceiptChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit,
+            @AuthenticationPrincipal OAuth2User principal) {
+
+        validateAuthentication(principal);
+
+        String userEmail = extractUserEmail(principal);
+        ReceiptChangeFeed feed = receiptChangeFeedService.getChanges(userEmail, since, limit);
+        return ResponseEntity.ok(receiptMapper.toChangesResponse(feed));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReceipts(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @AuthenticationPrincipal OAuth2User principal) {
+
+        validateAuthentication(principal);
+
+        String userEmail = extractUserEmail(principal);
+        ReceiptExportFormat exportFormat = ReceiptExportFormat.fromParameter(format);
+        // Validate up front: once streaming starts the status line is already committed
+        receiptExportService.validateDateRange(fromDate, toDate);
+
+        StreamingResponseBody body = out ->
+                receiptExportService.exportReceipts(userEmail, fromDate, toDate, exportFormat, out);
+        String fileName = "receipts-" + LocalDate.now() + "." + exportFormat.getFileExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
     @GetMapping("/{receiptId}")
     public ResponseEntity<ReceiptResponse> getReceipt(
             @PathVariable UUID receiptId,
@@ -69,13 +337,90 @@ public class ReceiptController {
         validateAuthentication(principal);
 
         String userEmail = extractUserEmail(principal);
-        Receipt receipt = receiptService.getReceiptById(receiptId);
+        ReceiptSummary receipt = receiptService.getReceiptSummary(receiptId);
+        verifyOwnership(receipt, userEmail);
         
+        return ResponseEntity.ok(receiptMapper.toResponse(receipt));
+    }
+
+    @GetMapping(value = "/{receiptId}/ocr-text", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getReceiptOcrText(
+            @PathVariable UUID receiptId,
+            @AuthenticationPrincipal OAuth2User principal) {
+
+        validateAuthentication(principal);
+
+        String userEmail = extractUserEmail(principal);
+        verifyOwnership(receiptService.getReceiptSummary(receiptId), userEmail);
+
+        String ocrText = receiptOcrTextService.findOcrText(receiptId)
+                .orElseThrow(() -> new ResourceNotFoundException("OCR text for receipt", receiptId));
+        return ResponseEntity.ok(ocrText);
+    }
+    
+    @GetMapping("/{receiptId}/file")
+    public void getReceiptFile(
+            @PathVariable UUID receiptId,
+            @AuthenticationPrincipal OAuth2User principal,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        validateAuthentication(principal);
+
+        String userEmail = extractUserEmail(principal);
+        FileMetadata file = getOwnedReceiptFile(receiptId, userEmail);
+
+        storedFileWriter.write(file, request, response);
+    }
+
+    @GetMapping("/{receiptId}/thumbnail")
+    public void getReceiptThumbnail(
+            @PathVariable UUID receiptId,
+            @AuthenticationPrincipal OAuth2User principal,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        validateAuthentication(principal);
+
+        String userEmail = extractUserEmail(principal);
+        FileMetadata file = getOwnedReceiptFile(receiptId, userEmail);
+
+        // Derived from immutable content, so it is as cacheable as the original
+        String version = file.getContentHash() != null ? file.getContentHash() : String.valueOf(file.getId());
+        String etag = "\"" + version + "-thumb-" + thumbnailService.getMaxSize() + "\"";
+        storedFileWriter.write(() -> thumbnailService.getThumbnail(file), MediaType.IMAGE_JPEG_VALUE,
+                "thumbnail.jpg", etag, request, response);
+    }
+
+    private FileMetadata getOwnedReceiptFile(UUID receiptId, String userEmail) {
+        Receipt receipt = receiptService.getReceiptById(receiptId);
         if (!receipt.getUserEmail().equals(userEmail)) {
             throw new ForbiddenException("Access denied: Receipt belongs to another user");
         }
-        
-        return ResponseEntity.ok(receiptMapper.toResponse(receipt));
+        if (receipt.getFileMetadata() == null || receipt.getFileMetadata().getStoragePath() == null) {
+            throw new ResourceNotFoundException("File for receipt", receiptId);
+        }
+        return receipt.getFileMetadata();
+    }
+    
+    @DeleteMapping("/{receiptId}")
+    public ResponseEntity<Void> deleteReceipt(
+            @PathVariable UUID receiptId,
+            @AuthenticationPrincipal OAuth2User principal) {
+
+        validateAuthentication(principal);
+
+        String userEmail = extractUserEmail(principal);
+        verifyOwnership(receiptService.getReceiptSummary(receiptId), userEmail);
+
+        receiptService.deleteReceipt(receiptId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    private void verifyOwnership(ReceiptSummary receipt, String userEmail) {
+        if (!receipt.userEmail().equals(userEmail)) {
+            throw new ForbiddenException("Access denied: Receipt belongs to another user");
+        }
     }
     
     private void validateAuthentication(OAuth2User principal) {
@@ -0,0 +1,223 @@
+package com.gm.expensight.web;
+
+import com.gm.expensight.domain.model.FileMetadata;
+import com.gm.expensight.exception.ResourceNotFoundException;
+import com.gm.expensight.service.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a stored file to the response without buffering it on the heap.
+ * <p>
+ * Handles {@code If-None-Match} (304), a single {@code Range} (206/416, honoured only when
+ * {@code If-Range} still matches) and long-lived private caching: a stored file never changes.
+ * On Tomcat the bytes go out via sendfile; elsewhere {@link FileChannel#transferTo} copies them
+ * straight from the file channel to the response. Remote backends support ranges through a
+ * {@link SeekableByteChannel}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StoredFileWriter {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+
+    private final FileStorageService fileStorageService;
+
+    public void write(FileMetadata file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String storagePath = file.getStoragePath();
+        String etag = etag(file);
+        if (notModified(etag, request, response)) {
+            return;
+        }
+        try (ReadableByteChannel channel = fileStorageService.openChannel(storagePath)) {
+            serve(channel, fileStorageService.localFile(storagePath), file.getContentType(), file.getFileName(),
+                    etag, request, response);
+        } catch (NoSuchFileException e) {
+            log.error("Stored file {} is missing: {}", storagePath, e.getMessage());
+            throw new ResourceNotFoundException("File", storagePath);
+        }
+    }
+
+    /**
+     * Serves a file from the local disk, e.g. a cached derivative of a stored file. The file is only
+     * asked for once {@code If-None-Match} has been checked, so a revalidation never generates it.
+     */
+    public void write(LocalFileSource source, String contentType, String fileName, String etag,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (notModified(etag, request, response)) {
+            return;
+        }
+        Path file = source.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            serve(channel, Optional.of(file), contentType, fileName, etag, request, response);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("File", file.getFileName().toString());
+        }
+    }
+
+    /**
+     * Supplies a local file to serve, creating it first if needed.
+     */
+    @FunctionalInterface
+    public interface LocalFileSource {
+        Path get() throws IOException;
+    }
+
+    private boolean notModified(String etag, HttpServletRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL.getHeaderValue());
+        return new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    private void serve(ReadableByteChannel channel, Optional<Path> localFile, String contentType, String fileName,
+                       String etag, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                .filename(fileName != null ? fileName : "receipt", StandardCharsets.UTF_8)
+                .build().toString());
+
+        if (!(channel instanceof SeekableByteChannel seekable)) {
+            // Backend without random access: full body only
+            try (InputStream in = Channels.newInputStream(channel); OutputStream out = response.getOutputStream()) {
+                in.transferTo(out);
+            }
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        long length = seekable.size();
+        long start = 0;
+        long end = length - 1;
+        HttpRange range = requestedRange(request, etag);
+        if (range != null) {
+            if (length == 0 || rangeStart(range, length) >= length) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = rangeStart(range, length);
+            end = range.getRangeEnd(length);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (count == 0 || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (localFile.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat sends the file from the kernel once this handler returns
+            request.setAttribute(SENDFILE_FILENAME, localFile.get().toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        if (seekable instanceof FileChannel fileChannel) {
+            transfer(fileChannel, start, count, response);
+        } else {
+            copy(seekable, start, count, response);
+        }
+    }
+
+    // Remote backends: their channel fetches just the requested range
+    private void copy(SeekableByteChannel channel, long start, long count, HttpServletResponse response) throws IOException {
+        channel.position(start);
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, COPY_BUFFER_SIZE));
+        long remaining = count;
+        while (remaining > 0) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+            int read = channel.read(buffer);
+            if (read < 0) {
+                throw new IOException("File ended before " + count + " bytes were sent");
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            remaining -= read;
+        }
+        response.flushBuffer();
+    }
+
+    private void transfer(FileChannel fileChannel, long start, long count, HttpServletResponse response) throws IOException {
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        long remaining = count;
+        while (remaining > 0) {
+            long sent = fileChannel.transferTo(position, remaining, out);
+            if (sent <= 0) {
+                throw new IOException("File ended before " + count + " bytes were sent");
+            }
+            position += sent;
+            remaining -= sent;
+        }
+        response.flushBuffer();
+    }
+
+    /**
+     * A single satisfiable-looking range, or null to send the whole file: no or malformed
+     * {@code Range}, several ranges (allowed to be ignored by RFC 9110), or a stale {@code If-Range}.
+     */
+    private static HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && (!ifRange.equals(etag) || etag.startsWith("W/"))) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long rangeStart(HttpRange range, long length) {
+        try {
+            return range.getRangeStart(length);
+        } catch (IllegalArgumentException e) {
+            return length;
+        }
+    }
+
+    // Content hash gives a strong validator; older files without one are still immutable per file id
+    private static String etag(FileMetadata file) {
+        return file.getContentHash() != null ? "\"" + file.getContentHash() + "\"" : "W/\"" + file.getId() + "\"";
+    }
+}
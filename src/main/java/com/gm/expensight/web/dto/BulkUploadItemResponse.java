@@ -0,0 +1,27 @@
+package com.gm.expensight.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * One line of a bulk upload response. A line without {@code index} reports a failure of the request
+ * itself after results had started streaming.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkUploadItemResponse {
+    private Integer index;
+    private String fileName;
+    private UUID receiptId;
+    private String status;
+    private String errorCode;
+    private String error;
+}
@@ -0,0 +1,35 @@
+package com.gm.expensight.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiptChangesResponse {
+
+    @Builder.Default
+    private List<ReceiptChangeResponse> changes = new ArrayList<>();
+
+    private long cursor;
+    private boolean hasMore;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReceiptChangeResponse {
+        private UUID receiptId;
+        private long changeSeq;
+        private boolean deleted;
+        private String status;
+        private ReceiptResponse receipt;
+    }
+}
@@ -9,6 +9,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Data
 @Builder
@@ -16,6 +17,7 @@ import java.util.List;
 @AllArgsConstructor
 public class ReceiptResponse {
     
+    private UUID id;
     private String merchantName;
     private BigDecimal totalAmount;
     private LocalDate receiptDate;
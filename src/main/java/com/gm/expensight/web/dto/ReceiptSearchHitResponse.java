@@ -0,0 +1,21 @@
+package com.gm.expensight.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReceiptSearchHitResponse {
+
+    private UUID receiptId;
+    private double score;
+    private List<String> matchedTerms;
+    private ReceiptResponse receipt;
+}
@@ -0,0 +1,49 @@
+package com.gm.expensight.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendingInsightsResponse {
+
+    private String fromMonth;
+    private String toMonth;
+
+    @Builder.Default
+    private List<MonthlySpendingResponse> months = new ArrayList<>();
+
+    @Builder.Default
+    private List<MerchantSpendingResponse> topMerchants = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MonthlySpendingResponse {
+        private String month;
+        private String currency;
+        private BigDecimal totalAmount;
+        private BigDecimal taxAmount;
+        private Long receiptCount;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MerchantSpendingResponse {
+        private String merchantName;
+        private String currency;
+        private BigDecimal totalAmount;
+        private Long receiptCount;
+    }
+}
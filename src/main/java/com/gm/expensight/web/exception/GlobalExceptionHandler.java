@@ -1,6 +1,7 @@
 package com.gm.expensight.web.exception;
 
 import com.gm.expensight.exception.BaseException;
+import com.gm.expensight.exception.ConflictException;
 import com.gm.expensight.exception.ForbiddenException;
 import com.gm.expensight.exception.ResourceNotFoundException;
 import com.gm.expensight.exception.UnauthorizedException;
@@ -16,6 +17,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.List;
@@ -92,6 +94,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
     
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleMethodArgumentTypeMismatch(
+            MethodArgumentTypeMismatchException ex, WebRequest request) {
+        log.warn("Invalid value for parameter {}: {}", ex.getName(), ex.getValue());
+        ErrorResponse error = ErrorResponse.of(
+                "VALIDATION_ERROR",
+                "Invalid value for parameter '" + ex.getName() + "'",
+                request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+    
     @ExceptionHandler(MaxUploadSizeExceededException.class)
     public ResponseEntity<ErrorResponse> handleMaxUploadSizeExceeded(
             MaxUploadSizeExceededException ex, WebRequest request) {
@@ -152,6 +166,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
     }
     
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflict(
+            ConflictException ex, WebRequest request) {
+        log.warn("Conflict: {}", ex.getMessage());
+        ErrorResponse error = ErrorResponse.of(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+    
     @ExceptionHandler(BaseException.class)
     public ResponseEntity<ErrorResponse> handleBaseException(
             BaseException ex, WebRequest request) {
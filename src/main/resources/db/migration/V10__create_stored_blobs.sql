@@ -0,0 +1,10 @@
+-- Reference counts for the content-addressable file store (storage.backend=content-addressable).
+-- One row per distinct file content; the file is removed when the last receipt referencing it is deleted.
+
+CREATE TABLE stored_blobs (
+    content_hash    VARCHAR(64)     NOT NULL,
+    ref_count       BIGINT          NOT NULL,
+    size_bytes      BIGINT          NOT NULL,
+    created_at      TIMESTAMP(6)    NOT NULL,
+    CONSTRAINT pk_stored_blobs PRIMARY KEY (content_hash)
+);
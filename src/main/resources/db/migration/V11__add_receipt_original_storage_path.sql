@@ -0,0 +1,4 @@
+-- Storage path of the untouched upload, kept only when ingest normalisation replaced the stored
+-- image and receipts.ingest.keep-original is enabled. NULL otherwise.
+
+ALTER TABLE receipts ADD COLUMN original_storage_path VARCHAR(255);
@@ -0,0 +1,25 @@
+-- Packed archive tier for the content-addressable store: cold blobs are appended to large segment
+-- files (<storage.location>/archive/segment-NNNNNNNN.pack) and their loose files removed.
+-- A blob is packed when segment_id is set; segment_offset/stored_length locate its data.
+
+CREATE TABLE archive_segments (
+    id              BIGINT          NOT NULL,
+    size_bytes      BIGINT          NOT NULL,
+    dead_bytes      BIGINT          NOT NULL,
+    entry_count     INTEGER         NOT NULL,
+    sealed          BOOLEAN         NOT NULL,
+    created_at      TIMESTAMP(6)    NOT NULL,
+    CONSTRAINT pk_archive_segments PRIMARY KEY (id)
+);
+
+ALTER TABLE stored_blobs ADD COLUMN segment_id BIGINT;
+ALTER TABLE stored_blobs ADD COLUMN segment_offset BIGINT;
+ALTER TABLE stored_blobs ADD COLUMN stored_length BIGINT;
+ALTER TABLE stored_blobs ADD COLUMN compressed BOOLEAN DEFAULT FALSE NOT NULL;
+
+ALTER TABLE stored_blobs ADD CONSTRAINT fk_stored_blobs_segment
+    FOREIGN KEY (segment_id) REFERENCES archive_segments (id);
+
+-- Compaction scans loose blobs oldest first
+CREATE INDEX idx_stored_blobs_created_at ON stored_blobs (created_at);
+CREATE INDEX idx_stored_blobs_segment_id ON stored_blobs (segment_id);
@@ -0,0 +1,5 @@
+-- Storage garbage collection looks up whether files found on disk are still referenced by a receipt,
+-- one bounded batch of paths at a time.
+
+CREATE INDEX idx_receipts_storage_path ON receipts (storage_path);
+CREATE INDEX idx_receipts_original_storage_path ON receipts (original_storage_path);
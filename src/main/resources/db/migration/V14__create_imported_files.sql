@@ -0,0 +1,15 @@
+-- Checkpoints of the watched-directory import (receipts.import.*): one row per source file handled,
+-- keyed by its absolute path. A file is imported again only if its size or modification time changes.
+
+CREATE TABLE imported_files (
+    source_path     VARCHAR(1024)   NOT NULL,
+    size_bytes      BIGINT          NOT NULL,
+    last_modified   TIMESTAMP(6)    NOT NULL,
+    user_email      VARCHAR(255),
+    status          VARCHAR(20)     NOT NULL,
+    receipt_id      UUID,
+    error           VARCHAR(255),
+    imported_at     TIMESTAMP(6)    NOT NULL,
+    CONSTRAINT pk_imported_files PRIMARY KEY (source_path),
+    CONSTRAINT ck_imported_files_status CHECK (status IN ('IMPORTED', 'REJECTED'))
+);
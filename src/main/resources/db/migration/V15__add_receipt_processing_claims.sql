@@ -0,0 +1,6 @@
+-- Processing claims: when a worker moved the receipt to PROCESSING. The claim is committed before OCR and
+-- LLM parsing start; a claim older than the processing timeout belongs to a dead worker and may be taken over.
+
+ALTER TABLE receipts ADD COLUMN processing_started_at TIMESTAMP(6);
+
+CREATE INDEX idx_receipts_status_processing_started ON receipts (status, processing_started_at);
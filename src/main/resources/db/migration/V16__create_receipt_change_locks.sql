@@ -0,0 +1,12 @@
+-- One row per user in the change feed. Recording a change locks the user's row before it takes a
+-- sequence number and holds the lock until commit, so a user's entries commit in sequence order and a
+-- client cursor never moves past a number that is still in flight.
+
+CREATE TABLE receipt_change_locks (
+    user_email      VARCHAR(255)    NOT NULL,
+    locked_at       TIMESTAMP(6)    NOT NULL,
+    CONSTRAINT pk_receipt_change_locks PRIMARY KEY (user_email)
+);
+
+INSERT INTO receipt_change_locks (user_email, locked_at)
+SELECT DISTINCT user_email, CURRENT_TIMESTAMP FROM receipt_changes;
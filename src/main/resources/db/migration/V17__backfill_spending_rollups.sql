@@ -0,0 +1,12 @@
+-- V7 created spending_rollups empty, so receipts completed before it were never counted and removing one
+-- drove its rollup negative. Rebuild every rollup from the COMPLETED receipts; this also replaces the
+-- rows maintained since V7, which the rebuild counts again.
+
+DELETE FROM spending_rollups;
+
+INSERT INTO spending_rollups (user_email, period_month, currency, merchant_name, receipt_count, total_amount, tax_amount)
+SELECT user_email, CAST(DATE_TRUNC('MONTH', receipt_date) AS DATE), currency, merchant_name,
+       COUNT(*), SUM(total_amount), SUM(COALESCE(tax_amount, 0))
+FROM receipts
+WHERE status = 'COMPLETED'
+GROUP BY user_email, CAST(DATE_TRUNC('MONTH', receipt_date) AS DATE), currency, merchant_name;
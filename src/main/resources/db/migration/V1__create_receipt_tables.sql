@@ -0,0 +1,33 @@
+-- Baseline schema for receipts and their line items.
+-- Mirrors the JPA mappings in com.gm.expensight.domain.model; Hibernate validates against it on startup.
+
+CREATE TABLE receipts (
+    id              UUID            NOT NULL,
+    user_email      VARCHAR(255)    NOT NULL,
+    merchant_name   VARCHAR(255)    NOT NULL,
+    total_amount    NUMERIC(10, 2)  NOT NULL,
+    receipt_date    DATE            NOT NULL,
+    tax_amount      NUMERIC(10, 2),
+    currency        VARCHAR(3)      NOT NULL,
+    raw_ocr_text    TEXT,
+    file_id         UUID,
+    file_name       VARCHAR(255)    NOT NULL,
+    content_type    VARCHAR(255)    NOT NULL,
+    storage_path    VARCHAR(255)    NOT NULL,
+    uploaded_at     TIMESTAMP(6)    NOT NULL,
+    status          VARCHAR(20)     NOT NULL,
+    failure_reason  VARCHAR(255),
+    created_at      TIMESTAMP(6)    NOT NULL,
+    CONSTRAINT pk_receipts PRIMARY KEY (id),
+    CONSTRAINT ck_receipts_status CHECK (status IN ('PENDING', 'PROCESSING', 'COMPLETED', 'FAILED'))
+);
+
+CREATE TABLE receipt_items (
+    id          UUID            NOT NULL,
+    receipt_id  UUID            NOT NULL,
+    item_name   VARCHAR(255)    NOT NULL,
+    quantity    INTEGER         NOT NULL,
+    price       NUMERIC(10, 2)  NOT NULL,
+    CONSTRAINT pk_receipt_items PRIMARY KEY (id),
+    CONSTRAINT fk_receipt_items_receipt FOREIGN KEY (receipt_id) REFERENCES receipts (id)
+);
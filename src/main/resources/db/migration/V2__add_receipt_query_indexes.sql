@@ -0,0 +1,10 @@
+-- Indexes for the hot query paths.
+
+-- Per-user listing: WHERE user_email = ? ORDER BY created_at DESC
+CREATE INDEX idx_receipts_user_created ON receipts (user_email, created_at DESC, id);
+
+-- Status-based work pickup: WHERE status = ? ORDER BY created_at
+CREATE INDEX idx_receipts_status_created ON receipts (status, created_at, id);
+
+-- Item lookup by receipt; also covers the item summary projection (name, quantity)
+CREATE INDEX idx_receipt_items_receipt ON receipt_items (receipt_id, item_name, quantity);
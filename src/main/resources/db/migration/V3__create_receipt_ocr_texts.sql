@@ -0,0 +1,10 @@
+-- Raw OCR output moves out of the hot receipts row into a compressed side table.
+
+CREATE TABLE receipt_ocr_texts (
+    receipt_id      UUID                NOT NULL,
+    compression     VARCHAR(32)         NOT NULL,
+    original_size   INTEGER             NOT NULL,
+    content         VARBINARY(1048576)  NOT NULL,
+    CONSTRAINT pk_receipt_ocr_texts PRIMARY KEY (receipt_id),
+    CONSTRAINT fk_receipt_ocr_texts_receipt FOREIGN KEY (receipt_id) REFERENCES receipts (id) ON DELETE CASCADE
+);
@@ -0,0 +1,11 @@
+-- Indexes for /receipts/search. Every search is scoped to one user, so user_email leads;
+-- the trailing columns serve the range filter and the default created_at DESC ordering.
+
+-- Date range: WHERE user_email = ? AND receipt_date BETWEEN ? AND ?
+CREATE INDEX idx_receipts_user_date ON receipts (user_email, receipt_date, created_at);
+
+-- Amount range: WHERE user_email = ? AND total_amount BETWEEN ? AND ?
+CREATE INDEX idx_receipts_user_amount ON receipts (user_email, total_amount, created_at);
+
+-- Status / currency equality: WHERE user_email = ? AND status = ? [AND currency = ?] ORDER BY created_at DESC
+CREATE INDEX idx_receipts_user_status_created ON receipts (user_email, status, currency, created_at DESC);
@@ -0,0 +1,16 @@
+-- Per-user inverted index over merchant names, item names and OCR text of completed receipts.
+-- One row per (receipt, term); weight is the field-weighted term frequency within the receipt.
+
+CREATE TABLE receipt_search_terms (
+    id          UUID            NOT NULL,
+    receipt_id  UUID            NOT NULL,
+    user_email  VARCHAR(255)    NOT NULL,
+    term        VARCHAR(64)     NOT NULL,
+    weight      INTEGER         NOT NULL,
+    CONSTRAINT pk_receipt_search_terms PRIMARY KEY (id),
+    CONSTRAINT uk_receipt_search_terms_receipt_term UNIQUE (receipt_id, term),
+    CONSTRAINT fk_receipt_search_terms_receipt FOREIGN KEY (receipt_id) REFERENCES receipts (id) ON DELETE CASCADE
+);
+
+-- Exact and prefix lookups: WHERE user_email = ? AND term LIKE 'abc%'; covers the posting projection
+CREATE INDEX idx_receipt_search_terms_user_term ON receipt_search_terms (user_email, term, receipt_id, weight);
@@ -0,0 +1,13 @@
+-- Materialised spending per user x month x currency x merchant, covering COMPLETED receipts only.
+-- Maintained in the same transaction as the receipt status change, so it never drifts from receipts.
+
+CREATE TABLE spending_rollups (
+    user_email      VARCHAR(255)    NOT NULL,
+    period_month    DATE            NOT NULL,
+    currency        VARCHAR(3)      NOT NULL,
+    merchant_name   VARCHAR(255)    NOT NULL,
+    receipt_count   BIGINT          NOT NULL,
+    total_amount    NUMERIC(14, 2)  NOT NULL,
+    tax_amount      NUMERIC(14, 2)  NOT NULL,
+    CONSTRAINT pk_spending_rollups PRIMARY KEY (user_email, period_month, currency, merchant_name)
+);
@@ -0,0 +1,8 @@
+-- Upload deduplication: SHA-256 of the uploaded bytes and the client's Idempotency-Key, both unique per user.
+-- NULLs (receipts uploaded before this change) do not collide.
+
+ALTER TABLE receipts ADD COLUMN content_hash VARCHAR(64);
+ALTER TABLE receipts ADD COLUMN idempotency_key VARCHAR(255);
+
+CREATE UNIQUE INDEX uk_receipts_user_content_hash ON receipts (user_email, content_hash);
+CREATE UNIQUE INDEX uk_receipts_user_idempotency_key ON receipts (user_email, idempotency_key);
@@ -0,0 +1,21 @@
+-- Change feed for incremental client sync: one row per receipt (tombstone after delete) carrying the
+-- sequence number of its latest change. Clients poll for rows above the last sequence they have seen.
+
+CREATE SEQUENCE receipt_change_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE receipt_changes (
+    receipt_id      UUID            NOT NULL,
+    user_email      VARCHAR(255)    NOT NULL,
+    change_seq      BIGINT          NOT NULL,
+    deleted         BOOLEAN         NOT NULL,
+    changed_at      TIMESTAMP(6)    NOT NULL,
+    CONSTRAINT pk_receipt_changes PRIMARY KEY (receipt_id),
+    CONSTRAINT uk_receipt_changes_seq UNIQUE (change_seq)
+);
+
+CREATE INDEX idx_receipt_changes_user_seq ON receipt_changes (user_email, change_seq);
+
+-- Existing receipts enter the feed in creation order
+INSERT INTO receipt_changes (receipt_id, user_email, change_seq, deleted, changed_at)
+SELECT id, user_email, NEXT VALUE FOR receipt_change_seq, FALSE, CURRENT_TIMESTAMP
+FROM (SELECT id, user_email FROM receipts ORDER BY created_at, id) r;
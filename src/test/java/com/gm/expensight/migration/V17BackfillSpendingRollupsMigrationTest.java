@@ -0,0 +1,98 @@
+package com.gm.expensight.migration;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class V17BackfillSpendingRollupsMigrationTest {
+
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:rollup-migration-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    void shouldRebuildRollupsFromCompletedReceipts() throws SQLException {
+        // Given
+        flyway("16").migrate();
+        insertReceipt("Croma", "499.00", "45.00", LocalDate.of(2025, 3, 2), "COMPLETED");
+        insertReceipt("Croma", "101.00", null, LocalDate.of(2025, 3, 28), "COMPLETED");
+        insertReceipt("Croma", "999.00", "90.00", LocalDate.of(2025, 3, 15), "FAILED");
+        insertReceipt("Amazon", "20.00", "1.00", LocalDate.of(2025, 4, 1), "COMPLETED");
+        // A receipt completed after V7 is already in its rollup and must not be counted twice
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("""
+                     INSERT INTO spending_rollups (user_email, period_month, currency, merchant_name,
+                         receipt_count, total_amount, tax_amount)
+                     VALUES ('test@example.com', DATE '2025-04-01', 'INR', 'Amazon', 1, 20.00, 1.00)
+                     """)) {
+            insert.executeUpdate();
+        }
+
+        // When
+        flyway("17").migrate();
+
+        // Then
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement("""
+                     SELECT period_month, merchant_name, receipt_count, total_amount, tax_amount
+                     FROM spending_rollups ORDER BY period_month
+                     """);
+             ResultSet rows = select.executeQuery()) {
+            assertThat(rows.next()).isTrue();
+            assertThat(rows.getDate(1).toLocalDate()).isEqualTo(LocalDate.of(2025, 3, 1));
+            assertThat(rows.getString(2)).isEqualTo("Croma");
+            assertThat(rows.getLong(3)).isEqualTo(2);
+            assertThat(rows.getBigDecimal(4)).isEqualByComparingTo("600.00");
+            assertThat(rows.getBigDecimal(5)).isEqualByComparingTo("45.00");
+            assertThat(rows.next()).isTrue();
+            assertThat(rows.getDate(1).toLocalDate()).isEqualTo(LocalDate.of(2025, 4, 1));
+            assertThat(rows.getString(2)).isEqualTo("Amazon");
+            assertThat(rows.getLong(3)).isEqualTo(1);
+            assertThat(rows.getBigDecimal(4)).isEqualByComparingTo("20.00");
+            assertThat(rows.next()).isFalse();
+        }
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration", "classpath:com/gm/expensight/migration")
+                .target(target)
+                .load();
+    }
+
+    private void insertReceipt(String merchantName, String totalAmount, String taxAmount, LocalDate receiptDate,
+                               String status) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("""
+                     INSERT INTO receipts (id, user_email, merchant_name, total_amount, tax_amount, receipt_date,
+                         currency, file_name, content_type, storage_path, uploaded_at, status, created_at)
+                     VALUES (?, 'test@example.com', ?, ?, ?, ?, 'INR', 'receipt.jpg', 'image/jpeg',
+                         'test/receipt.jpg', CURRENT_TIMESTAMP, ?, CURRENT_TIMESTAMP)
+                     """)) {
+            insert.setObject(1, UUID.randomUUID());
+            insert.setString(2, merchantName);
+            insert.setBigDecimal(3, new BigDecimal(totalAmount));
+            insert.setBigDecimal(4, taxAmount != null ? new BigDecimal(taxAmount) : null);
+            insert.setDate(5, Date.valueOf(receiptDate));
+            insert.setString(6, status);
+            insert.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.gm.expensight.migration;
+
+import com.gm.expensight.domain.model.OcrTextCompression;
+import com.gm.expensight.service.util.OcrTextCompressor;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class V4MoveRawOcrTextMigrationTest {
+
+    private JdbcDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:ocr-migration-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    void shouldMoveExistingOcrTextIntoCompressedTable() throws SQLException {
+        // Given
+        flyway("3").migrate();
+        UUID withText = insertReceipt("GRAND TOTAL Rs. 872.02\nThank you for shopping with us!");
+        UUID withoutText = insertReceipt(null);
+
+        // When
+        flyway("4").migrate();
+
+        // Then
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(
+                     "SELECT receipt_id, compression, original_size, content FROM receipt_ocr_texts");
+             ResultSet rows = select.executeQuery()) {
+            assertThat(rows.next()).isTrue();
+            assertThat(rows.getObject(1, UUID.class)).isEqualTo(withText);
+            String text = new OcrTextCompressor(true).decompress(
+                    OcrTextCompression.valueOf(rows.getString(2)), rows.getInt(3), rows.getBytes(4));
+            assertThat(text).isEqualTo("GRAND TOTAL Rs. 872.02\nThank you for shopping with us!");
+            assertThat(rows.next()).isFalse();
+        }
+        try (Connection connection = dataSource.getConnection();
+             ResultSet columns = connection.getMetaData().getColumns(null, null, "RECEIPTS", "RAW_OCR_TEXT")) {
+            assertThat(columns.next()).isFalse();
+        }
+        assertThat(withoutText).isNotNull();
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration", "classpath:com/gm/expensight/migration")
+                .target(target)
+                .load();
+    }
+
+    private UUID insertReceipt(String rawOcrText) throws SQLException {
+        UUID id = UUID.randomUUID();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("""
+                     INSERT INTO receipts (id, user_email, merchant_name, total_amount, receipt_date, currency,
+                         raw_ocr_text, file_name, content_type, storage_path, uploaded_at, status, created_at)
+                     VALUES (?, 'test@example.com', 'Store', 10.00, CURRENT_DATE, 'INR',
+                         ?, 'receipt.jpg', 'image/jpeg', 'test/receipt.jpg', CURRENT_TIMESTAMP, 'COMPLETED',
+                         CURRENT_TIMESTAMP)
+                     """)) {
+            insert.setObject(1, id);
+            insert.setString(2, rawOcrText);
+            insert.executeUpdate();
+        }
+        return id;
+    }
+}
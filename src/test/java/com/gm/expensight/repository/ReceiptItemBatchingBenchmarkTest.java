@@ -0,0 +1,184 @@
+package com.gm.expensight.repository;
+
+import com.gm.expensight.config.JpaConfig;
+import com.gm.expensight.domain.model.FileMetadata;
+import com.gm.expensight.domain.model.ProcessingStatus;
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.service.dto.ReceiptParsingResult;
+import com.gm.expensight.service.impl.ReceiptParserServiceImpl;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures JDBC round trips needed to persist and re-parse a long receipt,
+ * with batching disabled (before) and with the configured batch size (after).
+ */
+@DataJpaTest
+@Import({JpaConfig.class, ReceiptItemBatchingBenchmarkTest.RoundTripCountingConfig.class})
+class ReceiptItemBatchingBenchmarkTest {
+
+    private static final int ITEM_COUNT = 60;
+
+    private static final AtomicLong ROUND_TRIPS = new AtomicLong();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final ReceiptParserServiceImpl receiptParserService = new ReceiptParserServiceImpl(null, null, null);
+
+    @Test
+    void shouldInsertLongReceiptInFewRoundTrips() {
+        long unbatched = measureInsert(1);
+        long batched = measureInsert(null);
+
+        // receipt insert + one statement per item
+        assertThat(unbatched).isEqualTo(ITEM_COUNT + 1);
+        // receipt insert + ceil(60 / 50) item batches
+        assertThat(batched).isEqualTo(3);
+    }
+
+    @Test
+    void shouldReplaceParsedItemsInFewRoundTrips() {
+        long unbatched = measureReparse(1);
+        long batched = measureReparse(null);
+
+        // receipt update + one delete and one insert per item
+        assertThat(unbatched).isEqualTo(2L * ITEM_COUNT + 1);
+        // receipt update + 2 delete batches + 2 insert batches
+        assertThat(batched).isEqualTo(5);
+    }
+
+    private long measureInsert(Integer jdbcBatchSize) {
+        Session session = session(jdbcBatchSize);
+        Receipt receipt = newReceipt();
+        receiptParserService.applyParsingResult(receipt, parsingResult());
+
+        ROUND_TRIPS.set(0);
+        session.persist(receipt);
+        session.flush();
+        long statements = ROUND_TRIPS.get();
+        session.clear();
+        return statements;
+    }
+
+    private long measureReparse(Integer jdbcBatchSize) {
+        Session session = session(null);
+        Receipt receipt = newReceipt();
+        receiptParserService.applyParsingResult(receipt, parsingResult());
+        session.persist(receipt);
+        session.flush();
+        session.clear();
+
+        session.setJdbcBatchSize(jdbcBatchSize);
+        Receipt managed = session.get(Receipt.class, receipt.getId());
+        managed.getItems().size();
+        ReceiptParsingResult reparsed = parsingResult();
+        reparsed.setMerchantName("Re-parsed Store");
+
+        ROUND_TRIPS.set(0);
+        receiptParserService.applyParsingResult(managed, reparsed);
+        session.flush();
+        long statements = ROUND_TRIPS.get();
+        session.clear();
+        return statements;
+    }
+
+    private Session session(Integer jdbcBatchSize) {
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        session.setJdbcBatchSize(jdbcBatchSize);
+        return session;
+    }
+
+    private Receipt newReceipt() {
+        return Receipt.builder()
+                .userEmail("test@example.com")
+                .merchantName("Unknown")
+                .totalAmount(BigDecimal.ZERO)
+                .receiptDate(LocalDate.now())
+                .status(ProcessingStatus.PROCESSING)
+                .fileMetadata(FileMetadata.builder()
+                        .id(UUID.randomUUID())
+                        .fileName("receipt.jpg")
+                        .contentType("image/jpeg")
+                        .storagePath("test/receipt.jpg")
+                        .uploadedAt(LocalDateTime.now())
+                        .build())
+                .build();
+    }
+
+    private ReceiptParsingResult parsingResult() {
+        List<ReceiptParsingResult.ReceiptItemDto> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(ReceiptParsingResult.ReceiptItemDto.builder()
+                    .itemName("Item " + i)
+                    .quantity(1)
+                    .price(BigDecimal.ONE)
+                    .build());
+        }
+        return ReceiptParsingResult.builder()
+                .merchantName("Supermarket")
+                .totalAmount(BigDecimal.valueOf(ITEM_COUNT))
+                .receiptDate(LocalDate.now())
+                .items(items)
+                .build();
+    }
+
+    /**
+     * Wraps the test DataSource so every statement execution (single or batch) counts as one round trip.
+     */
+    @TestConfiguration
+    static class RoundTripCountingConfig {
+
+        @Bean
+        static BeanPostProcessor roundTripCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? countingProxy(DataSource.class, bean) : bean;
+                }
+            };
+        }
+
+        private static Object countingProxy(Class<?> type, Object target) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (target instanceof Statement && method.getName().startsWith("execute")) {
+                    ROUND_TRIPS.incrementAndGet();
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+                if (result instanceof Connection || result instanceof Statement) {
+                    return countingProxy(method.getReturnType(), result);
+                }
+                return result;
+            };
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.gm.expensight.repository;
+
+import com.gm.expensight.config.JpaConfig;
+import com.gm.expensight.domain.model.FileMetadata;
+import com.gm.expensight.domain.model.OcrTextCompression;
+import com.gm.expensight.domain.model.ProcessingStatus;
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.domain.model.ReceiptItem;
+import com.gm.expensight.domain.model.ReceiptOcrText;
+import com.gm.expensight.repository.projection.ReceiptItemSummary;
+import com.gm.expensight.repository.projection.ReceiptSummary;
+import com.gm.expensight.service.ReceiptMapper;
+import com.gm.expensight.web.dto.ReceiptResponse;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(JpaConfig.class)
+class ReceiptRepositoryTest {
+
+    private static final String USER_EMAIL = "test@example.com";
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReceiptRepository receiptRepository;
+
+    @Autowired
+    private ReceiptItemRepository receiptItemRepository;
+
+    @Autowired
+    private ReceiptOcrTextRepository receiptOcrTextRepository;
+
+    private final ReceiptMapper receiptMapper = new ReceiptMapper();
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    @Test
+    void shouldSelectReceiptSummariesForUserOnly() {
+        // Given
+        Receipt receipt = persistReceipt(USER_EMAIL, "Store A", 2);
+        persistReceipt("other@example.com", "Store B", 1);
+        entityManager.clear();
+
+        // When
+        List<ReceiptSummary> summaries = receiptRepository.findSummariesByUserEmail(USER_EMAIL);
+
+        // Then
+        assertThat(summaries).hasSize(1);
+        ReceiptSummary summary = summaries.get(0);
+        assertThat(summary.id()).isEqualTo(receipt.getId());
+        assertThat(summary.merchantName()).isEqualTo("Store A");
+        assertThat(summary.status()).isEqualTo(ProcessingStatus.COMPLETED);
+        assertThat(summary.items()).isEmpty();
+    }
+
+    @Test
+    void shouldSelectItemSummariesForAllUserReceiptsInOneQuery() {
+        // Given
+        Receipt first = persistReceipt(USER_EMAIL, "Store A", 2);
+        Receipt second = persistReceipt(USER_EMAIL, "Store B", 3);
+        persistReceipt("other@example.com", "Store C", 4);
+        entityManager.clear();
+
+        // When
+        List<ReceiptItemSummary> items = receiptItemRepository.findSummariesByUserEmail(USER_EMAIL);
+
+        // Then
+        assertThat(items).hasSize(5);
+        assertThat(items).extracting(ReceiptItemSummary::receiptId)
+                .containsOnly(first.getId(), second.getId());
+    }
+
+    @Test
+    void shouldLoadReceiptListWithItemsInSingleStatement() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            persistReceipt(USER_EMAIL, "Store " + i, 3);
+        }
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        List<ReceiptResponse> responses = receiptRepository.findByUserEmailOrderByCreatedAtDesc(USER_EMAIL)
+                .stream()
+                .map(receiptMapper::toResponse)
+                .toList();
+
+        // Then
+        assertThat(responses).hasSize(10);
+        assertThat(responses).allSatisfy(response -> assertThat(response.getItems()).hasSize(3));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBatchLoadItemsForWholePage() {
+        // Given
+        for (int i = 0; i < 25; i++) {
+            persistReceipt(USER_EMAIL, "Store " + i, 2);
+        }
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        Page<Receipt> page = receiptRepository.findByUserEmail(USER_EMAIL,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt")));
+        List<ReceiptResponse> responses = page.getContent().stream()
+                .map(receiptMapper::toResponse)
+                .toList();
+
+        // Then
+        assertThat(responses).hasSize(20);
+        assertThat(responses).allSatisfy(response -> assertThat(response.getItems()).hasSize(2));
+        // page query + count query + one batched item query
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldOnlyTransitionStatusFromExpectedStatus() {
+        // Given
+        Receipt receipt = persistReceipt(USER_EMAIL, "Store A", 0);
+        UUID receiptId = receipt.getId();
+
+        // When
+        int claimedFromPending = receiptRepository.compareAndSetStatus(
+                receiptId, ProcessingStatus.PENDING, ProcessingStatus.PROCESSING);
+        int claimedFromCompleted = receiptRepository.compareAndSetStatus(
+                receiptId, ProcessingStatus.COMPLETED, ProcessingStatus.PROCESSING);
+        int failedFromProcessing = receiptRepository.markFailed(
+                receiptId, ProcessingStatus.COMPLETED, "LLM parsing failed");
+
+        // Then
+        assertThat(claimedFromPending).isZero();
+        assertThat(claimedFromCompleted).isEqualTo(1);
+        assertThat(failedFromProcessing).isZero();
+        Receipt reloaded = receiptRepository.findById(receiptId).orElseThrow();
+        assertThat(reloaded.getStatus()).isEqualTo(ProcessingStatus.PROCESSING);
+        assertThat(reloaded.getFailureReason()).isNull();
+    }
+
+    @Test
+    void shouldRemoveOcrTextWhenReceiptIsDeleted() {
+        // Given
+        Receipt receipt = persistReceipt(USER_EMAIL, "Store A", 1);
+        receiptOcrTextRepository.saveAndFlush(ReceiptOcrText.builder()
+                .receiptId(receipt.getId())
+                .compression(OcrTextCompression.NONE)
+                .originalSize(8)
+                .content("raw text".getBytes())
+                .build());
+        entityManager.clear();
+
+        // When
+        receiptRepository.deleteById(receipt.getId());
+        receiptRepository.flush();
+        entityManager.clear();
+
+        // Then
+        assertThat(receiptOcrTextRepository.findById(receipt.getId())).isEmpty();
+    }
+
+    @Test
+    void shouldSearchSummariesByCombinedFilters() {
+        // Given
+        Receipt match = persistReceipt(USER_EMAIL, "Big Bazaar", 1);
+        match.setTotalAmount(new BigDecimal("250.00"));
+        match.setReceiptDate(LocalDate.of(2025, 3, 12));
+        Receipt tooExpensive = persistReceipt(USER_EMAIL, "Big Bazaar Express", 1);
+        tooExpensive.setTotalAmount(new BigDecimal("900.00"));
+        tooExpensive.setReceiptDate(LocalDate.of(2025, 3, 14));
+        Receipt otherCurrency = persistReceipt(USER_EMAIL, "Big Bazaar", 1);
+        otherCurrency.setTotalAmount(new BigDecimal("200.00"));
+        otherCurrency.setReceiptDate(LocalDate.of(2025, 3, 10));
+        otherCurrency.setCurrency("USD");
+        persistReceipt("other@example.com", "Big Bazaar", 1);
+        entityManager.flush();
+        entityManager.clear();
+
+        Specification<Receipt> specification = Specification.where(ReceiptSpecifications.belongsTo(USER_EMAIL))
+                .and(ReceiptSpecifications.receiptDateFrom(LocalDate.of(2025, 3, 1)))
+                .and(ReceiptSpecifications.receiptDateTo(LocalDate.of(2025, 3, 31)))
+                .and(ReceiptSpecifications.merchantContains("bazaar"))
+                .and(ReceiptSpecifications.totalAmountAtMost(new BigDecimal("500")))
+                .and(ReceiptSpecifications.currencyIs("inr"))
+                .and(ReceiptSpecifications.statusIs(ProcessingStatus.COMPLETED));
+
+        // When
+        Page<ReceiptSummary> page = receiptRepository.searchSummaries(specification, PageRequest.of(0, 10));
+
+        // Then
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(page.getContent()).extracting(ReceiptSummary::id).containsExactly(match.getId());
+    }
+
+    @Test
+    void shouldPageAndSortSearchResultsInDatabase() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            Receipt receipt = persistReceipt(USER_EMAIL, "Store " + i, 0);
+            receipt.setTotalAmount(BigDecimal.valueOf(10L * (i + 1)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        // When
+        Page<ReceiptSummary> page = receiptRepository.searchSummaries(
+                ReceiptSpecifications.belongsTo(USER_EMAIL),
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "totalAmount")));
+
+        // Then
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getTotalPages()).isEqualTo(3);
+        assertThat(page.getContent()).extracting(ReceiptSummary::totalAmount)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("30"), new BigDecimal("20"));
+        // One select for the page, one count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldTreatLikeWildcardsInMerchantFilterLiterally() {
+        // Given
+        Receipt literal = persistReceipt(USER_EMAIL, "100% Organic", 0);
+        persistReceipt(USER_EMAIL, "100 Organic", 0);
+        entityManager.clear();
+
+        // When
+        Page<ReceiptSummary> page = receiptRepository.searchSummaries(
+                Specification.where(ReceiptSpecifications.belongsTo(USER_EMAIL))
+                        .and(ReceiptSpecifications.merchantContains("0% org")),
+                PageRequest.of(0, 10));
+
+        // Then
+        assertThat(page.getContent()).extracting(ReceiptSummary::id).containsExactly(literal.getId());
+    }
+
+    @Test
+    void shouldFindReceiptByContentHashAndRejectDuplicatePerUser() {
+        // Given
+        Receipt receipt = persistReceipt(USER_EMAIL, "Store A", 0);
+        receipt.getFileMetadata().setContentHash("a".repeat(64));
+        Receipt otherUser = persistReceipt("other@example.com", "Store A", 0);
+        otherUser.getFileMetadata().setContentHash("a".repeat(64));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When & Then
+        assertThat(receiptRepository.findByUserEmailAndFileMetadataContentHash(USER_EMAIL, "a".repeat(64)))
+                .map(Receipt::getId)
+                .contains(receipt.getId());
+
+        Receipt duplicate = persistReceipt(USER_EMAIL, "Store B", 0);
+        duplicate.getFileMetadata().setContentHash("a".repeat(64));
+        assertThatThrownBy(() -> entityManager.flush())
+                .isInstanceOf(PersistenceException.class);
+    }
+
+    private Receipt persistReceipt(String userEmail, String merchantName, int itemCount) {
+        Receipt receipt = Receipt.builder()
+                .userEmail(userEmail)
+                .merchantName(merchantName)
+                .totalAmount(BigDecimal.TEN)
+                .receiptDate(LocalDate.now())
+                .taxAmount(BigDecimal.ZERO)
+                .currency("INR")
+                .status(ProcessingStatus.COMPLETED)
+                .fileMetadata(FileMetadata.builder()
+                        .id(UUID.randomUUID())
+                        .fileName("receipt.jpg")
+                        .contentType("image/jpeg")
+                        .storagePath("test/receipt.jpg")
+                        .uploadedAt(LocalDateTime.now())
+                        .build())
+                .build();
+        for (int i = 0; i < itemCount; i++) {
+            receipt.getItems().add(ReceiptItem.builder()
+                    .receipt(receipt)
+                    .itemName("Item " + i)
+                    .quantity(1)
+                    .price(BigDecimal.ONE)
+                    .build());
+        }
+        return entityManager.persistAndFlush(receipt);
+    }
+}
@@ -0,0 +1,219 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.config.JpaConfig;
+import com.gm.expensight.domain.model.StoredBlob;
+import com.gm.expensight.repository.ArchiveSegmentRepository;
+import com.gm.expensight.repository.StoredBlobRepository;
+import com.gm.expensight.service.ColdStorageCompactor.CompactionResult;
+import com.gm.expensight.service.ColdStorageCompactor.Compression;
+import com.gm.expensight.service.impl.ContentAddressableFileStorageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(JpaConfig.class)
+class ColdStorageCompactorTest {
+
+    private static final String USER = "test@example.com";
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private ArchiveSegmentRepository archiveSegmentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldPackColdBlobsAndServeThemFromTheSegment() throws IOException {
+        // Given
+        ContentAddressableFileStorageService storage = storage();
+        String first = storeAged(storage, "first receipt");
+        String second = storeAged(storage, "second receipt");
+        String fresh = storage.storeFile(file("fresh receipt"), USER);
+
+        // When
+        CompactionResult result = compactor(Compression.NONE, 1L << 30).compact();
+
+        // Then
+        assertThat(result.packedBlobs()).isEqualTo(2);
+        assertThat(result.reclaimedBytes()).isEqualTo("first receipt".length() + "second receipt".length());
+        assertThat(tempDir.resolve(first)).doesNotExist();
+        assertThat(tempDir.resolve(second)).doesNotExist();
+        assertThat(tempDir.resolve(fresh)).exists();
+        assertThat(tempDir.resolve("archive/segment-00000001.pack")).exists();
+
+        assertThat(storage.loadFile(first)).isEqualTo("first receipt".getBytes());
+        assertThat(storage.localFile(second)).isEmpty();
+        try (InputStream in = storage.openInputStream(second)) {
+            assertThat(in.readAllBytes()).isEqualTo("second receipt".getBytes());
+        }
+        ByteBuffer mapped = storage.mapFile(second);
+        byte[] mappedBytes = new byte[mapped.remaining()];
+        mapped.get(mappedBytes);
+        assertThat(mappedBytes).isEqualTo("second receipt".getBytes());
+    }
+
+    @Test
+    void shouldServeRangesOfPackedBlobsWithPositionalReads() throws IOException {
+        // Given
+        ContentAddressableFileStorageService storage = storage();
+        storeAged(storage, "padding entry before the one we read");
+        String storagePath = storeAged(storage, "0123456789");
+        compactor(Compression.NONE, 1L << 30).compact();
+
+        // When
+        try (ReadableByteChannel channel = storage.openChannel(storagePath)) {
+            // Then
+            assertThat(channel).isInstanceOf(SeekableByteChannel.class);
+            SeekableByteChannel seekable = (SeekableByteChannel) channel;
+            assertThat(seekable.size()).isEqualTo(10);
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            seekable.position(6);
+            assertThat(seekable.read(buffer)).isEqualTo(4);
+            assertThat(new String(buffer.array(), 0, 4)).isEqualTo("6789");
+            assertThat(seekable.read(buffer.clear())).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void shouldDeflateBlobsThatShrink() throws IOException {
+        // Given
+        ContentAddressableFileStorageService storage = storage();
+        String text = "TOTAL 12.50 EUR\n".repeat(200);
+        String storagePath = storeAged(storage, text);
+
+        // When
+        compactor(Compression.DEFLATE, 1L << 30).compact();
+
+        // Then
+        StoredBlob blob = storedBlobRepository.findAll().get(0);
+        assertThat(blob.isCompressed()).isTrue();
+        assertThat(blob.getStoredLength()).isLessThan(text.length());
+        assertThat(storage.loadFile(storagePath)).isEqualTo(text.getBytes());
+    }
+
+    @Test
+    void shouldSealFullSegmentsAndStartNewOnes() throws IOException {
+        // Given
+        ContentAddressableFileStorageService storage = storage();
+        String first = storeAged(storage, "first receipt");
+        String second = storeAged(storage, "second receipt");
+
+        // When
+        CompactionResult result = compactor(Compression.NONE, 16).compact();
+
+        // Then
+        assertThat(result.packedBlobs()).isEqualTo(2);
+        assertThat(archiveSegmentRepository.findAll()).hasSize(2).allSatisfy(segment -> {
+            assertThat(segment.isSealed()).isTrue();
+            assertThat(segment.getEntryCount()).isEqualTo(1);
+        });
+        assertThat(storage.loadFile(first)).isEqualTo("first receipt".getBytes());
+        assertThat(storage.loadFile(second)).isEqualTo("second receipt".getBytes());
+    }
+
+    @Test
+    void shouldNotRewriteLooseFileWhenPackedContentIsStoredAgain() throws IOException {
+        // Given
+        ContentAddressableFileStorageService storage = storage();
+        String storagePath = storeAged(storage, "same receipt");
+        compactor(Compression.NONE, 1L << 30).compact();
+
+        // When
+        String again = storage.storeFile(file("same receipt"), USER);
+        entityManager.clear();
+
+        // Then
+        assertThat(again).isEqualTo(storagePath);
+        assertThat(tempDir.resolve(storagePath)).doesNotExist();
+        assertThat(storedBlobRepository.findAll().get(0).getRefCount()).isEqualTo(2L);
+        assertThat(storage.loadFile(storagePath)).isEqualTo("same receipt".getBytes());
+    }
+
+    @Test
+    void shouldCountDeletedPackedBlobsAsDeadBytes() throws IOException {
+        // Given
+        ContentAddressableFileStorageService storage = storage();
+        String storagePath = storeAged(storage, "deleted receipt");
+        compactor(Compression.NONE, 1L << 30).compact();
+
+        // When
+        storage.deleteFile(storagePath);
+
+        // Then
+        assertThat(storedBlobRepository.findAll()).isEmpty();
+        assertThat(archiveSegmentRepository.findAll()).singleElement()
+                .satisfies(segment -> assertThat(segment.getDeadBytes()).isGreaterThan("deleted receipt".length()));
+    }
+
+    @Test
+    void shouldOverwriteAppendsThatNeverReachedTheIndex() throws IOException {
+        // Given
+        ContentAddressableFileStorageService storage = storage();
+        String first = storeAged(storage, "first receipt");
+        compactor(Compression.NONE, 1L << 30).compact();
+        Path segment = tempDir.resolve("archive/segment-00000001.pack");
+        long committed = Files.size(segment);
+        Files.write(segment, "torn write from a crash".getBytes(), StandardOpenOption.APPEND);
+        String second = storeAged(storage, "second receipt");
+
+        // When
+        compactor(Compression.NONE, 1L << 30).compact();
+
+        // Then
+        StoredBlob packed = storedBlobRepository.findById(second.substring(second.lastIndexOf('/') + 1)).orElseThrow();
+        assertThat(packed.getSegmentOffset()).isGreaterThan(committed).isLessThan(committed + 64);
+        assertThat(storage.loadFile(first)).isEqualTo("first receipt".getBytes());
+        assertThat(storage.loadFile(second)).isEqualTo("second receipt".getBytes());
+    }
+
+    private ContentAddressableFileStorageService storage() {
+        return new ContentAddressableFileStorageService(storedBlobRepository, archiveSegmentRepository, tempDir);
+    }
+
+    private ColdStorageCompactor compactor(Compression compression, long segmentSize) {
+        return new ColdStorageCompactor(storedBlobRepository, archiveSegmentRepository,
+                new TransactionTemplate(transactionManager), tempDir, Duration.ofDays(90), compression,
+                segmentSize, 10, 5);
+    }
+
+    private String storeAged(ContentAddressableFileStorageService storage, String content) {
+        String storagePath = storage.storeFile(file(content), USER);
+        StoredBlob blob = storedBlobRepository.findById(storagePath.substring(storagePath.lastIndexOf('/') + 1))
+                .orElseThrow();
+        blob.setCreatedAt(LocalDateTime.now().minusDays(120 - storedBlobRepository.count()));
+        return storagePath;
+    }
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", "receipt.jpg", "image/jpeg", content.getBytes());
+    }
+}
@@ -1,6 +1,13 @@
 package com.gm.expensight.service;
 
 import com.gm.expensight.exception.ValidationException;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,7 +17,16 @@ import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
+import java.util.zip.CRC32;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -21,6 +37,9 @@ class FileValidatorTest {
     @InjectMocks
     private FileValidator fileValidator;
 
+    private static final byte[] JPEG = image("jpeg");
+    private static final byte[] PNG = image("png");
+
     private MultipartFile validFile;
 
     @BeforeEach
@@ -29,7 +48,7 @@ class FileValidatorTest {
                 "file",
                 "receipt.jpg",
                 MediaType.IMAGE_JPEG_VALUE,
-                "test content".getBytes()
+                JPEG
         );
     }
 
@@ -46,7 +65,7 @@ class FileValidatorTest {
                 "file",
                 "receipt.png",
                 MediaType.IMAGE_PNG_VALUE,
-                "test content".getBytes()
+                PNG
         );
 
         // When & Then - should not throw exception
@@ -54,13 +73,13 @@ class FileValidatorTest {
     }
 
     @Test
-    void shouldValidateValidPdfFile() {
+    void shouldValidateValidPdfFile() throws IOException {
         // Given
         MultipartFile pdfFile = new MockMultipartFile(
                 "file",
                 "receipt.pdf",
                 MediaType.APPLICATION_PDF_VALUE,
-                "test content".getBytes()
+                pdf(1, PDRectangle.A4)
         );
 
         // When & Then - should not throw exception
@@ -74,7 +93,7 @@ class FileValidatorTest {
                 "file",
                 "receipt.jpg",
                 "image/jpg", // lowercase jpg
-                "test content".getBytes()
+                JPEG
         );
 
         // When & Then - should not throw exception
@@ -125,7 +144,7 @@ class FileValidatorTest {
     @Test
     void shouldThrowExceptionWhenFileSizeIsExactlyMaximum() {
         // Given
-        byte[] maxSizeContent = new byte[10 * 1024 * 1024]; // Exactly 10MB
+        byte[] maxSizeContent = padded(JPEG, 10 * 1024 * 1024); // Exactly 10MB
         MultipartFile maxSizeFile = new MockMultipartFile(
                 "file",
                 "max.jpg",
@@ -176,7 +195,7 @@ class FileValidatorTest {
                 "file",
                 "receipt.JPG",
                 "IMAGE/JPEG", // uppercase
-                "test content".getBytes()
+                JPEG
         );
 
         // When & Then - should still validate (case insensitive)
@@ -215,7 +234,7 @@ class FileValidatorTest {
                 "file",
                 "receipt with spaces & special chars.jpg",
                 MediaType.IMAGE_JPEG_VALUE,
-                "test content".getBytes()
+                JPEG
         );
 
         // When & Then - should not throw exception
@@ -225,7 +244,7 @@ class FileValidatorTest {
     @Test
     void shouldValidateFileAtMaxAllowedSize() {
         // Given
-        byte[] content = new byte[10 * 1024 * 1024 - 1]; // 1 byte less than max
+        byte[] content = padded(JPEG, 10 * 1024 * 1024 - 1); // 1 byte less than max
         MultipartFile file = new MockMultipartFile(
                 "file",
                 "receipt.jpg",
@@ -236,5 +255,137 @@ class FileValidatorTest {
         // When & Then - should not throw exception
         fileValidator.validate(file);
     }
-}
 
+    @Test
+    void shouldRejectContentThatDoesNotMatchDeclaredType() {
+        // Given
+        MultipartFile disguised = new MockMultipartFile("file", "receipt.jpg", MediaType.IMAGE_JPEG_VALUE, PNG);
+        MultipartFile script = new MockMultipartFile("file", "receipt.pdf", MediaType.APPLICATION_PDF_VALUE,
+                "<script>alert(1)</script>".getBytes());
+
+        // When & Then
+        assertThatThrownBy(() -> fileValidator.validate(disguised))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("declared as image/jpeg");
+        assertThatThrownBy(() -> fileValidator.validate(script))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("not a JPEG, PNG or PDF");
+    }
+
+    @Test
+    void shouldRejectImageDeclaringTooManyPixelsWithoutDecodingIt() {
+        // Given: a few hundred bytes claiming to be 50,000 x 50,000
+        MultipartFile bomb = new MockMultipartFile("file", "bomb.png", MediaType.IMAGE_PNG_VALUE,
+                withPngDimensions(PNG, 50_000, 50_000));
+
+        // When & Then
+        assertThatThrownBy(() -> fileValidator.validate(bomb))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("50000x50000 exceed the maximum");
+    }
+
+    @Test
+    void shouldRejectPdfWithTooManyPages() throws IOException {
+        // Given
+        MultipartFile pdf = new MockMultipartFile("file", "long.pdf", MediaType.APPLICATION_PDF_VALUE,
+                pdf(fileValidator.getMaxPdfPages() + 1, PDRectangle.A6));
+
+        // When & Then
+        assertThatThrownBy(() -> fileValidator.validate(pdf))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("pages; at most");
+    }
+
+    @Test
+    void shouldRejectPdfPageTooLargeToRender() throws IOException {
+        // Given
+        MultipartFile pdf = new MockMultipartFile("file", "poster.pdf", MediaType.APPLICATION_PDF_VALUE,
+                pdf(1, new PDRectangle(14_400, 14_400)));
+
+        // When & Then
+        assertThatThrownBy(() -> fileValidator.validate(pdf))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("too large to render");
+    }
+
+    @Test
+    void shouldRejectPdfImageTooLargeToDecodeWithoutDecodingIt() throws IOException {
+        // Given: a 1-inch page drawing a 50,000x50,000 image whose compressed stream is a few bytes
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage(new PDRectangle(72, 72));
+            document.addPage(page);
+            COSStream image = document.getDocument().createCOSStream();
+            try (OutputStream imageData = image.createOutputStream(COSName.FLATE_DECODE)) {
+                imageData.write(new byte[16]);
+            }
+            image.setItem(COSName.TYPE, COSName.XOBJECT);
+            image.setItem(COSName.SUBTYPE, COSName.IMAGE);
+            image.setInt(COSName.WIDTH, 50_000);
+            image.setInt(COSName.HEIGHT, 50_000);
+            image.setInt(COSName.BITS_PER_COMPONENT, 8);
+            image.setItem(COSName.COLORSPACE, COSName.DEVICEGRAY);
+            PDResources resources = new PDResources();
+            COSDictionary xObjects = new COSDictionary();
+            xObjects.setItem(COSName.getPDFName("Im1"), image);
+            resources.getCOSObject().setItem(COSName.XOBJECT, xObjects);
+            page.setResources(resources);
+            document.save(out);
+        }
+        MultipartFile pdf = new MockMultipartFile("file", "bomb.pdf", MediaType.APPLICATION_PDF_VALUE,
+                out.toByteArray());
+
+        // When & Then
+        assertThatThrownBy(() -> fileValidator.validate(pdf))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("PDF image dimensions 50000x50000");
+    }
+
+    @Test
+    void shouldRejectTruncatedImage() {
+        // Given: right magic bytes, no header behind them
+        MultipartFile truncated = new MockMultipartFile("file", "receipt.png", MediaType.IMAGE_PNG_VALUE,
+                Arrays.copyOf(PNG, 8));
+
+        // When & Then
+        assertThatThrownBy(() -> fileValidator.validate(truncated))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private static byte[] image(String format) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB), format, out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] pdf(int pages, PDRectangle pageSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < pages; i++) {
+                document.addPage(new PDPage(pageSize));
+            }
+            document.save(out);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] padded(byte[] content, int length) {
+        return Arrays.copyOf(content, length);
+    }
+
+    // Rewrites the IHDR width/height (and its CRC) of a PNG
+    private static byte[] withPngDimensions(byte[] png, int width, int height) {
+        byte[] patched = png.clone();
+        ByteBuffer ihdr = ByteBuffer.wrap(patched);
+        ihdr.putInt(16, width);
+        ihdr.putInt(20, height);
+        CRC32 crc = new CRC32();
+        crc.update(patched, 12, 17);
+        ihdr.putInt(29, (int) crc.getValue());
+        return patched;
+    }
+}
@@ -0,0 +1,47 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.config.CacheConfig;
+import com.gm.expensight.service.event.ReceiptChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReceiptCacheInvalidatorTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+    private ReceiptCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.RECEIPTS_CACHE, CacheConfig.RECEIPT_LISTS_CACHE);
+        invalidator = new ReceiptCacheInvalidator(cacheManager);
+    }
+
+    @Test
+    void shouldEvictChangedReceiptAndOwnersListOnly() {
+        // Given
+        UUID changedId = UUID.randomUUID();
+        UUID otherId = UUID.randomUUID();
+        Cache receipts = cacheManager.getCache(CacheConfig.RECEIPTS_CACHE);
+        Cache lists = cacheManager.getCache(CacheConfig.RECEIPT_LISTS_CACHE);
+        receipts.put(changedId, "changed");
+        receipts.put(otherId, "other");
+        lists.put("owner@example.com", List.of());
+        lists.put("someone@example.com", List.of());
+
+        // When
+        invalidator.onReceiptChanged(new ReceiptChangedEvent(changedId, "owner@example.com"));
+
+        // Then
+        assertThat(receipts.get(changedId)).isNull();
+        assertThat(receipts.get(otherId)).isNotNull();
+        assertThat(lists.get("owner@example.com")).isNull();
+        assertThat(lists.get("someone@example.com")).isNotNull();
+    }
+}
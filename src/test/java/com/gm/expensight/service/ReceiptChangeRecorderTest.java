@@ -0,0 +1,74 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.service.event.ReceiptChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+class ReceiptChangeRecorderTest {
+
+    private static final String USER_EMAIL = "test@example.com";
+
+    private ReceiptChangeFeedService receiptChangeFeedService;
+    private ReceiptChangeRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        receiptChangeFeedService = mock(ReceiptChangeFeedService.class);
+        recorder = new ReceiptChangeRecorder(receiptChangeFeedService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void shouldRecordEachReceiptOnceBeforeCommit() {
+        // Given
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // When
+        recorder.onReceiptChanged(new ReceiptChangedEvent(first, USER_EMAIL));
+        recorder.onReceiptChanged(new ReceiptChangedEvent(second, USER_EMAIL));
+        recorder.onReceiptChanged(new ReceiptChangedEvent(first, USER_EMAIL));
+
+        // Then
+        verifyNoInteractions(receiptChangeFeedService);
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+        var order = inOrder(receiptChangeFeedService);
+        order.verify(receiptChangeFeedService).recordChange(first, USER_EMAIL);
+        order.verify(receiptChangeFeedService).recordChange(second, USER_EMAIL);
+        verifyNoMoreInteractions(receiptChangeFeedService);
+    }
+
+    @Test
+    void shouldRecordImmediatelyOutsideTransaction() {
+        // Given
+        UUID receiptId = UUID.randomUUID();
+
+        // When
+        recorder.onReceiptChanged(new ReceiptChangedEvent(receiptId, USER_EMAIL));
+
+        // Then
+        verify(receiptChangeFeedService).recordChange(receiptId, USER_EMAIL);
+    }
+}
@@ -0,0 +1,260 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.config.JpaConfig;
+import com.gm.expensight.domain.model.FileMetadata;
+import com.gm.expensight.domain.model.ProcessingStatus;
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.repository.ArchiveSegmentRepository;
+import com.gm.expensight.repository.ReceiptRepository;
+import com.gm.expensight.repository.StoredBlobRepository;
+import com.gm.expensight.service.StorageGarbageCollector.CollectionResult;
+import com.gm.expensight.service.impl.ContentAddressableFileStorageService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(JpaConfig.class)
+class StorageGarbageCollectorTest {
+
+    private static final String USER = "test@example.com";
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private ReceiptRepository receiptRepository;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private ArchiveSegmentRepository archiveSegmentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldRemoveUnreferencedFilesAndKeepReferencedOnes() throws IOException {
+        // Given
+        writeOld("user/kept.jpg", 10);
+        writeOld("user/kept.jpg.thumb-320.jpg", 3);
+        writeOld("user/orphan.jpg", 20);
+        writeOld("user/orphan.jpg.thumb-320.jpg", 4);
+        writeOld("tmp/upload-1.tmp", 5);
+        writeOld("archive/segment-00000001.pack", 100);
+        saveReceipt("user/kept.jpg");
+
+        // When
+        CollectionResult result = collector(100).collect();
+
+        // Then
+        assertThat(result.examinedFiles()).isEqualTo(5);
+        assertThat(result.deletedFiles()).isEqualTo(3);
+        assertThat(result.reclaimedBytes()).isEqualTo(20 + 4 + 5);
+        assertThat(tempDir.resolve("user/kept.jpg")).exists();
+        assertThat(tempDir.resolve("user/kept.jpg.thumb-320.jpg")).exists();
+        assertThat(tempDir.resolve("user/orphan.jpg")).doesNotExist();
+        assertThat(tempDir.resolve("user/orphan.jpg.thumb-320.jpg")).doesNotExist();
+        assertThat(tempDir.resolve("tmp/upload-1.tmp")).doesNotExist();
+        assertThat(tempDir.resolve("archive/segment-00000001.pack")).exists();
+    }
+
+    @Test
+    void shouldKeepOriginalsReferencedByNormalizedReceipts() throws IOException {
+        // Given
+        writeOld("user/normalized.jpg", 10);
+        writeOld("user/original.jpg", 30);
+        Receipt receipt = receipt("user/normalized.jpg");
+        receipt.getFileMetadata().setOriginalStoragePath("user/original.jpg");
+        receiptRepository.save(receipt);
+
+        // When
+        CollectionResult result = collector(100).collect();
+
+        // Then
+        assertThat(result.deletedFiles()).isZero();
+        assertThat(tempDir.resolve("user/original.jpg")).exists();
+    }
+
+    @Test
+    void shouldLeaveRecentFilesAlone() throws IOException {
+        // Given
+        Files.createDirectories(tempDir.resolve("user"));
+        Files.write(tempDir.resolve("user/in-flight.jpg"), new byte[8]);
+
+        // When
+        CollectionResult result = collector(100).collect();
+
+        // Then
+        assertThat(result.examinedFiles()).isEqualTo(1);
+        assertThat(result.deletedFiles()).isZero();
+        assertThat(tempDir.resolve("user/in-flight.jpg")).exists();
+    }
+
+    @Test
+    void shouldResumeWhereThePreviousBatchStopped() throws IOException {
+        // Given
+        writeOld("a/1.jpg", 1);
+        writeOld("a/2.jpg", 1);
+        writeOld("a-b/3.jpg", 1);
+        writeOld("b/4.jpg", 1);
+        writeOld("b/5.jpg", 1);
+        saveReceipt("a/1.jpg");
+        StorageGarbageCollector collector = collector(2);
+
+        // When
+        CollectionResult first = collector.collect();
+        CollectionResult second = collector.collect();
+        CollectionResult third = collector.collect();
+
+        // Then
+        assertThat(first.examinedFiles()).isEqualTo(2);
+        assertThat(first.deletedFiles()).isEqualTo(1);
+        assertThat(second.examinedFiles()).isEqualTo(2);
+        assertThat(third.examinedFiles()).isEqualTo(1);
+        assertThat(first.deletedFiles() + second.deletedFiles() + third.deletedFiles()).isEqualTo(4);
+        assertThat(tempDir.resolve("a/1.jpg")).exists();
+        try (var remaining = Files.walk(tempDir)) {
+            assertThat(remaining.filter(Files::isRegularFile)).hasSize(1);
+        }
+    }
+
+    @Test
+    void shouldReleaseUnreferencedContentAddressableBlobs() throws IOException {
+        // Given
+        ContentAddressableFileStorageService storage =
+                new ContentAddressableFileStorageService(storedBlobRepository, archiveSegmentRepository, tempDir);
+        String kept = storage.storeFile(file("kept receipt"), USER);
+        String leaked = storage.storeFile(file("leaked reference"), USER);
+        String rolledBack = storage.storeFile(file("rolled back upload"), USER);
+        storedBlobRepository.deleteById(hashOf(rolledBack));
+        saveReceipt(kept);
+        age(kept, leaked, rolledBack);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        CollectionResult result = collector(100).collect();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        assertThat(result.deletedFiles()).isEqualTo(2);
+        assertThat(tempDir.resolve(kept)).exists();
+        assertThat(tempDir.resolve(leaked)).doesNotExist();
+        assertThat(tempDir.resolve(rolledBack)).doesNotExist();
+        assertThat(storedBlobRepository.findAll()).singleElement()
+                .satisfies(blob -> assertThat(blob.getRefCount()).isEqualTo(1L));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldKeepBlobStoredAgainRightAfterItsReleaseCommits() throws IOException {
+        // Given
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        ContentAddressableFileStorageService storage =
+                new ContentAddressableFileStorageService(storedBlobRepository, archiveSegmentRepository, tempDir);
+        MockMultipartFile content = file("uploaded again during the sweep");
+        String leaked = transactions.execute(status -> storage.storeFile(content, USER));
+        age(leaked);
+        // Each sweep transaction is followed at once by an upload of the same content on another thread
+        TransactionOperations racingStore = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                T result = transactions.execute(action);
+                CompletableFuture.runAsync(() -> transactions.execute(status -> storage.storeFile(content, USER))).join();
+                return result;
+            }
+        };
+        StorageGarbageCollector collector = new StorageGarbageCollector(receiptRepository, storedBlobRepository,
+                racingStore, tempDir, Duration.ofHours(1), 100);
+
+        try {
+            // When
+            collector.collect();
+
+            // Then
+            assertThat(tempDir.resolve(leaked)).hasBinaryContent(content.getBytes());
+            assertThat(storedBlobRepository.findById(hashOf(leaked))).hasValueSatisfying(
+                    blob -> assertThat(blob.getRefCount()).isEqualTo(1L));
+        } finally {
+            // Committed data would leak into the other tests
+            transactions.executeWithoutResult(status -> storedBlobRepository.deleteAll());
+        }
+    }
+
+    private StorageGarbageCollector collector(int batchSize) {
+        return new StorageGarbageCollector(receiptRepository, storedBlobRepository,
+                new TransactionTemplate(transactionManager), tempDir, Duration.ofHours(1), batchSize);
+    }
+
+    private void writeOld(String storagePath, int size) throws IOException {
+        Path file = tempDir.resolve(storagePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[size]);
+        age(storagePath);
+    }
+
+    private void age(String... storagePaths) throws IOException {
+        for (String storagePath : storagePaths) {
+            Files.setLastModifiedTime(tempDir.resolve(storagePath), FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        }
+    }
+
+    private void saveReceipt(String storagePath) {
+        receiptRepository.save(receipt(storagePath));
+    }
+
+    private static Receipt receipt(String storagePath) {
+        return Receipt.builder()
+                .userEmail(USER)
+                .merchantName("Unknown")
+                .totalAmount(BigDecimal.ZERO)
+                .receiptDate(LocalDate.now())
+                .status(ProcessingStatus.PROCESSING)
+                .fileMetadata(FileMetadata.builder()
+                        .id(UUID.randomUUID())
+                        .fileName("receipt.jpg")
+                        .contentType("image/jpeg")
+                        .storagePath(storagePath)
+                        .uploadedAt(LocalDateTime.now())
+                        .build())
+                .build();
+    }
+
+    private static String hashOf(String storagePath) {
+        return storagePath.substring(storagePath.lastIndexOf('/') + 1);
+    }
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", "receipt.jpg", "image/jpeg", content.getBytes());
+    }
+}
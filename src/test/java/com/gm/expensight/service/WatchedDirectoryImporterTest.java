@@ -0,0 +1,308 @@
+package com.gm.expensight.service;
+
+import com.gm.expensight.domain.model.ImportStatus;
+import com.gm.expensight.domain.model.ImportedFile;
+import com.gm.expensight.domain.model.ProcessingStatus;
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.repository.ImportedFileRepository;
+import com.gm.expensight.service.util.UploadSpooler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WatchedDirectoryImporterTest {
+
+    private static final String USER = "jane@example.com";
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F', 'I', 'F'};
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ReceiptService receiptService;
+
+    @Mock
+    private ImportedFileRepository importedFileRepository;
+
+    private Path root;
+    private WatchedDirectoryImporter importer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createDirectories(tempDir.resolve("scans"));
+        lenient().when(importedFileRepository.findAllById(any())).thenReturn(List.of());
+        lenient().when(receiptService.uploadReceipt(any(), anyString(), isNull())).thenAnswer(invocation -> receipt());
+        importer = importer(4);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        importer.stop();
+    }
+
+    @Test
+    void shouldImportSettledFilesForTheUserNamedByTheirDirectory() throws IOException {
+        // Given
+        Path file = write(USER + "/2026/scan-001.jpg", JPEG, NOW.minus(Duration.ofMinutes(5)));
+
+        // When
+        importer.rescan();
+        int submitted = importer.importSettled();
+
+        // Then
+        assertThat(submitted).isEqualTo(1);
+        verify(receiptService, timeout(5000)).uploadReceipt(
+                argThat(upload -> "scan-001.jpg".equals(upload.getOriginalFilename())), eq(USER), isNull());
+        verify(importedFileRepository, timeout(5000)).save(argThat(checkpoint ->
+                checkpoint.getSourcePath().equals(file.toString())
+                        && checkpoint.getStatus() == ImportStatus.IMPORTED
+                        && checkpoint.getReceiptId() != null
+                        && checkpoint.getSizeBytes() == JPEG.length));
+    }
+
+    @Test
+    void shouldMoveHandledFilesOutOfTheWaitingTree() throws IOException {
+        // Given
+        Path imported = write(USER + "/2026/scan-001.jpg", JPEG, NOW.minus(Duration.ofMinutes(5)));
+        Path rejected = write(USER + "/notes.jpg", "not an image".getBytes(), NOW.minus(Duration.ofMinutes(5)));
+        importer.rescan();
+
+        // When
+        importer.importSettled();
+        verify(importedFileRepository, timeout(5000).times(2)).save(any());
+        awaitMoved(imported, rejected);
+        importer.rescan();
+
+        // Then
+        assertThat(root.resolve("processed/" + USER + "/2026/scan-001.jpg")).hasBinaryContent(JPEG);
+        assertThat(root.resolve("rejected/" + USER + "/notes.jpg")).exists();
+        assertThat(importer.importSettled()).isZero();
+    }
+
+    @Test
+    void shouldSkipFilesWithAMatchingCheckpoint() throws IOException {
+        // Given
+        Path file = write(USER + "/scan.jpg", JPEG, NOW.minus(Duration.ofMinutes(5)));
+        when(importedFileRepository.findAllById(any())).thenReturn(List.of(checkpoint(file, JPEG.length)));
+
+        // When
+        importer.rescan();
+
+        // Then
+        assertThat(importer.importSettled()).isZero();
+        verify(receiptService, never()).uploadReceipt(any(), anyString(), any());
+        assertThat(root.resolve("processed/" + USER + "/scan.jpg")).exists();
+    }
+
+    @Test
+    void shouldImportAgainWhenAFileChangedSinceItsCheckpoint() throws IOException {
+        // Given
+        Path file = write(USER + "/scan.jpg", JPEG, NOW.minus(Duration.ofMinutes(5)));
+        when(importedFileRepository.findAllById(any())).thenReturn(List.of(checkpoint(file, 3)));
+
+        // When
+        importer.rescan();
+
+        // Then
+        assertThat(importer.importSettled()).isEqualTo(1);
+        verify(receiptService, timeout(5000)).uploadReceipt(any(), eq(USER), isNull());
+        awaitMoved(file);
+        assertThat(root.resolve("processed/" + USER + "/scan.jpg")).hasBinaryContent(JPEG);
+    }
+
+    @Test
+    void shouldWaitUntilFilesStopChanging() throws IOException {
+        // Given
+        Path file = write(USER + "/scan.jpg", JPEG, NOW.minus(Duration.ofSeconds(10)));
+        importer.rescan();
+
+        // When
+        int whileWriting = importer.importSettled();
+        Files.setLastModifiedTime(file, FileTime.from(NOW.minus(Duration.ofMinutes(1))));
+        int settled = importer.importSettled();
+
+        // Then
+        assertThat(whileWriting).isZero();
+        assertThat(settled).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectFilesOutsideAUserDirectoryWithoutUploading() throws IOException {
+        // Given
+        write("loose-scan.jpg", JPEG, NOW.minus(Duration.ofMinutes(5)));
+        write("not-a-user/scan.jpg", JPEG, NOW.minus(Duration.ofMinutes(5)));
+
+        // When
+        importer.rescan();
+        importer.importSettled();
+
+        // Then
+        verify(importedFileRepository, timeout(5000).times(2)).save(argThat(checkpoint ->
+                checkpoint.getStatus() == ImportStatus.REJECTED && checkpoint.getUserEmail() == null));
+        verify(receiptService, never()).uploadReceipt(any(), anyString(), any());
+    }
+
+    @Test
+    void shouldCheckpointFilesThatFailValidation() throws IOException {
+        // Given
+        write(USER + "/notes.jpg", "not an image".getBytes(), NOW.minus(Duration.ofMinutes(5)));
+
+        // When
+        importer.rescan();
+        importer.importSettled();
+
+        // Then
+        verify(importedFileRepository, timeout(5000)).save(argThat(checkpoint ->
+                checkpoint.getStatus() == ImportStatus.REJECTED && checkpoint.getError() != null));
+        verify(receiptService, never()).uploadReceipt(any(), anyString(), any());
+    }
+
+    @Test
+    void shouldIgnoreHiddenAndPartialFiles() throws IOException {
+        // Given
+        write(USER + "/.DS_Store", JPEG, NOW.minus(Duration.ofMinutes(5)));
+        write(USER + "/scan.jpg.part", JPEG, NOW.minus(Duration.ofMinutes(5)));
+
+        // When
+        importer.rescan();
+
+        // Then
+        assertThat(importer.importSettled()).isZero();
+    }
+
+    @Test
+    void shouldNotStartMoreImportsThanItHasWorkers() throws Exception {
+        // Given
+        importer.stop();
+        importer = importer(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(receiptService.uploadReceipt(any(), anyString(), isNull())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return receipt();
+        });
+        Path a = write(USER + "/a.jpg", JPEG, NOW.minus(Duration.ofMinutes(5)));
+        Path b = write(USER + "/b.jpg", JPEG, NOW.minus(Duration.ofMinutes(5)));
+        importer.rescan();
+
+        // When
+        int first = importer.importSettled();
+        release.countDown();
+        verify(importedFileRepository, timeout(5000)).save(any());
+        int second = submitWhenWorkerFree();
+        awaitMoved(a, b);
+
+        // Then
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(1);
+        assertThat(a).doesNotExist();
+        assertThat(b).doesNotExist();
+    }
+
+    @Test
+    void shouldPickUpFilesReportedByTheWatchService() throws Exception {
+        // Given
+        Files.createDirectories(root.resolve(USER));
+        importer.start();
+
+        // When
+        write(USER + "/new-scan.jpg", JPEG, NOW.minus(Duration.ofMinutes(5)));
+        Files.createDirectories(root.resolve("john@example.com/2026"));
+        write("john@example.com/2026/other.jpg", JPEG, NOW.minus(Duration.ofMinutes(5)));
+
+        // Then
+        int submitted = 0;
+        for (int attempt = 0; attempt < 100 && submitted < 2; attempt++) {
+            Thread.sleep(100);
+            submitted += importer.importSettled();
+        }
+        assertThat(submitted).isEqualTo(2);
+        verify(receiptService, timeout(5000)).uploadReceipt(any(), eq("john@example.com"), isNull());
+    }
+
+    private WatchedDirectoryImporter importer(int parallelism) {
+        return new WatchedDirectoryImporter(receiptService, new UploadSpooler(tempDir.resolve("storage"), 1024 * 1024),
+                importedFileRepository, List.of(root), Duration.ofSeconds(30), parallelism,
+                Duration.ofHours(1), Duration.ofHours(1), Clock.fixed(NOW, ZoneId.systemDefault()));
+    }
+
+    // Files are moved after their checkpoint is saved, on the worker thread
+    private static void awaitMoved(Path... files) {
+        for (int attempt = 0; attempt < 50 && Arrays.stream(files).anyMatch(Files::exists); attempt++) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private int submitWhenWorkerFree() throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            int submitted = importer.importSettled();
+            if (submitted > 0) {
+                return submitted;
+            }
+            Thread.sleep(100);
+        }
+        return 0;
+    }
+
+    private Path write(String relativePath, byte[] content, Instant modified) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+        return file;
+    }
+
+    private static ImportedFile checkpoint(Path file, long size) throws IOException {
+        return ImportedFile.builder()
+                .sourcePath(file.toString())
+                .sizeBytes(size)
+                .lastModified(LocalDateTime.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault())
+                        .truncatedTo(ChronoUnit.MICROS))
+                .userEmail(USER)
+                .status(ImportStatus.IMPORTED)
+                .importedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static Receipt receipt() {
+        return Receipt.builder().id(UUID.randomUUID()).status(ProcessingStatus.PENDING).build();
+    }
+}
@@ -0,0 +1,276 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.domain.model.ProcessingStatus;
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.exception.ConflictException;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.service.ReceiptService;
+import com.gm.expensight.service.dto.BulkUploadResult;
+import com.gm.expensight.service.util.UploadSpooler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkUploadServiceImplTest {
+
+    private static final String USER = "test@example.com";
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F', 'I', 'F'};
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ReceiptService receiptService;
+
+    private BulkUploadServiceImpl bulkUploadService;
+
+    private final Queue<BulkUploadResult> results = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        bulkUploadService = service(4, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkUploadService.shutdown();
+    }
+
+    @Test
+    void shouldUploadEachFileAndReportPerFileResults() throws IOException {
+        // Given
+        when(receiptService.uploadReceipt(any(), eq(USER), isNull())).thenAnswer(invocation -> receipt());
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "a.jpg", "image/jpeg", JPEG),
+                new MockMultipartFile("files", "notes.txt", "text/plain", "not a receipt".getBytes()),
+                new MockMultipartFile("files", "b.jpg", "image/jpeg", JPEG));
+
+        // When
+        bulkUploadService.uploadFiles(files, USER, results::add);
+
+        // Then
+        assertThat(sortedResults()).satisfiesExactly(
+                first -> {
+                    assertThat(first.fileName()).isEqualTo("a.jpg");
+                    assertThat(first.isAccepted()).isTrue();
+                    assertThat(first.status()).isEqualTo("PENDING");
+                },
+                second -> {
+                    assertThat(second.fileName()).isEqualTo("notes.txt");
+                    assertThat(second.isAccepted()).isFalse();
+                    assertThat(second.errorCode()).isEqualTo("VALIDATION_ERROR");
+                },
+                third -> assertThat(third.isAccepted()).isTrue());
+        verify(receiptService, times(2)).uploadReceipt(any(), eq(USER), isNull());
+        assertSpoolDirectoryEmpty();
+    }
+
+    @Test
+    void shouldReadZipEntriesOneByOneAndSkipNonReceipts() throws IOException {
+        // Given
+        when(receiptService.uploadReceipt(any(), eq(USER), isNull())).thenAnswer(invocation -> receipt());
+        byte[] zip = zip("shoebox/", "shoebox/march/receipt-1.jpg", "__MACOSX/shoebox/._receipt-1.jpg",
+                "shoebox/.DS_Store", "receipt-2.jpg");
+
+        // When
+        bulkUploadService.uploadArchive(new ByteArrayInputStream(zip), USER, results::add);
+
+        // Then
+        assertThat(sortedResults()).extracting(BulkUploadResult::fileName)
+                .containsExactly("receipt-1.jpg", "receipt-2.jpg");
+        verify(receiptService).uploadReceipt(argThat(file -> "receipt-1.jpg".equals(file.getOriginalFilename())),
+                eq(USER), isNull());
+        assertSpoolDirectoryEmpty();
+    }
+
+    @Test
+    void shouldExpandZipFilesAmongMultipartFiles() throws IOException {
+        // Given
+        when(receiptService.uploadReceipt(any(), eq(USER), isNull())).thenAnswer(invocation -> receipt());
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "single.jpg", "image/jpeg", JPEG),
+                new MockMultipartFile("files", "batch.zip", "application/zip", zip("x.jpg", "y.jpg")));
+
+        // When
+        bulkUploadService.uploadFiles(files, USER, results::add);
+
+        // Then
+        assertThat(sortedResults()).extracting(BulkUploadResult::index, BulkUploadResult::fileName)
+                .containsExactly(
+                        tuple(0, "single.jpg"),
+                        tuple(1, "x.jpg"),
+                        tuple(2, "y.jpg"));
+    }
+
+    @Test
+    void shouldReportFailedFilesWithoutStoppingTheOthers() throws IOException {
+        // Given
+        when(receiptService.uploadReceipt(argThat(file -> file != null && "bad.jpg".equals(file.getOriginalFilename())),
+                eq(USER), isNull())).thenThrow(new ConflictException("Already being uploaded"));
+        when(receiptService.uploadReceipt(argThat(file -> file != null && "good.jpg".equals(file.getOriginalFilename())),
+                eq(USER), isNull())).thenAnswer(invocation -> receipt());
+
+        // When
+        bulkUploadService.uploadArchive(new ByteArrayInputStream(zip("bad.jpg", "good.jpg")), USER, results::add);
+
+        // Then
+        assertThat(sortedResults()).satisfiesExactly(
+                bad -> assertThat(bad.errorCode()).isEqualTo("CONFLICT"),
+                good -> assertThat(good.isAccepted()).isTrue());
+    }
+
+    @Test
+    void shouldIngestFilesConcurrently() throws IOException {
+        // Given
+        bulkUploadService.shutdown();
+        bulkUploadService = service(2, 10);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(receiptService.uploadReceipt(any(), eq(USER), isNull())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            // Only completes if the other file is being ingested at the same time
+            assertThat(bothStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            return receipt();
+        });
+
+        // When
+        bulkUploadService.uploadArchive(new ByteArrayInputStream(zip("a.jpg", "b.jpg")), USER, results::add);
+
+        // Then
+        assertThat(results).hasSize(2).allMatch(BulkUploadResult::isAccepted);
+    }
+
+    @Test
+    void shouldHoldBackOtherRequestsOnceGlobalLimitIsReached() throws Exception {
+        // Given
+        bulkUploadService.shutdown();
+        bulkUploadService = service(2, 10, 2);
+        CountDownLatch firstStarted = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        when(receiptService.uploadReceipt(any(), eq(USER), isNull())).thenAnswer(invocation -> {
+            firstStarted.countDown();
+            assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+            return receipt();
+        });
+        byte[] firstArchive = zip("a.jpg", "b.jpg");
+        byte[] secondArchive = zip("c.jpg");
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> upload(firstArchive));
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> upload(secondArchive));
+
+        // Then
+        assertThatThrownBy(() -> second.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+        try (var spooled = Files.list(tempDir.resolve("tmp"))) {
+            assertThat(spooled).hasSize(2);
+        }
+        release.countDown();
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        assertThat(results).hasSize(3).allMatch(BulkUploadResult::isAccepted);
+    }
+
+    @Test
+    void shouldRejectArchivesWithTooManyFilesAfterFinishingAcceptedOnes() throws IOException {
+        // Given
+        bulkUploadService.shutdown();
+        bulkUploadService = service(4, 2);
+        when(receiptService.uploadReceipt(any(), eq(USER), isNull())).thenAnswer(invocation -> receipt());
+
+        // When / Then
+        assertThatThrownBy(() -> bulkUploadService.uploadArchive(
+                new ByteArrayInputStream(zip("a.jpg", "b.jpg", "c.jpg")), USER, results::add))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("limited to 2 files");
+        assertThat(results).hasSize(2);
+    }
+
+    @Test
+    void shouldRejectBodiesThatAreNotZipArchives() {
+        // When / Then
+        assertThatThrownBy(() -> bulkUploadService.uploadArchive(
+                new ByteArrayInputStream("definitely not a zip".getBytes()), USER, results::add))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Archive contains no files");
+    }
+
+    private BulkUploadServiceImpl service(int parallelism, int maxFiles) {
+        return service(parallelism, maxFiles, 4 * parallelism);
+    }
+
+    private BulkUploadServiceImpl service(int parallelism, int maxFiles, int maxPending) {
+        return new BulkUploadServiceImpl(receiptService, new UploadSpooler(tempDir, 1024 * 1024),
+                parallelism, maxFiles, maxPending);
+    }
+
+    private void upload(byte[] archive) {
+        try {
+            bulkUploadService.uploadArchive(new ByteArrayInputStream(archive), USER, results::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<BulkUploadResult> sortedResults() {
+        return results.stream().sorted(Comparator.comparingInt(BulkUploadResult::index)).toList();
+    }
+
+    private void assertSpoolDirectoryEmpty() throws IOException {
+        try (var spooled = Files.list(tempDir.resolve("tmp"))) {
+            assertThat(spooled).isEmpty();
+        }
+    }
+
+    private static Receipt receipt() {
+        return Receipt.builder().id(UUID.randomUUID()).status(ProcessingStatus.PENDING).build();
+    }
+
+    private static byte[] zip(String... names) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (String name : names) {
+                zip.putNextEntry(new ZipEntry(name));
+                if (!name.endsWith("/")) {
+                    zip.write(JPEG);
+                }
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
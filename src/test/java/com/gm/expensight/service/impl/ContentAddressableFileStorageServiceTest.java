@@ -0,0 +1,172 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.config.JpaConfig;
+import com.gm.expensight.exception.FileStorageException;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.repository.ArchiveSegmentRepository;
+import com.gm.expensight.repository.StoredBlobRepository;
+import com.gm.expensight.service.util.ContentHash;
+import com.gm.expensight.service.util.SpooledUpload;
+import com.gm.expensight.service.util.UploadSpooler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import(JpaConfig.class)
+class ContentAddressableFileStorageServiceTest {
+
+    private static final byte[] CONTENT = "receipt image bytes".getBytes();
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private StoredBlobRepository storedBlobRepository;
+
+    @Autowired
+    private ArchiveSegmentRepository archiveSegmentRepository;
+
+    private ContentAddressableFileStorageService fileStorageService;
+
+    @BeforeEach
+    void setUp() {
+        fileStorageService = new ContentAddressableFileStorageService(storedBlobRepository, archiveSegmentRepository, tempDir);
+    }
+
+    @Test
+    void shouldStoreContentUnderFanOutPath() throws IOException {
+        // Given
+        String hash = ContentHash.sha256(new ByteArrayInputStream(CONTENT));
+
+        // When
+        String storagePath = fileStorageService.storeFile(file("receipt.jpg"), "test@example.com");
+
+        // Then
+        assertThat(storagePath).isEqualTo("cas/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash);
+        assertThat(fileStorageService.loadFile(storagePath)).isEqualTo(CONTENT);
+        assertThat(storedBlobRepository.findById(hash)).hasValueSatisfying(blob -> {
+            assertThat(blob.getRefCount()).isEqualTo(1L);
+            assertThat(blob.getSizeBytes()).isEqualTo(CONTENT.length);
+        });
+    }
+
+    @Test
+    void shouldMoveSpooledUploadIntoPlaceWithoutRewritingIt() throws IOException {
+        // Given
+        UploadSpooler spooler = new UploadSpooler(tempDir, 1024);
+        byte[] pdf = "%PDF-1.4 receipt".getBytes();
+        SpooledUpload upload = spooler.spool(new ByteArrayInputStream(pdf), "receipt.pdf");
+
+        // When
+        String storagePath = fileStorageService.storeFile(upload, "test@example.com", upload.getContentHash());
+        upload.close();
+
+        // Then
+        assertThat(fileStorageService.loadFile(storagePath)).isEqualTo(pdf);
+        try (var spooled = Files.list(tempDir.resolve("tmp"))) {
+            assertThat(spooled).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldNotRewriteDuplicateContent() throws IOException {
+        // Given
+        String hash = ContentHash.sha256(new ByteArrayInputStream(CONTENT));
+        String first = fileStorageService.storeFile(file("a.jpg"), "first@example.com", hash);
+        FileTime marker = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(tempDir.resolve(first), marker);
+
+        // When
+        String second = fileStorageService.storeFile(file("b.jpg"), "second@example.com", hash);
+
+        // Then
+        assertThat(second).isEqualTo(first);
+        assertThat(Files.getLastModifiedTime(tempDir.resolve(first))).isEqualTo(marker);
+        assertThat(storedBlobRepository.findById(hash).orElseThrow().getRefCount()).isEqualTo(2L);
+        try (var files = Files.walk(tempDir.resolve("cas"))) {
+            assertThat(files.filter(Files::isRegularFile).count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldDeleteFileWithLastReference() throws IOException {
+        // Given
+        String hash = ContentHash.sha256(new ByteArrayInputStream(CONTENT));
+        String storagePath = fileStorageService.storeFile(file("a.jpg"), "first@example.com", hash);
+        fileStorageService.storeFile(file("b.jpg"), "second@example.com", hash);
+
+        // When
+        fileStorageService.deleteFile(storagePath);
+
+        // Then
+        assertThat(Files.exists(tempDir.resolve(storagePath))).isTrue();
+        assertThat(storedBlobRepository.findById(hash).orElseThrow().getRefCount()).isEqualTo(1L);
+
+        // When
+        fileStorageService.deleteFile(storagePath);
+
+        // Then
+        assertThat(Files.exists(tempDir.resolve(storagePath))).isFalse();
+        assertThat(storedBlobRepository.findById(hash)).isEmpty();
+    }
+
+    @Test
+    void shouldRewriteContentAfterItWasReleased() throws IOException {
+        // Given
+        String hash = ContentHash.sha256(new ByteArrayInputStream(CONTENT));
+        String storagePath = fileStorageService.storeFile(file("a.jpg"), "test@example.com", hash);
+        fileStorageService.deleteFile(storagePath);
+
+        // When
+        fileStorageService.storeFile(file("a.jpg"), "test@example.com", hash);
+
+        // Then
+        assertThat(fileStorageService.loadFile(storagePath)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void shouldRejectContentThatDoesNotMatchHash() {
+        // Given
+        String wrongHash = "0".repeat(64);
+
+        // When & Then
+        assertThatThrownBy(() -> fileStorageService.storeFile(file("a.jpg"), "test@example.com", wrongHash))
+                .isInstanceOf(FileStorageException.class);
+        assertThat(Files.exists(tempDir.resolve(ContentAddressableFileStorageService.storagePath(wrongHash)))).isFalse();
+        assertThatThrownBy(() -> fileStorageService.storeFile(file("a.jpg"), "test@example.com", "../../etc"))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void shouldDeleteLegacyPathsAndRejectPathsOutsideRoot() throws IOException {
+        // Given
+        Path legacy = Files.createDirectories(tempDir.resolve("test_at_example_com")).resolve("20250101_000000_abc.jpg");
+        Files.write(legacy, CONTENT);
+
+        // When
+        fileStorageService.deleteFile("test_at_example_com/20250101_000000_abc.jpg");
+
+        // Then
+        assertThat(Files.exists(legacy)).isFalse();
+        assertThatThrownBy(() -> fileStorageService.loadFile("../outside.jpg")).isInstanceOf(IOException.class);
+    }
+
+    private static MockMultipartFile file(String name) {
+        return new MockMultipartFile("file", name, "image/jpeg", CONTENT);
+    }
+}
@@ -9,6 +9,10 @@ import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -199,5 +203,33 @@ class LocalFileStorageServiceTest {
         // Then
         assertFalse(Files.exists(tempDir.resolve(storagePath)));
     }
-}
 
+    @Test
+    void shouldReadFileAsStreamChannelAndMapping() throws IOException {
+        // Given
+        byte[] content = "streamed content".getBytes();
+        MultipartFile file = new MockMultipartFile("file", "receipt.pdf", "application/pdf", content);
+        String storagePath = fileStorageService.storeFile(file, "test@example.com");
+
+        // When
+        byte[] streamed;
+        try (InputStream in = fileStorageService.openInputStream(storagePath)) {
+            streamed = in.readAllBytes();
+        }
+        ByteBuffer viaChannel = ByteBuffer.allocate(content.length);
+        try (ReadableByteChannel channel = fileStorageService.openChannel(storagePath)) {
+            assertInstanceOf(FileChannel.class, channel);
+            while (viaChannel.hasRemaining() && channel.read(viaChannel) != -1) {
+                // keep reading
+            }
+        }
+        ByteBuffer mapped = fileStorageService.mapFile(storagePath);
+
+        // Then
+        assertArrayEquals(content, streamed);
+        assertArrayEquals(content, viaChannel.array());
+        assertTrue(mapped.isReadOnly());
+        assertEquals(ByteBuffer.wrap(content), mapped);
+        assertThrows(IOException.class, () -> fileStorageService.mapFile("non/existent/path.pdf"));
+    }
+}
@@ -0,0 +1,148 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.config.JpaConfig;
+import com.gm.expensight.domain.model.FileMetadata;
+import com.gm.expensight.domain.model.ProcessingStatus;
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.repository.ReceiptChangeRepository;
+import com.gm.expensight.repository.ReceiptRepository;
+import com.gm.expensight.service.dto.ReceiptChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({JpaConfig.class, ReceiptChangeFeedServiceImpl.class})
+class ReceiptChangeFeedServiceImplTest {
+
+    private static final String USER_EMAIL = "test@example.com";
+
+    @Autowired
+    private ReceiptChangeFeedServiceImpl receiptChangeFeedService;
+
+    @Autowired
+    private ReceiptChangeRepository receiptChangeRepository;
+
+    @Autowired
+    private ReceiptRepository receiptRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void shouldReturnChangesAfterCursorInPages() {
+        // Given
+        Receipt first = persistReceipt(USER_EMAIL, "First");
+        Receipt second = persistReceipt(USER_EMAIL, "Second");
+        Receipt third = persistReceipt(USER_EMAIL, "Third");
+        Receipt foreign = persistReceipt("other@example.com", "Other");
+        for (Receipt receipt : new Receipt[]{first, second, foreign, third}) {
+            receiptChangeFeedService.recordChange(receipt.getId(), receipt.getUserEmail());
+        }
+
+        // When
+        ReceiptChangeFeed firstPage = receiptChangeFeedService.getChanges(USER_EMAIL, 0, 2);
+        ReceiptChangeFeed secondPage = receiptChangeFeedService.getChanges(USER_EMAIL, firstPage.cursor(), 2);
+        ReceiptChangeFeed upToDate = receiptChangeFeedService.getChanges(USER_EMAIL, secondPage.cursor(), 2);
+
+        // Then
+        assertThat(firstPage.changes()).extracting(ReceiptChangeFeed.Change::receiptId)
+                .containsExactly(first.getId(), second.getId());
+        assertThat(firstPage.hasMore()).isTrue();
+        assertThat(firstPage.changes().get(0).receipt().merchantName()).isEqualTo("First");
+        assertThat(secondPage.changes()).extracting(ReceiptChangeFeed.Change::receiptId)
+                .containsExactly(third.getId());
+        assertThat(secondPage.hasMore()).isFalse();
+        assertThat(upToDate.changes()).isEmpty();
+        assertThat(upToDate.cursor()).isEqualTo(secondPage.cursor());
+    }
+
+    @Test
+    void shouldReportEachReceiptOnceWithItsLatestState() {
+        // Given
+        Receipt first = persistReceipt(USER_EMAIL, "First");
+        Receipt second = persistReceipt(USER_EMAIL, "Second");
+        receiptChangeFeedService.recordChange(first.getId(), USER_EMAIL);
+        receiptChangeFeedService.recordChange(second.getId(), USER_EMAIL);
+        long cursor = receiptChangeFeedService.getChanges(USER_EMAIL, 0, 10).cursor();
+
+        // When
+        receiptRepository.compareAndSetStatus(first.getId(), ProcessingStatus.COMPLETED, ProcessingStatus.FAILED);
+        receiptChangeFeedService.recordChange(first.getId(), USER_EMAIL);
+        receiptChangeFeedService.recordChange(first.getId(), USER_EMAIL);
+        entityManager.clear();
+
+        // Then
+        ReceiptChangeFeed all = receiptChangeFeedService.getChanges(USER_EMAIL, 0, 10);
+        assertThat(all.changes()).extracting(ReceiptChangeFeed.Change::receiptId)
+                .containsExactly(second.getId(), first.getId());
+        ReceiptChangeFeed since = receiptChangeFeedService.getChanges(USER_EMAIL, cursor, 10);
+        assertThat(since.changes()).singleElement().satisfies(change -> {
+            assertThat(change.receiptId()).isEqualTo(first.getId());
+            assertThat(change.receipt().status()).isEqualTo(ProcessingStatus.FAILED);
+        });
+        assertThat(receiptChangeRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepTombstoneForDeletedReceipt() {
+        // Given
+        Receipt receipt = persistReceipt(USER_EMAIL, "Gone");
+        receiptChangeFeedService.recordChange(receipt.getId(), USER_EMAIL);
+        long cursor = receiptChangeFeedService.getChanges(USER_EMAIL, 0, 10).cursor();
+
+        // When
+        receiptRepository.delete(receipt);
+        receiptChangeFeedService.recordChange(receipt.getId(), USER_EMAIL);
+
+        // Then
+        assertThat(receiptChangeFeedService.getChanges(USER_EMAIL, cursor, 10).changes()).singleElement()
+                .satisfies(change -> {
+                    assertThat(change.receiptId()).isEqualTo(receipt.getId());
+                    assertThat(change.deleted()).isTrue();
+                    assertThat(change.receipt()).isNull();
+                });
+    }
+
+    @Test
+    void shouldRejectInvalidArguments() {
+        assertThatThrownBy(() -> receiptChangeFeedService.getChanges(USER_EMAIL, -1, 10))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> receiptChangeFeedService.getChanges(USER_EMAIL, 0, 0))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> receiptChangeFeedService.getChanges(
+                USER_EMAIL, 0, ReceiptChangeFeedServiceImpl.MAX_LIMIT + 1))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private Receipt persistReceipt(String userEmail, String merchantName) {
+        Receipt receipt = Receipt.builder()
+                .userEmail(userEmail)
+                .merchantName(merchantName)
+                .totalAmount(BigDecimal.TEN)
+                .receiptDate(LocalDate.now())
+                .taxAmount(BigDecimal.ZERO)
+                .currency("INR")
+                .status(ProcessingStatus.COMPLETED)
+                .fileMetadata(FileMetadata.builder()
+                        .id(UUID.randomUUID())
+                        .fileName("receipt.jpg")
+                        .contentType("image/jpeg")
+                        .storagePath("test/" + UUID.randomUUID() + ".jpg")
+                        .uploadedAt(LocalDateTime.now())
+                        .build())
+                .build();
+        return entityManager.persistAndFlush(receipt);
+    }
+}
@@ -0,0 +1,151 @@
+package com.gm.expensight.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gm.expensight.config.JpaConfig;
+import com.gm.expensight.domain.model.FileMetadata;
+import com.gm.expensight.domain.model.ProcessingStatus;
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.domain.model.ReceiptItem;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.service.dto.ReceiptExportFormat;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({JpaConfig.class, JacksonAutoConfiguration.class, ReceiptExportServiceImpl.class})
+class ReceiptExportServiceImplTest {
+
+    private static final String USER_EMAIL = "test@example.com";
+
+    @Autowired
+    private ReceiptExportServiceImpl receiptExportService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldWriteCsvWithOneLinePerItemAndEscapedText() throws Exception {
+        // Given
+        Receipt receipt = persistReceipt("Joe's \"Deli\", Main St", LocalDate.of(2025, 3, 2), "Bagel", "=SUM(A1)");
+        persistReceipt("No Items", LocalDate.of(2025, 3, 3));
+        entityManager.clear();
+
+        // When
+        String csv = export(ReceiptExportFormat.CSV, null, null);
+
+        // Then
+        String[] lines = csv.split("\r\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).startsWith("receipt_id,receipt_date,merchant_name");
+        assertThat(lines[1]).startsWith(receipt.getId() + ",2025-03-02,\"Joe's \"\"Deli\"\", Main St\",INR,10.00,1.50,COMPLETED,")
+                .endsWith(",'=SUM(A1),1,2.50");
+        assertThat(lines[2]).endsWith(",Bagel,1,2.50");
+        assertThat(lines[3]).contains(",No Items,").endsWith(",,,");
+    }
+
+    @Test
+    void shouldWriteNdjsonFilteredByDateRange() throws Exception {
+        // Given
+        persistReceipt("Before", LocalDate.of(2025, 1, 31), "Skipped");
+        Receipt inRange = persistReceipt("Big Bazaar", LocalDate.of(2025, 2, 10), "Rice");
+        persistReceipt("Other User", LocalDate.of(2025, 2, 10), "Hidden").setUserEmail("other@example.com");
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        String ndjson = export(ReceiptExportFormat.NDJSON, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 28));
+
+        // Then
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(1);
+        JsonNode row = objectMapper.readTree(lines[0]);
+        assertThat(row.get("receiptId").asText()).isEqualTo(inRange.getId().toString());
+        assertThat(row.get("merchantName").asText()).isEqualTo("Big Bazaar");
+        assertThat(row.get("itemName").asText()).isEqualTo("Rice");
+        assertThat(row.get("price").decimalValue()).isEqualByComparingTo("2.50");
+    }
+
+    @Test
+    void shouldStreamRowsWithoutLoadingEntities() throws Exception {
+        // Given
+        for (int i = 0; i < 50; i++) {
+            persistReceipt("Merchant " + i, LocalDate.of(2025, 1, 1).plusDays(i), "A", "B");
+        }
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        long rows = receiptExportService.exportReceipts(
+                USER_EMAIL, null, null, ReceiptExportFormat.CSV, new ByteArrayOutputStream());
+
+        // Then
+        assertThat(rows).isEqualTo(100);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectInvalidInput() {
+        assertThatThrownBy(() -> export(ReceiptExportFormat.CSV, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> ReceiptExportFormat.fromParameter("xml"))
+                .isInstanceOf(ValidationException.class);
+        assertThat(ReceiptExportFormat.fromParameter(" NdJson ")).isEqualTo(ReceiptExportFormat.NDJSON);
+    }
+
+    private String export(ReceiptExportFormat format, LocalDate fromDate, LocalDate toDate) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        receiptExportService.exportReceipts(USER_EMAIL, fromDate, toDate, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private Receipt persistReceipt(String merchantName, LocalDate receiptDate, String... itemNames) {
+        Receipt receipt = Receipt.builder()
+                .userEmail(USER_EMAIL)
+                .merchantName(merchantName)
+                .totalAmount(new BigDecimal("10.00"))
+                .taxAmount(new BigDecimal("1.50"))
+                .currency("INR")
+                .receiptDate(receiptDate)
+                .status(ProcessingStatus.COMPLETED)
+                .fileMetadata(FileMetadata.builder()
+                        .id(UUID.randomUUID())
+                        .fileName("receipt.jpg")
+                        .contentType("image/jpeg")
+                        .storagePath("test/" + UUID.randomUUID() + ".jpg")
+                        .uploadedAt(LocalDateTime.now())
+                        .build())
+                .build();
+        for (String itemName : itemNames) {
+            receipt.getItems().add(ReceiptItem.builder()
+                    .receipt(receipt)
+                    .itemName(itemName)
+                    .quantity(1)
+                    .price(new BigDecimal("2.50"))
+                    .build());
+        }
+        return entityManager.persistAndFlush(receipt);
+    }
+}
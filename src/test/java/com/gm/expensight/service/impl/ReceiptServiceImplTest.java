@@ -3,34 +3,62 @@ package com.gm.expensight.service.impl;
 import com.gm.expensight.domain.model.FileMetadata;
 import com.gm.expensight.domain.model.ProcessingStatus;
 import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.repository.ReceiptItemRepository;
 import com.gm.expensight.repository.ReceiptRepository;
+import com.gm.expensight.repository.projection.ReceiptItemSummary;
+import com.gm.expensight.repository.projection.ReceiptSummary;
 import com.gm.expensight.service.FileStorageService;
 import com.gm.expensight.service.FileValidator;
+import com.gm.expensight.exception.ConflictException;
 import com.gm.expensight.exception.OcrException;
 import com.gm.expensight.exception.ResourceNotFoundException;
+import com.gm.expensight.exception.ValidationException;
 import com.gm.expensight.service.OcrService;
+import com.gm.expensight.service.ReceiptOcrTextService;
 import com.gm.expensight.service.OcrServiceFactory;
+import com.gm.expensight.service.SpendingInsightsService;
+import com.gm.expensight.service.dto.ReceiptSearchCriteria;
+import com.gm.expensight.service.event.ReceiptChangedEvent;
+import com.gm.expensight.service.event.ReceiptDeletedEvent;
+import com.gm.expensight.service.util.ContentHash;
+import com.gm.expensight.service.util.ImageNormalizer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +73,9 @@ class ReceiptServiceImplTest {
     @Mock
     private ReceiptRepository receiptRepository;
 
+    @Mock
+    private ReceiptItemRepository receiptItemRepository;
+
     @Mock
     private OcrServiceFactory ocrServiceFactory;
 
@@ -54,6 +85,21 @@ class ReceiptServiceImplTest {
     @Mock
     private com.gm.expensight.service.ReceiptParserService receiptParserService;
 
+    @Mock
+    private ReceiptOcrTextService receiptOcrTextService;
+
+    @Mock
+    private SpendingInsightsService spendingInsightsService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionOperations transactionOperations;
+
+    @Mock
+    private ImageNormalizer imageNormalizer;
+
     @InjectMocks
     private ReceiptServiceImpl receiptService;
 
@@ -71,13 +117,15 @@ class ReceiptServiceImplTest {
                 "image/jpeg",
                 "test content".getBytes()
         );
+        lenient().when(transactionOperations.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     @Test
     void shouldUploadReceiptSuccessfully() throws OcrException, java.io.IOException {
         // Given
         UUID receiptId = UUID.randomUUID();
-        when(fileStorageService.storeFile(any(MultipartFile.class), anyString()))
+        when(fileStorageService.storeFile(any(MultipartFile.class), anyString(), anyString()))
                 .thenReturn(storagePath);
 
         Receipt savedReceipt = Receipt.builder()
@@ -102,13 +150,15 @@ class ReceiptServiceImplTest {
                 .thenReturn(savedReceipt)  // First call (initial save)
                 .thenAnswer(invocation -> invocation.getArgument(0));  // Subsequent calls (processing updates)
         when(receiptRepository.findById(receiptId)).thenReturn(Optional.of(savedReceipt));
+        stubClaim(receiptId, ProcessingStatus.PENDING, savedReceipt);
+        when(receiptRepository.findByIdForUpdate(receiptId)).thenReturn(Optional.of(savedReceipt));
         when(ocrServiceFactory.getDefaultOcrService()).thenReturn(ocrService);
         when(ocrService.isAvailable()).thenReturn(true);
-        when(fileStorageService.loadFile(storagePath)).thenReturn("test image data".getBytes());
-        when(ocrService.extractText(any(byte[].class))).thenReturn("Extracted text");
+        when(fileStorageService.openInputStream(storagePath)).thenReturn(new ByteArrayInputStream("test image data".getBytes()));
+        when(ocrService.extractTextFromStream(any(InputStream.class))).thenReturn("Extracted text");
 
         // When
-        Receipt result = receiptService.uploadReceipt(mockFile, userEmail);
+        Receipt result = receiptService.uploadReceipt(mockFile, userEmail, null);
 
         // Then
         assertThat(result).isNotNull();
@@ -117,12 +167,189 @@ class ReceiptServiceImplTest {
         assertThat(result.getFileMetadata().getFileName()).isEqualTo("receipt.jpg");
 
         verify(fileValidator).validate(mockFile);
-        verify(fileStorageService).storeFile(mockFile, userEmail);
+        verify(fileStorageService).storeFile(eq(mockFile), eq(userEmail), anyString());
         verify(receiptRepository, atLeast(1)).save(any(Receipt.class));
         // Verify processing was attempted (auto-processing after upload)
         verify(ocrServiceFactory).getDefaultOcrService();
-        verify(fileStorageService).loadFile(storagePath);
-        verify(ocrService).extractText(any(byte[].class));
+        verify(fileStorageService).openInputStream(storagePath);
+        verify(ocrService).extractTextFromStream(any(InputStream.class));
+    }
+
+    @Test
+    void shouldCommitUploadAndClaimBeforeOcrStarts() throws OcrException, java.io.IOException {
+        // Given
+        AtomicInteger openTransactions = new AtomicInteger();
+        List<Integer> openTransactionsAtClaim = new ArrayList<>();
+        List<Integer> openTransactionsAtOcr = new ArrayList<>();
+        doAnswer(invocation -> {
+            openTransactions.incrementAndGet();
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                openTransactions.decrementAndGet();
+            }
+        }).when(transactionOperations).execute(any());
+
+        UUID receiptId = UUID.randomUUID();
+        Receipt savedReceipt = Receipt.builder()
+                .id(receiptId)
+                .userEmail(userEmail)
+                .status(ProcessingStatus.PENDING)
+                .fileMetadata(FileMetadata.builder().fileName("receipt.jpg").storagePath(storagePath).build())
+                .build();
+        when(fileStorageService.storeFile(any(MultipartFile.class), anyString(), anyString())).thenReturn(storagePath);
+        when(receiptRepository.save(any(Receipt.class))).thenReturn(savedReceipt);
+        when(receiptRepository.claimForProcessing(eq(receiptId), eq(ProcessingStatus.PENDING), any(), any()))
+                .thenAnswer(invocation -> {
+                    openTransactionsAtClaim.add(openTransactions.get());
+                    savedReceipt.setStatus(ProcessingStatus.PROCESSING);
+                    return 1;
+                });
+        when(receiptRepository.findById(receiptId)).thenReturn(Optional.of(savedReceipt));
+        when(ocrServiceFactory.getDefaultOcrService()).thenReturn(ocrService);
+        when(ocrService.isAvailable()).thenReturn(true);
+        when(fileStorageService.openInputStream(storagePath)).thenReturn(new ByteArrayInputStream(new byte[0]));
+        when(ocrService.extractTextFromStream(any(InputStream.class))).thenAnswer(invocation -> {
+            openTransactionsAtOcr.add(openTransactions.get());
+            return "Extracted text";
+        });
+
+        // When
+        receiptService.uploadReceipt(mockFile, userEmail, null);
+
+        // Then - the claim runs in its own top-level transaction, and OCR runs after it has committed
+        assertThat(openTransactionsAtClaim).containsExactly(1);
+        assertThat(openTransactionsAtOcr).containsExactly(0);
+    }
+
+    @Test
+    void shouldStoreNormalizedImageAndKeepOriginalWhenConfigured() throws java.io.IOException {
+        // Given
+        MultipartFile normalizedFile = new MockMultipartFile("file", "receipt.jpg", "image/jpeg", "small".getBytes());
+        when(imageNormalizer.normalize(mockFile)).thenReturn(Optional.of(normalizedFile));
+        when(imageNormalizer.keepsOriginal()).thenReturn(true);
+        when(fileStorageService.storeFile(normalizedFile, userEmail)).thenReturn("cas/no/rm/normalized");
+        when(fileStorageService.storeFile(eq(mockFile), eq(userEmail), anyString())).thenReturn("cas/or/ig/original");
+        when(receiptRepository.save(any(Receipt.class))).thenAnswer(invocation -> {
+            Receipt receipt = invocation.getArgument(0);
+            receipt.setId(UUID.randomUUID());
+            return receipt;
+        });
+
+        // When
+        Receipt result = receiptService.uploadReceipt(mockFile, userEmail, null);
+
+        // Then
+        assertThat(result.getFileMetadata().getStoragePath()).isEqualTo("cas/no/rm/normalized");
+        assertThat(result.getFileMetadata().getOriginalStoragePath()).isEqualTo("cas/or/ig/original");
+        // Duplicate detection keeps working on the bytes the user uploaded
+        assertThat(result.getFileMetadata().getContentHash()).isEqualTo(ContentHash.sha256(new ByteArrayInputStream("test content".getBytes())));
+    }
+
+    @Test
+    void shouldReturnExistingReceiptForDuplicateContentWithoutStoringAgain() {
+        // Given
+        Receipt existing = createReceipt(UUID.randomUUID(), userEmail);
+        existing.setStatus(ProcessingStatus.COMPLETED);
+        when(receiptRepository.findByUserEmailAndFileMetadataContentHash(eq(userEmail), anyString()))
+                .thenReturn(Optional.of(existing));
+
+        // When
+        Receipt result = receiptService.uploadReceipt(mockFile, userEmail, null);
+
+        // Then
+        assertThat(result).isSameAs(existing);
+        verify(fileStorageService, never()).storeFile(any(), anyString(), anyString());
+        verify(receiptRepository, never()).save(any(Receipt.class));
+        verify(ocrServiceFactory, never()).getDefaultOcrService();
+    }
+
+    @Test
+    void shouldReplayUploadWithSameIdempotencyKey() {
+        // Given
+        Receipt existing = createReceipt(UUID.randomUUID(), userEmail);
+        existing.getFileMetadata().setContentHash(
+                "6ae8a75555209fd6c44157c0aed8016e763ff435a19cf186f76863140143ff72"); // sha256("test content")
+        when(receiptRepository.findByUserEmailAndIdempotencyKey(userEmail, "retry-1"))
+                .thenReturn(Optional.of(existing));
+
+        // When
+        Receipt result = receiptService.uploadReceipt(mockFile, userEmail, "retry-1");
+
+        // Then
+        assertThat(result).isSameAs(existing);
+        verify(fileStorageService, never()).storeFile(any(), anyString(), anyString());
+    }
+
+    @Test
+    void shouldRejectIdempotencyKeyReusedForDifferentFile() {
+        // Given
+        Receipt existing = createReceipt(UUID.randomUUID(), userEmail);
+        existing.getFileMetadata().setContentHash("0".repeat(64));
+        when(receiptRepository.findByUserEmailAndIdempotencyKey(userEmail, "retry-1"))
+                .thenReturn(Optional.of(existing));
+
+        // When & Then
+        assertThatThrownBy(() -> receiptService.uploadReceipt(mockFile, userEmail, "retry-1"))
+                .isInstanceOf(ConflictException.class);
+        verify(fileStorageService, never()).storeFile(any(), anyString(), anyString());
+    }
+
+    @Test
+    void shouldRejectIdempotencyKeyTakenByConcurrentUploadOfDifferentFile() {
+        // Given
+        doThrow(new DataIntegrityViolationException("uk_receipts_user_idempotency_key"))
+                .when(transactionOperations).execute(any());
+        when(receiptRepository.findByUserEmailAndIdempotencyKey(userEmail, "retry-1")).thenReturn(Optional.empty());
+        when(receiptRepository.findByUserEmailAndFileMetadataContentHash(eq(userEmail), anyString()))
+                .thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> receiptService.uploadReceipt(mockFile, userEmail, "retry-1"))
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    void shouldRetryProcessingWhenDuplicateOfFailedReceiptIsUploaded() throws java.io.IOException {
+        // Given
+        UUID receiptId = UUID.randomUUID();
+        Receipt failed = createReceipt(receiptId, userEmail);
+        failed.setStatus(ProcessingStatus.FAILED);
+        when(receiptRepository.findByUserEmailAndFileMetadataContentHash(eq(userEmail), anyString()))
+                .thenReturn(Optional.of(failed));
+        when(receiptRepository.findById(receiptId)).thenReturn(Optional.of(failed));
+        when(receiptRepository.claimForProcessing(eq(receiptId), eq(ProcessingStatus.FAILED), any(), any()))
+                .thenReturn(1);
+        when(ocrServiceFactory.getDefaultOcrService()).thenReturn(ocrService);
+        when(ocrService.isAvailable()).thenReturn(true);
+        when(fileStorageService.openInputStream(anyString())).thenThrow(new java.io.IOException("File not found"));
+
+        // When
+        receiptService.uploadReceipt(mockFile, userEmail, null);
+
+        // Then
+        verify(receiptRepository).claimForProcessing(eq(receiptId), eq(ProcessingStatus.FAILED), any(), any());
+        verify(fileStorageService, never()).storeFile(any(), anyString(), anyString());
+    }
+
+    @Test
+    void shouldRecordContentHashAndIdempotencyKeyOnNewReceipt() {
+        // Given
+        when(fileStorageService.storeFile(any(MultipartFile.class), anyString(), anyString())).thenReturn(storagePath);
+        when(receiptRepository.save(any(Receipt.class))).thenAnswer(invocation -> {
+            Receipt receipt = invocation.getArgument(0);
+            receipt.setId(UUID.randomUUID());
+            return receipt;
+        });
+
+        // When
+        receiptService.uploadReceipt(mockFile, userEmail, "retry-1");
+
+        // Then
+        verify(receiptRepository).save(argThat(receipt -> "retry-1".equals(receipt.getIdempotencyKey())
+                && "6ae8a75555209fd6c44157c0aed8016e763ff435a19cf186f76863140143ff72"
+                        .equals(receipt.getFileMetadata().getContentHash())));
+        verify(receiptRepository).flush();
     }
 
     @Test
@@ -132,28 +359,28 @@ class ReceiptServiceImplTest {
                 .when(fileValidator).validate(mockFile);
 
         // When & Then
-        assertThatThrownBy(() -> receiptService.uploadReceipt(mockFile, userEmail))
+        assertThatThrownBy(() -> receiptService.uploadReceipt(mockFile, userEmail, null))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Invalid file");
 
         verify(fileValidator).validate(mockFile);
-        verify(fileStorageService, never()).storeFile(any(), anyString());
+        verify(fileStorageService, never()).storeFile(any(), anyString(), anyString());
         verify(receiptRepository, never()).save(any(Receipt.class));
     }
 
     @Test
     void shouldThrowExceptionWhenFileStorageFails() {
         // Given
-        when(fileStorageService.storeFile(any(MultipartFile.class), anyString()))
+        when(fileStorageService.storeFile(any(MultipartFile.class), anyString(), anyString()))
                 .thenThrow(new RuntimeException("Storage failed"));
 
         // When & Then
-        assertThatThrownBy(() -> receiptService.uploadReceipt(mockFile, userEmail))
+        assertThatThrownBy(() -> receiptService.uploadReceipt(mockFile, userEmail, null))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessage("Storage failed");
 
         verify(fileValidator).validate(mockFile);
-        verify(fileStorageService).storeFile(mockFile, userEmail);
+        verify(fileStorageService).storeFile(eq(mockFile), eq(userEmail), anyString());
         verify(receiptRepository, never()).save(any(Receipt.class));
     }
 
@@ -194,6 +421,128 @@ class ReceiptServiceImplTest {
         verify(receiptRepository).findByUserEmailOrderByCreatedAtDesc(userEmail);
     }
 
+    @Test
+    void shouldAttachItemSummariesToReceiptSummaries() {
+        // Given
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        ReceiptSummary first = new ReceiptSummary(firstId, userEmail, "Store A", BigDecimal.TEN,
+                LocalDate.now(), BigDecimal.ZERO, "INR", ProcessingStatus.COMPLETED, LocalDateTime.now());
+        ReceiptSummary second = new ReceiptSummary(secondId, userEmail, "Store B", BigDecimal.ONE,
+                LocalDate.now(), BigDecimal.ZERO, "USD", ProcessingStatus.PENDING, LocalDateTime.now());
+
+        when(receiptRepository.findSummariesByUserEmail(userEmail)).thenReturn(List.of(first, second));
+        when(receiptItemRepository.findSummariesByUserEmail(userEmail)).thenReturn(List.of(
+                new ReceiptItemSummary(firstId, "HDMI cable", 1),
+                new ReceiptItemSummary(firstId, "Batteries", 4)));
+
+        // When
+        List<ReceiptSummary> result = receiptService.getUserReceiptSummaries(userEmail);
+
+        // Then
+        assertThat(result).extracting(ReceiptSummary::id).containsExactly(firstId, secondId);
+        assertThat(result.get(0).items()).extracting(ReceiptItemSummary::itemName)
+                .containsExactly("HDMI cable", "Batteries");
+        assertThat(result.get(1).items()).isEmpty();
+
+        verify(receiptItemRepository).findSummariesByUserEmail(userEmail);
+        verify(receiptRepository, never()).findByUserEmailOrderByCreatedAtDesc(anyString());
+    }
+
+    @Test
+    void shouldSkipItemQueryWhenUserHasNoReceiptSummaries() {
+        // Given
+        when(receiptRepository.findSummariesByUserEmail(userEmail)).thenReturn(List.of());
+
+        // When
+        List<ReceiptSummary> result = receiptService.getUserReceiptSummaries(userEmail);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(receiptItemRepository, never()).findSummariesByUserEmail(anyString());
+    }
+
+    @Test
+    void shouldGetReceiptSummaryWithItems() {
+        // Given
+        UUID receiptId = UUID.randomUUID();
+        ReceiptSummary summary = new ReceiptSummary(receiptId, userEmail, "Store A", BigDecimal.TEN,
+                LocalDate.now(), BigDecimal.ZERO, "INR", ProcessingStatus.COMPLETED, LocalDateTime.now());
+        when(receiptRepository.findSummaryById(receiptId)).thenReturn(Optional.of(summary));
+        when(receiptItemRepository.findSummariesByReceiptId(receiptId))
+                .thenReturn(List.of(new ReceiptItemSummary(receiptId, "HDMI cable", 2)));
+
+        // When
+        ReceiptSummary result = receiptService.getReceiptSummary(receiptId);
+
+        // Then
+        assertThat(result.merchantName()).isEqualTo("Store A");
+        assertThat(result.items()).extracting(ReceiptItemSummary::itemName).containsExactly("HDMI cable");
+    }
+
+    @Test
+    void shouldThrowWhenReceiptSummaryNotFound() {
+        // Given
+        UUID receiptId = UUID.randomUUID();
+        when(receiptRepository.findSummaryById(receiptId)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> receiptService.getReceiptSummary(receiptId))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(receiptItemRepository, never()).findSummariesByReceiptId(any());
+    }
+
+    @Test
+    void shouldSearchReceiptsWithStableSortAndAttachItems() {
+        // Given
+        UUID receiptId = UUID.randomUUID();
+        ReceiptSummary summary = new ReceiptSummary(receiptId, userEmail, "Store A", BigDecimal.TEN,
+                LocalDate.now(), BigDecimal.ZERO, "INR", ProcessingStatus.COMPLETED, LocalDateTime.now());
+        Pageable requested = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+        when(receiptRepository.searchSummaries(any(), any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(List.of(summary), invocation.getArgument(1), 1));
+        when(receiptItemRepository.findSummariesByReceiptIds(List.of(receiptId)))
+                .thenReturn(List.of(new ReceiptItemSummary(receiptId, "HDMI cable", 2)));
+
+        // When
+        Page<ReceiptSummary> result = receiptService.searchReceipts(userEmail,
+                ReceiptSearchCriteria.builder().merchant("store").build(), requested);
+
+        // Then
+        assertThat(result.getContent()).singleElement()
+                .satisfies(found -> assertThat(found.items()).extracting(ReceiptItemSummary::itemName)
+                        .containsExactly("HDMI cable"));
+        verify(receiptRepository).searchSummaries(any(),
+                eq(PageRequest.of(0, 20, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("id")))));
+    }
+
+    @Test
+    void shouldRejectInvertedSearchRanges() {
+        ReceiptSearchCriteria invertedDates = ReceiptSearchCriteria.builder()
+                .fromDate(LocalDate.of(2025, 3, 31))
+                .toDate(LocalDate.of(2025, 3, 1))
+                .build();
+        ReceiptSearchCriteria invertedAmounts = ReceiptSearchCriteria.builder()
+                .minAmount(new BigDecimal("100"))
+                .maxAmount(BigDecimal.TEN)
+                .build();
+
+        assertThatThrownBy(() -> receiptService.searchReceipts(userEmail, invertedDates, PageRequest.of(0, 20)))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> receiptService.searchReceipts(userEmail, invertedAmounts, PageRequest.of(0, 20)))
+                .isInstanceOf(ValidationException.class);
+        verify(receiptRepository, never()).searchSummaries(any(), any());
+    }
+
+    @Test
+    void shouldRejectUnsupportedSearchSortProperty() {
+        Pageable pageable = PageRequest.of(0, 20, Sort.by("userEmail"));
+
+        assertThatThrownBy(() -> receiptService.searchReceipts(userEmail, new ReceiptSearchCriteria(), pageable))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("userEmail");
+    }
+
     @Test
     void shouldGetReceiptByIdSuccessfully() {
         // Given
@@ -240,14 +589,19 @@ class ReceiptServiceImplTest {
         byte[] fileData = "test image data".getBytes();
         String extractedText = "Extracted receipt text";
 
+        Receipt claimedReceipt = createReceipt(receiptId, userEmail);
+        Receipt completedReceipt = createReceipt(receiptId, userEmail);
+        completedReceipt.setStatus(ProcessingStatus.COMPLETED);
+
         when(receiptRepository.findById(receiptId))
                 .thenReturn(Optional.of(receipt))
-                .thenReturn(Optional.of(receipt)); // Second call for reload after OCR
+                .thenReturn(Optional.of(completedReceipt)); // Reload after the result is saved
+        stubClaim(receiptId, ProcessingStatus.PENDING, claimedReceipt);
+        when(receiptRepository.findByIdForUpdate(receiptId)).thenReturn(Optional.of(claimedReceipt));
         when(ocrServiceFactory.getDefaultOcrService()).thenReturn(ocrService);
         when(ocrService.isAvailable()).thenReturn(true);
-        when(fileStorageService.loadFile("test/path.jpg")).thenReturn(fileData);
-        when(ocrService.extractText(fileData)).thenReturn(extractedText);
-        when(receiptRepository.save(any(Receipt.class))).thenReturn(receipt);
+        when(fileStorageService.openInputStream("test/path.jpg")).thenReturn(new ByteArrayInputStream(fileData));
+        when(ocrService.extractTextFromStream(any(InputStream.class))).thenReturn(extractedText);
         
         com.gm.expensight.service.dto.ReceiptParsingResult parsingResult = 
                 com.gm.expensight.service.dto.ReceiptParsingResult.builder()
@@ -265,14 +619,22 @@ class ReceiptServiceImplTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(receiptId);
-        assertThat(result.getRawOcrText()).isEqualTo(extractedText);
         assertThat(result.getStatus()).isEqualTo(ProcessingStatus.COMPLETED);
         verify(receiptParserService).parseReceipt(extractedText);
 
-        verify(receiptRepository, atLeast(2)).findById(receiptId); // Called at least twice: initial load and reload before LLM
+        // Claim and result are committed in separate transactions, OCR and parsing run outside both
+        verify(transactionOperations, times(2)).execute(any());
+        verify(eventPublisher, times(2)).publishEvent(new ReceiptChangedEvent(receiptId, userEmail));
+        verify(receiptOcrTextService).saveOcrText(receiptId, extractedText);
+        verify(receiptParserService).applyParsingResult(claimedReceipt, parsingResult);
+        verify(receiptRepository).save(claimedReceipt);
+        assertThat(claimedReceipt.getStatus()).isEqualTo(ProcessingStatus.COMPLETED);
+        assertThat(claimedReceipt.getProcessingStartedAt()).isNull();
+        verify(spendingInsightsService).addCompletedReceipt(claimedReceipt);
+        verify(spendingInsightsService, never()).removeCompletedReceipt(any());
         verify(ocrServiceFactory).getDefaultOcrService();
-        verify(fileStorageService).loadFile("test/path.jpg");
-        verify(ocrService).extractText(fileData);
+        verify(fileStorageService).openInputStream("test/path.jpg");
+        verify(ocrService).extractTextFromStream(any(InputStream.class));
     }
 
     @Test
@@ -293,7 +655,7 @@ class ReceiptServiceImplTest {
     void shouldCreateReceiptWithCorrectMetadata() throws OcrException, java.io.IOException {
         // Given
         UUID receiptId = UUID.randomUUID();
-        when(fileStorageService.storeFile(any(MultipartFile.class), anyString()))
+        when(fileStorageService.storeFile(any(MultipartFile.class), anyString(), anyString()))
                 .thenReturn(storagePath);
 
         Receipt savedReceipt = Receipt.builder()
@@ -318,13 +680,15 @@ class ReceiptServiceImplTest {
                 .thenReturn(savedReceipt)  // First call (initial save)
                 .thenAnswer(invocation -> invocation.getArgument(0));  // Subsequent calls (processing updates)
         when(receiptRepository.findById(receiptId)).thenReturn(Optional.of(savedReceipt));
+        stubClaim(receiptId, ProcessingStatus.PENDING, savedReceipt);
+        when(receiptRepository.findByIdForUpdate(receiptId)).thenReturn(Optional.of(savedReceipt));
         when(ocrServiceFactory.getDefaultOcrService()).thenReturn(ocrService);
         when(ocrService.isAvailable()).thenReturn(true);
-        when(fileStorageService.loadFile(storagePath)).thenReturn("test image data".getBytes());
-        when(ocrService.extractText(any(byte[].class))).thenReturn("Extracted text");
+        when(fileStorageService.openInputStream(storagePath)).thenReturn(new ByteArrayInputStream("test image data".getBytes()));
+        when(ocrService.extractTextFromStream(any(InputStream.class))).thenReturn("Extracted text");
 
         // When
-        Receipt result = receiptService.uploadReceipt(mockFile, userEmail);
+        Receipt result = receiptService.uploadReceipt(mockFile, userEmail, null);
 
         // Then
         assertThat(result.getFileMetadata()).isNotNull();
@@ -339,7 +703,7 @@ class ReceiptServiceImplTest {
     void shouldUploadReceiptEvenIfProcessingFails() throws java.io.IOException {
         // Given
         UUID receiptId = UUID.randomUUID();
-        when(fileStorageService.storeFile(any(MultipartFile.class), anyString()))
+        when(fileStorageService.storeFile(any(MultipartFile.class), anyString(), anyString()))
                 .thenReturn(storagePath);
 
         Receipt savedReceipt = Receipt.builder()
@@ -361,22 +725,24 @@ class ReceiptServiceImplTest {
 
         when(receiptRepository.save(any(Receipt.class))).thenReturn(savedReceipt);
         when(receiptRepository.findById(receiptId)).thenReturn(Optional.of(savedReceipt));
+        when(receiptRepository.claimForProcessing(eq(receiptId), eq(ProcessingStatus.PENDING), any(), any()))
+                .thenReturn(1);
         when(ocrServiceFactory.getDefaultOcrService()).thenReturn(ocrService);
         when(ocrService.isAvailable()).thenReturn(true);
-        when(fileStorageService.loadFile(storagePath)).thenThrow(new java.io.IOException("File not found"));
+        when(fileStorageService.openInputStream(storagePath)).thenThrow(new java.io.IOException("File not found"));
 
         // When - Should not throw exception even if processing fails
-        Receipt result = receiptService.uploadReceipt(mockFile, userEmail);
+        Receipt result = receiptService.uploadReceipt(mockFile, userEmail, null);
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(receiptId);
-        // Receipt should still be saved even if processing fails
-        // save() is called once for initial save, and potentially again during processing failure
-        verify(receiptRepository, atLeast(1)).save(any(Receipt.class));
+        // Receipt should still be saved even if processing fails, with the failure recorded as a status update
+        verify(receiptRepository).save(any(Receipt.class));
+        verify(receiptRepository).markClaimFailed(eq(receiptId), any(), contains("File not found"));
         // Verify processing was attempted but failed
         verify(ocrServiceFactory).getDefaultOcrService();
-        verify(fileStorageService).loadFile(storagePath);
+        verify(fileStorageService).openInputStream(storagePath);
     }
 
     @Test
@@ -391,21 +757,25 @@ class ReceiptServiceImplTest {
 
         when(receiptRepository.findById(receiptId))
                 .thenReturn(Optional.of(receipt));
+        when(receiptRepository.claimForProcessing(eq(receiptId), eq(ProcessingStatus.PENDING), any(), any()))
+                .thenReturn(1);
         when(ocrServiceFactory.getDefaultOcrService()).thenReturn(ocrService);
         when(ocrService.isAvailable()).thenReturn(true);
-        when(fileStorageService.loadFile("test/path.jpg")).thenReturn(fileData);
-        when(ocrService.extractText(fileData)).thenThrow(new OcrException("OCR failed"));
-        when(receiptRepository.save(any(Receipt.class))).thenReturn(receipt);
+        when(fileStorageService.openInputStream("test/path.jpg")).thenReturn(new ByteArrayInputStream(fileData));
+        when(ocrService.extractTextFromStream(any(InputStream.class))).thenThrow(new OcrException("OCR failed"));
+        when(receiptRepository.markClaimFailed(eq(receiptId), any(), anyString())).thenReturn(1);
 
         // When
         Receipt result = receiptService.processReceipt(receiptId);
 
         // Then
         assertThat(result).isNotNull();
-        assertThat(result.getStatus()).isEqualTo(ProcessingStatus.FAILED);
-        assertThat(result.getFailureReason()).contains("OCR processing failed");
-
-        verify(receiptRepository).save(any(Receipt.class));
+        verify(receiptRepository).markClaimFailed(eq(receiptId), any(),
+                contains("OCR processing failed"));
+        // Once for the committed claim, once for the failure
+        verify(eventPublisher, times(2)).publishEvent(new ReceiptChangedEvent(receiptId, userEmail));
+        verify(receiptRepository, never()).save(any(Receipt.class));
+        verify(receiptOcrTextService, never()).saveOcrText(any(UUID.class), any());
     }
 
     @Test
@@ -417,18 +787,184 @@ class ReceiptServiceImplTest {
 
         when(receiptRepository.findById(receiptId))
                 .thenReturn(Optional.of(receipt));
-        when(receiptRepository.save(any(Receipt.class))).thenReturn(receipt);
 
         // When
         Receipt result = receiptService.processReceipt(receiptId);
 
         // Then
         assertThat(result).isNotNull();
-        assertThat(result.getStatus()).isEqualTo(ProcessingStatus.FAILED);
-        assertThat(result.getFailureReason()).contains("Missing file metadata");
+        verify(receiptRepository).markFailed(eq(receiptId), eq(ProcessingStatus.PENDING),
+                contains("Missing file metadata"));
+        verify(receiptRepository, never()).save(any(Receipt.class));
+        verify(ocrServiceFactory, never()).getDefaultOcrService();
+    }
 
-        verify(receiptRepository).save(any(Receipt.class));
+    @Test
+    void shouldSkipProcessingWhenAnotherWorkerClaimedReceipt() {
+        // Given
+        UUID receiptId = UUID.randomUUID();
+        Receipt receipt = createReceipt(receiptId, userEmail);
+
+        when(receiptRepository.findById(receiptId))
+                .thenReturn(Optional.of(receipt));
+        when(receiptRepository.claimForProcessing(eq(receiptId), eq(ProcessingStatus.PENDING), any(), any()))
+                .thenReturn(0);
+
+        // When
+        Receipt result = receiptService.processReceipt(receiptId);
+
+        // Then
+        assertThat(result).isNotNull();
         verify(ocrServiceFactory, never()).getDefaultOcrService();
+        verify(receiptRepository, never()).markFailed(any(UUID.class), any(), anyString());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void shouldTakeOverOnlyExpiredProcessingClaim() throws java.io.IOException {
+        // Given
+        UUID receiptId = UUID.randomUUID();
+        Receipt receipt = createReceipt(receiptId, userEmail);
+        receipt.setStatus(ProcessingStatus.PROCESSING);
+        receipt.setProcessingStartedAt(LocalDateTime.now().minusHours(1));
+        receiptService.setProcessingTimeout(java.time.Duration.ofMinutes(15));
+
+        when(receiptRepository.findById(receiptId)).thenReturn(Optional.of(receipt));
+        when(receiptRepository.claimForProcessing(eq(receiptId), eq(ProcessingStatus.PROCESSING), any(), any()))
+                .thenReturn(1);
+        when(ocrServiceFactory.getDefaultOcrService()).thenReturn(ocrService);
+        when(ocrService.isAvailable()).thenReturn(true);
+        when(fileStorageService.openInputStream(anyString())).thenThrow(new java.io.IOException("File not found"));
+
+        // When
+        receiptService.processReceipt(receiptId);
+
+        // Then
+        verify(receiptRepository).claimForProcessing(eq(receiptId), eq(ProcessingStatus.PROCESSING),
+                argThat(claimedAt -> claimedAt != null),
+                argThat(staleBefore -> staleBefore.isBefore(LocalDateTime.now().minusMinutes(14))));
+        verify(receiptRepository).markClaimFailed(eq(receiptId), any(), contains("File not found"));
+    }
+
+    @Test
+    void shouldDiscardResultWhenClaimWasTakenOverDuringProcessing() throws OcrException, java.io.IOException {
+        // Given
+        UUID receiptId = UUID.randomUUID();
+        Receipt receipt = createReceipt(receiptId, userEmail);
+        Receipt takenOver = createReceipt(receiptId, userEmail);
+        takenOver.setStatus(ProcessingStatus.PROCESSING);
+        takenOver.setProcessingStartedAt(LocalDateTime.now().plusMinutes(20));
+
+        when(receiptRepository.findById(receiptId)).thenReturn(Optional.of(receipt));
+        when(receiptRepository.claimForProcessing(eq(receiptId), eq(ProcessingStatus.PENDING), any(), any()))
+                .thenReturn(1);
+        when(receiptRepository.findByIdForUpdate(receiptId)).thenReturn(Optional.of(takenOver));
+        when(ocrServiceFactory.getDefaultOcrService()).thenReturn(ocrService);
+        when(ocrService.isAvailable()).thenReturn(true);
+        when(fileStorageService.openInputStream(anyString())).thenReturn(new ByteArrayInputStream("image".getBytes()));
+        when(ocrService.extractTextFromStream(any(InputStream.class))).thenReturn("text");
+        when(receiptParserService.parseReceipt("text"))
+                .thenReturn(com.gm.expensight.service.dto.ReceiptParsingResult.builder().build());
+
+        // When
+        Receipt result = receiptService.processReceipt(receiptId);
+
+        // Then
+        assertThat(result).isSameAs(takenOver);
+        assertThat(takenOver.getStatus()).isEqualTo(ProcessingStatus.PROCESSING);
+        verify(receiptParserService, never()).applyParsingResult(any(), any());
+        verify(receiptRepository, never()).save(any(Receipt.class));
+        verify(spendingInsightsService, never()).addCompletedReceipt(any());
+    }
+
+    @Test
+    void shouldTruncateLongFailureReason() throws java.io.IOException {
+        // Given
+        UUID receiptId = UUID.randomUUID();
+        Receipt receipt = createReceipt(receiptId, userEmail);
+
+        when(receiptRepository.findById(receiptId))
+                .thenReturn(Optional.of(receipt));
+        when(receiptRepository.claimForProcessing(eq(receiptId), eq(ProcessingStatus.PENDING), any(), any()))
+                .thenReturn(1);
+        when(ocrServiceFactory.getDefaultOcrService()).thenReturn(ocrService);
+        when(ocrService.isAvailable()).thenReturn(true);
+        when(fileStorageService.openInputStream(anyString())).thenThrow(new java.io.IOException("x".repeat(1000)));
+
+        // When
+        receiptService.processReceipt(receiptId);
+
+        // Then
+        verify(receiptRepository).markClaimFailed(eq(receiptId), any(),
+                argThat(reason -> reason.length() == 255));
+    }
+
+    @Test
+    void shouldRemoveOldValuesFromRollupsWhenReparsingCompletedReceipt() throws java.io.IOException {
+        // Given
+        UUID receiptId = UUID.randomUUID();
+        Receipt receipt = createReceipt(receiptId, userEmail);
+        receipt.setStatus(ProcessingStatus.COMPLETED);
+
+        when(receiptRepository.findById(receiptId))
+                .thenReturn(Optional.of(receipt));
+        when(receiptRepository.claimForProcessing(eq(receiptId), eq(ProcessingStatus.COMPLETED), any(), any()))
+                .thenReturn(1);
+        when(receiptRepository.markClaimFailed(eq(receiptId), any(), anyString()))
+                .thenReturn(1);
+        when(ocrServiceFactory.getDefaultOcrService()).thenReturn(ocrService);
+        when(ocrService.isAvailable()).thenReturn(true);
+        when(fileStorageService.openInputStream(anyString())).thenThrow(new java.io.IOException("File not found"));
+
+        // When
+        receiptService.processReceipt(receiptId);
+
+        // Then
+        verify(spendingInsightsService).removeCompletedReceipt(receipt);
+        verify(spendingInsightsService, never()).addCompletedReceipt(any());
+    }
+
+    @Test
+    void shouldRemoveCompletedReceiptFromRollupsOnDelete() {
+        // Given
+        UUID receiptId = UUID.randomUUID();
+        Receipt receipt = createReceipt(receiptId, userEmail);
+        receipt.setStatus(ProcessingStatus.COMPLETED);
+        when(receiptRepository.findByIdForUpdate(receiptId)).thenReturn(Optional.of(receipt));
+
+        // When
+        receiptService.deleteReceipt(receiptId);
+
+        // Then
+        verify(spendingInsightsService).removeCompletedReceipt(receipt);
+        verify(receiptRepository).delete(receipt);
+        verify(eventPublisher).publishEvent(new ReceiptDeletedEvent(receiptId, userEmail, "path/to/file.jpg", null));
+        verify(eventPublisher).publishEvent(new ReceiptChangedEvent(receiptId, userEmail));
+    }
+
+    @Test
+    void shouldNotTouchRollupsWhenDeletingUnfinishedReceipt() {
+        // Given
+        UUID receiptId = UUID.randomUUID();
+        Receipt receipt = createReceipt(receiptId, userEmail);
+        when(receiptRepository.findByIdForUpdate(receiptId)).thenReturn(Optional.of(receipt));
+
+        // When
+        receiptService.deleteReceipt(receiptId);
+
+        // Then
+        verify(spendingInsightsService, never()).removeCompletedReceipt(any());
+        verify(receiptRepository).delete(receipt);
+    }
+
+    // The claim stamps the receipt row locked by the completing transaction, as the UPDATE would
+    private void stubClaim(UUID receiptId, ProcessingStatus expectedStatus, Receipt claimedRow) {
+        when(receiptRepository.claimForProcessing(eq(receiptId), eq(expectedStatus), any(), any()))
+                .thenAnswer(invocation -> {
+                    claimedRow.setStatus(ProcessingStatus.PROCESSING);
+                    claimedRow.setProcessingStartedAt(invocation.getArgument(2));
+                    return 1;
+                });
     }
 
     private Receipt createReceipt(UUID id, String email) {
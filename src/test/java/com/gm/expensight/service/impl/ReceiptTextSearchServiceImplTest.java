@@ -0,0 +1,176 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.config.JpaConfig;
+import com.gm.expensight.domain.model.FileMetadata;
+import com.gm.expensight.domain.model.ProcessingStatus;
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.domain.model.ReceiptItem;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.repository.ReceiptRepository;
+import com.gm.expensight.service.ReceiptOcrTextService;
+import com.gm.expensight.service.ReceiptSearchBackfill;
+import com.gm.expensight.service.dto.ReceiptSearchHit;
+import com.gm.expensight.service.util.OcrTextCompressor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({JpaConfig.class, ReceiptTextSearchServiceImpl.class, ReceiptOcrTextServiceImpl.class, OcrTextCompressor.class})
+// indexReceipt runs in its own transaction, so the test data has to be committed first
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReceiptTextSearchServiceImplTest {
+
+    // Data is committed, so each test uses its own user to stay isolated
+    private final String userEmail = UUID.randomUUID() + "@example.com";
+
+    @Autowired
+    private ReceiptRepository receiptRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReceiptTextSearchServiceImpl receiptTextSearchService;
+
+    @Autowired
+    private ReceiptOcrTextService receiptOcrTextService;
+
+    @Test
+    void shouldFindReceiptByItemNameAndRankExactAboveOcrOnlyMatches() {
+        // Given
+        Receipt electronics = indexedReceipt(userEmail, "Croma", List.of("HDMI Cable 2m", "AA Batteries"),
+                "CROMA\nHDMI CABLE 2M 499.00\nAA BATTERIES 120.00");
+        Receipt grocery = indexedReceipt(userEmail, "Big Bazaar", List.of("Milk", "Bread"),
+                "BIG BAZAAR\nMILK 60.00\nBREAD 45.00\nFree HDMI adapter offer");
+        indexedReceipt("other-" + userEmail, "Croma", List.of("HDMI Cable"), "HDMI CABLE");
+
+        // When
+        List<ReceiptSearchHit> hits = receiptTextSearchService.search(userEmail, "hdmi cable", 10);
+
+        // Then
+        assertThat(hits).extracting(hit -> hit.receipt().id())
+                .containsExactly(electronics.getId(), grocery.getId());
+        assertThat(hits.get(0).matchedTerms()).containsExactly("cable", "hdmi");
+        assertThat(hits.get(0).score()).isGreaterThan(hits.get(1).score());
+        assertThat(hits.get(0).receipt().items()).hasSize(2);
+    }
+
+    @Test
+    void shouldMatchByPrefixAndWithTypos() {
+        // Given
+        Receipt receipt = indexedReceipt(userEmail, "Starbucks", List.of("Cappuccino"), "STARBUCKS CAPPUCCINO");
+
+        // When & Then
+        assertThat(receiptTextSearchService.search(userEmail, "starb", 10))
+                .extracting(hit -> hit.receipt().id()).containsExactly(receipt.getId());
+        assertThat(receiptTextSearchService.search(userEmail, "capuccino", 10))
+                .singleElement()
+                .satisfies(hit -> assertThat(hit.matchedTerms()).containsExactly("cappuccino"));
+        assertThat(receiptTextSearchService.search(userEmail, "latte", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldDropReceiptFromIndexWhenNoLongerCompleted() {
+        // Given
+        Receipt receipt = indexedReceipt(userEmail, "Decathlon", List.of("Yoga Mat"), null);
+        assertThat(receiptTextSearchService.search(userEmail, "yoga", 10)).hasSize(1);
+
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                receiptRepository.compareAndSetStatus(receipt.getId(), ProcessingStatus.COMPLETED,
+                        ProcessingStatus.PROCESSING));
+        receiptTextSearchService.indexReceipt(receipt.getId());
+
+        // Then
+        assertThat(receiptTextSearchService.search(userEmail, "yoga", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldBackfillCompletedReceiptsMissingFromTheIndex() {
+        // Given
+        completedReceipt(userEmail, "Decathlon", List.of("Yoga Mat"), null);
+        assertThat(receiptTextSearchService.search(userEmail, "yoga", 10)).isEmpty();
+        ReceiptSearchBackfill backfill = new ReceiptSearchBackfill(receiptRepository, receiptTextSearchService, 2);
+
+        // When
+        int batches = 0;
+        while (backfill.indexNextBatch() > 0) {
+            batches++;
+        }
+
+        // Then
+        assertThat(batches).isPositive();
+        assertThat(receiptTextSearchService.search(userEmail, "yoga", 10)).hasSize(1);
+        assertThat(backfill.indexNextBatch()).isZero();
+    }
+
+    @Test
+    void shouldRejectQueriesWithoutTerms() {
+        assertThatThrownBy(() -> receiptTextSearchService.search(userEmail, " - ", 10))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> receiptTextSearchService.search(userEmail, "milk", 0))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void shouldBoundEditDistance() {
+        assertThat(ReceiptTextSearchServiceImpl.editDistance("cable", "cable", 1)).isZero();
+        assertThat(ReceiptTextSearchServiceImpl.editDistance("cabel", "cable", 2)).isEqualTo(2);
+        assertThat(ReceiptTextSearchServiceImpl.editDistance("hdmi", "hdmu", 1)).isEqualTo(1);
+        assertThat(ReceiptTextSearchServiceImpl.editDistance("milk", "bread", 1)).isEqualTo(2);
+    }
+
+    private Receipt indexedReceipt(String owner, String merchantName, List<String> itemNames, String ocrText) {
+        Receipt receipt = completedReceipt(owner, merchantName, itemNames, ocrText);
+        receiptTextSearchService.indexReceipt(receipt.getId());
+        return receipt;
+    }
+
+    private Receipt completedReceipt(String owner, String merchantName, List<String> itemNames, String ocrText) {
+        Receipt receipt = Receipt.builder()
+                .userEmail(owner)
+                .merchantName(merchantName)
+                .totalAmount(BigDecimal.TEN)
+                .receiptDate(LocalDate.now())
+                .taxAmount(BigDecimal.ZERO)
+                .currency("INR")
+                .status(ProcessingStatus.COMPLETED)
+                .fileMetadata(FileMetadata.builder()
+                        .id(UUID.randomUUID())
+                        .fileName("receipt.jpg")
+                        .contentType("image/jpeg")
+                        .storagePath("test/receipt.jpg")
+                        .uploadedAt(LocalDateTime.now())
+                        .build())
+                .build();
+        for (String itemName : itemNames) {
+            receipt.getItems().add(ReceiptItem.builder()
+                    .receipt(receipt)
+                    .itemName(itemName)
+                    .quantity(1)
+                    .price(BigDecimal.ONE)
+                    .build());
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> receiptRepository.save(receipt));
+
+        if (ocrText != null) {
+            receiptOcrTextService.saveOcrText(receipt.getId(), ocrText);
+        }
+        return receipt;
+    }
+}
@@ -0,0 +1,283 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.service.util.AwsSigV4Signer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class S3FileStorageServiceTest {
+
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+
+    private FakeS3 s3;
+    private S3FileStorageService fileStorageService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3 = new FakeS3();
+        fileStorageService = new S3FileStorageService(new S3FileStorageService.Settings(
+                s3.endpoint(), "us-east-1", "receipts", "test-access", "test-secret", true,
+                PART_SIZE, 2, 4, 3, Duration.ofSeconds(10)), WebClient.builder());
+    }
+
+    @AfterEach
+    void tearDown() {
+        fileStorageService.close();
+        s3.stop();
+    }
+
+    @Test
+    void shouldStoreAndLoadSmallFileWithSingleSignedPut() throws IOException {
+        // Given
+        byte[] content = "small receipt".getBytes();
+
+        // When
+        String storagePath = fileStorageService.storeFile(
+                new MockMultipartFile("file", "receipt.jpg", "image/jpeg", content), "test@example.com");
+
+        // Then
+        assertThat(storagePath).startsWith("test_at_example_com/").endsWith(".jpg");
+        assertThat(fileStorageService.loadFile(storagePath)).isEqualTo(content);
+        assertThat(s3.requests).contains("PUT /receipts/" + storagePath);
+        assertThat(s3.authorizations).allMatch(header -> header.startsWith(
+                "AWS4-HMAC-SHA256 Credential=test-access/") && header.contains("SignedHeaders="));
+    }
+
+    @Test
+    void shouldUploadLargeFileInParts() throws IOException {
+        // Given
+        byte[] content = randomBytes(PART_SIZE * 2 + 123);
+
+        // When
+        String storagePath = fileStorageService.storeFile(
+                new MockMultipartFile("file", "receipt.pdf", "application/pdf", content), "test@example.com");
+
+        // Then
+        assertThat(fileStorageService.loadFile(storagePath)).isEqualTo(content);
+        assertThat(s3.requests.stream().filter(request -> request.startsWith("PUT") && request.contains("partNumber=")))
+                .hasSize(3);
+        assertThat(s3.multipartUploads).isEmpty();
+    }
+
+    @Test
+    void shouldReadRangesThroughSeekableChannel() throws IOException {
+        // Given
+        byte[] content = randomBytes(1000);
+        String storagePath = fileStorageService.storeFile(
+                new MockMultipartFile("file", "receipt.png", "image/png", content), "test@example.com");
+
+        // When
+        ByteBuffer tail = ByteBuffer.allocate(100);
+        try (ReadableByteChannel channel = fileStorageService.openChannel(storagePath)) {
+            SeekableByteChannel seekable = (SeekableByteChannel) channel;
+            assertThat(seekable.size()).isEqualTo(1000);
+            seekable.position(900);
+            while (tail.hasRemaining() && seekable.read(tail) > 0) {
+                // read until full
+            }
+        }
+
+        // Then
+        assertThat(tail.array()).isEqualTo(java.util.Arrays.copyOfRange(content, 900, 1000));
+        assertThat(s3.ranges).contains("bytes=900-999");
+        try (InputStream in = fileStorageService.openInputStream(storagePath)) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void shouldRetryTransientServerErrors() throws IOException {
+        // Given
+        s3.failNext.set(2);
+
+        // When
+        String storagePath = fileStorageService.storeFile(
+                new MockMultipartFile("file", "receipt.jpg", "image/jpeg", "retry me".getBytes()), "test@example.com");
+
+        // Then
+        assertThat(fileStorageService.loadFile(storagePath)).isEqualTo("retry me".getBytes());
+        assertThat(s3.requests.stream().filter(request -> request.startsWith("PUT"))).hasSize(3);
+    }
+
+    @Test
+    void shouldReportMissingObjectsAndDeleteIdempotently() throws IOException {
+        // Given
+        String storagePath = fileStorageService.storeFile(
+                new MockMultipartFile("file", "receipt.jpg", "image/jpeg", "bytes".getBytes()), "test@example.com");
+
+        // When
+        fileStorageService.deleteFile(storagePath);
+        fileStorageService.deleteFile(storagePath);
+
+        // Then
+        assertThatThrownBy(() -> fileStorageService.loadFile(storagePath)).isInstanceOf(NoSuchFileException.class);
+        assertThatThrownBy(() -> fileStorageService.openChannel(storagePath)).isInstanceOf(NoSuchFileException.class);
+        assertThat(fileStorageService.localFile(storagePath)).isEmpty();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] content = new byte[length];
+        new Random(7).nextBytes(content);
+        return content;
+    }
+
+    /**
+     * Minimal in-process stand-in for an S3-compatible store: path-style object CRUD, ranged GETs
+     * and multipart uploads. Signatures are not verified here; AwsSigV4SignerTest covers signing.
+     */
+    private static final class FakeS3 {
+
+        private static final Pattern PART = Pattern.compile("<PartNumber>(\\d+)</PartNumber><ETag>\"([^\"]+)\"</ETag>");
+
+        private final HttpServer server;
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final Map<String, Map<Integer, byte[]>> multipartUploads = new ConcurrentHashMap<>();
+        private final CopyOnWriteArrayList<String> requests = new CopyOnWriteArrayList<>();
+        private final CopyOnWriteArrayList<String> authorizations = new CopyOnWriteArrayList<>();
+        private final CopyOnWriteArrayList<String> ranges = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failNext = new AtomicInteger();
+        private final AtomicInteger uploadIds = new AtomicInteger();
+
+        FakeS3() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        String endpoint() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            String method = exchange.getRequestMethod();
+            String key = exchange.getRequestURI().getRawPath();
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            requests.add(method + " " + key + (query.isEmpty() ? "" : "?" + query));
+            authorizations.add(String.valueOf(exchange.getRequestHeaders().getFirst("Authorization")));
+            assertThat(exchange.getRequestHeaders().getFirst("x-amz-content-sha256"))
+                    .isEqualTo(AwsSigV4Signer.sha256Hex(body));
+
+            if (failNext.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                respond(exchange, 503, "<Error><Code>SlowDown</Code></Error>".getBytes());
+                return;
+            }
+
+            switch (method) {
+                case "PUT" -> {
+                    if (query.containsKey("partNumber")) {
+                        multipartUploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), body);
+                        exchange.getResponseHeaders().set("ETag", "\"etag-" + query.get("partNumber") + "\"");
+                    } else {
+                        objects.put(key, body);
+                    }
+                    respond(exchange, 200, new byte[0]);
+                }
+                case "POST" -> {
+                    if (query.containsKey("uploads")) {
+                        String uploadId = "upload-" + uploadIds.incrementAndGet();
+                        multipartUploads.put(uploadId, new TreeMap<>());
+                        respond(exchange, 200, ("<InitiateMultipartUploadResult><UploadId>" + uploadId
+                                + "</UploadId></InitiateMultipartUploadResult>").getBytes());
+                    } else {
+                        Map<Integer, byte[]> parts = multipartUploads.remove(query.get("uploadId"));
+                        ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+                        Matcher part = PART.matcher(new String(body, StandardCharsets.UTF_8));
+                        while (part.find()) {
+                            assertThat(part.group(2)).isEqualTo("etag-" + part.group(1));
+                            assembled.write(parts.get(Integer.parseInt(part.group(1))));
+                        }
+                        objects.put(key, assembled.toByteArray());
+                        respond(exchange, 200, "<CompleteMultipartUploadResult/>".getBytes());
+                    }
+                }
+                case "DELETE" -> {
+                    if (query.containsKey("uploadId")) {
+                        multipartUploads.remove(query.get("uploadId"));
+                    } else {
+                        objects.remove(key);
+                    }
+                    respond(exchange, 204, null);
+                }
+                case "HEAD" -> {
+                    byte[] object = objects.get(key);
+                    if (object == null) {
+                        respond(exchange, 404, null);
+                    } else {
+                        exchange.getResponseHeaders().set("Content-Length", String.valueOf(object.length));
+                        exchange.sendResponseHeaders(200, -1);
+                        exchange.close();
+                    }
+                }
+                default -> {
+                    byte[] object = objects.get(key);
+                    String range = exchange.getRequestHeaders().getFirst("Range");
+                    if (object == null) {
+                        respond(exchange, 404, "<Error><Code>NoSuchKey</Code></Error>".getBytes());
+                    } else if (range != null) {
+                        ranges.add(range);
+                        String[] bounds = range.substring("bytes=".length()).split("-");
+                        int start = Integer.parseInt(bounds[0]);
+                        int end = Math.min(object.length - 1, Integer.parseInt(bounds[1]));
+                        exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + object.length);
+                        respond(exchange, 206, java.util.Arrays.copyOfRange(object, start, end + 1));
+                    } else {
+                        respond(exchange, 200, object);
+                    }
+                }
+            }
+        }
+
+        private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+            if (body == null || body.length == 0) {
+                exchange.sendResponseHeaders(status, -1);
+            } else {
+                exchange.sendResponseHeaders(status, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        }
+
+        private static Map<String, String> query(String rawQuery) {
+            Map<String, String> parameters = new TreeMap<>();
+            if (rawQuery != null) {
+                for (String parameter : rawQuery.split("&")) {
+                    int equals = parameter.indexOf('=');
+                    parameters.put(equals < 0 ? parameter : parameter.substring(0, equals),
+                            equals < 0 ? "" : parameter.substring(equals + 1));
+                }
+            }
+            return parameters;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.config.JpaConfig;
+import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.exception.ValidationException;
+import com.gm.expensight.repository.SpendingRollupRepository;
+import com.gm.expensight.repository.projection.MerchantSpending;
+import com.gm.expensight.repository.projection.MonthlySpending;
+import com.gm.expensight.service.dto.SpendingInsights;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import({JpaConfig.class, SpendingInsightsServiceImpl.class})
+class SpendingInsightsServiceImplTest {
+
+    private static final String USER_EMAIL = "test@example.com";
+
+    @Autowired
+    private SpendingInsightsServiceImpl spendingInsightsService;
+
+    @Autowired
+    private SpendingRollupRepository spendingRollupRepository;
+
+    @Test
+    void shouldAggregateCompletedReceiptsIntoMonthlyAndMerchantBuckets() {
+        // Given
+        spendingInsightsService.addCompletedReceipt(receipt("Big Bazaar", "250.00", "10.00", "INR", 2025, 3, 2));
+        spendingInsightsService.addCompletedReceipt(receipt("Big Bazaar", "150.00", null, "INR", 2025, 3, 20));
+        spendingInsightsService.addCompletedReceipt(receipt("Croma", "499.00", "45.00", "INR", 2025, 4, 1));
+        spendingInsightsService.addCompletedReceipt(receipt("Amazon", "20.00", "1.00", "USD", 2025, 3, 5));
+        spendingInsightsService.addCompletedReceipt(receipt("Croma", "999.00", "0.00", "INR", 2024, 12, 31));
+
+        // When
+        SpendingInsights insights = spendingInsightsService.getInsights(
+                USER_EMAIL, YearMonth.of(2025, 1), YearMonth.of(2025, 12), 10);
+
+        // Then
+        assertThat(spendingRollupRepository.count()).isEqualTo(4);
+        assertThat(insights.months()).extracting(
+                        MonthlySpending::periodMonth, MonthlySpending::currency, MonthlySpending::receiptCount)
+                .containsExactly(
+                        tuple(LocalDate.of(2025, 3, 1), "INR", 2L),
+                        tuple(LocalDate.of(2025, 3, 1), "USD", 1L),
+                        tuple(LocalDate.of(2025, 4, 1), "INR", 1L));
+        assertThat(insights.months().get(0).totalAmount()).isEqualByComparingTo("400.00");
+        assertThat(insights.months().get(0).taxAmount()).isEqualByComparingTo("10.00");
+        assertThat(insights.topMerchants()).extracting(MerchantSpending::merchantName)
+                .containsExactly("Croma", "Big Bazaar", "Amazon");
+    }
+
+    @Test
+    void shouldRemoveReceiptAndDropEmptyBucket() {
+        // Given
+        Receipt first = receipt("Big Bazaar", "250.00", "10.00", "INR", 2025, 3, 2);
+        Receipt second = receipt("Big Bazaar", "150.00", "5.00", "INR", 2025, 3, 20);
+        spendingInsightsService.addCompletedReceipt(first);
+        spendingInsightsService.addCompletedReceipt(second);
+
+        // When
+        spendingInsightsService.removeCompletedReceipt(first);
+
+        // Then
+        SpendingInsights insights = spendingInsightsService.getInsights(
+                USER_EMAIL, YearMonth.of(2025, 3), YearMonth.of(2025, 3), 10);
+        assertThat(insights.months()).singleElement().satisfies(month -> {
+            assertThat(month.totalAmount()).isEqualByComparingTo("150.00");
+            assertThat(month.taxAmount()).isEqualByComparingTo("5.00");
+            assertThat(month.receiptCount()).isEqualTo(1L);
+        });
+
+        // When
+        spendingInsightsService.removeCompletedReceipt(second);
+
+        // Then
+        assertThat(spendingRollupRepository.count()).isZero();
+    }
+
+    @Test
+    void shouldRejectInvalidRanges() {
+        assertThatThrownBy(() -> spendingInsightsService.getInsights(
+                USER_EMAIL, YearMonth.of(2025, 5), YearMonth.of(2025, 1), 10))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> spendingInsightsService.getInsights(
+                USER_EMAIL, YearMonth.of(2000, 1), YearMonth.of(2025, 1), 10))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> spendingInsightsService.getInsights(
+                USER_EMAIL, YearMonth.of(2025, 1), YearMonth.of(2025, 1), 0))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private Receipt receipt(String merchantName, String total, String tax, String currency,
+                            int year, int month, int day) {
+        return Receipt.builder()
+                .id(UUID.randomUUID())
+                .userEmail(USER_EMAIL)
+                .merchantName(merchantName)
+                .totalAmount(new BigDecimal(total))
+                .taxAmount(tax != null ? new BigDecimal(tax) : null)
+                .currency(currency)
+                .receiptDate(LocalDate.of(year, month, day))
+                .build();
+    }
+}
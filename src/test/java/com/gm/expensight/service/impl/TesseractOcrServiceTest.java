@@ -14,8 +14,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,6 +26,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("Tesseract OCR Service Tests")
@@ -62,6 +66,20 @@ class TesseractOcrServiceTest {
         verify(tesseract).doOCR(any(BufferedImage.class));
     }
     
+    @Test
+    @DisplayName("Should extract text from image stream")
+    void shouldExtractTextFromImageStream() throws OcrException, TesseractException {
+        // Given
+        InputStream imageStream = new ByteArrayInputStream(createSampleImage());
+        when(tesseract.doOCR(any(BufferedImage.class))).thenReturn("Streamed receipt text");
+        
+        // When
+        String result = ocrService.extractTextFromStream(imageStream);
+        
+        // Then
+        assertThat(result).isEqualTo("Streamed receipt text");
+    }
+    
     @Test
     @DisplayName("Should handle TesseractException and wrap in OcrException")
     void shouldHandleTesseractException() throws TesseractException {
@@ -85,7 +103,7 @@ class TesseractOcrServiceTest {
         BufferedImage page2 = createSampleBufferedImage();
         List<BufferedImage> pages = List.of(page1, page2);
         
-        when(pdfConverter.convertToImages(pdfData)).thenReturn(pages);
+        stubRenderedPages(pages);
         when(tesseract.doOCR(page1)).thenReturn("Page 1 text");
         when(tesseract.doOCR(page2)).thenReturn("Page 2 text");
         when(textNormalizer.enhanceForIndianReceipts(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
@@ -96,7 +114,7 @@ class TesseractOcrServiceTest {
         // Then
         assertThat(result).contains("Page 1 text");
         assertThat(result).contains("Page 2 text");
-        verify(pdfConverter).convertToImages(pdfData);
+        verify(pdfConverter).renderPages(eq(ByteBuffer.wrap(pdfData)), any());
         verify(tesseract, times(2)).doOCR(any(BufferedImage.class));
     }
     
@@ -105,8 +123,7 @@ class TesseractOcrServiceTest {
     void shouldHandlePdfConversionFailure() throws IOException {
         // Given
         byte[] pdfData = new byte[]{1, 2, 3};
-        when(pdfConverter.convertToImages(pdfData))
-                .thenThrow(new IOException("Invalid PDF"));
+        doThrow(new IOException("Invalid PDF")).when(pdfConverter).renderPages(any(ByteBuffer.class), any());
         
         // When & Then
         assertThatThrownBy(() -> ocrService.extractTextFromPdf(pdfData))
@@ -163,7 +180,7 @@ class TesseractOcrServiceTest {
         BufferedImage page2 = createSampleBufferedImage();
         List<BufferedImage> pages = List.of(page1, page2);
         
-        when(pdfConverter.convertToImages(pdfData)).thenReturn(pages);
+        stubRenderedPages(pages);
         when(tesseract.doOCR(page1)).thenReturn("First page");
         when(tesseract.doOCR(page2)).thenReturn("Second page");
         when(textNormalizer.enhanceForIndianReceipts(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
@@ -178,6 +195,16 @@ class TesseractOcrServiceTest {
         assertThat(result.split("\n--- Page \\d+ ---\n").length).isGreaterThan(1);
     }
     
+    private void stubRenderedPages(List<BufferedImage> pages) throws IOException {
+        doAnswer(invocation -> {
+            PdfToImageConverter.PageHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < pages.size(); i++) {
+                handler.handle(i, pages.get(i));
+            }
+            return null;
+        }).when(pdfConverter).renderPages(any(ByteBuffer.class), any());
+    }
+    
     // Helper method to create a sample image as bytes
     private byte[] createSampleImage() {
         try {
@@ -0,0 +1,144 @@
+package com.gm.expensight.service.impl;
+
+import com.gm.expensight.domain.model.FileMetadata;
+import com.gm.expensight.service.FileStorageService;
+import com.gm.expensight.service.util.PdfToImageConverter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+class ThumbnailServiceImplTest {
+
+    private static final String USER_EMAIL = "test@example.com";
+
+    @TempDir
+    Path tempDir;
+
+    private FileStorageService fileStorageService;
+    private ThumbnailServiceImpl thumbnailService;
+
+    @BeforeEach
+    void setUp() {
+        fileStorageService = new LocalFileStorageService(tempDir);
+        thumbnailService = new ThumbnailServiceImpl(fileStorageService, new PdfToImageConverter(), tempDir, 320);
+    }
+
+    @Test
+    void shouldScaleLargeImageToFitMaxSize() throws IOException {
+        // Given
+        FileMetadata file = store("receipt.png", "image/png", png(4000, 3000));
+
+        // When
+        Path thumbnail = thumbnailService.getThumbnail(file);
+
+        // Then
+        BufferedImage image = ImageIO.read(thumbnail.toFile());
+        assertThat(image.getWidth()).isEqualTo(320);
+        assertThat(image.getHeight()).isEqualTo(240);
+        assertThat(thumbnail.getParent()).isEqualTo(tempDir.resolve(file.getStoragePath()).getParent());
+    }
+
+    @Test
+    void shouldRenderFirstPdfPage() throws IOException {
+        // Given
+        FileMetadata file = store("receipt.pdf", "application/pdf", pdf());
+
+        // When
+        Path thumbnail = thumbnailService.getThumbnail(file);
+
+        // Then
+        BufferedImage image = ImageIO.read(thumbnail.toFile());
+        assertThat(image.getHeight()).isEqualTo(320);
+        assertThat(image.getWidth()).isLessThan(320);
+    }
+
+    @Test
+    void shouldReuseCachedThumbnail() throws IOException {
+        // Given
+        FileMetadata file = store("receipt.png", "image/png", png(800, 600));
+        Path first = thumbnailService.getThumbnail(file);
+        FileTime generatedAt = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(first, generatedAt);
+
+        // When
+        Path second = thumbnailService.getThumbnail(file);
+
+        // Then
+        assertThat(second).isEqualTo(first);
+        assertThat(Files.getLastModifiedTime(second)).isEqualTo(generatedAt);
+    }
+
+    @Test
+    void shouldEvictThumbnailsOnlyOnceOriginalIsGone() throws IOException {
+        // Given
+        FileMetadata file = store("receipt.png", "image/png", png(800, 600));
+        Path thumbnail = thumbnailService.getThumbnail(file);
+
+        // When / Then
+        thumbnailService.evictThumbnails(file.getStoragePath());
+        assertThat(thumbnail).exists();
+
+        fileStorageService.deleteFile(file.getStoragePath());
+        thumbnailService.evictThumbnails(file.getStoragePath());
+        assertThat(thumbnail).doesNotExist();
+    }
+
+    @Test
+    void shouldKeepThumbnailsOfOriginalsWithoutALocalFile() throws IOException {
+        // Given: a backend that holds the original but not as a loose local file, like a packed blob
+        FileStorageService packedStorage = spy(fileStorageService);
+        doReturn(Optional.empty()).when(packedStorage).localFile(anyString());
+        thumbnailService = new ThumbnailServiceImpl(packedStorage, new PdfToImageConverter(), tempDir, 320);
+        FileMetadata file = store("receipt.png", "image/png", png(800, 600));
+        Path thumbnail = thumbnailService.getThumbnail(file);
+
+        // When
+        thumbnailService.evictThumbnails(file.getStoragePath());
+
+        // Then
+        assertThat(thumbnail).exists();
+    }
+
+    private FileMetadata store(String fileName, String contentType, byte[] content) {
+        String storagePath = fileStorageService.storeFile(
+                new MockMultipartFile("file", fileName, contentType, content), USER_EMAIL);
+        return FileMetadata.builder()
+                .fileName(fileName)
+                .contentType(contentType)
+                .storagePath(storagePath)
+                .build();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] pdf() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.save(out);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,88 @@
+package com.gm.expensight.service.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageNormalizerTest {
+
+    @Test
+    void shouldDownsampleAndGrayscaleLargePhoto() throws IOException {
+        // Given
+        ImageNormalizer normalizer = new ImageNormalizer(true, 1_000_000, false);
+        MultipartFile upload = new MockMultipartFile("file", "receipt.png", "image/png", noisyPng(2000, 2000));
+
+        // When
+        Optional<MultipartFile> normalized = normalizer.normalize(upload);
+
+        // Then
+        assertThat(normalized).isPresent();
+        assertThat(normalized.get().getSize()).isLessThan(upload.getSize());
+        assertThat(normalized.get().getContentType()).isEqualTo("image/png");
+        assertThat(normalized.get().getOriginalFilename()).isEqualTo("receipt.png");
+        try (InputStream in = normalized.get().getInputStream()) {
+            BufferedImage image = ImageIO.read(in);
+            assertThat(image.getWidth()).isEqualTo(1000);
+            assertThat(image.getHeight()).isEqualTo(1000);
+            assertThat(image.getColorModel().getNumComponents()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void shouldLeaveUploadUntouchedWhenDisabled() throws IOException {
+        // Given
+        ImageNormalizer normalizer = new ImageNormalizer(false, 1_000_000, false);
+        MultipartFile upload = new MockMultipartFile("file", "receipt.png", "image/png", noisyPng(2000, 2000));
+
+        // When / Then
+        assertThat(normalizer.normalize(upload)).isEmpty();
+    }
+
+    @Test
+    void shouldSkipPdfsAndUndecodableImages() {
+        // Given
+        ImageNormalizer normalizer = new ImageNormalizer(true, 1_000_000, false);
+
+        // When / Then
+        assertThat(normalizer.normalize(new MockMultipartFile("file", "receipt.pdf", "application/pdf",
+                "%PDF-1.4".getBytes()))).isEmpty();
+        assertThat(normalizer.normalize(new MockMultipartFile("file", "receipt.jpg", "image/jpeg",
+                "not an image".getBytes()))).isEmpty();
+    }
+
+    @Test
+    void shouldKeepOriginalWhenNormalizingWouldNotShrinkIt() throws IOException {
+        // Given: already small and flat, so a re-encode cannot beat it
+        ImageNormalizer normalizer = new ImageNormalizer(true, 1_000_000, false);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(10, 10, BufferedImage.TYPE_BYTE_GRAY), "png", out);
+        MultipartFile upload = new MockMultipartFile("file", "receipt.png", "image/png", out.toByteArray());
+
+        // When / Then
+        assertThat(normalizer.normalize(upload)).isEmpty();
+    }
+
+    // Random colour noise compresses poorly, like a photo
+    private static byte[] noisyPng(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
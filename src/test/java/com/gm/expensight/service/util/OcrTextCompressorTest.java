@@ -0,0 +1,75 @@
+package com.gm.expensight.service.util;
+
+import com.gm.expensight.domain.model.OcrTextCompression;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OcrTextCompressorTest {
+
+    private static final String RECEIPT_TEXT = """
+            BIG BAZAAR
+            GSTIN: 29ABCDE1234F1Z5
+            Bill No: 4521  Date: 12/03/2025  Time: 07:41 PM
+            Item Description        Qty   Rate    Amount
+            HDMI Cable 2m           1     499.00  499.00
+            AA Batteries 4 pack     2     120.00  240.00
+            Sub Total                             739.00
+            CGST @ 9%                              66.51
+            SGST @ 9%                              66.51
+            Grand Total                  Rs.     872.02
+            Thank you for shopping with us! Please visit again.
+            """;
+
+    @Test
+    void shouldRoundTripWithDictionary() {
+        OcrTextCompressor compressor = new OcrTextCompressor(true);
+
+        OcrTextCompressor.CompressedText compressed = compressor.compress(RECEIPT_TEXT);
+
+        assertThat(compressed.compression()).isEqualTo(OcrTextCompression.DEFLATE_DICTIONARY_V1);
+        assertThat(compressed.content().length).isLessThan(compressed.originalSize());
+        assertThat(compressor.decompress(compressed.compression(), compressed.originalSize(), compressed.content()))
+                .isEqualTo(RECEIPT_TEXT);
+    }
+
+    @Test
+    void shouldCompressSmallerWithDictionaryThanWithout() {
+        OcrTextCompressor.CompressedText plain = new OcrTextCompressor(false).compress(RECEIPT_TEXT);
+        OcrTextCompressor.CompressedText primed = new OcrTextCompressor(true).compress(RECEIPT_TEXT);
+
+        assertThat(plain.compression()).isEqualTo(OcrTextCompression.DEFLATE);
+        assertThat(primed.content().length).isLessThan(plain.content().length);
+    }
+
+    @Test
+    void shouldDecodeRowsWrittenWithEitherSetting() {
+        OcrTextCompressor.CompressedText plain = new OcrTextCompressor(false).compress(RECEIPT_TEXT);
+        OcrTextCompressor reader = new OcrTextCompressor(true);
+
+        assertThat(reader.decompress(plain.compression(), plain.originalSize(), plain.content()))
+                .isEqualTo(RECEIPT_TEXT);
+    }
+
+    @Test
+    void shouldStoreTinyTextUncompressed() {
+        OcrTextCompressor compressor = new OcrTextCompressor(true);
+
+        OcrTextCompressor.CompressedText compressed = compressor.compress("₹");
+
+        assertThat(compressed.compression()).isEqualTo(OcrTextCompression.NONE);
+        assertThat(compressor.decompress(compressed.compression(), compressed.originalSize(), compressed.content()))
+                .isEqualTo("₹");
+    }
+
+    @Test
+    void shouldRejectTruncatedContent() {
+        OcrTextCompressor compressor = new OcrTextCompressor(true);
+        OcrTextCompressor.CompressedText compressed = compressor.compress(RECEIPT_TEXT);
+        byte[] truncated = java.util.Arrays.copyOf(compressed.content(), compressed.content().length / 2);
+
+        assertThatThrownBy(() -> compressor.decompress(compressed.compression(), compressed.originalSize(), truncated))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,79 @@
+package com.gm.expensight.service.util;
+
+import com.gm.expensight.exception.ValidationException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PdfToImageConverterTest {
+
+    private final PdfToImageConverter converter = new PdfToImageConverter();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRenderPagesOneAtATimeFromMappedFile() throws IOException {
+        // Given
+        Path pdf = tempDir.resolve("receipt.pdf");
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage(PDRectangle.A6));
+            document.addPage(new PDPage(PDRectangle.A6));
+            document.save(pdf.toFile());
+        }
+        ByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(pdf, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        // When
+        List<Integer> renderedPages = new ArrayList<>();
+        converter.renderPages(mapped, 72, (pageIndex, image) -> {
+            assertThat(image.getWidth()).isEqualTo((int) PDRectangle.A6.getWidth());
+            renderedPages.add(pageIndex);
+        });
+
+        // Then
+        assertThat(renderedPages).containsExactly(0, 1);
+        assertThat(mapped.position()).isZero();
+    }
+
+    @Test
+    void shouldRenderFirstPageScaledToMaxDimension() throws IOException {
+        // Given
+        Path pdf = tempDir.resolve("receipt.pdf");
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.addPage(new PDPage(PDRectangle.A4));
+            document.save(pdf.toFile());
+        }
+
+        // When
+        BufferedImage image = converter.renderFirstPage(ByteBuffer.wrap(Files.readAllBytes(pdf)), 200);
+
+        // Then
+        assertThat(image.getHeight()).isEqualTo(200);
+        assertThat(image.getWidth()).isLessThan(200);
+    }
+
+    @Test
+    void shouldRejectEmptyBuffer() {
+        assertThatThrownBy(() -> converter.renderPages(ByteBuffer.allocate(0), (pageIndex, image) -> { }))
+                .isInstanceOf(ValidationException.class);
+    }
+}
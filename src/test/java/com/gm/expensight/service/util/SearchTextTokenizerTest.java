@@ -0,0 +1,26 @@
+package com.gm.expensight.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTextTokenizerTest {
+
+    @Test
+    void shouldLowercaseAndSplitOnPunctuation() {
+        assertThat(SearchTextTokenizer.tokenize("HDMI-Cable (2m), AA Batteries x4"))
+                .containsExactly("hdmi", "cable", "2m", "aa", "batteries", "x4");
+    }
+
+    @Test
+    void shouldStripAccentsAndDropStopWordsAndSingleCharacters() {
+        assertThat(SearchTextTokenizer.tokenize("Café de la Crème & the Croissant a"))
+                .containsExactly("cafe", "de", "la", "creme", "croissant");
+    }
+
+    @Test
+    void shouldReturnEmptyListForBlankText() {
+        assertThat(SearchTextTokenizer.tokenize(null)).isEmpty();
+        assertThat(SearchTextTokenizer.tokenize("  -- ")).isEmpty();
+    }
+}
@@ -0,0 +1,82 @@
+package com.gm.expensight.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void shouldRunConcurrentCallsWithSameKeyOnce() throws Exception {
+        // Given
+        int callers = 8;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            // When
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute("hash", () -> {
+                executions.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "receipt-1";
+            })));
+            assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("hash", () -> {
+                    executions.incrementAndGet();
+                    return "receipt-2";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("receipt-1");
+            }
+            assertThat(executions).hasValue(1);
+            assertThat(singleFlight.isInFlight("hash")).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldRunAgainOnceThePreviousCallFinished() {
+        assertThat(singleFlight.execute("hash", () -> "first")).isEqualTo("first");
+        assertThat(singleFlight.execute("hash", () -> "second")).isEqualTo("second");
+    }
+
+    @Test
+    void shouldPropagateFailureAndReleaseKey() {
+        assertThatThrownBy(() -> singleFlight.execute("hash", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+
+        assertThat(singleFlight.isInFlight("hash")).isFalse();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
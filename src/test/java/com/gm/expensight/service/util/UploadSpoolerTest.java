@@ -0,0 +1,92 @@
+package com.gm.expensight.service.util;
+
+import com.gm.expensight.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UploadSpoolerTest {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    @TempDir
+    Path tempDir;
+
+    private UploadSpooler spooler;
+
+    @BeforeEach
+    void setUp() {
+        spooler = new UploadSpooler(tempDir, 1024);
+    }
+
+    @Test
+    void shouldSpoolHashAndSniffInOnePass() throws IOException {
+        // Given
+        byte[] content = png(100);
+
+        // When
+        try (SpooledUpload upload = spooler.spool(new ByteArrayInputStream(content), "receipt.bin")) {
+
+            // Then
+            assertThat(upload.getContentType()).isEqualTo("image/png");
+            assertThat(upload.getOriginalFilename()).isEqualTo("receipt.bin");
+            assertThat(upload.getSize()).isEqualTo(content.length);
+            assertThat(upload.getContentHash()).isEqualTo(ContentHash.sha256(new ByteArrayInputStream(content)));
+            assertThat(upload.getBytes()).isEqualTo(content);
+        }
+        assertThat(spooledFiles()).isZero();
+    }
+
+    @Test
+    void shouldMoveOnTransfer() throws IOException {
+        // Given
+        Path target = tempDir.resolve("stored.png");
+
+        // When
+        try (SpooledUpload upload = spooler.spool(new ByteArrayInputStream(png(10)), "receipt.png")) {
+            upload.transferTo(target.toFile());
+        }
+
+        // Then
+        assertThat(target).exists();
+        assertThat(spooledFiles()).isZero();
+    }
+
+    @Test
+    void shouldRejectOversizedUploadAndRemoveTempFile() throws IOException {
+        assertThatThrownBy(() -> spooler.spool(new ByteArrayInputStream(png(2048)), "big.png"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("maximum allowed size");
+        assertThat(spooledFiles()).isZero();
+    }
+
+    @Test
+    void shouldRejectUnsupportedContentRegardlessOfName() throws IOException {
+        assertThatThrownBy(() -> spooler.spool(new ByteArrayInputStream("<html></html>".getBytes()), "receipt.pdf"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("not a JPEG, PNG or PDF");
+        assertThatThrownBy(() -> spooler.spool(new ByteArrayInputStream(new byte[0]), "empty.pdf"))
+                .isInstanceOf(ValidationException.class);
+        assertThat(spooledFiles()).isZero();
+    }
+
+    private long spooledFiles() throws IOException {
+        try (var files = Files.list(tempDir.resolve("tmp"))) {
+            return files.count();
+        }
+    }
+
+    private static byte[] png(int length) {
+        byte[] content = new byte[length];
+        System.arraycopy(PNG_HEADER, 0, content, 0, Math.min(length, PNG_HEADER.length));
+        return content;
+    }
+}
@@ -3,8 +3,16 @@ package com.gm.expensight.web;
 import com.gm.expensight.domain.model.FileMetadata;
 import com.gm.expensight.domain.model.ProcessingStatus;
 import com.gm.expensight.domain.model.Receipt;
+import com.gm.expensight.service.BulkUploadService;
+import com.gm.expensight.service.ReceiptChangeFeedService;
+import com.gm.expensight.service.ReceiptExportService;
 import com.gm.expensight.service.ReceiptMapper;
+import com.gm.expensight.service.ReceiptOcrTextService;
 import com.gm.expensight.service.ReceiptService;
+import com.gm.expensight.service.ReceiptTextSearchService;
+import com.gm.expensight.service.SpendingInsightsService;
+import com.gm.expensight.service.ThumbnailService;
+import com.gm.expensight.service.util.UploadSpooler;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -46,6 +54,33 @@ class ReceiptControllerTest {
     @MockBean
     private ReceiptMapper receiptMapper;
 
+    @MockBean
+    private ReceiptOcrTextService receiptOcrTextService;
+
+    @MockBean
+    private ReceiptTextSearchService receiptTextSearchService;
+
+    @MockBean
+    private SpendingInsightsService spendingInsightsService;
+
+    @MockBean
+    private ReceiptExportService receiptExportService;
+
+    @MockBean
+    private ReceiptChangeFeedService receiptChangeFeedService;
+
+    @MockBean
+    private StoredFileWriter storedFileWriter;
+
+    @MockBean
+    private ThumbnailService thumbnailService;
+
+    @MockBean
+    private UploadSpooler uploadSpooler;
+
+    @MockBean
+    private BulkUploadService bulkUploadService;
+
     @Test
     void shouldUploadReceiptSuccessfully() throws Exception {
         // Given
@@ -74,7 +109,7 @@ class ReceiptControllerTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        when(receiptService.uploadReceipt(any(), anyString())).thenReturn(savedReceipt);
+        when(receiptService.uploadReceipt(any(), anyString(), any())).thenReturn(savedReceipt);
 
         // When & Then
         mockMvc.perform(multipart("/receipts/upload")
@@ -98,7 +133,7 @@ class ReceiptControllerTest {
                 "text content".getBytes()
         );
 
-        when(receiptService.uploadReceipt(any(), anyString()))
+        when(receiptService.uploadReceipt(any(), anyString(), any()))
                 .thenThrow(new IllegalArgumentException("Invalid file type"));
 
         // When & Then
@@ -120,7 +155,7 @@ class ReceiptControllerTest {
                 new byte[0]
         );
 
-        when(receiptService.uploadReceipt(any(), anyString()))
+        when(receiptService.uploadReceipt(any(), anyString(), any()))
                 .thenThrow(new IllegalArgumentException("File cannot be null or empty"));
 
         // When & Then
@@ -0,0 +1,251 @@
+package com.gm.expensight.web;
+
+import com.gm.expensight.domain.model.FileMetadata;
+import com.gm.expensight.exception.ResourceNotFoundException;
+import com.gm.expensight.service.FileStorageService;
+import com.gm.expensight.service.impl.LocalFileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StoredFileWriterTest {
+
+    private static final String CONTENT = "0123456789";
+    private static final String HASH = "a".repeat(64);
+
+    @TempDir
+    Path tempDir;
+
+    private StoredFileWriter storedFileWriter;
+    private FileMetadata file;
+
+    @BeforeEach
+    void setUp() {
+        LocalFileStorageService fileStorageService = new LocalFileStorageService(tempDir);
+        storedFileWriter = new StoredFileWriter(fileStorageService);
+        String storagePath = fileStorageService.storeFile(
+                new MockMultipartFile("file", "receipt.pdf", "application/pdf", CONTENT.getBytes()), "test@example.com");
+        file = FileMetadata.builder()
+                .id(UUID.randomUUID())
+                .fileName("receipt.pdf")
+                .contentType("application/pdf")
+                .storagePath(storagePath)
+                .uploadedAt(LocalDateTime.now())
+                .contentHash(HASH)
+                .build();
+    }
+
+    @Test
+    void shouldServeWholeFileWithCachingHeaders() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/receipts/1/file");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        storedFileWriter.write(file, request, response);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length());
+        assertThat(response.getContentType()).isEqualTo("application/pdf");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + HASH + "\"");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("private", "immutable", "max-age=31536000");
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).startsWith("inline").contains("receipt.pdf");
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForMatchingEtag() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/receipts/1/file");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        storedFileWriter.write(file, request, response);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void shouldAnswerNotModifiedBeforeAskingForALocalFile() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/receipts/1/thumbnail");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"thumb\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        storedFileWriter.write(() -> {
+            throw new AssertionError("thumbnail generated for a revalidation");
+        }, "image/jpeg", "thumbnail.jpg", "\"thumb\"", request, response);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void shouldServeRequestedRanges() throws Exception {
+        assertRange("bytes=2-5", 206, "2345", "bytes 2-5/10");
+        assertRange("bytes=7-", 206, "789", "bytes 7-9/10");
+        assertRange("bytes=-3", 206, "789", "bytes 7-9/10");
+        assertRange("bytes=8-100", 206, "89", "bytes 8-9/10");
+        assertRange("bytes=10-12", 416, "", "bytes */10");
+        assertRange("bytes=0-1,4-5", 200, CONTENT, null);
+        assertRange("pages=1", 200, CONTENT, null);
+    }
+
+    @Test
+    void shouldIgnoreRangeWhenIfRangeIsStale() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/receipts/1/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"outdated\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        storedFileWriter.write(file, request, response);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void shouldHandRangeToTomcatSendfileWhenSupported() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/receipts/1/file");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        storedFileWriter.write(file, request, response);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename"))
+                .isEqualTo(tempDir.resolve(file.getStoragePath()).toRealPath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(2L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(6L);
+    }
+
+    @Test
+    void shouldReportMissingFileAsNotFound() {
+        // Given
+        file.setStoragePath("missing/receipt.pdf");
+
+        // When & Then
+        assertThatThrownBy(() -> storedFileWriter.write(
+                file, new MockHttpServletRequest("GET", "/receipts/1/file"), new MockHttpServletResponse()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void shouldServeRangesFromRemoteSeekableChannel() throws Exception {
+        // Given: a backend whose channel is seekable but not a local file
+        FileStorageService remoteStorage = mock(FileStorageService.class);
+        when(remoteStorage.openChannel(file.getStoragePath()))
+                .thenReturn(new InMemoryChannel(CONTENT.getBytes()));
+        when(remoteStorage.localFile(file.getStoragePath())).thenReturn(Optional.empty());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/receipts/1/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=3-6");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        new StoredFileWriter(remoteStorage).write(file, request, response);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("3456");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 3-6/10");
+    }
+
+    private void assertRange(String range, int status, String body, String contentRange) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/receipts/1/file");
+        request.addHeader(HttpHeaders.RANGE, range);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        storedFileWriter.write(file, request, response);
+
+        assertThat(response.getStatus()).as(range).isEqualTo(status);
+        assertThat(response.getContentAsString()).as(range).isEqualTo(body);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).as(range).isEqualTo(contentRange);
+    }
+
+    private static final class InMemoryChannel implements SeekableByteChannel {
+
+        private final byte[] content;
+        private int position;
+
+        private InMemoryChannel(byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            if (position >= content.length) {
+                return -1;
+            }
+            int count = Math.min(dst.remaining(), content.length - position);
+            dst.put(content, position, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) {
+            position = (int) newPosition;
+            return this;
+        }
+
+        @Override
+        public long size() {
+            return content.length;
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new NonWritableChannelException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}